@@ -14,8 +14,10 @@ import com.deliverycore.reward.RewardServiceImpl;
 import com.deliverycore.service.CategoryService;
 import com.deliverycore.service.CategoryServiceImpl;
 import com.deliverycore.service.DataManager;
+import com.deliverycore.service.DeliveryPipeline;
 import com.deliverycore.service.DeliveryService;
 import com.deliverycore.service.DeliveryServiceImpl;
+import com.deliverycore.service.LeaderboardPublisher;
 import com.deliverycore.service.MessageService;
 import com.deliverycore.service.MessageServiceImpl;
 import com.deliverycore.service.SchedulerService;
@@ -28,6 +30,7 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -65,6 +68,14 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
     private ScheduledExecutorService executorService;
     private LoggingService loggingService;
     private DataManager dataManager;
+    private DeliveryPipeline deliveryPipeline;
+    private volatile LeaderboardPublisher leaderboardPublisher;
+    private final java.time.Clock clock = java.time.Clock.systemUTC();
+    private com.deliverycore.util.TickWorkQueue workQueue;
+    private com.deliverycore.util.MainThreadBridge mainThread;
+    private com.deliverycore.util.ChestAccessCache chestAccessCache;
+    private com.deliverycore.service.EventArchive eventArchive;
+    private final com.deliverycore.service.ItemCatalog itemCatalog = new com.deliverycore.service.ItemCatalog();
 
     private String currentLanguage = "tr";
 
@@ -85,15 +96,24 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
             saveDefaultConfigs();
             executorService = Executors.newScheduledThreadPool(2);
 
-            dataManager = new DataManager(this);
+            // Açılış ayarları için config.yml bir kez okunur
+            FileConfiguration settings = readPluginConfig();
+            dataManager = new DataManager(this, clock, readStorageType(settings));
+            dataManager.attachSeasonCounters(createSeasonCounters(settings));
+            eventArchive = createEventArchive(settings);
+            startDeliveryPipeline(settings);
+            startWorkQueue(settings);
+            chestAccessCache = createChestAccessCache(settings);
 
             initializeServices();
-            loadConfigurations();
+            loadConfigurations(settings);
             registerListeners();
-            resumeActiveEvents();
+            startLeaderboardPublisher();
+            // Kayıtlı etkinlikler zamanlamadan önce yüklenir; açık pencere onları sıfırlamaz
             loadSavedEvents();
+            resumeActiveEvents();
 
-            deliveryGUI.loadItemsConfig(getDataFolder());
+            reloadItemCatalog();
 
             long loadTime = System.currentTimeMillis() - startTime;
             getLogger().info("Basariyla yuklendi! (" + loadTime + "ms)");
@@ -108,13 +128,35 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
     public void onDisable() {
         getLogger().info("DeliveryCore kapatiliyor...");
 
+        // Kuyrukta kalan duyuru/title işleri kapanmadan bitirilir
+        if (mainThread != null) {
+            mainThread.drain();
+        }
+        if (workQueue != null) {
+            workQueue.drain();
+        }
+
+        if (deliveryPipeline != null) {
+            deliveryPipeline.flush();
+        }
+
         if (deliveryService != null && dataManager != null) {
-            var activeEvents = deliveryService.getAllActiveEvents();
-            if (!activeEvents.isEmpty()) {
-                dataManager.saveAllActiveEvents(activeEvents);
+            // Sadece son kayıttan beri değişen katılımcılar yazılır
+            for (var event : deliveryService.getAllActiveEvents()) {
+                dataManager.persistDirty(event);
             }
             dataManager.saveDataSync();
         }
+        if (dataManager != null) {
+            dataManager.close();
+        }
+        if (pendingRewardStore instanceof java.io.Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (java.io.IOException e) {
+                getLogger().warning("[Rewards] Bekleyen ödül dosyası kapatılamadı: " + e.getMessage());
+            }
+        }
 
         if (executorService != null && !executorService.isShutdown()) {
             executorService.shutdown();
@@ -154,11 +196,12 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         configManager = new ConfigManagerImpl(getDataFolder().getAbsolutePath());
         placeholderEngine = new PlaceholderEngineImpl();
         loggingService = new LoggingService(getLogger(), placeholderEngine);
-        pendingRewardStore = new PendingRewardStoreImpl();
+        pendingRewardStore = createPendingRewardStore();
 
-        SchedulerServiceImpl schedulerImpl = new SchedulerServiceImpl(executorService);
+        SchedulerServiceImpl schedulerImpl = new SchedulerServiceImpl(executorService, clock);
         schedulerImpl.setEventStartCallback(this::handleEventStart);
         schedulerImpl.setEventEndCallback(this::handleEventEnd);
+        schedulerImpl.setRunningCheck(name -> deliveryService != null && deliveryService.getActiveEvent(name).isPresent());
         schedulerService = schedulerImpl;
 
         webhookService = new WebhookServiceImpl(placeholderEngine);
@@ -167,69 +210,96 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         getLogger().info("Servisler hazir.");
     }
 
+    /**
+     * Zamanlayıcı thread'inde çalışır: eşya seçimi ve kayıt burada yapılır,
+     * duyurular ana thread'e devredilir.
+     */
     private void handleEventStart(String deliveryName) {
         if (deliveryService != null) {
             deliveryService.startEvent(deliveryName).ifPresent(event -> {
-                String itemTR = deliveryGUI.getItemDisplayName(event.getResolvedItem());
+                String itemTR = event.getItemDisplayName();
                 String catTR = deliveryGUI.getCategoryDisplayName(event.getResolvedCategory());
                 String delTR = deliveryGUI.getDeliveryDisplayName(deliveryName);
 
-                // Console log
-                getLogger().info("[ETKINLIK BASLADI] " + delTR + " | Kategori: " + catTR + " | Esya: " + itemTR);
+                mainThread.post("baslangic:" + deliveryName, () -> announceEventStart(deliveryName, delTR, itemTR, catTR));
+            });
+        }
+    }
 
-                // Broadcast
-                String msg = "§e§lD§6elivery§e§lC§6ore §8» §a" + delTR + " §7basladi! §eIstenen: §f" + itemTR;
-                Bukkit.broadcastMessage(msg);
+    private void announceEventStart(String deliveryName, String delTR, String itemTR, String catTR) {
+        mainThread.requireMainThread("baslangic duyurusu");
 
-                // Title
-                for (Player p : Bukkit.getOnlinePlayers()) {
-                    p.sendTitle("§a§l" + delTR.toUpperCase(), "§7Istenen: §e" + itemTR, 10, 70, 20);
-                    try { p.playSound(p.getLocation(), org.bukkit.Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f); } catch (Exception ignored) {}
-                }
+        // Console log
+        getLogger().info("[ETKINLIK BASLADI] " + delTR + " | Kategori: " + catTR + " | Esya: " + itemTR);
+
+        // Broadcast
+        String msg = "§e§lD§6elivery§e§lC§6ore §8» §a" + delTR + " §7basladi! §eIstenen: §f" + itemTR;
+        Bukkit.broadcastMessage(msg);
 
-                // Webhook
-                sendWebhook(deliveryName, "start", itemTR, catTR);
+        // Title - oyunculara tick bütçesiyle yayılır
+        String title = "§a§l" + delTR.toUpperCase();
+        workQueue.submitEach("baslangic:" + deliveryName, com.deliverycore.util.TickWorkQueue.Priority.NORMAL,
+            List.copyOf(Bukkit.getOnlinePlayers()), p -> {
+                if (!p.isOnline()) return;
+                p.sendTitle(title, "§7Istenen: §e" + itemTR, 10, 70, 20);
+                try { p.playSound(p.getLocation(), org.bukkit.Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f); } catch (Exception ignored) {}
             });
-        }
+
+        // Webhook
+        sendWebhook(deliveryName, "start", itemTR, catTR);
     }
 
+    /**
+     * Zamanlayıcı thread'inde çalışır: kazanan hesabı ve kayıt burada yapılır,
+     * duyurular ana thread'e devredilir.
+     */
     private void handleEventEnd(String deliveryName) {
         if (deliveryService != null) {
             var activeEvent = deliveryService.getActiveEvent(deliveryName);
-            String item = activeEvent.map(e -> e.getResolvedItem()).orElse("unknown");
+            // Elle durdurulmuş etkinliğin planlı bitişi tekrar duyurulmaz
+            if (activeEvent.isEmpty()) return;
             String category = activeEvent.map(e -> e.getResolvedCategory()).orElse("unknown");
-            String itemTR = deliveryGUI.getItemDisplayName(item);
+            String itemTR = activeEvent.map(e -> e.getItemDisplayName()).orElse("unknown");
             String catTR = deliveryGUI.getCategoryDisplayName(category);
             String delTR = deliveryGUI.getDeliveryDisplayName(deliveryName);
 
             var winners = deliveryService.endEvent(deliveryName);
 
-            // Console log
-            getLogger().info("[ETKINLIK BITTI] " + delTR + " | Kazananlar: " + winners.size());
-
-            // Broadcast
-            String msg = "§e§lD§6elivery§e§lC§6ore §8» §c" + delTR + " §7sona erdi!";
-            Bukkit.broadcastMessage(msg);
+            mainThread.post("bitis:" + deliveryName,
+                () -> announceEventEnd(deliveryName, delTR, itemTR, catTR, winners));
+        }
+    }
 
-            if (!winners.isEmpty()) {
-                Bukkit.broadcastMessage("§e§lD§6elivery§e§lC§6ore §8» §6Kazananlar:");
-                int rank = 1;
-                for (var winner : winners) {
-                    String color = rank == 1 ? "§6" : rank == 2 ? "§f" : rank == 3 ? "§c" : "§7";
-                    Bukkit.broadcastMessage("  " + color + rank + ". §f" + winner.playerName() + " §8- §e" + winner.deliveryCount() + " §7teslimat");
-                    rank++;
-                    if (rank > 3) break;
-                }
+    private void announceEventEnd(String deliveryName, String delTR, String itemTR, String catTR,
+                                  java.util.List<com.deliverycore.model.Winner> winners) {
+        mainThread.requireMainThread("bitis duyurusu");
+
+        // Console log
+        getLogger().info("[ETKINLIK BITTI] " + delTR + " | Kazananlar: " + winners.size());
+
+        // Broadcast
+        String msg = "§e§lD§6elivery§e§lC§6ore §8» §c" + delTR + " §7sona erdi!";
+        Bukkit.broadcastMessage(msg);
+
+        if (!winners.isEmpty()) {
+            Bukkit.broadcastMessage("§e§lD§6elivery§e§lC§6ore §8» §6Kazananlar:");
+            int rank = 1;
+            for (var winner : winners) {
+                String color = rank == 1 ? "§6" : rank == 2 ? "§f" : rank == 3 ? "§c" : "§7";
+                Bukkit.broadcastMessage("  " + color + rank + ". §f" + winner.playerName() + " §8- §e" + winner.deliveryCount() + " §7teslimat");
+                rank++;
+                if (rank > 3) break;
             }
+        }
 
-            // Title
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                p.sendTitle("§c§lETKINLIK BITTI!", "§7" + delTR, 10, 70, 20);
-            }
+        // Title - oyunculara tick bütçesiyle yayılır
+        workQueue.submitEach("bitis:" + deliveryName, com.deliverycore.util.TickWorkQueue.Priority.NORMAL,
+            List.copyOf(Bukkit.getOnlinePlayers()), p -> {
+                if (p.isOnline()) p.sendTitle("§c§lETKINLIK BITTI!", "§7" + delTR, 10, 70, 20);
+            });
 
-            // Webhook - kazananlarla birlikte
-            sendWebhookWithWinners(deliveryName, itemTR, catTR, winners);
-        }
+        // Webhook - kazananlarla birlikte
+        sendWebhookWithWinners(deliveryName, itemTR, catTR, winners);
     }
 
     private void sendWebhookWithWinners(String deliveryName, String itemTR, String categoryTR,
@@ -370,7 +440,7 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         }
     }
 
-    private void loadConfigurations() {
+    private void loadConfigurations(FileConfiguration settings) {
         configManager.loadAll();
 
         configManager.validate().forEach(error ->
@@ -380,10 +450,15 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
                 error.field() != null ? error.field() : "genel",
                 error.message())));
 
+        // Zamanlama ifadeleri bir kez derlenir
+        if (schedulerService != null && configManager.getDeliveryConfig() != null) {
+            schedulerService.compileSchedules(configManager.getDeliveryConfig().getEnabledDeliveries());
+        }
+
         // Dil ayarını yükle
         loadLanguageSetting();
 
-        initializeConfigDependentServices();
+        initializeConfigDependentServices(settings);
     }
 
     /**
@@ -414,14 +489,35 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         return currentLanguage;
     }
 
-    private void initializeConfigDependentServices() {
+    private void initializeConfigDependentServices(FileConfiguration settings) {
         categoryService = new CategoryServiceImpl(configManager.getCategoryConfig());
 
-        deliveryService = new DeliveryServiceImpl(
+        DeliveryServiceImpl deliveryServiceImpl = new DeliveryServiceImpl(
             configManager.getDeliveryConfig(),
             categoryService,
-            schedulerService
+            schedulerService,
+            clock
         );
+        deliveryServiceImpl.setDeliveryPipeline(deliveryPipeline);
+        deliveryServiceImpl.setItemCatalog(itemCatalog);
+        deliveryServiceImpl.setLifecycleListener(new com.deliverycore.service.DeliveryService.EventLifecycleListener() {
+            @Override
+            public void onEventStarted(com.deliverycore.service.ActiveEvent event) {
+                dataManager.recordEventStart(event);
+            }
+
+            @Override
+            public void onEventEnded(com.deliverycore.service.ActiveEvent event) {
+                dataManager.removeActiveEvent(event.getDeliveryName());
+                archiveEvent(event);
+            }
+        });
+        // Kazanan isimleri teslimat hattının istatistiklere yazdığı son isimlerden okunur
+        deliveryServiceImpl.setNameResolver(dataManager.getStatsStore()::getName);
+        var seasonCounters = dataManager.getSeasonCounters();
+        deliveryServiceImpl.setDeliveryListener((event, playerUuid, amount) -> seasonCounters.record(playerUuid, amount));
+        deliveryService = deliveryServiceImpl;
+        leaderboardPublisher = createLeaderboardPublisher(deliveryServiceImpl, settings);
 
         messageService = new MessageServiceImpl(
             configManager.getLanguageConfig(),
@@ -437,9 +533,10 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
             getLogger()
         );
 
-        deliveryGUI = new DeliveryGUI(configManager, deliveryService);
+        deliveryGUI = new DeliveryGUI(configManager, deliveryService, itemCatalog);
         deliveryGUI.setLanguageSupplier(this::getCurrentLanguage);
         deliveryGUI.setDataFolder(getDataFolder());
+        deliveryGUI.setStatsStore(dataManager.getStatsStore());
         loadGUISettings();
 
         deliverCommand = new DeliverCommand(
@@ -452,23 +549,30 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
 
         commandHandler.setDeliveryService(deliveryService);
         commandHandler.setReloadCallback(this::reloadAllSettings);
+        commandHandler.setWorkQueue(workQueue);
+        commandHandler.setSaveStats(dataManager::getSaveStats);
+        commandHandler.setStatsStore(dataManager.getStatsStore());
+        commandHandler.setSeasonCounters(dataManager.getSeasonCounters());
+        commandHandler.setEventArchive(eventArchive);
+        commandHandler.setSchedulerService(schedulerService);
+        commandHandler.setAsyncExecutor(task -> Bukkit.getScheduler().runTaskAsynchronously(this, task));
         commandHandler.setManualEndScheduler(this::scheduleManualEnd);
         commandHandler.setWebhookTester(this::testWebhook);
         deliverCommand.setDeliveryService(deliveryService);
     }
 
     /**
-     * Manuel başlatılan etkinlik için otomatik bitiş zamanlayıcısı
+     * Manuel başlatılan etkinlik için otomatik bitiş zamanlayıcısı.
+     * Bitiş, planlı bitişlerle aynı duvar saati zamanlayıcısına kurulur;
+     * sunucu gecikse de süre tick sayısına göre uzamaz. Bitiş zamanı
+     * komutta etkinliğe yazılır; burada yalnızca o zaman kurulur.
      */
-    private void scheduleManualEnd(String deliveryName, Long durationMinutes) {
-        long ticks = durationMinutes * 60 * 20; // dakika -> tick (20 tick = 1 saniye)
-
-        Bukkit.getScheduler().runTaskLater(this, () -> {
-            if (deliveryService.getActiveEvent(deliveryName).isPresent()) {
-                handleEventEnd(deliveryName);
-                getLogger().info("[DeliveryCore] Manuel etkinlik süresi doldu: " + deliveryName);
-            }
-        }, ticks);
+    private void scheduleManualEnd(String deliveryName) {
+        deliveryService.getActiveEvent(deliveryName).ifPresent(event -> {
+            // Değişen bitiş zamanı günlüğe yazılır, yeniden başlatmada korunur
+            dataManager.recordEventWindow(event);
+            schedulerService.scheduleEndAt(deliveryName, event.getEndTime());
+        });
     }
 
     /**
@@ -507,6 +611,18 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         }
     }
 
+    /**
+     * items.yml'yi yükler ve aktif etkinliklerin önbellekteki eşya bilgilerini yeniler
+     */
+    private void reloadItemCatalog() {
+        deliveryGUI.loadItemsConfig(getDataFolder());
+        if (deliveryService != null) {
+            for (var event : deliveryService.getAllActiveEvents()) {
+                event.bindItemMetadata(itemCatalog);
+            }
+        }
+    }
+
     /**
      * Tüm ayarları yeniden yükler (reload komutu için)
      */
@@ -515,7 +631,7 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         loadLanguageSetting();
 
         // items.yml'yi yeniden yükle
-        deliveryGUI.loadItemsConfig(getDataFolder());
+        reloadItemCatalog();
 
         // GUI dil dosyasını yeniden yükle
         deliveryGUI.reloadLanguage();
@@ -560,6 +676,73 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         }
     }
 
+    // ═══════════════════════════════════════════════════════════════════════════
+    // TESLİMAT HATTI
+    // ═══════════════════════════════════════════════════════════════════════════
+
+    /**
+     * Teslimat hattını kurar. Kayıt ve istatistikler her teslimatta değil,
+     * flush-interval-ticks aralığında toplu olarak yazılır.
+     */
+    private void startDeliveryPipeline(FileConfiguration config) {
+        long intervalTicks = Math.max(1L, config.getLong("data.flush-interval-ticks", 20L));
+        int maxPending = config.getInt("data.max-pending-deliveries", 256);
+
+        deliveryPipeline = new DeliveryPipeline(this::applyDeliveryBatch, maxPending, executorService);
+        Bukkit.getScheduler().runTaskTimerAsynchronously(this, deliveryPipeline::flush, intervalTicks, intervalTicks);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // İŞ KUYRUĞU
+    // ═══════════════════════════════════════════════════════════════════════════
+
+    /**
+     * Büyük ana thread işlerini (title yayını) her tick'e
+     * work-queue.tick-budget-ms kadar süre ayırarak çalıştırır. Zamanlayıcı
+     * olaylarını ana thread'e taşıyan köprü de burada her tick boşaltılır.
+     */
+    private void startWorkQueue(FileConfiguration config) {
+        double budgetMs = config.getDouble("work-queue.tick-budget-ms", 2.0);
+
+        workQueue = new com.deliverycore.util.TickWorkQueue(budgetMs);
+        Bukkit.getScheduler().runTaskTimer(this, workQueue::tick, 1L, 1L);
+
+        // Zamanlayıcı olaylarının ana thread kısmı her tick toplu çalışır
+        mainThread = new com.deliverycore.util.MainThreadBridge(Thread.currentThread());
+        Bukkit.getScheduler().runTaskTimer(this, mainThread::drain, 1L, 1L);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // SIRALAMA YAYINI
+    // ═══════════════════════════════════════════════════════════════════════════
+
+    private LeaderboardPublisher createLeaderboardPublisher(DeliveryService service, FileConfiguration config) {
+        long intervalMs = config.getLong("leaderboard.snapshot-interval-ms", 250L);
+        long everyDeliveries = config.getLong("leaderboard.snapshot-every-deliveries", 100L);
+        return new LeaderboardPublisher(service, intervalMs, everyDeliveries);
+    }
+
+    /**
+     * GUI, /dc top ve placeholder'ların okuduğu sıralama görüntülerini
+     * her tick kontrol eder; zamanı gelenleri ana thread dışında yeniler.
+     */
+    private void startLeaderboardPublisher() {
+        Bukkit.getScheduler().runTaskTimerAsynchronously(this, () -> {
+            LeaderboardPublisher publisher = leaderboardPublisher;
+            if (publisher != null) {
+                publisher.tick();
+            }
+        }, 1L, 1L);
+    }
+
+    private void applyDeliveryBatch(com.deliverycore.service.ActiveEvent event, List<DeliveryPipeline.PlayerBatch> players) {
+        if (dataManager == null) return;
+        // Bitmiş etkinlik tekrar data.yml'ye yazılmamalı
+        boolean stillActive = deliveryService != null
+            && deliveryService.getActiveEvent(event.getDeliveryName()).orElse(null) == event;
+        dataManager.applyDeliveryBatch(event, players, stillActive);
+    }
+
     private void registerListeners() {
         getServer().getPluginManager().registerEvents(this, this);
     }
@@ -599,16 +782,21 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         for (var savedData : savedEvents) {
             try {
                 // Etkinlik hala geçerli mi kontrol et (bitiş zamanı geçmemiş mi)
-                if (savedData.endTime() != null && savedData.endTime().isBefore(java.time.ZonedDateTime.now())) {
+                if (savedData.endTime() != null && savedData.endTime().toInstant().toEpochMilli() < clock.millis()) {
                     getLogger().info("  - " + savedData.deliveryName() + " (suresi dolmus, atlanıyor)");
                     dataManager.removeActiveEvent(savedData.deliveryName());
                     continue;
                 }
 
                 // ActiveEvent oluştur ve servise ekle
-                var activeEvent = savedData.toActiveEvent();
+                var activeEvent = savedData.toActiveEvent(clock);
                 ((DeliveryServiceImpl) deliveryService).restoreEvent(activeEvent);
 
+                // Kayıtlı bitiş zamanı yeniden kurulur (planlı bitişle aynıysa zamanlama iptal eder)
+                if (activeEvent.getEndTime() != null) {
+                    schedulerService.scheduleEndAt(savedData.deliveryName(), activeEvent.getEndTime());
+                }
+
                 getLogger().info("  + " + savedData.deliveryName() + " (yuklendi, " +
                     savedData.playerDeliveries().size() + " oyuncu verisi)");
 
@@ -647,7 +835,7 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         } else if (DeliveryGUI.isDeliveryMenu(title)) {
             handleDeliveryMenuClick(player, slot, title);
         } else if (DeliveryGUI.isLeaderboardMenu(title)) {
-            handleLeaderboardClick(player, slot);
+            handleLeaderboardClick(player, slot, title);
         }
     }
 
@@ -714,6 +902,12 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
             return true;
         }
 
+        // Aynı depodan art arda teslimatlarda koruma pluginleri tekrar sorgulanmaz
+        return chestAccessCache.canAccess(player.getUniqueId(), block.getWorld().getUID(),
+            block.getX(), block.getY(), block.getZ(), () -> checkChestAccess(player, block));
+    }
+
+    private boolean checkChestAccess(Player player, org.bukkit.block.Block block) {
         // Tabela kilidi kontrolü - sandığın yanındaki tabelaları kontrol et
         if (hasSignLock(block, player)) {
             return false;
@@ -763,7 +957,8 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         for (org.bukkit.block.BlockFace face : faces) {
             org.bukkit.block.Block adjacent = block.getRelative(face);
 
-            // Tabela mı kontrol et
+            // Tabela mı kontrol et - tip kontrolü ucuz, getState tile entity kopyalar
+            if (!org.bukkit.Tag.SIGNS.isTagged(adjacent.getType())) continue;
             if (adjacent.getState() instanceof org.bukkit.block.Sign sign) {
                 String[] lines = sign.getLines();
 
@@ -789,6 +984,108 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         return false; // Kilit yok
     }
 
+    /**
+     * config.yml'yi okur; dosya yoksa boş ayar döner ve her anahtar varsayılanını kullanır.
+     */
+    private FileConfiguration readPluginConfig() {
+        File configFile = new File(getDataFolder(), "config.yml");
+        return configFile.exists() ? YamlConfiguration.loadConfiguration(configFile) : new YamlConfiguration();
+    }
+
+    private String readStorageType(FileConfiguration config) {
+        // Anahtarı olmayan eski config'ler YAML'da kalır; SQLite'a geçiş isteğe bağlı
+        return config.getString("data.storage", DataManager.STORAGE_YAML);
+    }
+
+    /**
+     * Çevrimdışı oyuncuların ödülleri yeniden başlatmada kaybolmasın diye dosyaya yazılır.
+     */
+    private PendingRewardStore createPendingRewardStore() {
+        try {
+            return new com.deliverycore.reward.PersistentPendingRewardStore(
+                new File(getDataFolder(), "pending-rewards.log"),
+                com.deliverycore.reward.PersistentPendingRewardStore.DEFAULT_COMPACT_BYTES, executorService);
+        } catch (java.io.IOException e) {
+            getLogger().warning("[Rewards] Bekleyen ödül dosyası açılamadı, ödüller bellekte tutulacak: " + e.getMessage());
+            return new PendingRewardStoreImpl();
+        }
+    }
+
+    private com.deliverycore.service.EventArchive createEventArchive(FileConfiguration config) {
+        if (!config.getBoolean("history.enabled", true)) return null;
+        long segmentKb = config.getLong("history.segment-size-kb", 1024L);
+        try {
+            return new com.deliverycore.service.EventArchive(new File(getDataFolder(), "history"), clock,
+                Math.max(1L, segmentKb) * 1024L);
+        } catch (java.io.IOException e) {
+            getLogger().warning("[History] Arşiv açılamadı, geçmiş kaydedilmeyecek: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Biten etkinliği ana thread dışında arşive yazar.
+     */
+    private void archiveEvent(com.deliverycore.service.ActiveEvent event) {
+        var archive = eventArchive;
+        if (archive == null || !isEnabled()) return;
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            try {
+                archive.append(event);
+            } catch (java.io.IOException e) {
+                getLogger().warning("[History] Etkinlik arşivlenemedi: " + event.getDeliveryName() + " - " + e.getMessage());
+            }
+        });
+    }
+
+    private com.deliverycore.service.SeasonCounters createSeasonCounters(FileConfiguration config) {
+        String zone = config.getString("leaderboard.season-timezone", "Europe/Istanbul");
+        int retentionDays = Math.max(1, config.getInt("leaderboard.season-retention-days", 62));
+        int retentionHours = Math.max(1, config.getInt("leaderboard.season-retention-hours", 48));
+        java.time.ZoneId zoneId;
+        try {
+            zoneId = java.time.ZoneId.of(zone);
+        } catch (java.time.DateTimeException e) {
+            getLogger().warning("Geçersiz sezon saat dilimi: " + zone + ", Europe/Istanbul kullanılacak.");
+            zoneId = java.time.ZoneId.of("Europe/Istanbul");
+        }
+        return new com.deliverycore.service.SeasonCounters(clock, zoneId, retentionDays, retentionHours);
+    }
+
+    private com.deliverycore.util.ChestAccessCache createChestAccessCache(FileConfiguration config) {
+        long ttlMs = config.getLong("chest-access.cache-ttl-ms", 5000L);
+        int maxBlocks = config.getInt("chest-access.max-cached-blocks", 4096);
+        return new com.deliverycore.util.ChestAccessCache(clock, ttlMs, maxBlocks);
+    }
+
+    // Sandık/tabela değişince erişim kararları geçersiz olur
+    @EventHandler(priority = org.bukkit.event.EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(org.bukkit.event.block.BlockBreakEvent event) {
+        invalidateChestAccess(event.getBlock());
+    }
+
+    @EventHandler(priority = org.bukkit.event.EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(org.bukkit.event.block.BlockPlaceEvent event) {
+        invalidateChestAccess(event.getBlock());
+    }
+
+    @EventHandler(priority = org.bukkit.event.EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSignChange(org.bukkit.event.block.SignChangeEvent event) {
+        invalidateChestAccess(event.getBlock());
+    }
+
+    @EventHandler
+    public void onPlayerQuit(org.bukkit.event.player.PlayerQuitEvent event) {
+        if (chestAccessCache != null) {
+            chestAccessCache.invalidatePlayer(event.getPlayer().getUniqueId());
+        }
+    }
+
+    private void invalidateChestAccess(org.bukkit.block.Block block) {
+        if (chestAccessCache == null || block == null) return;
+        chestAccessCache.invalidateAround(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ());
+    }
+
     private void handleMainMenuClick(Player player, int slot) {
         // Sıralama butonu (slot 47)
         if (slot == 47) {
@@ -796,6 +1093,15 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
             return;
         }
 
+        // Hepsini teslim et butonu (slot 49)
+        if (slot == 49) {
+            player.closeInventory();
+            if (deliverCommand != null && !deliveryService.getAllActiveEvents().isEmpty()) {
+                deliverCommand.deliverAll(player);
+            }
+            return;
+        }
+
         // Yardım butonu (slot 51)
         if (slot == 51) {
             player.closeInventory();
@@ -857,131 +1163,66 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         }
     }
 
-    private void handleLeaderboardClick(Player player, int slot) {
+    private void handleLeaderboardClick(Player player, int slot, String title) {
         if (slot == 49) {
             deliveryGUI.openMainMenu(player);
+        } else if (slot == 53) {
+            // Etkinlik ve tüm zamanlar görünümü arasında geçiş
+            if (DeliveryGUI.isAllTimeLeaderboard(title)) {
+                deliveryGUI.openLeaderboard(player);
+            } else {
+                deliveryGUI.openAllTimeLeaderboard(player);
+            }
         }
     }
 
     private void deliverFromInventory(Player player, com.deliverycore.service.ActiveEvent activeEvent) {
-        String requiredItem = activeEvent.getResolvedItem();
-        org.bukkit.Material material;
-        try {
-            material = org.bukkit.Material.valueOf(requiredItem.toUpperCase());
-        } catch (Exception e) {
-            player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §cGeçersiz eşya: §f" + requiredItem);
-            return;
-        }
-
-        int count = 0;
-        for (var item : player.getInventory().getContents()) {
-            if (item != null && item.getType() == material) {
-                count += item.getAmount();
-            }
-        }
-
-        if (count == 0) {
-            String itemName = deliveryGUI.getItemDisplayName(requiredItem);
-            player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §cEnvanterinde §e" + itemName + " §cyok!");
-            return;
-        }
-
-        // Envanterdeki eşyaları kaldır
-        int remaining = count;
-        org.bukkit.inventory.ItemStack[] contents = player.getInventory().getContents();
-        for (int i = 0; i < contents.length && remaining > 0; i++) {
-            var item = contents[i];
-            if (item != null && item.getType() == material) {
-                int itemAmount = item.getAmount();
-                if (itemAmount <= remaining) {
-                    remaining -= itemAmount;
-                    player.getInventory().setItem(i, null);
-                } else {
-                    item.setAmount(itemAmount - remaining);
-                    remaining = 0;
-                }
-            }
-        }
-
-        int delivered = count - remaining;
-        deliveryService.recordDelivery(player.getUniqueId(), activeEvent.getDeliveryName(), delivered);
-
-        // Veriyi kaydet ve oyuncu ismini cache'le
-        if (dataManager != null) {
-            dataManager.saveActiveEvent(activeEvent);
-            dataManager.updatePlayerStats(player.getUniqueId(), player.getName(), delivered);
-        }
-        deliveryGUI.cachePlayerName(player.getUniqueId(), player.getName());
-
-        int total = activeEvent.getPlayerDeliveries().getOrDefault(player.getUniqueId(), 0);
-        int rank = calculateRank(activeEvent, player.getUniqueId());
-        String itemName = deliveryGUI.getItemDisplayName(requiredItem);
-
-        player.sendTitle("§a§lTESLİM EDİLDİ!", "§e" + delivered + " §7adet §f" + itemName, 10, 50, 10);
-        player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §a" + delivered + " §7adet §e" + itemName + " §7teslim edildi!");
-        player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §7Toplam: §f" + total + " §8| §7Sıra: §e#" + rank);
-
-        try { player.playSound(player.getLocation(), org.bukkit.Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f); } catch (Exception ignored) {}
+        deliverFrom(player, player.getInventory(), activeEvent, "Envanterinde", "teslim edildi!");
     }
 
     private void deliverFromRealChestInventory(Player player, org.bukkit.inventory.Inventory chestInv, com.deliverycore.service.ActiveEvent activeEvent) {
-        String requiredItem = activeEvent.getResolvedItem();
-        org.bukkit.Material material;
-        try {
-            material = org.bukkit.Material.valueOf(requiredItem.toUpperCase());
-        } catch (Exception e) {
-            player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §cGeçersiz eşya: §f" + requiredItem);
+        // Double chest dahil tek içerik görüntüsü üzerinden çalışır
+        deliverFrom(player, chestInv, activeEvent, "Sandıkta", "sandıktan teslim edildi!");
+    }
+
+    /**
+     * Envanter/sandık teslimatının ortak yolu.
+     * Contents are snapshotted once, drained in one pass and written back with a
+     * single setContents only after the delivery was accepted.
+     */
+    private void deliverFrom(Player player, org.bukkit.inventory.Inventory source,
+                             com.deliverycore.service.ActiveEvent activeEvent, String emptyWhere, String deliveredSuffix) {
+        org.bukkit.Material material = activeEvent.getMaterial();
+        if (material == null) {
+            player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §cGeçersiz eşya: §f" + activeEvent.getResolvedItem());
             return;
         }
 
-        int count = 0;
+        org.bukkit.inventory.ItemStack[] contents = source.getContents();
+        com.deliverycore.util.InventoryDrain.Result drained =
+            com.deliverycore.util.InventoryDrain.of(material, 0).apply(contents);
+        String itemName = activeEvent.getItemDisplayName();
 
-        // Sandıktaki eşyaları say (double chest dahil)
-        for (var item : chestInv.getContents()) {
-            if (item != null && item.getType() == material) {
-                count += item.getAmount();
-            }
-        }
-
-        if (count == 0) {
-            String itemName = deliveryGUI.getItemDisplayName(requiredItem);
-            player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §cSandıkta §e" + itemName + " §cyok!");
+        if (drained.isEmpty()) {
+            player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §c" + emptyWhere + " §e" + itemName + " §cyok!");
             return;
         }
 
-        // Sandıktaki eşyaları kaldır
-        int remaining = count;
-        org.bukkit.inventory.ItemStack[] contents = chestInv.getContents();
-        for (int i = 0; i < contents.length && remaining > 0; i++) {
-            var item = contents[i];
-            if (item != null && item.getType() == material) {
-                int itemAmount = item.getAmount();
-                if (itemAmount <= remaining) {
-                    remaining -= itemAmount;
-                    chestInv.setItem(i, null);
-                } else {
-                    item.setAmount(itemAmount - remaining);
-                    remaining = 0;
-                }
-            }
+        int delivered = drained.taken();
+        if (!deliveryService.recordDelivery(player.getUniqueId(), activeEvent.getDeliveryName(), delivered)) {
+            // Teslimat reddedildi, eşyalar yerinde kalır
+            return;
         }
+        source.setContents(contents);
 
-        int delivered = count - remaining;
-        deliveryService.recordDelivery(player.getUniqueId(), activeEvent.getDeliveryName(), delivered);
-
-        // Veriyi kaydet ve oyuncu ismini cache'le
-        if (dataManager != null) {
-            dataManager.saveActiveEvent(activeEvent);
-            dataManager.updatePlayerStats(player.getUniqueId(), player.getName(), delivered);
-        }
+        // Kayıt teslimat hattında toplu yapılır, burada sadece isim cache'lenir
         deliveryGUI.cachePlayerName(player.getUniqueId(), player.getName());
 
-        int total = activeEvent.getPlayerDeliveries().getOrDefault(player.getUniqueId(), 0);
-        int rank = calculateRank(activeEvent, player.getUniqueId());
-        String itemName = deliveryGUI.getItemDisplayName(requiredItem);
+        int total = activeEvent.getPlayerDeliveryCount(player.getUniqueId());
+        int rank = activeEvent.getRank(player.getUniqueId());
 
         player.sendTitle("§a§lTESLİM EDİLDİ!", "§e" + delivered + " §7adet §f" + itemName, 10, 50, 10);
-        player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §a" + delivered + " §7adet §e" + itemName + " §7sandıktan teslim edildi!");
+        player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §a" + delivered + " §7adet §e" + itemName + " §7" + deliveredSuffix);
         player.sendMessage("§e§lD§6elivery§e§lC§6ore §8» §7Toplam: §f" + total + " §8| §7Sıra: §e#" + rank);
 
         try { player.playSound(player.getLocation(), org.bukkit.Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f); } catch (Exception ignored) {}
@@ -992,16 +1233,6 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         deliverFromRealChestInventory(player, chest.getInventory(), activeEvent);
     }
 
-    private int calculateRank(com.deliverycore.service.ActiveEvent event, UUID playerUuid) {
-        int playerCount = event.getPlayerDeliveries().getOrDefault(playerUuid, 0);
-        if (playerCount == 0) return 0;
-        int rank = 1;
-        for (int count : event.getPlayerDeliveries().values()) {
-            if (count > playerCount) rank++;
-        }
-        return rank;
-    }
-
 
     private void deliverPendingRewardsToPlayer(Player player) {
         if (player == null || !player.isOnline()) {
@@ -1011,16 +1242,20 @@ public class DeliveryCorePlugin extends JavaPlugin implements Listener, TabCompl
         RewardService.PlayerResolver resolver = createPlayerResolver();
         RewardService.CommandExecutor executor = createCommandExecutor();
 
-        int delivered = rewardService.deliverPendingRewards(
+        // Her ödül ayrı birim: çok sayıda ödül komutu tek tick'e sığdırılmaz
+        List<Runnable> rewards = rewardService.takePendingRewards(
             player.getUniqueId(),
             resolver,
             executor,
             null
         );
-
-        if (delivered > 0) {
-            getLogger().info("Delivered " + delivered + " pending reward(s) to " + player.getName());
+        if (rewards.isEmpty()) {
+            return;
         }
+
+        String playerName = player.getName();
+        workQueue.submit("odul:" + playerName, com.deliverycore.util.TickWorkQueue.Priority.HIGH, rewards,
+            () -> getLogger().info("Delivered " + rewards.size() + " pending reward(s) to " + playerName));
     }
 
     private RewardService.PlayerResolver createPlayerResolver() {
@@ -3,11 +3,11 @@ package com.deliverycore.command;
 import com.deliverycore.config.ConfigManager;
 import com.deliverycore.config.ReloadResult;
 import com.deliverycore.model.DeliveryDefinition;
+import com.deliverycore.model.LeaderboardEntry;
 import com.deliverycore.model.ValidationError;
 import com.deliverycore.service.ActiveEvent;
 import com.deliverycore.service.DeliveryService;
 
-import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.function.BiConsumer;
@@ -34,7 +34,12 @@ import java.util.logging.Logger;
  *   /dc status [teslimat]       - Aktif etkinlik durumu
  *   /dc start <teslimat>        - Manuel etkinlik başlat
  *   /dc stop <teslimat>         - Etkinliği durdur
- *   /dc top [teslimat]          - Sıralama tablosu
+ *   /dc top [teslimat|all]      - Sıralama tablosu (all: tüm zamanlar)
+ *   /dc top day|week|month      - Son 24 saat / 7 gün / bu ay sıralaması
+ *   /dc top season <baş> <bit>  - Tarih aralığı sıralaması (yyyy-MM-dd)
+ *   /dc history player <oyuncu> - Oyuncunun geçmiş etkinlikleri
+ *   /dc history event <ad> <gün> - Etkinliğin o günkü sonuçları
+ *   /dc history best            - Tek etkinlikte en yüksek skor
  * 
  * ═══════════════════════════════════════════════════════════════
  * YETKİLER:
@@ -68,6 +73,13 @@ public class CommandHandler {
     private final Logger logger;
     private DeliveryService deliveryService;
     private Runnable reloadCallback;
+    private com.deliverycore.util.TickWorkQueue workQueue;
+    private java.util.function.Supplier<com.deliverycore.service.DataStorage.SaveStats> saveStats;
+    private com.deliverycore.service.PlayerStatsStore statsStore;
+    private com.deliverycore.service.SeasonCounters seasonCounters;
+    private com.deliverycore.service.EventArchive eventArchive;
+    private com.deliverycore.service.SchedulerService schedulerService;
+    private java.util.concurrent.Executor asyncExecutor = Runnable::run;
 
     // ═══════════════════════════════════════════════════════════════
     // CONSTRUCTOR
@@ -96,6 +108,37 @@ public class CommandHandler {
         this.reloadCallback = callback;
     }
 
+    public void setWorkQueue(com.deliverycore.util.TickWorkQueue workQueue) {
+        this.workQueue = workQueue;
+    }
+
+    public void setSaveStats(java.util.function.Supplier<com.deliverycore.service.DataStorage.SaveStats> saveStats) {
+        this.saveStats = saveStats;
+    }
+
+    public void setStatsStore(com.deliverycore.service.PlayerStatsStore statsStore) {
+        this.statsStore = statsStore;
+    }
+
+    public void setSeasonCounters(com.deliverycore.service.SeasonCounters seasonCounters) {
+        this.seasonCounters = seasonCounters;
+    }
+
+    public void setSchedulerService(com.deliverycore.service.SchedulerService schedulerService) {
+        this.schedulerService = schedulerService;
+    }
+
+    public void setEventArchive(com.deliverycore.service.EventArchive eventArchive) {
+        this.eventArchive = eventArchive;
+    }
+
+    /**
+     * Sets where disk-reading commands (history) run; inline by default.
+     */
+    public void setAsyncExecutor(java.util.concurrent.Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor != null ? asyncExecutor : Runnable::run;
+    }
+
     // ═══════════════════════════════════════════════════════════════
     // ANA KOMUT YÖNLENDİRİCİ
     // ═══════════════════════════════════════════════════════════════
@@ -123,6 +166,7 @@ public class CommandHandler {
             case "start", "baslat" -> handleStart(sender, subArgs);
             case "stop", "durdur" -> handleStop(sender, subArgs);
             case "top", "siralama" -> handleTop(sender, subArgs);
+            case "history", "gecmis" -> handleHistory(sender, subArgs);
             case "categories", "cat", "kategoriler" -> handleCategories(sender);
             case "toggle", "ac", "kapat" -> handleToggle(sender, subArgs);
             case "test" -> handleTest(sender, subArgs);
@@ -147,7 +191,7 @@ public class CommandHandler {
                 completions.add("categories");
             }
             if (hasPerm(sender, PERM_ADMIN_EVENT)) {
-                completions.addAll(Arrays.asList("list", "status", "start", "stop", "top", "toggle", "test"));
+                completions.addAll(Arrays.asList("list", "status", "start", "stop", "top", "history", "toggle", "test"));
             }
             
             return filter(completions, args[0]);
@@ -155,7 +199,12 @@ public class CommandHandler {
 
         if (args.length == 2 && hasPerm(sender, PERM_ADMIN_EVENT)) {
             String sub = args[0].toLowerCase();
-            if (List.of("stop", "status", "top", "toggle").contains(sub)) {
+            if (sub.equals("top")) {
+                List<String> targets = new ArrayList<>(getDeliveryNames());
+                targets.addAll(List.of("all", "day", "week", "month", "season"));
+                return filter(targets, args[1]);
+            }
+            if (List.of("stop", "status", "toggle").contains(sub)) {
                 return filter(getDeliveryNames(), args[1]);
             }
             if (sub.equals("start")) {
@@ -164,6 +213,9 @@ public class CommandHandler {
             if (sub.equals("test")) {
                 return filter(Arrays.asList("deliver", "reward", "webhook"), args[1]);
             }
+            if (sub.equals("history")) {
+                return filter(Arrays.asList("player", "event", "best"), args[1]);
+            }
         }
         
         // Start komutu için süre önerileri
@@ -275,6 +327,13 @@ public class CommandHandler {
             msg(sender, "&7  Tanımlı teslimat yok.");
             msg(sender, "&7  &odeliveries.yml dosyasını düzenleyin.");
         } else {
+            // Zamanlayıcı çarkındaki ilk başlangıç/bitiş, teslimat başına
+            Map<String, com.deliverycore.util.TimingWheel.Fire> nextFires = new HashMap<>();
+            if (schedulerService != null) {
+                for (var fire : schedulerService.getScheduledFires()) {
+                    nextFires.putIfAbsent(fire.name(), fire);
+                }
+            }
             for (var entry : deliveries.entrySet()) {
                 String name = entry.getKey();
                 DeliveryDefinition def = entry.getValue();
@@ -291,6 +350,12 @@ public class CommandHandler {
                 String catVal = def.category().value() != null ? def.category().value() : "rastgele";
                 msg(sender, "     &7Kategori: &f" + catVal + " &8(" + catMode.toLowerCase() + ")");
                 msg(sender, "     &7Kazanan: &f" + def.winnerCount() + " &7kişi");
+                var fire = nextFires.get(name);
+                if (fire != null) {
+                    String what = com.deliverycore.service.SchedulerService.FIRE_START.equals(fire.label())
+                        ? "Başlangıç" : "Bitiş";
+                    msg(sender, "     &7" + what + ": &f" + formatArchiveDate(fire.deadlineMillis(), def.timezone().getId()));
+                }
             }
         }
 
@@ -334,8 +399,9 @@ public class CommandHandler {
                 msg(sender, "  &a▶ &f" + e.getDeliveryName());
                 msg(sender, "     &7Eşya: &e" + e.getResolvedItem());
                 msg(sender, "     &7Kategori: &f" + e.getResolvedCategory());
-                msg(sender, "     &7Katılımcı: &f" + e.getPlayerDeliveries().size());
-                msg(sender, "     &7Toplam Teslimat: &f" + e.getTotalDeliveries());
+                var snapshot = e.getSnapshot();
+                msg(sender, "     &7Katılımcı: &f" + snapshot.getParticipantCount());
+                msg(sender, "     &7Toplam Teslimat: &f" + snapshot.getTotalDeliveries());
                 
                 if (e.getEndTime() != null) {
                     String endStr = e.getEndTime().format(DateTimeFormatter.ofPattern("HH:mm"));
@@ -346,6 +412,27 @@ public class CommandHandler {
         }
 
         msg(sender, "&7  Aktif: &f" + activeEvents.size() + " &7etkinlik");
+        if (workQueue != null) {
+            // Yayılan title işlerinin ilerlemesi
+            for (var job : workQueue.getPendingJobs()) {
+                msg(sender, "&7  İş: &f" + job.getName() + " &8(" + job.getCompleted() + "/" + job.getTotal()
+                    + ", %" + (int) (job.getProgress() * 100) + ")");
+            }
+        }
+        if (saveStats != null) {
+            var stats = saveStats.get();
+            if (stats.saves() > 0) {
+                msg(sender, "&7  Kayıt: &f" + stats.lastSaveNanos() / 1_000_000 + " ms &8(kilit "
+                    + stats.lastLockHoldNanos() / 1_000 + " µs, en fazla " + stats.maxLockHoldNanos() / 1_000 + " µs)");
+            }
+        }
+        if (schedulerService != null) {
+            var drift = schedulerService.getEndDrift();
+            if (drift.ends() > 0) {
+                msg(sender, "&7  Bitiş sapması: &f" + drift.lastDriftMillis() + " ms &8(ortalama "
+                    + drift.averageDriftMillis() + " ms, en fazla " + drift.maxDriftMillis() + " ms)");
+            }
+        }
         footer(sender);
 
         return true;
@@ -372,8 +459,10 @@ public class CommandHandler {
         msg(sender, "  &7Durum        &8│ &a● Çalışıyor");
         msg(sender, "  &7Kategori     &8│ &f" + e.getResolvedCategory());
         msg(sender, "  &7Eşya         &8│ &e" + e.getResolvedItem());
-        msg(sender, "  &7Katılımcı    &8│ &f" + e.getPlayerDeliveries().size() + " kişi");
-        msg(sender, "  &7Teslimat     &8│ &f" + e.getTotalDeliveries() + " adet");
+        var snapshot = e.getSnapshot();
+        msg(sender, "  &7Katılımcı    &8│ &f" + snapshot.getParticipantCount() + " kişi");
+        msg(sender, "  &7Teslimat     &8│ &f" + snapshot.getTotalDeliveries() + " adet");
+        msg(sender, "  &7Sıralama     &8│ &f" + e.getSnapshotStalenessMillis() + " ms önce &8(" + e.getSnapshotBacklog() + " bekleyen)");
         
         if (e.getStartTime() != null) {
             String startStr = e.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm"));
@@ -463,8 +552,7 @@ public class CommandHandler {
             DeliveryDefinition def = defOpt.get();
             
             // Bitiş zamanını ayarla
-            ZonedDateTime endTime = ZonedDateTime.now().plusMinutes(durationMinutes);
-            e.setEndTime(endTime);
+            e.setEndMillis(e.getStartMillis() + durationMinutes * 60_000L);
             
             // Kazanan sayısını ayarla (override veya config'den)
             int finalWinnerCount = winnerCount > 0 ? winnerCount : def.winnerCount();
@@ -525,6 +613,9 @@ public class CommandHandler {
 
         // Durdur
         var winners = deliveryService.endEvent(name);
+        if (schedulerService != null) {
+            schedulerService.cancelEndAt(name);
+        }
 
         msg(sender, "");
         msg(sender, "&c■ Etkinlik durduruldu: &f" + name);
@@ -561,6 +652,18 @@ public class CommandHandler {
             return true;
         }
 
+        // Tüm zamanlar sıralaması (aynı isimde etkinlik yoksa)
+        if (args.length > 0 && (args[0].equalsIgnoreCase("all") || args[0].equalsIgnoreCase("tum"))
+                && (deliveryService == null || deliveryService.getActiveEvent(args[0]).isEmpty())) {
+            return showAllTimeTop(sender);
+        }
+
+        // Sezon sıralamaları (aynı isimde etkinlik yoksa)
+        if (args.length > 0 && List.of("day", "week", "month", "season").contains(args[0].toLowerCase())
+                && (deliveryService == null || deliveryService.getActiveEvent(args[0]).isEmpty())) {
+            return showSeasonTop(sender, args);
+        }
+
         if (deliveryService == null) {
             msg(sender, "&c✗ Servis henüz hazır değil.");
             return true;
@@ -592,22 +695,17 @@ public class CommandHandler {
         }
 
         ActiveEvent e = eventOpt.get();
-        var deliveries = e.getPlayerDeliveries();
+        var snapshot = e.getSnapshot();
+        List<LeaderboardEntry> top = snapshot.getTop(10);
 
         header(sender, "Sıralama: " + e.getResolvedItem());
         msg(sender, "");
 
-        if (deliveries.isEmpty()) {
+        if (top.isEmpty()) {
             msg(sender, "&7  Henüz kimse teslim etmedi.");
         } else {
-            // UUID -> count sırala
-            List<Map.Entry<UUID, Integer>> sorted = deliveries.entrySet().stream()
-                    .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed())
-                    .limit(10)
-                    .toList();
-
-            int rank = 1;
-            for (var entry : sorted) {
+            for (LeaderboardEntry entry : top) {
+                int rank = entry.position();
                 String medal = switch (rank) {
                     case 1 -> "&6&l①";
                     case 2 -> "&f&l②";
@@ -615,19 +713,252 @@ public class CommandHandler {
                     default -> "&7" + rank + ".";
                 };
                 // UUID'yi göster (gerçek uygulamada isim çözümlemesi yapılır)
-                String playerName = entry.getKey().toString().substring(0, 8) + "...";
-                msg(sender, "  " + medal + " &f" + playerName + " &8- &e" + entry.getValue() + " &7teslimat");
-                rank++;
+                String playerName = entry.playerUuid().toString().substring(0, 8) + "...";
+                msg(sender, "  " + medal + " &f" + playerName + " &8- &e" + entry.deliveryCount() + " &7teslimat");
             }
         }
 
         msg(sender, "");
-        msg(sender, "&7  Toplam: &f" + e.getTotalDeliveries() + " &7teslimat");
+        msg(sender, "&7  Toplam: &f" + snapshot.getTotalDeliveries() + " &7teslimat");
         footer(sender);
 
         return true;
     }
 
+    private boolean showAllTimeTop(String sender) {
+        if (statsStore == null) {
+            msg(sender, "&c✗ Servis henüz hazır değil.");
+            return true;
+        }
+
+        showRanking(sender, "Sıralama: Tüm Zamanlar", statsStore.getTop(10));
+        msg(sender, "&7  Oyuncu: &f" + statsStore.size());
+        footer(sender);
+        return true;
+    }
+
+    private boolean showSeasonTop(String sender, String[] args) {
+        if (seasonCounters == null) {
+            msg(sender, "&c✗ Servis henüz hazır değil.");
+            return true;
+        }
+
+        String mode = args[0].toLowerCase();
+        java.time.LocalDate today = seasonCounters.today();
+        java.time.LocalDate from;
+        java.time.LocalDate to = today;
+        List<LeaderboardEntry> top;
+        String title;
+        switch (mode) {
+            case "day" -> {
+                top = seasonCounters.getTopLastHours(24, 10);
+                title = "Sıralama: Son 24 Saat";
+                from = null;
+            }
+            case "week" -> {
+                from = today.minusDays(6);
+                top = seasonCounters.getTop(from, to, 10);
+                title = "Sıralama: Son 7 Gün";
+            }
+            case "month" -> {
+                from = today.withDayOfMonth(1);
+                top = seasonCounters.getTop(from, to, 10);
+                title = "Sıralama: Bu Ay";
+            }
+            default -> {
+                if (args.length < 3) {
+                    msg(sender, "&c✗ Kullanım: &e/dc top season <başlangıç> <bitiş> &8(yyyy-MM-dd)");
+                    return true;
+                }
+                try {
+                    from = java.time.LocalDate.parse(args[1]);
+                    to = java.time.LocalDate.parse(args[2]);
+                } catch (java.time.format.DateTimeParseException e) {
+                    msg(sender, "&c✗ Geçersiz tarih. Biçim: &eyyyy-MM-dd");
+                    return true;
+                }
+                if (from.isAfter(to)) {
+                    msg(sender, "&c✗ Başlangıç tarihi bitişten sonra olamaz.");
+                    return true;
+                }
+                top = seasonCounters.getTop(from, to, 10);
+                title = "Sıralama: Sezon";
+            }
+        }
+
+        showRanking(sender, title, top);
+        if (from != null) {
+            msg(sender, "&7  Aralık: &f" + from + " &8→ &f" + to);
+            java.time.LocalDate oldest = today.minusDays(seasonCounters.getRetentionDays() - 1L);
+            if (from.isBefore(oldest)) {
+                msg(sender, "&e  ⚠ " + oldest + " öncesi saklanmıyor, sayılmadı.");
+            }
+        }
+        footer(sender);
+        return true;
+    }
+
+    private void showRanking(String sender, String title, List<LeaderboardEntry> top) {
+        header(sender, title);
+        msg(sender, "");
+
+        if (top.isEmpty()) {
+            msg(sender, "&7  Henüz kimse teslim etmedi.");
+        } else {
+            for (LeaderboardEntry entry : top) {
+                int rank = entry.position();
+                String medal = switch (rank) {
+                    case 1 -> "&6&l①";
+                    case 2 -> "&f&l②";
+                    case 3 -> "&c&l③";
+                    default -> "&7" + rank + ".";
+                };
+                String playerName = statsStore != null ? statsStore.getName(entry.playerUuid()) : null;
+                if (playerName == null) {
+                    playerName = entry.playerUuid().toString().substring(0, 8) + "...";
+                }
+                msg(sender, "  " + medal + " &f" + playerName + " &8- &e" + entry.deliveryCount() + " &7teslimat");
+            }
+        }
+
+        msg(sender, "");
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HISTORY KOMUTU - ETKİNLİK ARŞİVİ
+    // ═══════════════════════════════════════════════════════════════
+    private boolean handleHistory(String sender, String[] args) {
+        if (!hasPerm(sender, PERM_ADMIN_EVENT)) {
+            noPermission(sender);
+            return true;
+        }
+
+        if (eventArchive == null) {
+            msg(sender, "&c✗ Etkinlik arşivi kapalı.");
+            return true;
+        }
+
+        String mode = args.length > 0 ? args[0].toLowerCase() : "";
+        switch (mode) {
+            case "player", "oyuncu" -> {
+                if (args.length < 2) {
+                    msg(sender, "&c✗ Kullanım: &e/dc history player <oyuncu>");
+                    return true;
+                }
+                Optional<UUID> playerUuid = resolvePlayer(args[1]);
+                if (playerUuid.isEmpty()) {
+                    msg(sender, "&c✗ Oyuncu bulunamadı: &f" + args[1]);
+                    return true;
+                }
+                asyncExecutor.execute(() -> showPlayerHistory(sender, args[1], playerUuid.get()));
+            }
+            case "event", "etkinlik" -> {
+                if (args.length < 3) {
+                    msg(sender, "&c✗ Kullanım: &e/dc history event <ad> <yyyy-MM-dd>");
+                    return true;
+                }
+                java.time.LocalDate date;
+                try {
+                    date = java.time.LocalDate.parse(args[2]);
+                } catch (java.time.format.DateTimeParseException e) {
+                    msg(sender, "&c✗ Geçersiz tarih. Biçim: &eyyyy-MM-dd");
+                    return true;
+                }
+                asyncExecutor.execute(() -> showArchivedEvent(sender, args[1], date));
+            }
+            case "best", "rekor" -> showBestEver(sender);
+            default -> {
+                msg(sender, "&c✗ Kullanım: &e/dc history <player|event|best>");
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private Optional<UUID> resolvePlayer(String nameOrUuid) {
+        try {
+            return Optional.of(UUID.fromString(nameOrUuid));
+        } catch (IllegalArgumentException ignored) {}
+        return statsStore != null ? statsStore.findByName(nameOrUuid) : Optional.empty();
+    }
+
+    private void showPlayerHistory(String sender, String playerName, UUID playerUuid) {
+        List<com.deliverycore.service.EventArchive.PlayerResult> results;
+        try {
+            results = eventArchive.getPlayerHistory(playerUuid, 10);
+        } catch (java.io.IOException e) {
+            logger.warning("[History] Arşiv okunamadı: " + e.getMessage());
+            msg(sender, "&c✗ Arşiv okunamadı.");
+            return;
+        }
+
+        header(sender, "Geçmiş: " + playerName);
+        msg(sender, "");
+        if (results.isEmpty()) {
+            msg(sender, "&7  Arşivde kaydı yok.");
+        } else {
+            for (var result : results) {
+                var event = result.event();
+                msg(sender, "  &7" + formatArchiveDate(event.endedMillis(), event.zoneId()) + " &f" + event.deliveryName()
+                    + " &8- &e#" + result.rank() + " &8(&f" + result.amount() + " &7teslimat&8)");
+            }
+        }
+        msg(sender, "");
+        footer(sender);
+    }
+
+    private void showArchivedEvent(String sender, String deliveryName, java.time.LocalDate date) {
+        var matches = eventArchive.findEvents(deliveryName, date);
+        if (matches.isEmpty()) {
+            msg(sender, "&c✗ Arşivde bulunamadı: &f" + deliveryName + " &7(" + date + ")");
+            return;
+        }
+        var event = matches.get(0);
+        List<LeaderboardEntry> results;
+        try {
+            results = eventArchive.readResults(event);
+        } catch (java.io.IOException e) {
+            logger.warning("[History] Arşiv okunamadı: " + e.getMessage());
+            msg(sender, "&c✗ Arşiv okunamadı.");
+            return;
+        }
+
+        showRanking(sender, "Sonuç: " + event.deliveryName() + " (" + date + ")",
+            results.subList(0, Math.min(10, results.size())));
+        msg(sender, "&7  Eşya: &f" + event.item() + " &8| &7Katılımcı: &f" + event.participants()
+            + " &8| &7Toplam: &f" + event.totalDelivered());
+        if (matches.size() > 1) {
+            msg(sender, "&7  Bu gün &f" + matches.size() + " &7kez çalıştı; en sonuncusu gösteriliyor.");
+        }
+        footer(sender);
+    }
+
+    private void showBestEver(String sender) {
+        var best = eventArchive.getBestEver().filter(event -> event.bestPlayer() != null);
+        header(sender, "Rekor");
+        msg(sender, "");
+        if (best.isEmpty()) {
+            msg(sender, "&7  Arşivde kayıt yok.");
+        } else {
+            var event = best.get();
+            String playerName = statsStore != null ? statsStore.getName(event.bestPlayer()) : null;
+            if (playerName == null) {
+                playerName = event.bestPlayer().toString().substring(0, 8) + "...";
+            }
+            msg(sender, "  &6&l① &f" + playerName + " &8- &e" + event.bestScore() + " &7teslimat");
+            msg(sender, "  &7" + event.deliveryName() + " &8(&f" + event.item() + "&8) &7"
+                + formatArchiveDate(event.endedMillis(), event.zoneId()));
+        }
+        msg(sender, "");
+        msg(sender, "&7  Arşivdeki etkinlik: &f" + eventArchive.getEventCount());
+        footer(sender);
+    }
+
+    private static String formatArchiveDate(long millis, String zoneId) {
+        return java.time.Instant.ofEpochMilli(millis).atZone(java.time.ZoneId.of(zoneId))
+            .format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"));
+    }
+
     // ═══════════════════════════════════════════════════════════════
     // CATEGORIES KOMUTU
     // ═══════════════════════════════════════════════════════════════
@@ -819,7 +1150,9 @@ public class CommandHandler {
             msg(sender, "  &e/dc status &8[&fad&8] &8- &7Aktif etkinlik durumu");
             msg(sender, "  &e/dc start &8<&fad&8> &8- &7Etkinlik başlat");
             msg(sender, "  &e/dc stop &8<&fad&8> &8- &7Etkinliği durdur");
-            msg(sender, "  &e/dc top &8[&fad&8] &8- &7Sıralama tablosu");
+            msg(sender, "  &e/dc top &8[&fad&8|&fall&8] &8- &7Sıralama tablosu");
+            msg(sender, "  &e/dc top &8<&fday&8|&fweek&8|&fmonth&8|&fseason&8> &8- &7Sezon sıralaması");
+            msg(sender, "  &e/dc history &8<&fplayer&8|&fevent&8|&fbest&8> &8- &7Etkinlik geçmişi");
         }
 
         msg(sender, "");
@@ -941,7 +1274,8 @@ public class CommandHandler {
      */
     private void scheduleManualEventEnd(String deliveryName, long durationMinutes) {
         if (manualEndScheduler != null) {
-            manualEndScheduler.accept(deliveryName, durationMinutes);
+            // Bitiş zamanı etkinliğe yazıldı; zamanlayıcı onu okur
+            manualEndScheduler.accept(deliveryName);
             logger.info("[DeliveryCore] Etkinlik " + durationMinutes + " dakika sonra otomatik bitecek: " + deliveryName);
         } else {
             logger.warning("[DeliveryCore] Manuel bitiş zamanlayıcısı ayarlanmamış: " + deliveryName);
@@ -951,9 +1285,9 @@ public class CommandHandler {
     /**
      * Manuel bitiş zamanlayıcısı için callback setter.
      */
-    private java.util.function.BiConsumer<String, Long> manualEndScheduler;
+    private java.util.function.Consumer<String> manualEndScheduler;
     
-    public void setManualEndScheduler(java.util.function.BiConsumer<String, Long> scheduler) {
+    public void setManualEndScheduler(java.util.function.Consumer<String> scheduler) {
         this.manualEndScheduler = scheduler;
     }
 
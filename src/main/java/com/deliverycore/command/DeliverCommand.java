@@ -2,8 +2,10 @@ package com.deliverycore.command;
 
 import com.deliverycore.config.ConfigManager;
 import com.deliverycore.gui.DeliveryGUI;
+import com.deliverycore.model.LeaderboardEntry;
 import com.deliverycore.service.ActiveEvent;
 import com.deliverycore.service.DeliveryService;
+import com.deliverycore.util.InventoryDrain;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.Sound;
@@ -77,6 +79,11 @@ public class DeliverCommand {
         ActiveEvent targetEvent;
         int maxAmount = -1; // -1 = hepsini teslim et
         
+        if (args.length > 0 && (args[0].equalsIgnoreCase("all") || args[0].equalsIgnoreCase("hepsi"))) {
+            deliverAll(player);
+            return true;
+        }
+        
         if (args.length == 0) {
             // İlk aktif teslimata hepsini teslim et
             targetEvent = deliveryService.getAllActiveEvents().get(0);
@@ -113,57 +120,69 @@ public class DeliverCommand {
         return true;
     }
 
-    private void deliverFromInventory(Player player, UUID playerUuid, ActiveEvent event, int maxAmount) {
-        String requiredItem = event.getResolvedItem();
-        Material material;
+    /**
+     * Envanteri tek geçişte tarar ve her yığını onu isteyen aktif teslimata teslim eder.
+     * Envanter bir kez okunur ve en fazla bir kez yazılır.
+     *
+     * @param player the delivering player
+     */
+    public void deliverAll(Player player) {
+        if (deliveryService == null) return;
+        UUID playerUuid = player.getUniqueId();
+        ItemStack[] contents = player.getInventory().getContents();
         
-        try {
-            material = Material.valueOf(requiredItem.toUpperCase());
-        } catch (Exception e) {
-            prefix(player.getName(), "&cGeçersiz eşya: &f" + requiredItem);
+        var routes = deliveryService.routeContents(contents);
+        if (routes.isEmpty()) {
+            prefix(player.getName(), "&cEnvanterinde aktif teslimatların istediği eşya yok!");
             return;
         }
         
-        // Envanterdeki eşyaları say
-        int totalInInventory = 0;
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item != null && item.getType() == material) {
-                totalInInventory += item.getAmount();
+        int deliveredTotal = 0;
+        for (var route : routes) {
+            ActiveEvent event = route.event();
+            // İptal edilen teslimatın eşyaları envanterde kalır
+            if (!deliveryService.recordDelivery(playerUuid, event.getDeliveryName(), route.amount())) continue;
+            for (int slot : route.slots()) {
+                contents[slot] = null;
             }
+            deliveredTotal += route.amount();
+            
+            String itemName = event.getItemDisplayName();
+            String deliveryName = deliveryGUI.getDeliveryDisplayName(event.getDeliveryName());
+            prefix(player.getName(), "&a" + route.amount() + " &7adet &e" + itemName + " &8→ &f" + deliveryName
+                + " &8| &7Sıra: &e#" + event.getRank(playerUuid));
         }
         
-        if (totalInInventory == 0) {
-            String itemName = deliveryGUI.getItemDisplayName(requiredItem);
-            prefix(player.getName(), "&cEnvanterinde &e" + itemName + " &cyok!");
+        if (deliveredTotal == 0) return;
+        player.getInventory().setContents(contents);
+        
+        player.sendTitle("§a§lTESLİM EDİLDİ!", "§e" + deliveredTotal + " §7adet eşya", 10, 50, 10);
+        try { player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f); } catch (Exception ignored) {}
+    }
+
+    private void deliverFromInventory(Player player, UUID playerUuid, ActiveEvent event, int maxAmount) {
+        Material material = event.getMaterial();
+        if (material == null) {
+            prefix(player.getName(), "&cGeçersiz eşya: &f" + event.getResolvedItem());
             return;
         }
         
-        // Teslim edilecek miktar
-        int toDeliver = (maxAmount <= 0 || maxAmount > totalInInventory) ? totalInInventory : maxAmount;
-        
-        // Envanterdeki eşyaları kaldır
-        int remaining = toDeliver;
+        // Tek geçişte say ve kaldır, en fazla maxAmount
         ItemStack[] contents = player.getInventory().getContents();
-        for (int i = 0; i < contents.length && remaining > 0; i++) {
-            ItemStack item = contents[i];
-            if (item != null && item.getType() == material) {
-                int itemAmount = item.getAmount();
-                if (itemAmount <= remaining) {
-                    remaining -= itemAmount;
-                    player.getInventory().setItem(i, null);
-                } else {
-                    item.setAmount(itemAmount - remaining);
-                    remaining = 0;
-                }
-            }
+        InventoryDrain.Result drained = InventoryDrain.of(material, maxAmount).apply(contents);
+        String itemName = event.getItemDisplayName();
+        
+        if (drained.isEmpty()) {
+            prefix(player.getName(), "&cEnvanterinde &e" + itemName + " &cyok!");
+            return;
         }
         
-        int delivered = toDeliver - remaining;
-        deliveryService.recordDelivery(playerUuid, event.getDeliveryName(), delivered);
+        int delivered = drained.taken();
+        if (!deliveryService.recordDelivery(playerUuid, event.getDeliveryName(), delivered)) return;
+        player.getInventory().setContents(contents);
         
-        int total = event.getPlayerDeliveries().getOrDefault(playerUuid, 0);
-        int rank = calculateRank(event, playerUuid);
-        String itemName = deliveryGUI.getItemDisplayName(requiredItem);
+        int total = event.getPlayerDeliveryCount(playerUuid);
+        int rank = event.getRank(playerUuid);
         
         // Title göster
         player.sendTitle("§a§lTESLİM EDİLDİ!", "§e" + delivered + " §7adet §f" + itemName, 10, 50, 10);
@@ -194,10 +213,11 @@ public class DeliverCommand {
         if (deliveryService == null) return List.of();
         
         if (args.length == 1) {
-            List<String> names = deliveryService.getAllActiveEvents().stream()
+            List<String> names = new ArrayList<>(deliveryService.getAllActiveEvents().stream()
                 .map(ActiveEvent::getDeliveryName)
-                .toList();
-            return filter(new ArrayList<>(names), args[0]);
+                .toList());
+            names.add("all");
+            return filter(names, args[0]);
         }
         
         if (args.length == 2) {
@@ -218,6 +238,7 @@ public class DeliverCommand {
         msg(sender, "&e/teslim &8- &7Tüm eşyaları teslim et");
         msg(sender, "&e/teslim <teslimat> &8- &7Belirli teslimata teslim et");
         msg(sender, "&e/teslim <teslimat> <sayı> &8- &7Belirli miktarda teslim et");
+        msg(sender, "&e/teslim all &8- &7Tüm aktif teslimatlara tek seferde teslim et");
         msg(sender, "");
     }
     
@@ -226,25 +247,22 @@ public class DeliverCommand {
         if (events.isEmpty()) { prefix(sender, "&7Aktif etkinlik yok."); return; }
         
         ActiveEvent event = events.get(0);
-        var deliveries = event.getPlayerDeliveries();
+        List<LeaderboardEntry> top = event.getSnapshot().getTop(10);
         
         msg(sender, "");
         msg(sender, "&b&lSıralama &8| &f" + deliveryGUI.getDeliveryDisplayName(event.getDeliveryName()));
         msg(sender, "");
         
-        if (deliveries.isEmpty()) {
+        if (top.isEmpty()) {
             msg(sender, "&7Henüz kimse teslim etmedi.");
         } else {
-            List<Map.Entry<UUID, Integer>> sorted = deliveries.entrySet().stream()
-                .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed()).limit(10).toList();
-            int rank = 1;
-            for (var entry : sorted) {
-                Player p = Bukkit.getPlayer(entry.getKey());
-                String name = p != null ? p.getName() : entry.getKey().toString().substring(0, 8);
-                String hl = entry.getKey().equals(senderUuid) ? " &a(Sen)" : "";
+            for (LeaderboardEntry entry : top) {
+                int rank = entry.position();
+                Player p = Bukkit.getPlayer(entry.playerUuid());
+                String name = p != null ? p.getName() : entry.playerUuid().toString().substring(0, 8);
+                String hl = entry.playerUuid().equals(senderUuid) ? " &a(Sen)" : "";
                 String color = rank == 1 ? "&6" : rank == 2 ? "&f" : rank == 3 ? "&c" : "&7";
-                msg(sender, color + rank + ". &f" + name + hl + " &8- &e" + entry.getValue());
-                rank++;
+                msg(sender, color + rank + ". &f" + name + hl + " &8- &e" + entry.deliveryCount());
             }
         }
         msg(sender, "");
@@ -259,21 +277,12 @@ public class DeliverCommand {
         msg(sender, "");
         for (ActiveEvent event : events) {
             String displayName = deliveryGUI.getDeliveryDisplayName(event.getDeliveryName());
-            String itemName = deliveryGUI.getItemDisplayName(event.getResolvedItem());
+            String itemName = event.getItemDisplayName();
             msg(sender, "&a" + displayName + " &8- &7Eşya: &e" + itemName);
         }
         msg(sender, "");
     }
 
-    private int calculateRank(ActiveEvent event, UUID playerUuid) {
-        var deliveries = event.getPlayerDeliveries();
-        int playerCount = deliveries.getOrDefault(playerUuid, 0);
-        if (playerCount == 0) return 0;
-        int rank = 1;
-        for (int count : deliveries.values()) if (count > playerCount) rank++;
-        return rank;
-    }
-    
     private void prefix(String sender, String message) { msg(sender, PREFIX + message); }
     private boolean hasPerm(String sender, String permission) { return permissionChecker.apply(sender, permission); }
     private void noPermission(String sender) { prefix(sender, "&cBu işlem için yetkiniz yok."); }
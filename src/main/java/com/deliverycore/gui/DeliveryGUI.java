@@ -1,8 +1,10 @@
 package com.deliverycore.gui;
 
 import com.deliverycore.config.ConfigManager;
+import com.deliverycore.model.LeaderboardEntry;
 import com.deliverycore.service.ActiveEvent;
 import com.deliverycore.service.DeliveryService;
+import com.deliverycore.service.ItemCatalog;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -21,8 +23,7 @@ public class DeliveryGUI {
     private final ConfigManager configManager;
     private final DeliveryService deliveryService;
     
-    private final Map<String, String> itemDisplayNames = new ConcurrentHashMap<>();
-    private final Map<String, Double> itemPrices = new ConcurrentHashMap<>();
+    private final ItemCatalog itemCatalog;
     private final Map<String, String> categoryDisplayNames = new ConcurrentHashMap<>();
     private final Map<String, String> deliveryDisplayNames = new ConcurrentHashMap<>();
     private final Map<String, String> categoryHeads = new ConcurrentHashMap<>();
@@ -32,6 +33,7 @@ public class DeliveryGUI {
     
     // Dil desteği
     private Supplier<String> languageSupplier;
+    private com.deliverycore.service.PlayerStatsStore statsStore;
     private File dataFolder;
     private YamlConfiguration langConfig;
 
@@ -58,6 +60,8 @@ public class DeliveryGUI {
     public static final String DELIVERY_PREFIX_EN = "ᴅᴇʟɪᴠᴇʀʏ: ";
     public static final String LEADERBOARD_TITLE_TR = "sɪʀᴀʟᴀᴍᴀ";
     public static final String LEADERBOARD_TITLE_EN = "ʟᴇᴀᴅᴇʀʙᴏᴀʀᴅ";
+    public static final String ALL_TIME_SUFFIX_TR = " • ᴛᴜ̈ᴍ ᴢᴀᴍᴀɴʟᴀʀ";
+    public static final String ALL_TIME_SUFFIX_EN = " • ᴀʟʟ ᴛɪᴍᴇ";
     
     // Uyumluluk için varsayılan değerler
     public static final String MAIN_TITLE = MAIN_TITLE_TR;
@@ -65,8 +69,13 @@ public class DeliveryGUI {
     public static final String LEADERBOARD_TITLE = LEADERBOARD_TITLE_TR;
 
     public DeliveryGUI(ConfigManager cm, DeliveryService ds) {
+        this(cm, ds, new ItemCatalog());
+    }
+
+    public DeliveryGUI(ConfigManager cm, DeliveryService ds, ItemCatalog itemCatalog) {
         this.configManager = cm;
         this.deliveryService = ds;
+        this.itemCatalog = itemCatalog;
         initDefaults();
     }
 
@@ -97,6 +106,13 @@ public class DeliveryGUI {
         this.languageSupplier = supplier;
     }
     
+    /**
+     * Tüm zamanlar sıralaması için istatistik deposunu ayarlar
+     */
+    public void setStatsStore(com.deliverycore.service.PlayerStatsStore statsStore) {
+        this.statsStore = statsStore;
+    }
+
     /**
      * Data folder'ı ayarlar (dil dosyalarını okumak için)
      */
@@ -159,30 +175,11 @@ public class DeliveryGUI {
     }
 
     public void loadItemsConfig(File dataFolder) {
-        File itemsFile = new File(dataFolder, "items.yml");
-        if (!itemsFile.exists()) {
-            System.out.println("[DeliveryGUI] items.yml bulunamadi: " + itemsFile.getAbsolutePath());
-            return;
-        }
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(itemsFile);
-        var itemsSection = config.getConfigurationSection("items");
-        if (itemsSection == null) {
-            System.out.println("[DeliveryGUI] items.yml'de 'items' section bulunamadi!");
-            return;
-        }
-        int loadedCount = 0;
-        for (String key : itemsSection.getKeys(false)) {
-            String displayName = itemsSection.getString(key + ".display-name");
-            double price = itemsSection.getDouble(key + ".price", 0);
-            if (displayName != null) {
-                itemDisplayNames.put(key.toUpperCase(), displayName);
-                loadedCount++;
-            }
-            if (price > 0) itemPrices.put(key.toUpperCase(), price);
-        }
-        System.out.println("[DeliveryGUI] " + loadedCount + " esya yuklendi (items.yml)");
+        itemCatalog.load(dataFolder);
     }
 
+    public ItemCatalog getItemCatalog() { return itemCatalog; }
+
     public static String sc(String text) {
         if (text == null) return "";
         StringBuilder sb = new StringBuilder();
@@ -193,17 +190,27 @@ public class DeliveryGUI {
         return sb.toString();
     }
 
+    /**
+     * Eşya adını isimden çözer. Aktif etkinlikler için {@link ActiveEvent#getItemDisplayName()} kullanılmalı.
+     */
     public String getItemDisplayName(String itemName) {
         if (itemName == null) return "Bilinmiyor";
-        return itemDisplayNames.getOrDefault(itemName.toUpperCase(), itemName.replace("_", " "));
+        ItemCatalog.ItemMetadata meta = itemCatalog.find(itemName);
+        return meta != null ? meta.displayName() : itemName.replace("_", " ");
+    }
+    public double getItemPrice(String itemName) {
+        ItemCatalog.ItemMetadata meta = itemCatalog.find(itemName);
+        return meta != null ? meta.price() : 0.0;
     }
-    public double getItemPrice(String itemName) { return itemPrices.getOrDefault(itemName.toUpperCase(), 0.0); }
     public String getCategoryDisplayName(String catName) { return categoryDisplayNames.getOrDefault(catName.toLowerCase(), catName); }
     public String getDeliveryDisplayName(String deliveryName) { return deliveryDisplayNames.getOrDefault(deliveryName.toLowerCase(), deliveryName); }
     public void setCategoryDisplayName(String cat, String name) { categoryDisplayNames.put(cat.toLowerCase(), name); }
     public void setDeliveryDisplayName(String del, String name) { deliveryDisplayNames.put(del.toLowerCase(), name); }
     public void setCategoryHead(String cat, String texture) { categoryHeads.put(cat.toLowerCase(), texture); }
-    public void setItemDisplayName(String item, String name) { itemDisplayNames.put(item.toUpperCase(), name); }
+    public void setItemDisplayName(String item, String name) {
+        Material material = Material.matchMaterial(item);
+        if (material != null) itemCatalog.setDisplayName(material, name);
+    }
     public void setChestCapacity(int capacity) { }
     public void cachePlayerName(UUID id, String name) { if (id != null && name != null) playerNameCache.put(id, name); }
 
@@ -234,6 +241,9 @@ public class DeliveryGUI {
     public static boolean isLeaderboardMenu(String title) { 
         return title.contains(LEADERBOARD_TITLE_TR) || title.contains(LEADERBOARD_TITLE_EN); 
     }
+    public static boolean isAllTimeLeaderboard(String title) {
+        return title.contains(ALL_TIME_SUFFIX_TR) || title.contains(ALL_TIME_SUFFIX_EN);
+    }
 
 
     // ═══════════════════════════════════════════════════════════════════════════
@@ -282,6 +292,18 @@ public class DeliveryGUI {
             "§a" + clickText
         )));
 
+        // Hepsini teslim et butonu (slot 49) - sadece aktif teslimat varken
+        if (!events.isEmpty()) {
+            String deliverAllName = isEnglish ? sc("deliver all") : sc("hepsini teslim et");
+            String deliverAllLore = isEnglish ? sc("to every active delivery") : sc("tum aktif teslimatlara");
+            inv.setItem(49, createHead(HEAD_INVENTORY, "§a" + deliverAllName, Arrays.asList(
+                "",
+                "§7" + deliverAllLore,
+                "",
+                "§a" + clickText
+            )));
+        }
+
         // Yardım butonu (slot 51)
         String helpName = isEnglish ? sc("help") : sc("yardim");
         String helpLore = isEnglish ? sc("learn about the system") : sc("teslimat sistemini ogren");
@@ -347,11 +369,12 @@ public class DeliveryGUI {
 
     private ItemStack createDeliveryItem(Player player, ActiveEvent event) {
         boolean isEnglish = "en".equals(getCurrentLanguage());
-        String itemName = getItemDisplayName(event.getResolvedItem());
+        String itemName = event.getItemDisplayName();
         String deliveryName = getDeliveryDisplayName(event.getDeliveryName());
-        int playerCount = event.getPlayerDeliveries().getOrDefault(player.getUniqueId(), 0);
-        int totalCount = event.getPlayerDeliveries().values().stream().mapToInt(Integer::intValue).sum();
-        int rank = calculateRank(event, player.getUniqueId());
+        var snapshot = event.getSnapshot();
+        int playerCount = snapshot.getDeliveryCount(player.getUniqueId());
+        int totalCount = snapshot.getTotalDeliveries();
+        int rank = snapshot.getRank(player.getUniqueId());
 
         String itemText = isEnglish ? sc("item") : sc("esya");
         String categoryText = isEnglish ? sc("category") : sc("kategori");
@@ -360,7 +383,7 @@ public class DeliveryGUI {
         String rankText = isEnglish ? sc("rank") : sc("sira");
         String clickDeliverText = isEnglish ? sc("click to deliver") : sc("tikla ve teslim et");
 
-        return createHead(HEAD_DELIVERY, "§a" + deliveryName, Arrays.asList(
+        return createHead(getDeliveryHead(event), "§a" + deliveryName, Arrays.asList(
             "",
             "§7" + itemText + " §f" + itemName,
             "§7" + categoryText + " §f" + getCategoryDisplayName(event.getResolvedCategory()),
@@ -373,6 +396,14 @@ public class DeliveryGUI {
         ));
     }
 
+    /**
+     * items.yml'de head-texture varsa onu, yoksa varsayılan teslimat kafasını döndürür
+     */
+    private String getDeliveryHead(ActiveEvent event) {
+        ItemCatalog.ItemMetadata meta = event.getItemMetadata();
+        return meta != null && meta.headTexture() != null ? meta.headTexture() : HEAD_DELIVERY;
+    }
+
     // ═══════════════════════════════════════════════════════════════════════════
     // TESLİMAT DETAY MENÜSÜ
     // ═══════════════════════════════════════════════════════════════════════════
@@ -385,10 +416,11 @@ public class DeliveryGUI {
         ItemStack bg = createItem(Material.BLACK_STAINED_GLASS_PANE, " ");
         for (int i = 0; i < 45; i++) inv.setItem(i, bg);
 
-        String itemName = getItemDisplayName(event.getResolvedItem());
-        int playerCount = event.getPlayerDeliveries().getOrDefault(player.getUniqueId(), 0);
-        int totalCount = event.getPlayerDeliveries().values().stream().mapToInt(Integer::intValue).sum();
-        int rank = calculateRank(event, player.getUniqueId());
+        String itemName = event.getItemDisplayName();
+        var snapshot = event.getSnapshot();
+        int playerCount = snapshot.getDeliveryCount(player.getUniqueId());
+        int totalCount = snapshot.getTotalDeliveries();
+        int rank = snapshot.getRank(player.getUniqueId());
 
         // Dil string'leri
         String requiredItemText = isEnglish ? sc("required item") : sc("istenen esya");
@@ -408,7 +440,7 @@ public class DeliveryGUI {
         String returnMainText = isEnglish ? sc("return to main menu") : sc("ana menuye don");
 
         // Bilgi (slot 4)
-        inv.setItem(4, createHead(HEAD_DELIVERY, "§e" + deliveryName, Arrays.asList(
+        inv.setItem(4, createHead(getDeliveryHead(event), "§e" + deliveryName, Arrays.asList(
             "",
             "§7" + requiredItemText,
             "§f  " + itemName,
@@ -472,37 +504,80 @@ public class DeliveryGUI {
             )));
         } else {
             ActiveEvent event = events.get(0);
-            var deliveries = event.getPlayerDeliveries();
-            
-            List<Map.Entry<UUID, Integer>> sorted = deliveries.entrySet().stream()
-                .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed())
-                .limit(10)
-                .toList();
+            fillLeaderboard(inv, event.getSnapshot().getTop(10), isEnglish);
+        }
+
+        if (statsStore != null) {
+            String allTimeText = isEnglish ? sc("all time") : sc("tum zamanlar");
+            String allTimeLore = isEnglish ? sc("best deliverers ever") : sc("en cok teslim edenler");
+            inv.setItem(53, createHead(HEAD_TOP, "§6" + allTimeText, Arrays.asList(
+                "",
+                "§7" + allTimeLore
+            )));
+        }
+
+        addLeaderboardBack(inv, isEnglish);
+        player.openInventory(inv);
+    }
+
+    /**
+     * Tüm zamanlar sıralaması; istatistik deposunun hazır top-N listesinden okunur
+     */
+    public void openAllTimeLeaderboard(Player player) {
+        if (statsStore == null) {
+            openLeaderboard(player);
+            return;
+        }
+        boolean isEnglish = "en".equals(getCurrentLanguage());
+        Inventory inv = Bukkit.createInventory(null, 54,
+            getLeaderboardTitle() + (isEnglish ? ALL_TIME_SUFFIX_EN : ALL_TIME_SUFFIX_TR));
+
+        ItemStack bg = createItem(Material.BLACK_STAINED_GLASS_PANE, " ");
+        for (int i = 0; i < 54; i++) inv.setItem(i, bg);
+
+        List<LeaderboardEntry> top = statsStore.getTop(10);
+        if (top.isEmpty()) {
+            String noDataText = isEnglish ? sc("no deliveries yet") : sc("henuz teslimat yok");
+            inv.setItem(22, createHead(HEAD_HELP, "§7" + noDataText, List.of("")));
+        } else {
+            fillLeaderboard(inv, top, isEnglish);
+        }
 
-            int[] slots = {13, 21, 23, 29, 30, 31, 32, 33, 38, 42};
-            String[] colors = {"§6", "§f", "§c", "§7", "§7", "§7", "§7", "§7", "§7", "§7"};
+        String eventText = isEnglish ? sc("current event") : sc("aktif etkinlik");
+        String eventLore = isEnglish ? sc("show event ranking") : sc("etkinlik siralamasini goster");
+        inv.setItem(53, createHead(HEAD_DELIVERY, "§e" + eventText, Arrays.asList(
+            "",
+            "§7" + eventLore
+        )));
+
+        addLeaderboardBack(inv, isEnglish);
+        player.openInventory(inv);
+    }
+
+    private void fillLeaderboard(Inventory inv, List<LeaderboardEntry> sorted, boolean isEnglish) {
+        int[] slots = {13, 21, 23, 29, 30, 31, 32, 33, 38, 42};
+        String[] colors = {"§6", "§f", "§c", "§7", "§7", "§7", "§7", "§7", "§7", "§7"};
+        
+        String deliveriesText = isEnglish ? sc("deliveries") : sc("teslimat");
+        for (int i = 0; i < sorted.size() && i < slots.length; i++) {
+            var entry = sorted.get(i);
+            String name = getPlayerName(entry.playerUuid());
             
-            String deliveriesText = isEnglish ? sc("deliveries") : sc("teslimat");
-            for (int i = 0; i < sorted.size() && i < slots.length; i++) {
-                var entry = sorted.get(i);
-                String name = getPlayerName(entry.getKey());
-                
-                inv.setItem(slots[i], createPlayerHead(entry.getKey(), 
-                    colors[i] + "#" + (i + 1) + " " + name, Arrays.asList(
-                    "",
-                    "§7" + deliveriesText + " §e" + entry.getValue()
-                )));
-            }
+            inv.setItem(slots[i], createPlayerHead(entry.playerUuid(), 
+                colors[i] + "#" + entry.position() + " " + name, Arrays.asList(
+                "",
+                "§7" + deliveriesText + " §e" + entry.deliveryCount()
+            )));
         }
+    }
 
+    private void addLeaderboardBack(Inventory inv, boolean isEnglish) {
         String backText = isEnglish ? sc("back") : sc("geri");
         String returnMainText = isEnglish ? sc("return to main menu") : sc("ana menuye don");
         inv.setItem(49, createHead(HEAD_BACK, "§c" + backText, Arrays.asList(
             "",
             "§7" + returnMainText
         )));
-
-        player.openInventory(inv);
     }
     
     private String getPlayerName(UUID playerId) {
@@ -513,6 +588,8 @@ public class DeliveryGUI {
         }
         String cachedName = playerNameCache.get(playerId);
         if (cachedName != null) return cachedName;
+        String storedName = statsStore != null ? statsStore.getName(playerId) : null;
+        if (storedName != null) { playerNameCache.put(playerId, storedName); return storedName; }
         try {
             org.bukkit.OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(playerId);
             String name = offlinePlayer.getName();
@@ -521,16 +598,6 @@ public class DeliveryGUI {
         return "en".equals(getCurrentLanguage()) ? "Player" : "Oyuncu";
     }
 
-    private int calculateRank(ActiveEvent event, UUID playerUuid) {
-        int playerCount = event.getPlayerDeliveries().getOrDefault(playerUuid, 0);
-        if (playerCount == 0) return 0;
-        int rank = 1;
-        for (int count : event.getPlayerDeliveries().values()) {
-            if (count > playerCount) rank++;
-        }
-        return rank;
-    }
-
     // ═══════════════════════════════════════════════════════════════════════════
     // ITEM OLUŞTURMA - 1.16.5+ Uyumlu
     // ═══════════════════════════════════════════════════════════════════════════
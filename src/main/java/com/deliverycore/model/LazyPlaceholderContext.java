@@ -0,0 +1,180 @@
+package com.deliverycore.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A placeholder context whose values are computed on demand and at most once.
+ * The root layer wraps a supplier of the event's {@link PlaceholderContext},
+ * built only when a template first needs it; per-player layers sit on top
+ * of that shared root without copying it, so rendering a reward command for
+ * each winner allocates one small layer per winner and event-wide values
+ * such as {@code {leaderboard}} are computed once for all of them.
+ *
+ * Each layer may bind placeholder keys to suppliers; a lookup walks from the
+ * layer up to the root and caches the value in the layer that supplied it.
+ * Layers are configured with {@link #put} before being shared; lookups are
+ * safe from any thread.
+ */
+public final class LazyPlaceholderContext {
+
+    private final LazyPlaceholderContext parent;
+    private final Supplier<PlaceholderContext> base;
+    private final String playerName;
+    private final UUID playerUuid;
+    private final boolean hasPlayer;
+    private final Map<String, Supplier<String>> suppliers = new HashMap<>(4);
+    private final Map<String, String> values = new ConcurrentHashMap<>(8);
+    private volatile PlaceholderContext materialized;
+
+    private LazyPlaceholderContext(LazyPlaceholderContext parent, Supplier<PlaceholderContext> base,
+                                   String playerName, UUID playerUuid, boolean hasPlayer) {
+        this.parent = parent;
+        this.base = base;
+        this.playerName = playerName;
+        this.playerUuid = playerUuid;
+        this.hasPlayer = hasPlayer;
+    }
+
+    /**
+     * Creates a root layer over an event context built on first use.
+     *
+     * @param base supplies the event context, called at most once; may return null
+     * @return the root layer
+     */
+    public static LazyPlaceholderContext of(Supplier<PlaceholderContext> base) {
+        Objects.requireNonNull(base, "Base supplier cannot be null");
+        return new LazyPlaceholderContext(null, base, null, null, false);
+    }
+
+    /**
+     * Creates a root layer over an existing context.
+     *
+     * @param base the event context, null for an empty one
+     * @return the root layer
+     */
+    public static LazyPlaceholderContext of(PlaceholderContext base) {
+        PlaceholderContext context = base != null ? base : PlaceholderContext.empty();
+        return of(() -> context);
+    }
+
+    /**
+     * Binds a placeholder key to a lazily computed value in this layer,
+     * hiding the same key in the layers below.
+     *
+     * @param key      the placeholder key without braces
+     * @param supplier computes the value on first lookup; null results become ""
+     * @return this layer
+     */
+    public LazyPlaceholderContext put(String key, Supplier<String> supplier) {
+        suppliers.put(Objects.requireNonNull(key), Objects.requireNonNull(supplier));
+        return this;
+    }
+
+    /**
+     * Creates an empty layer on top of this one.
+     *
+     * @return the new layer
+     */
+    public LazyPlaceholderContext layer() {
+        return new LazyPlaceholderContext(this, null, null, null, false);
+    }
+
+    /**
+     * Creates a layer for one player: {@code {player}} and {@code {player_uuid}}
+     * come from it, everything else from this layer and below.
+     *
+     * @param name the player's name
+     * @param uuid the player's UUID
+     * @return the new layer
+     */
+    public LazyPlaceholderContext forPlayer(String name, UUID uuid) {
+        LazyPlaceholderContext layer = new LazyPlaceholderContext(this, null, name, uuid, true);
+        layer.put("player", () -> name != null ? name : "");
+        layer.put("player_uuid", () -> uuid != null ? uuid.toString() : "");
+        return layer;
+    }
+
+    /**
+     * Looks up a key bound with {@link #put} in this layer or below.
+     *
+     * @param key the placeholder key
+     * @return the value, or null if no layer binds the key
+     */
+    public String lookup(String key) {
+        for (LazyPlaceholderContext layer = this; layer != null; layer = layer.parent) {
+            Supplier<String> supplier = layer.suppliers.get(key);
+            if (supplier != null) {
+                return layer.memoize(key, supplier);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves a value that depends only on the event, caching it in the
+     * root layer so every player layer shares it.
+     *
+     * @param key      the cache key, normally the placeholder key
+     * @param resolver computes the value from the event context
+     * @return the value
+     */
+    public String shared(String key, Function<PlaceholderContext, String> resolver) {
+        LazyPlaceholderContext root = root();
+        return root.memoize(key, () -> resolver.apply(root.toContext()));
+    }
+
+    /**
+     * Builds a plain context for resolvers that need one: the event context
+     * with this layer's player applied. Built once per layer.
+     *
+     * @return the materialized context
+     */
+    public PlaceholderContext toContext() {
+        PlaceholderContext context = materialized;
+        if (context == null) {
+            if (parent == null) {
+                context = base.get();
+                if (context == null) {
+                    context = PlaceholderContext.empty();
+                }
+            } else {
+                context = parent.toContext();
+                if (hasPlayer) {
+                    context = context.withPlayer(playerName, playerUuid);
+                }
+            }
+            materialized = context;
+        }
+        return context;
+    }
+
+    private LazyPlaceholderContext root() {
+        LazyPlaceholderContext layer = this;
+        while (layer.parent != null) {
+            layer = layer.parent;
+        }
+        return layer;
+    }
+
+    private String memoize(String key, Supplier<String> supplier) {
+        String value = values.get(key);
+        if (value == null) {
+            // computeIfAbsent değil: tedarikçi başka anahtarları okuyabilir
+            value = supplier.get();
+            if (value == null) {
+                value = "";
+            }
+            String raced = values.putIfAbsent(key, value);
+            if (raced != null) {
+                value = raced;
+            }
+        }
+        return value;
+    }
+}
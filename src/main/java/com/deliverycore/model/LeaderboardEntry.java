@@ -0,0 +1,34 @@
+package com.deliverycore.model;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Represents a single row of a delivery event leaderboard.
+ *
+ * @param playerUuid    the player's UUID
+ * @param deliveryCount the number of items delivered
+ * @param position      the 1-based position on the leaderboard
+ */
+public record LeaderboardEntry(
+    UUID playerUuid,
+    int deliveryCount,
+    int position
+) {
+    /**
+     * Creates a new LeaderboardEntry with validation.
+     *
+     * @param playerUuid    the player's UUID
+     * @param deliveryCount the delivery count
+     * @param position      the leaderboard position
+     * @throws NullPointerException     if playerUuid is null
+     * @throws IllegalArgumentException if position is less than 1
+     */
+    public LeaderboardEntry {
+        Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
+
+        if (position < 1) {
+            throw new IllegalArgumentException("Position must be at least 1");
+        }
+    }
+}
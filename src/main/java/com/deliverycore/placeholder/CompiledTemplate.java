@@ -0,0 +1,223 @@
+package com.deliverycore.placeholder;
+
+import com.deliverycore.model.LazyPlaceholderContext;
+import com.deliverycore.model.PlaceholderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A template split once into literal text and placeholder resolvers, so
+ * rendering is a walk over two arrays with no pattern matching. Templates
+ * (lang messages, webhook embeds, reward commands) are fixed after load;
+ * {@link PlaceholderEngineImpl} compiles each one on first use and caches it.
+ *
+ * A placeholder is {@code {key}} where key starts with a letter or
+ * underscore followed by letters, digits or underscores; anything else is
+ * literal text. Unknown keys render as empty strings.
+ *
+ * Rendering with a {@link LazyPlaceholderContext} only computes the values
+ * the template references; keys marked event-wide at compile time are
+ * resolved once per event in the context's root layer.
+ */
+public final class CompiledTemplate {
+
+    private static final PlaceholderResolver UNKNOWN = ctx -> "";
+    private static final int MAX_POOLED_CAPACITY = 8192;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String template;
+    // literals.length == resolvers.length + 1
+    private final String[] literals;
+    private final String[] keys;
+    private final PlaceholderResolver[] resolvers;
+    // Değeri oyuncuya bağlı olmayan, etkinlik başına bir kez çözülen anahtarlar
+    private final boolean[] shared;
+
+    private CompiledTemplate(String template, String[] literals, String[] keys,
+                             PlaceholderResolver[] resolvers, boolean[] shared) {
+        this.template = template;
+        this.literals = literals;
+        this.keys = keys;
+        this.resolvers = resolvers;
+        this.shared = shared;
+    }
+
+    /**
+     * Compiles a template against the given resolvers.
+     *
+     * @param template  the template text
+     * @param resolvers  the resolvers by key, looked up once here
+     * @param sharedKeys keys whose resolvers read only event fields
+     * @return the compiled template
+     */
+    static CompiledTemplate compile(String template, Map<String, PlaceholderResolver> resolvers,
+                                    Set<String> sharedKeys) {
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        int length = template.length();
+        while (i < length) {
+            int open = template.indexOf('{', i);
+            if (open < 0) break;
+            int end = keyEnd(template, open + 1);
+            if (end < length && end > open + 1 && template.charAt(end) == '}') {
+                literals.add(template.substring(literalStart, open));
+                keys.add(template.substring(open + 1, end));
+                literalStart = end + 1;
+                i = end + 1;
+            } else {
+                // Geçersiz anahtar: '{' düz metin, sonraki karakterden devam
+                i = open + 1;
+            }
+        }
+        literals.add(template.substring(literalStart));
+
+        PlaceholderResolver[] bound = new PlaceholderResolver[keys.size()];
+        boolean[] shared = new boolean[keys.size()];
+        for (int k = 0; k < bound.length; k++) {
+            bound[k] = resolvers.getOrDefault(keys.get(k), UNKNOWN);
+            shared[k] = sharedKeys.contains(keys.get(k));
+        }
+        return new CompiledTemplate(template, literals.toArray(String[]::new), keys.toArray(String[]::new), bound, shared);
+    }
+
+    /** Returns the index after the key starting at from, or from if no key starts there. */
+    private static int keyEnd(String text, int from) {
+        if (from >= text.length()) return from;
+        char first = text.charAt(from);
+        if (!(isAsciiLetter(first) || first == '_')) return from;
+        int i = from + 1;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (!(isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '_')) break;
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Gets the placeholder keys in order of appearance, duplicates included.
+     *
+     * @return the keys
+     */
+    public List<String> getKeys() {
+        return List.of(keys);
+    }
+
+    /**
+     * Checks whether the template has any placeholder.
+     *
+     * @return true if there is nothing to resolve
+     */
+    public boolean isConstant() {
+        return keys.length == 0;
+    }
+
+    /**
+     * Renders into a caller-supplied builder.
+     *
+     * @param context the placeholder values, null for none
+     * @param out     the builder to append to
+     */
+    public void render(PlaceholderContext context, StringBuilder out) {
+        if (context == null) {
+            context = PlaceholderContext.empty();
+        }
+        out.append(literals[0]);
+        for (int i = 0; i < resolvers.length; i++) {
+            String value = resolvers[i].resolve(context);
+            if (value != null) {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * Renders into a per-thread reusable builder.
+     *
+     * @param context the placeholder values
+     * @return the rendered text
+     */
+    public String render(PlaceholderContext context) {
+        if (isConstant()) return template;
+        return renderPooled(context, null);
+    }
+
+    /**
+     * Renders into a caller-supplied builder, computing only the values this
+     * template references. Keys bound in the context win over registered
+     * resolvers.
+     *
+     * @param context the lazy placeholder values
+     * @param out     the builder to append to
+     */
+    public void render(LazyPlaceholderContext context, StringBuilder out) {
+        out.append(literals[0]);
+        for (int i = 0; i < resolvers.length; i++) {
+            String value = context.lookup(keys[i]);
+            if (value == null && resolvers[i] != UNKNOWN) {
+                PlaceholderResolver resolver = resolvers[i];
+                value = shared[i]
+                    ? context.shared(keys[i], resolver::resolve)
+                    : resolver.resolve(context.toContext());
+            }
+            if (value != null) {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * Renders into a per-thread reusable builder, computing only the values
+     * this template references.
+     *
+     * @param context the lazy placeholder values
+     * @return the rendered text
+     */
+    public String render(LazyPlaceholderContext context) {
+        if (isConstant()) return template;
+        return renderPooled(null, context);
+    }
+
+    private String renderPooled(PlaceholderContext context, LazyPlaceholderContext lazy) {
+        StringBuilder buffer = BUFFER.get();
+        // Çözümleyici içinden iç içe çağrı: ödünç alınmış tampon paylaşılmaz
+        boolean borrowed = buffer != null;
+        if (borrowed) {
+            BUFFER.set(null);
+        } else {
+            buffer = new StringBuilder(template.length() + 32);
+        }
+        try {
+            if (lazy != null) {
+                render(lazy, buffer);
+            } else {
+                render(context, buffer);
+            }
+            return buffer.toString();
+        } finally {
+            if (borrowed) {
+                // Çok büyüyen tampon tutulmaz
+                if (buffer.capacity() > MAX_POOLED_CAPACITY) {
+                    buffer = new StringBuilder(256);
+                }
+                buffer.setLength(0);
+                BUFFER.set(buffer);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.deliverycore.placeholder;
 
+import com.deliverycore.model.LazyPlaceholderContext;
 import com.deliverycore.model.PlaceholderContext;
 
 import java.util.Set;
@@ -21,6 +22,25 @@ public interface PlaceholderEngine {
      */
     String resolve(String text, PlaceholderContext context);
     
+    /**
+     * Resolves placeholder tokens from a lazy context, computing only the
+     * values the text references.
+     *
+     * @param text    the text containing placeholder tokens
+     * @param context the lazy context, e.g. a player layer over an event
+     * @return the text with all placeholders resolved
+     */
+    String resolve(String text, LazyPlaceholderContext context);
+    
+    /**
+     * Compiles a template once for repeated rendering. Results are cached,
+     * so compiling the same text again is a cache lookup.
+     *
+     * @param template the template text, null is treated as empty
+     * @return the compiled template
+     */
+    CompiledTemplate compile(String template);
+    
     /**
      * Registers a custom placeholder resolver.
      *
@@ -1,11 +1,13 @@
 package com.deliverycore.placeholder;
 
+import com.deliverycore.model.LazyPlaceholderContext;
 import com.deliverycore.model.PlaceholderContext;
 
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -14,19 +16,40 @@ import java.util.regex.Pattern;
 /**
  * Default implementation of PlaceholderEngine.
  * Registers all standard DeliveryCore placeholders and supports custom placeholders.
+ * 
+ * Templates are compiled into {@link CompiledTemplate}s on first use and kept
+ * in a bounded LRU cache keyed by the template text; registering a
+ * placeholder clears the cache so templates re-bind to the new resolver.
+ * 
+ * Standard placeholders other than {player} and {player_uuid} read only
+ * event fields; with a {@link LazyPlaceholderContext} they are resolved once
+ * per event and shared by every player layer. Custom placeholders are
+ * always resolved per layer.
  */
 public class PlaceholderEngineImpl implements PlaceholderEngine {
     
     private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{([a-zA-Z_][a-zA-Z0-9_]*)\\}");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
+    static final int TEMPLATE_CACHE_SIZE = 512;
+    
     private final Map<String, PlaceholderResolver> resolvers = new HashMap<>();
+    private final Set<String> sharedKeys = new HashSet<>();
+    private final Map<String, CompiledTemplate> templates = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest) {
+            return size() > TEMPLATE_CACHE_SIZE;
+        }
+    };
     
     /**
      * Creates a new PlaceholderEngineImpl with all standard placeholders registered.
      */
     public PlaceholderEngineImpl() {
         registerStandardPlaceholders();
+        sharedKeys.addAll(resolvers.keySet());
+        sharedKeys.remove("player");
+        sharedKeys.remove("player_uuid");
     }
     
     private void registerStandardPlaceholders() {
@@ -110,28 +133,33 @@ public class PlaceholderEngineImpl implements PlaceholderEngine {
             context = PlaceholderContext.empty();
         }
         
-        Matcher matcher = PLACEHOLDER_PATTERN.matcher(text);
-        StringBuilder result = new StringBuilder();
-        
-        while (matcher.find()) {
-            String key = matcher.group(1);
-            PlaceholderResolver resolver = resolvers.get(key);
-            
-            // Requirement 3.13: Unknown placeholders return empty string
-            String replacement = "";
-            if (resolver != null) {
-                replacement = resolver.resolve(context);
-                if (replacement == null) {
-                    replacement = "";
-                }
+        return compile(text).render(context);
+    }
+    
+    @Override
+    public String resolve(String text, LazyPlaceholderContext context) {
+        if (text == null || text.isEmpty()) {
+            return text != null ? text : "";
+        }
+        if (context == null) {
+            return resolve(text, (PlaceholderContext) null);
+        }
+        return compile(text).render(context);
+    }
+    
+    @Override
+    public CompiledTemplate compile(String template) {
+        if (template == null) {
+            template = "";
+        }
+        synchronized (templates) {
+            CompiledTemplate compiled = templates.get(template);
+            if (compiled == null) {
+                compiled = CompiledTemplate.compile(template, resolvers, sharedKeys);
+                templates.put(template, compiled);
             }
-            
-            // Escape special regex characters in replacement
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+            return compiled;
         }
-        matcher.appendTail(result);
-        
-        return result.toString();
     }
     
     @Override
@@ -142,7 +170,12 @@ public class PlaceholderEngineImpl implements PlaceholderEngine {
         if (resolver == null) {
             throw new IllegalArgumentException("Placeholder resolver cannot be null");
         }
-        resolvers.put(key, resolver);
+        synchronized (templates) {
+            resolvers.put(key, resolver);
+            // Özel çözümleyici oyuncuya bağlı olabilir, paylaşılmaz
+            sharedKeys.remove(key);
+            templates.clear();
+        }
     }
     
     @Override
@@ -2,25 +2,28 @@ package com.deliverycore.reward;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 /**
  * In-memory implementation of PendingRewardStore.
  * Thread-safe for concurrent access from multiple threads.
+ * Each player's rewards are kept in a concurrent deque, so adding a reward
+ * does not copy the existing ones.
+ *
+ * @see PersistentPendingRewardStore
  */
 public class PendingRewardStoreImpl implements PendingRewardStore {
     
-    private final Map<UUID, List<PendingReward>> rewards = new ConcurrentHashMap<>();
+    private final Map<UUID, Deque<PendingReward>> rewards = new ConcurrentHashMap<>();
     
     @Override
     public void store(PendingReward reward) {
         Objects.requireNonNull(reward, "Reward cannot be null");
         
         rewards.compute(reward.playerUuid(), (uuid, existing) -> {
-            List<PendingReward> list = existing != null 
-                ? new ArrayList<>(existing) 
-                : new ArrayList<>();
-            list.add(reward);
-            return list;
+            Deque<PendingReward> deque = existing != null ? existing : new ConcurrentLinkedDeque<>();
+            deque.addLast(reward);
+            return deque;
         });
     }
     
@@ -28,7 +31,7 @@ public class PendingRewardStoreImpl implements PendingRewardStore {
     public List<PendingReward> getRewards(UUID playerUuid) {
         Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
         
-        List<PendingReward> playerRewards = rewards.get(playerUuid);
+        Deque<PendingReward> playerRewards = rewards.get(playerUuid);
         return playerRewards != null 
             ? Collections.unmodifiableList(new ArrayList<>(playerRewards))
             : Collections.emptyList();
@@ -38,9 +41,9 @@ public class PendingRewardStoreImpl implements PendingRewardStore {
     public List<PendingReward> removeRewards(UUID playerUuid) {
         Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
         
-        List<PendingReward> removed = rewards.remove(playerUuid);
+        Deque<PendingReward> removed = rewards.remove(playerUuid);
         return removed != null 
-            ? Collections.unmodifiableList(removed)
+            ? Collections.unmodifiableList(new ArrayList<>(removed))
             : Collections.emptyList();
     }
     
@@ -48,7 +51,7 @@ public class PendingRewardStoreImpl implements PendingRewardStore {
     public boolean hasPendingRewards(UUID playerUuid) {
         Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
         
-        List<PendingReward> playerRewards = rewards.get(playerUuid);
+        Deque<PendingReward> playerRewards = rewards.get(playerUuid);
         return playerRewards != null && !playerRewards.isEmpty();
     }
     
@@ -56,14 +59,14 @@ public class PendingRewardStoreImpl implements PendingRewardStore {
     public int getRewardCount(UUID playerUuid) {
         Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
         
-        List<PendingReward> playerRewards = rewards.get(playerUuid);
+        Deque<PendingReward> playerRewards = rewards.get(playerUuid);
         return playerRewards != null ? playerRewards.size() : 0;
     }
     
     @Override
     public List<PendingReward> getAllRewards() {
         List<PendingReward> all = new ArrayList<>();
-        for (List<PendingReward> playerRewards : rewards.values()) {
+        for (Deque<PendingReward> playerRewards : rewards.values()) {
             all.addAll(playerRewards);
         }
         return Collections.unmodifiableList(all);
@@ -0,0 +1,559 @@
+package com.deliverycore.reward;
+
+import com.deliverycore.model.RewardConfig;
+import com.deliverycore.model.RewardType;
+import com.deliverycore.util.AtomicFiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Durable implementation of PendingRewardStore backed by an append-only log:
+ * every stored reward is one record, {@link #removeRewards(UUID)} appends a
+ * tombstone for the player and {@link #clear()} starts an empty log. Once
+ * dead records outweigh live ones the log is rewritten with only the live
+ * records.
+ *
+ * Records are written to the file (not only buffered) before {@link #store}
+ * and {@link #removeRewards} return, so they survive a plugin crash. Forcing
+ * them to disk and compaction run on the sync executor: writes made while a
+ * sync is pending share it, so the main thread never waits on fsync and a
+ * power loss can only cost the writes since the last sync.
+ *
+ * Startup only indexes record positions by player UUID; a player's rewards
+ * are decoded the first time they are asked for, typically when the player
+ * joins. Loaded rewards live in per-player concurrent deques, so adding a
+ * reward never copies the player's existing rewards.
+ *
+ * Layout: a 4-byte magic header followed by records of
+ * {@code [int length][byte type][payload][int crc32]}. A torn or corrupt tail
+ * is cut off when the log is opened. Write failures are logged and the
+ * rewards are kept in memory. Thread-safe.
+ */
+public class PersistentPendingRewardStore implements PendingRewardStore, Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(PersistentPendingRewardStore.class.getName());
+
+    private static final int MAGIC = 0x44435231; // "DCR1"
+    private static final int HEADER_BYTES = 4;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    public static final long DEFAULT_COMPACT_BYTES = 64 * 1024;
+
+    private static final byte STORE = 1;
+    private static final byte REMOVE = 2;
+
+    /**
+     * A player's live records. Positions are always known; rewards are
+     * decoded on first access.
+     */
+    private static final class PlayerRewards {
+        long[] offsets = new long[4];
+        int positions;
+        long bytes;
+        volatile int count;
+        volatile Deque<PendingReward> loaded;
+
+        void addOffset(long offset, int recordBytes) {
+            if (positions == offsets.length) {
+                offsets = Arrays.copyOf(offsets, positions * 2);
+            }
+            offsets[positions++] = offset;
+            bytes += recordBytes;
+        }
+    }
+
+    private final File file;
+    private final long compactBytes;
+    private final Executor syncExecutor;
+    private final AtomicBoolean syncScheduled = new AtomicBoolean();
+    private final Map<UUID, PlayerRewards> players = new ConcurrentHashMap<>();
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBuffer);
+    private final CRC32 crc = new CRC32();
+    private FileOutputStream fileOut;
+    private DataOutputStream out;
+    private long sizeBytes;
+    private long liveBytes;
+
+    /**
+     * Opens or creates a log, compacting after {@value #DEFAULT_COMPACT_BYTES} dead bytes.
+     *
+     * @param file the log file
+     * @throws IOException if the file cannot be read or created
+     */
+    public PersistentPendingRewardStore(File file) throws IOException {
+        this(file, DEFAULT_COMPACT_BYTES);
+    }
+
+    /**
+     * Opens or creates a log.
+     *
+     * @param file         the log file
+     * @param compactBytes the dead bytes that, once they also exceed the live
+     *                     bytes, trigger a compaction
+     * @throws IOException if the file cannot be read or created
+     */
+    public PersistentPendingRewardStore(File file, long compactBytes) throws IOException {
+        this(file, compactBytes, Runnable::run);
+    }
+
+    /**
+     * Opens or creates a log whose fsync and compaction run on the given executor.
+     *
+     * @param file         the log file
+     * @param compactBytes the dead bytes that, once they also exceed the live
+     *                     bytes, trigger a compaction
+     * @param syncExecutor runs the group-committed sync, normally a worker pool
+     * @throws IOException if the file cannot be read or created
+     */
+    public PersistentPendingRewardStore(File file, long compactBytes, Executor syncExecutor) throws IOException {
+        this.file = file;
+        this.compactBytes = Math.max(0L, compactBytes);
+        this.syncExecutor = syncExecutor;
+        open();
+    }
+
+    @Override
+    public void store(PendingReward reward) {
+        Objects.requireNonNull(reward, "Reward cannot be null");
+
+        synchronized (this) {
+            PlayerRewards entry = players.computeIfAbsent(reward.playerUuid(), uuid -> newLoadedEntry());
+            Deque<PendingReward> rewards = load(reward.playerUuid(), entry);
+            try {
+                long offset = sizeBytes;
+                int recordBytes = append(STORE, encode(reward));
+                out.flush();
+                entry.addOffset(offset, recordBytes);
+                liveBytes += recordBytes;
+            } catch (IOException e) {
+                // Bellekte kalır; yeniden başlatmada kaybolur
+                LOGGER.log(Level.WARNING, "Bekleyen ödül diske yazılamadı: " + reward.playerUuid(), e);
+            }
+            rewards.addLast(reward);
+            entry.count++;
+        }
+        scheduleSync();
+    }
+
+    @Override
+    public List<PendingReward> getRewards(UUID playerUuid) {
+        Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
+
+        PlayerRewards entry = players.get(playerUuid);
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        Deque<PendingReward> rewards = entry.loaded;
+        if (rewards == null) {
+            synchronized (this) {
+                rewards = load(playerUuid, entry);
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(rewards));
+    }
+
+    @Override
+    public List<PendingReward> removeRewards(UUID playerUuid) {
+        Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
+
+        synchronized (this) {
+            PlayerRewards entry = players.get(playerUuid);
+            if (entry == null) {
+                return Collections.emptyList();
+            }
+            List<PendingReward> removed = new ArrayList<>(load(playerUuid, entry));
+            try {
+                recordBuffer.reset();
+                writeUuid(record, playerUuid);
+                append(REMOVE, recordBuffer.toByteArray());
+                out.flush();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Bekleyen ödül silme kaydı yazılamadı: " + playerUuid, e);
+            }
+            players.remove(playerUuid);
+            liveBytes -= entry.bytes;
+            scheduleSync();
+            return Collections.unmodifiableList(removed);
+        }
+    }
+
+    @Override
+    public boolean hasPendingRewards(UUID playerUuid) {
+        Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
+
+        PlayerRewards entry = players.get(playerUuid);
+        return entry != null && entry.count > 0;
+    }
+
+    @Override
+    public int getRewardCount(UUID playerUuid) {
+        Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
+
+        PlayerRewards entry = players.get(playerUuid);
+        return entry != null ? entry.count : 0;
+    }
+
+    @Override
+    public synchronized List<PendingReward> getAllRewards() {
+        List<PendingReward> all = new ArrayList<>();
+        for (Map.Entry<UUID, PlayerRewards> entry : players.entrySet()) {
+            all.addAll(load(entry.getKey(), entry.getValue()));
+        }
+        return Collections.unmodifiableList(all);
+    }
+
+    @Override
+    public synchronized void clear() {
+        players.clear();
+        liveBytes = 0;
+        try {
+            out.close();
+            try {
+                AtomicFiles.write(file.toPath(), headerBytes());
+            } finally {
+                // Yazım başarısız olsa da sonraki kayıtlar eklenebilsin
+                openForAppend();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Bekleyen ödül dosyası temizlenemedi", e);
+        }
+    }
+
+    /**
+     * Gets the number of players with pending rewards, without decoding any.
+     *
+     * @return the player count
+     */
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Gets the log size on disk.
+     *
+     * @return size in bytes
+     */
+    public synchronized long size() {
+        return sizeBytes;
+    }
+
+    /**
+     * Rewrites the log with only the live records. Decoded rewards stay in memory.
+     *
+     * @throws IOException if the log cannot be rewritten; the old log is kept
+     */
+    public synchronized void compact() throws IOException {
+        out.flush();
+        int liveCount = 0;
+        for (PlayerRewards entry : players.values()) {
+            liveCount += entry.positions;
+        }
+        long[] live = new long[liveCount];
+        int next = 0;
+        for (PlayerRewards entry : players.values()) {
+            System.arraycopy(entry.offsets, 0, live, next, entry.positions);
+            next += entry.positions;
+        }
+        // Dosya sırası korunur
+        Arrays.sort(live);
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE, HEADER_BYTES + liveBytes));
+        DataOutputStream data = new DataOutputStream(content);
+        data.writeInt(MAGIC);
+        Map<Long, Long> moved = new HashMap<>(liveCount * 4 / 3 + 1);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            for (long position : live) {
+                raf.seek(position);
+                int length = raf.readInt();
+                byte[] rest = new byte[length + 4];
+                raf.readFully(rest);
+                moved.put(position, (long) data.size());
+                data.writeInt(length);
+                data.write(rest);
+            }
+        }
+        data.flush();
+
+        out.close();
+        try {
+            AtomicFiles.write(file.toPath(), content.toByteArray());
+            for (PlayerRewards entry : players.values()) {
+                for (int i = 0; i < entry.positions; i++) {
+                    entry.offsets[i] = moved.get(entry.offsets[i]);
+                }
+            }
+        } finally {
+            // Eski ya da yeni dosya, akış her durumda yeniden açılır
+            openForAppend();
+        }
+        liveBytes = sizeBytes - HEADER_BYTES;
+    }
+
+    /**
+     * Forces the written records to disk and compacts the log if enough of
+     * it is dead. Runs on the sync executor; only the compaction holds the
+     * store lock.
+     */
+    public void sync() {
+        syncScheduled.set(false);
+        FileOutputStream target;
+        synchronized (this) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Bekleyen ödül dosyası yazılamadı", e);
+            }
+            target = fileOut;
+        }
+        try {
+            target.getFD().sync();
+        } catch (IOException e) {
+            synchronized (this) {
+                // Arada sıkıştırma dosyayı değiştirdiyse yeni dosya zaten diske yazıldı
+                if (target == fileOut) {
+                    LOGGER.log(Level.WARNING, "Bekleyen ödül dosyası diske yazılamadı", e);
+                }
+            }
+        }
+        synchronized (this) {
+            compactIfNeeded();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.flush();
+        fileOut.getFD().sync();
+        out.close();
+    }
+
+    // ==================== Internals ====================
+
+    private void scheduleSync() {
+        if (!syncScheduled.compareAndSet(false, true)) return;
+        try {
+            syncExecutor.execute(this::sync);
+        } catch (RejectedExecutionException e) {
+            // Kapanışta: close() diske yazar
+            syncScheduled.set(false);
+        }
+    }
+
+    private PlayerRewards newLoadedEntry() {
+        PlayerRewards entry = new PlayerRewards();
+        entry.loaded = new ConcurrentLinkedDeque<>();
+        return entry;
+    }
+
+    /**
+     * Decodes a player's rewards on first access. Caller holds the store lock.
+     */
+    private Deque<PendingReward> load(UUID playerUuid, PlayerRewards entry) {
+        Deque<PendingReward> loaded = entry.loaded;
+        if (loaded != null) {
+            return loaded;
+        }
+        loaded = new ConcurrentLinkedDeque<>();
+        try {
+            out.flush();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                for (int i = 0; i < entry.positions; i++) {
+                    raf.seek(entry.offsets[i]);
+                    byte[] body = new byte[raf.readInt()];
+                    raf.readFully(body);
+                    DataInputStream in = new DataInputStream(new ByteArrayInputStream(body, 1, body.length - 1));
+                    loaded.addLast(decode(in));
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Bekleyen ödüller okunamadı: " + playerUuid, e);
+        }
+        entry.loaded = loaded;
+        return loaded;
+    }
+
+    private void compactIfNeeded() {
+        long dead = sizeBytes - HEADER_BYTES - liveBytes;
+        if (dead < compactBytes || dead <= liveBytes) return;
+        try {
+            compact();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Bekleyen ödül dosyası sıkıştırılamadı", e);
+        }
+    }
+
+    private byte[] encode(PendingReward reward) throws IOException {
+        recordBuffer.reset();
+        writeUuid(record, reward.playerUuid());
+        record.writeUTF(reward.deliveryName());
+        RewardConfig config = reward.reward();
+        record.writeByte(config.type().ordinal());
+        record.writeBoolean(config.item() != null);
+        if (config.item() != null) {
+            record.writeUTF(config.item());
+        }
+        record.writeInt(config.itemAmount());
+        record.writeInt(config.commands().size());
+        for (String command : config.commands()) {
+            record.writeUTF(command);
+        }
+        record.writeLong(reward.earnedAt().toInstant().toEpochMilli());
+        record.writeUTF(reward.earnedAt().getZone().getId());
+        record.flush();
+        return recordBuffer.toByteArray();
+    }
+
+    private static PendingReward decode(DataInputStream in) throws IOException {
+        UUID playerUuid = new UUID(in.readLong(), in.readLong());
+        String deliveryName = in.readUTF();
+        RewardType type = RewardType.values()[in.readByte()];
+        String item = in.readBoolean() ? in.readUTF() : null;
+        int itemAmount = in.readInt();
+        int commandCount = in.readInt();
+        List<String> commands = new ArrayList<>(commandCount);
+        for (int i = 0; i < commandCount; i++) {
+            commands.add(in.readUTF());
+        }
+        ZonedDateTime earnedAt = ZonedDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneId.of(in.readUTF()));
+        return new PendingReward(playerUuid, deliveryName, new RewardConfig(type, item, itemAmount, commands), earnedAt);
+    }
+
+    private static void writeUuid(DataOutputStream data, UUID uuid) throws IOException {
+        data.writeLong(uuid.getMostSignificantBits());
+        data.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Appends one record and returns its size on disk.
+     */
+    private int append(byte type, byte[] payload) throws IOException {
+        crc.reset();
+        crc.update(type);
+        crc.update(payload);
+        out.writeInt(1 + payload.length);
+        out.writeByte(type);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+        int recordBytes = 4 + 1 + payload.length + 4;
+        sizeBytes += recordBytes;
+        return recordBytes;
+    }
+
+    /**
+     * Indexes the log: only the type and player of each record are read.
+     */
+    private void open() throws IOException {
+        if (!file.exists() || file.length() < HEADER_BYTES) {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists()) {
+                boolean ignored = parent.mkdirs();
+            }
+            writeHeader();
+            openForAppend();
+            return;
+        }
+
+        long position = HEADER_BYTES;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Geçersiz bekleyen ödül dosyası: " + file.getName());
+            }
+            byte[] body;
+            while ((body = readRecord(in)) != null) {
+                int recordBytes = 4 + body.length + 4;
+                UUID playerUuid = new UUID(readLong(body, 1), readLong(body, 9));
+                if (body[0] == STORE) {
+                    PlayerRewards entry = players.computeIfAbsent(playerUuid, uuid -> new PlayerRewards());
+                    entry.addOffset(position, recordBytes);
+                    entry.count++;
+                } else if (body[0] == REMOVE) {
+                    players.remove(playerUuid);
+                }
+                position += recordBytes;
+            }
+        }
+        if (position < file.length()) {
+            // Yarım kalmış kayıt kesilir, yeni kayıtlar arkasında kaybolmasın
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(position);
+            }
+        }
+        for (PlayerRewards entry : players.values()) {
+            liveBytes += entry.bytes;
+        }
+        openForAppend();
+    }
+
+    private void openForAppend() throws IOException {
+        fileOut = new FileOutputStream(file, true);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut, 8192));
+        sizeBytes = file.length();
+    }
+
+    private void writeHeader() throws IOException {
+        try (FileOutputStream header = new FileOutputStream(file, false)) {
+            header.write(headerBytes());
+            header.getFD().sync();
+        }
+    }
+
+    private static byte[] headerBytes() {
+        return new byte[]{(byte) (MAGIC >>> 24), (byte) (MAGIC >>> 16), (byte) (MAGIC >>> 8), (byte) MAGIC};
+    }
+
+    /** Reads one record body, or null at the end or at a torn/corrupt record. */
+    private byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length < 17 || length > MAX_RECORD_BYTES) return null;
+            byte[] body = new byte[length];
+            in.readFully(body);
+            int expected = in.readInt();
+            crc.reset();
+            crc.update(body);
+            return (int) crc.getValue() == expected ? body : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
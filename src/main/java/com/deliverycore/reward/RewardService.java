@@ -71,6 +71,21 @@ public interface RewardService {
     int deliverPendingRewards(UUID playerUuid, PlayerResolver resolver, 
                              CommandExecutor executor, PlaceholderContext context);
     
+    /**
+     * Removes a player's pending rewards from the store and returns one task
+     * per reward, so the caller can spread them over several ticks.
+     * A task that runs after the player went offline stores its reward as
+     * pending again instead of giving it.
+     *
+     * @param playerUuid the player's UUID
+     * @param resolver   the player resolver
+     * @param executor   the command executor
+     * @param context    the placeholder context
+     * @return the delivery tasks in stored order, empty if the player is offline
+     */
+    List<Runnable> takePendingRewards(UUID playerUuid, PlayerResolver resolver,
+                                      CommandExecutor executor, PlaceholderContext context);
+    
     /**
      * Checks if a player has pending rewards.
      *
@@ -1,11 +1,13 @@
 package com.deliverycore.reward;
 
+import com.deliverycore.model.LazyPlaceholderContext;
 import com.deliverycore.model.PlaceholderContext;
 import com.deliverycore.model.RewardConfig;
 import com.deliverycore.model.RewardType;
 import com.deliverycore.model.Winner;
 import com.deliverycore.placeholder.PlaceholderEngine;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -46,14 +48,20 @@ public class RewardServiceImpl implements RewardService {
         Objects.requireNonNull(deliveryName, "Delivery name cannot be null");
         Objects.requireNonNull(playerResolver, "Player resolver cannot be null");
         
+        CommandExecutor commandExecutor = cmd -> {
+            // Default no-op executor - actual implementation provided by caller
+            LOGGER.warning("No command executor provided for reward commands");
+        };
+        // Etkinlik bağlamı bir kez kurulur; her kazanan üstüne oyuncu katmanı ekler
+        LazyPlaceholderContext eventContext = LazyPlaceholderContext.of(context);
         for (Winner winner : winners) {
-            distributeToWinner(winner, reward, deliveryName, context, playerResolver);
+            distributeToWinner(winner, reward, deliveryName, eventContext, playerResolver, commandExecutor);
         }
     }
     
     private void distributeToWinner(Winner winner, RewardConfig reward,
-                                   String deliveryName, PlaceholderContext context,
-                                   PlayerResolver playerResolver) {
+                                   String deliveryName, LazyPlaceholderContext context,
+                                   PlayerResolver playerResolver, CommandExecutor commandExecutor) {
         UUID playerUuid = winner.playerUuid();
         String playerName = winner.playerName();
         
@@ -67,10 +75,8 @@ public class RewardServiceImpl implements RewardService {
             return;
         }
         
-        // Create context with player info
-        PlaceholderContext playerContext = context != null 
-            ? context.withPlayer(playerName, playerUuid)
-            : PlaceholderContext.empty().withPlayer(playerName, playerUuid);
+        // Oyuncu katmanı: etkinlik bağlamı kopyalanmaz
+        LazyPlaceholderContext playerContext = context.forPlayer(playerName, playerUuid);
         
         // Distribute based on reward type
         if (reward.type() == RewardType.INVENTORY) {
@@ -84,11 +90,7 @@ public class RewardServiceImpl implements RewardService {
         
         // Execute commands if configured
         if (reward.commands() != null && !reward.commands().isEmpty()) {
-            executeRewardCommands(playerUuid, playerName, reward.commands(), 
-                playerContext, cmd -> {
-                    // Default no-op executor - actual implementation provided by caller
-                    LOGGER.warning("No command executor provided for reward commands");
-                });
+            runCommands(playerName, reward.commands(), playerContext, commandExecutor);
         }
     }
     
@@ -126,10 +128,11 @@ public class RewardServiceImpl implements RewardService {
             return;
         }
         
-        PlaceholderContext cmdContext = context != null 
-            ? context.withPlayer(playerName, playerUuid)
-            : PlaceholderContext.empty().withPlayer(playerName, playerUuid);
-        
+        runCommands(playerName, commands, LazyPlaceholderContext.of(context).forPlayer(playerName, playerUuid), executor);
+    }
+    
+    private void runCommands(String playerName, List<String> commands,
+                             LazyPlaceholderContext cmdContext, CommandExecutor executor) {
         for (String command : commands) {
             if (command == null || command.isEmpty()) {
                 continue;
@@ -184,27 +187,7 @@ public class RewardServiceImpl implements RewardService {
         int delivered = 0;
         
         for (PendingReward pending : rewards) {
-            RewardConfig reward = pending.reward();
-            
-            PlaceholderContext rewardContext = context != null
-                ? context.withPlayer(playerName, playerUuid)
-                    .withEvent(null, null, pending.deliveryName())
-                : PlaceholderContext.empty()
-                    .withPlayer(playerName, playerUuid)
-                    .withEvent(null, null, pending.deliveryName());
-            
-            // Give inventory reward
-            if (reward.type() == RewardType.INVENTORY) {
-                giveInventoryReward(playerUuid, reward.item(), 
-                    reward.itemAmount(), resolver);
-            }
-            
-            // Execute commands
-            if (reward.commands() != null && !reward.commands().isEmpty()) {
-                executeRewardCommands(playerUuid, playerName, 
-                    reward.commands(), rewardContext, executor);
-            }
-            
+            deliverPendingReward(pending, playerName, resolver, executor, context);
             delivered++;
         }
         
@@ -215,6 +198,57 @@ public class RewardServiceImpl implements RewardService {
         return delivered;
     }
     
+    @Override
+    public List<Runnable> takePendingRewards(UUID playerUuid, PlayerResolver resolver,
+                                             CommandExecutor executor, PlaceholderContext context) {
+        Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
+        Objects.requireNonNull(resolver, "Player resolver cannot be null");
+        Objects.requireNonNull(executor, "Command executor cannot be null");
+        
+        if (!resolver.isOnline(playerUuid)) {
+            return List.of();
+        }
+        
+        final String playerName = resolver.getName(playerUuid);
+        List<Runnable> tasks = new ArrayList<>();
+        for (PendingReward pending : pendingRewardStore.removeRewards(playerUuid)) {
+            tasks.add(() -> {
+                // Görev sonraki bir tick'te çalışabilir; oyuncu çıktıysa ödül bekler
+                if (!resolver.isOnline(playerUuid)) {
+                    pendingRewardStore.store(pending);
+                    return;
+                }
+                deliverPendingReward(pending, playerName, resolver, executor, context);
+            });
+        }
+        return tasks;
+    }
+    
+    private void deliverPendingReward(PendingReward pending, String playerName, PlayerResolver resolver,
+                                      CommandExecutor executor, PlaceholderContext context) {
+        UUID playerUuid = pending.playerUuid();
+        RewardConfig reward = pending.reward();
+        
+        PlaceholderContext rewardContext = context != null
+            ? context.withPlayer(playerName, playerUuid)
+                .withEvent(null, null, pending.deliveryName())
+            : PlaceholderContext.empty()
+                .withPlayer(playerName, playerUuid)
+                .withEvent(null, null, pending.deliveryName());
+        
+        // Give inventory reward
+        if (reward.type() == RewardType.INVENTORY) {
+            giveInventoryReward(playerUuid, reward.item(), 
+                reward.itemAmount(), resolver);
+        }
+        
+        // Execute commands
+        if (reward.commands() != null && !reward.commands().isEmpty()) {
+            executeRewardCommands(playerUuid, playerName, 
+                reward.commands(), rewardContext, executor);
+        }
+    }
+    
     @Override
     public boolean hasPendingRewards(UUID playerUuid) {
         Objects.requireNonNull(playerUuid, "Player UUID cannot be null");
@@ -1,29 +1,56 @@
 package com.deliverycore.service;
 
+import com.deliverycore.model.LeaderboardEntry;
 import com.deliverycore.model.PlaceholderContext;
+import com.deliverycore.util.UuidIntMap;
+import org.bukkit.Material;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents an active delivery event with locked category/item and player tracking.
  * Once created, the resolved category and item remain immutable for the event duration.
+ * The event window is kept as epoch millis; ZonedDateTime is only built for display.
+ * The item is resolved to a {@link Material} once, so delivery paths never parse it.
  */
 public class ActiveEvent {
     
     private final String deliveryName;
     private final String resolvedCategory;
     private final String resolvedItem;
-    private final ZonedDateTime startTime;
-    private ZonedDateTime endTime; // Mutable - manuel başlatmada değiştirilebilir
+    private final Material material;
+    private volatile ItemCatalog.ItemMetadata itemMetadata;
+    private final long startMillis;
+    private volatile long endMillis; // Mutable - manuel başlatmada değiştirilebilir
     private final ZoneId timezone;
-    private final Map<UUID, Integer> playerDeliveries;
+    private final Clock clock;
+    private final UuidIntMap playerDeliveries;
+    // Son kalıcı yazımdan beri teslimatı değişen oyuncular (değer kullanılmaz)
+    private final UuidIntMap dirtyPlayers = new UuidIntMap();
+    private final RankIndex rankIndex = new RankIndex();
+    private final Object rankLock = new Object();
+    private volatile int totalDeliveries;
+    private volatile long deliverySequence;
+    private final Object publishLock = new Object();
+    private volatile LeaderboardSnapshot snapshot;
     private int winnerCount = 1; // Manuel başlatmada override edilebilir
     
+    /**
+     * A participant's delivery count as handed out by {@link #drainDirty()}.
+     *
+     * @param playerUuid the player's UUID
+     * @param count      the player's current delivery count
+     */
+    public record ParticipantCount(UUID playerUuid, int count) {}
+    
     /**
      * Creates a new ActiveEvent with locked category and item.
      *
@@ -41,13 +68,39 @@ public class ActiveEvent {
             ZonedDateTime startTime,
             ZonedDateTime endTime,
             ZoneId timezone) {
+        this(deliveryName, resolvedCategory, resolvedItem, startTime, endTime, timezone, Clock.systemUTC());
+    }
+    
+    /**
+     * Creates a new ActiveEvent that reads the current time from the given clock.
+     *
+     * @param deliveryName     the delivery event identifier
+     * @param resolvedCategory the resolved category name (locked)
+     * @param resolvedItem     the resolved item name (locked)
+     * @param startTime        the event start time, null if unknown
+     * @param endTime          the event end time, null if open-ended
+     * @param timezone         the event timezone
+     * @param clock            the clock used by {@link #isActive()}
+     */
+    public ActiveEvent(
+            String deliveryName,
+            String resolvedCategory,
+            String resolvedItem,
+            ZonedDateTime startTime,
+            ZonedDateTime endTime,
+            ZoneId timezone,
+            Clock clock) {
         this.deliveryName = deliveryName;
         this.resolvedCategory = resolvedCategory;
         this.resolvedItem = resolvedItem;
-        this.startTime = startTime;
-        this.endTime = endTime;
+        this.material = resolvedItem != null ? Material.matchMaterial(resolvedItem) : null;
+        this.itemMetadata = material != null ? ItemCatalog.ItemMetadata.fallback(material) : null;
+        this.startMillis = startTime != null ? startTime.toInstant().toEpochMilli() : Long.MIN_VALUE;
+        this.endMillis = endTime != null ? endTime.toInstant().toEpochMilli() : Long.MAX_VALUE;
         this.timezone = timezone;
-        this.playerDeliveries = new ConcurrentHashMap<>();
+        this.clock = clock;
+        this.snapshot = LeaderboardSnapshot.empty(deliveryName, clock.millis());
+        this.playerDeliveries = new UuidIntMap();
     }
     
     public String getDeliveryName() {
@@ -62,12 +115,60 @@ public class ActiveEvent {
         return resolvedItem;
     }
     
+    /**
+     * Gets the material resolved from the item name when the event was created.
+     *
+     * @return the material, or null if the item name is not a material
+     */
+    public Material getMaterial() {
+        return material;
+    }
+    
+    /**
+     * Gets the cached display metadata of the item.
+     *
+     * @return the metadata, or null if the item name is not a material
+     */
+    public ItemCatalog.ItemMetadata getItemMetadata() {
+        return itemMetadata;
+    }
+    
+    /**
+     * Gets the item's display name without any lookup.
+     *
+     * @return the display name, or the raw item name if it is not a material
+     */
+    public String getItemDisplayName() {
+        ItemCatalog.ItemMetadata meta = itemMetadata;
+        if (meta != null) return meta.displayName();
+        return resolvedItem != null ? resolvedItem.replace("_", " ") : "Bilinmiyor";
+    }
+    
+    /**
+     * Re-binds the cached metadata from a catalog, e.g. after items.yml was reloaded.
+     *
+     * @param catalog the item catalog
+     */
+    public void bindItemMetadata(ItemCatalog catalog) {
+        if (material != null && catalog != null) {
+            this.itemMetadata = catalog.get(material);
+        }
+    }
+    
     public ZonedDateTime getStartTime() {
-        return startTime;
+        return toZoned(startMillis, Long.MIN_VALUE);
     }
     
     public ZonedDateTime getEndTime() {
-        return endTime;
+        return toZoned(endMillis, Long.MAX_VALUE);
+    }
+    
+    public long getStartMillis() {
+        return startMillis;
+    }
+    
+    public long getEndMillis() {
+        return endMillis;
     }
     
     /**
@@ -77,7 +178,25 @@ public class ActiveEvent {
      * @param endTime the new end time
      */
     public void setEndTime(ZonedDateTime endTime) {
-        this.endTime = endTime;
+        this.endMillis = endTime != null ? endTime.toInstant().toEpochMilli() : Long.MAX_VALUE;
+    }
+    
+    /**
+     * Sets the end time for this event in epoch millis.
+     *
+     * @param endMillis the new end time
+     */
+    public void setEndMillis(long endMillis) {
+        this.endMillis = endMillis;
+    }
+    
+    /**
+     * Gets the time left until the event ends.
+     *
+     * @return remaining millis, 0 if already ended
+     */
+    public long getRemainingMillis() {
+        return Math.max(0L, endMillis - clock.millis());
     }
     
     public ZoneId getTimezone() {
@@ -99,7 +218,72 @@ public class ActiveEvent {
      * @param amount     the number of items delivered
      */
     public void recordDelivery(UUID playerUuid, int amount) {
-        playerDeliveries.merge(playerUuid, amount, Integer::sum);
+        synchronized (rankLock) {
+            boolean known = playerDeliveries.containsKey(playerUuid);
+            int updated = playerDeliveries.addTo(playerUuid, amount);
+            rankIndex.update(playerUuid, known, updated - amount, updated);
+            dirtyPlayers.put(playerUuid, 1);
+            totalDeliveries += amount;
+            deliverySequence++;
+        }
+    }
+
+    /**
+     * Copies the players whose count changed since the last drain with their
+     * current totals, then marks them clean. Only the copy runs under the rank
+     * lock; callers write the result to storage without blocking deliveries.
+     *
+     * @return the changed players, empty if none
+     */
+    public List<ParticipantCount> drainDirty() {
+        synchronized (rankLock) {
+            if (dirtyPlayers.size() == 0) return List.of();
+            List<ParticipantCount> changed = new ArrayList<>(dirtyPlayers.size());
+            dirtyPlayers.forEach((msb, lsb, ignored) ->
+                changed.add(new ParticipantCount(new UUID(msb, lsb), playerDeliveries.getOrDefault(msb, lsb, 0))));
+            dirtyPlayers.clear();
+            return changed;
+        }
+    }
+
+    /**
+     * Marks players changed again, e.g. after their write was rolled back.
+     *
+     * @param players the players to mark
+     */
+    public void markDirty(Collection<UUID> players) {
+        synchronized (rankLock) {
+            for (UUID player : players) {
+                dirtyPlayers.put(player, 1);
+            }
+        }
+    }
+
+    /**
+     * Marks every participant changed, e.g. after a full write was rolled back.
+     */
+    public void markAllDirty() {
+        synchronized (rankLock) {
+            playerDeliveries.forEach((msb, lsb, ignored) -> dirtyPlayers.put(new UUID(msb, lsb), 1));
+        }
+    }
+
+    /**
+     * Marks every player clean, e.g. after the full state was persisted or restored.
+     */
+    public void clearDirty() {
+        synchronized (rankLock) {
+            dirtyPlayers.clear();
+        }
+    }
+
+    /**
+     * Gets the number of players changed since the last drain.
+     *
+     * @return the dirty player count
+     */
+    public int getDirtyCount() {
+        return dirtyPlayers.size();
     }
     
     /**
@@ -112,13 +296,154 @@ public class ActiveEvent {
         return playerDeliveries.getOrDefault(playerUuid, 0);
     }
     
+    /**
+     * Gets the number of players who delivered at least once.
+     *
+     * @return the participant count
+     */
+    public int getParticipantCount() {
+        return playerDeliveries.size();
+    }
+    
+    /**
+     * Iterates over all player deliveries without boxing.
+     *
+     * @param consumer receives the UUID halves and delivery count of each player
+     */
+    public void forEachDelivery(UuidIntMap.EntryConsumer consumer) {
+        playerDeliveries.forEach(consumer);
+    }
+    
+    /**
+     * Visits every participant in leaderboard order, ties by UUID. Walks a
+     * frozen version of the rank index, so deliveries are not blocked.
+     *
+     * @param consumer receives the UUID halves and delivery count of each player
+     */
+    public void forEachRanked(UuidIntMap.EntryConsumer consumer) {
+        RankIndex version;
+        synchronized (rankLock) {
+            version = rankIndex.version();
+        }
+        version.forEachInOrder(consumer);
+    }
+    
+    /**
+     * Gets the leaderboard rank of a player: their position in {@link #getTopN},
+     * so equal delivery counts are ordered by UUID like everywhere else.
+     *
+     * @param playerUuid the player's UUID
+     * @return the 1-based rank, or 0 if the player has not delivered anything
+     */
+    public int getRank(UUID playerUuid) {
+        synchronized (rankLock) {
+            int count = playerDeliveries.getOrDefault(playerUuid, 0);
+            if (count <= 0) {
+                return 0;
+            }
+            return rankIndex.positionOf(playerUuid, count);
+        }
+    }
+    
+    /**
+     * Gets the top entries of the leaderboard.
+     *
+     * @param limit the maximum number of entries
+     * @return entries ordered by delivery count descending, ties by UUID
+     */
+    public List<LeaderboardEntry> getTopN(int limit) {
+        return getEntriesBetween(1, limit);
+    }
+    
+    /**
+     * Gets the leaderboard entries between two positions.
+     *
+     * @param fromPosition the first position (1-based, inclusive)
+     * @param toPosition   the last position (inclusive)
+     * @return entries in leaderboard order, empty if the range is out of bounds
+     */
+    public List<LeaderboardEntry> getEntriesBetween(int fromPosition, int toPosition) {
+        synchronized (rankLock) {
+            return rankIndex.range(fromPosition, toPosition);
+        }
+    }
+    
+    /**
+     * Gets the last published leaderboard snapshot.
+     * Wait-free; may lag behind the live counters by the publish cadence.
+     *
+     * @return the current snapshot, never null
+     */
+    public LeaderboardSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Gets how many deliveries were recorded since the last snapshot.
+     *
+     * @return number of unpublished deliveries
+     */
+    public long getSnapshotBacklog() {
+        return deliverySequence - snapshot.getSequence();
+    }
+    
+    /**
+     * Gets the age of the current snapshot.
+     *
+     * @return millis since the snapshot was taken
+     */
+    public long getSnapshotStalenessMillis() {
+        return snapshot.getStalenessMillis(clock.millis());
+    }
+    
+    /**
+     * Builds and publishes a new leaderboard snapshot from the live rank index.
+     * Only an O(1) version of the index is taken under the rank lock; the
+     * O(participants) copy runs without blocking {@link #recordDelivery}.
+     * Returns the current snapshot unchanged if nothing was delivered since.
+     *
+     * @return the published snapshot
+     */
+    public LeaderboardSnapshot publishSnapshot() {
+        synchronized (publishLock) {
+            LeaderboardSnapshot current = snapshot;
+            if (current.getSequence() == deliverySequence) {
+                return current;
+            }
+            RankIndex version;
+            long sequence;
+            int total;
+            synchronized (rankLock) {
+                version = rankIndex.version();
+                sequence = deliverySequence;
+                total = totalDeliveries;
+            }
+            int n = version.size();
+            long[] msb = new long[n];
+            long[] lsb = new long[n];
+            int[] scores = new int[n];
+            int[] cursor = {0};
+            version.forEachInOrder((hi, lo, score) -> {
+                int i = cursor[0]++;
+                msb[i] = hi;
+                lsb[i] = lo;
+                scores[i] = score;
+            });
+            LeaderboardSnapshot published = new LeaderboardSnapshot(
+                deliveryName, clock.millis(), sequence, total, msb, lsb, scores);
+            snapshot = published;
+            return published;
+        }
+    }
+    
     /**
      * Gets all player deliveries as an unmodifiable map.
+     * Kept for compatibility; prefer {@link #forEachDelivery} for bulk reads.
      *
      * @return map of player UUID to delivery count
      */
     public Map<UUID, Integer> getPlayerDeliveries() {
-        return Collections.unmodifiableMap(playerDeliveries);
+        return playerDeliveries.asMap();
     }
     
     /**
@@ -127,9 +452,7 @@ public class ActiveEvent {
      * @return total delivery count
      */
     public int getTotalDeliveries() {
-        return playerDeliveries.values().stream()
-            .mapToInt(Integer::intValue)
-            .sum();
+        return totalDeliveries;
     }
     
     /**
@@ -140,7 +463,7 @@ public class ActiveEvent {
     public PlaceholderContext toPlaceholderContext() {
         return PlaceholderContext.empty()
             .withEvent(resolvedCategory, resolvedItem, deliveryName)
-            .withTiming(startTime, endTime, timezone);
+            .withTiming(getStartTime(), getEndTime(), timezone);
     }
     
     /**
@@ -149,7 +472,14 @@ public class ActiveEvent {
      * @return true if current time is between start and end time
      */
     public boolean isActive() {
-        ZonedDateTime now = ZonedDateTime.now(timezone);
-        return !now.isBefore(startTime) && now.isBefore(endTime);
+        long now = clock.millis();
+        return now >= startMillis && now < endMillis;
+    }
+    
+    private ZonedDateTime toZoned(long millis, long unset) {
+        if (millis == unset) {
+            return null;
+        }
+        return Instant.ofEpochMilli(millis).atZone(timezone != null ? timezone : ZoneId.systemDefault());
     }
 }
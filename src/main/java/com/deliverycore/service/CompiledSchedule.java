@@ -0,0 +1,378 @@
+package com.deliverycore.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable form of a schedule expression, parsed once so that finding the
+ * next fire time needs no string matching. Supported forms:
+ * <ul>
+ *   <li>{@code every <days> HH:mm[, HH:mm ...]} - days are {@code day},
+ *       {@code weekday}, {@code weekend} or day names joined by commas,
+ *       e.g. {@code every monday,friday 18:00, 21:30};</li>
+ *   <li>{@code every N minutes|hours} - fires every N minutes from local
+ *       midnight, restarting each day;</li>
+ *   <li>five-field cron {@code minute hour day-of-month month day-of-week},
+ *       optionally prefixed with {@code cron}, with {@code *}, ranges,
+ *       lists, steps and three-letter names.</li>
+ * </ul>
+ * Any form may end with {@code except yyyy-MM-dd[, yyyy-MM-dd ...]} to skip
+ * whole days.
+ *
+ * The first two forms compile to a sorted array of minutes within the week,
+ * so the next fire time is one binary search. Cron compiles to bit masks and
+ * walks forward day by day, skipping non-matching months.
+ */
+public final class CompiledSchedule {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    // Şubat 29 gibi seyrek cron günleri için 8 yıl yeter
+    private static final int MAX_CRON_DAYS = 8 * 366;
+
+    private static final Pattern EXCEPT = Pattern.compile("\\s+except\\s+");
+    private static final Pattern WEEKLY = Pattern.compile(
+        "^every\\s+([a-z]+(?:\\s*,\\s*[a-z]+)*)\\s+(\\d{1,2}:\\d{2}(?:[\\s,]+\\d{1,2}:\\d{2})*)$");
+    private static final Pattern INTERVAL = Pattern.compile("^every\\s+(\\d{1,4})\\s+(minutes?|hours?)$");
+    private static final Pattern TIME = Pattern.compile("(\\d{1,2}):(\\d{2})");
+
+    private static final Map<String, DayOfWeek> DAY_MAP = Map.of(
+        "monday", DayOfWeek.MONDAY,
+        "tuesday", DayOfWeek.TUESDAY,
+        "wednesday", DayOfWeek.WEDNESDAY,
+        "thursday", DayOfWeek.THURSDAY,
+        "friday", DayOfWeek.FRIDAY,
+        "saturday", DayOfWeek.SATURDAY,
+        "sunday", DayOfWeek.SUNDAY
+    );
+    private static final List<String> MONTH_NAMES = List.of(
+        "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec");
+    private static final List<String> DOW_NAMES = List.of("sun", "mon", "tue", "wed", "thu", "fri", "sat");
+
+    private final String expression;
+    // Haftalık biçim: Pazartesi 00:00'dan itibaren dakikalar, sıralı; cron için null
+    private final int[] minutesOfWeek;
+    // Cron alanları, bit i = değer i
+    private final long cronMinutes;
+    private final long cronHours;
+    private final long cronDaysOfMonth;
+    private final long cronMonths;
+    private final long cronDaysOfWeek;
+    private final boolean cronAnyDayOfMonth;
+    private final boolean cronAnyDayOfWeek;
+    // Hariç günler (epoch day), sıralı
+    private final long[] excludedDays;
+
+    private CompiledSchedule(String expression, int[] minutesOfWeek, long[] cron, boolean anyDayOfMonth,
+                             boolean anyDayOfWeek, long[] excludedDays) {
+        this.expression = expression;
+        this.minutesOfWeek = minutesOfWeek;
+        this.cronMinutes = cron != null ? cron[0] : 0L;
+        this.cronHours = cron != null ? cron[1] : 0L;
+        this.cronDaysOfMonth = cron != null ? cron[2] : 0L;
+        this.cronMonths = cron != null ? cron[3] : 0L;
+        this.cronDaysOfWeek = cron != null ? cron[4] : 0L;
+        this.cronAnyDayOfMonth = anyDayOfMonth;
+        this.cronAnyDayOfWeek = anyDayOfWeek;
+        this.excludedDays = excludedDays;
+    }
+
+    /**
+     * Compiles a schedule expression.
+     *
+     * @param expression the expression, case-insensitive
+     * @return the compiled schedule, empty if the expression is invalid
+     */
+    public static Optional<CompiledSchedule> compile(String expression) {
+        if (expression == null || expression.isBlank()) {
+            return Optional.empty();
+        }
+        String normalized = expression.trim().toLowerCase(Locale.ROOT);
+
+        long[] excluded = new long[0];
+        String[] parts = EXCEPT.split(normalized, 2);
+        if (parts.length == 2) {
+            String[] dates = parts[1].split("[\\s,]+");
+            excluded = new long[dates.length];
+            try {
+                for (int i = 0; i < dates.length; i++) {
+                    excluded[i] = LocalDate.parse(dates[i]).toEpochDay();
+                }
+            } catch (DateTimeParseException e) {
+                return Optional.empty();
+            }
+            Arrays.sort(excluded);
+        }
+        String body = parts[0];
+
+        Matcher weekly = WEEKLY.matcher(body);
+        if (weekly.matches()) {
+            int[] minutes = compileWeekly(weekly.group(1), weekly.group(2));
+            return minutes == null ? Optional.empty()
+                : Optional.of(new CompiledSchedule(expression, minutes, null, false, false, excluded));
+        }
+        Matcher interval = INTERVAL.matcher(body);
+        if (interval.matches()) {
+            int amount = Integer.parseInt(interval.group(1));
+            int unit = interval.group(2).startsWith("hour") ? 60 : 1;
+            // Çarpmadan önce sınırlanır; taşan çarpım küçük geçerli bir adıma dönüşmez
+            if (amount < 1 || amount > MINUTES_PER_DAY / unit) return Optional.empty();
+            int step = amount * unit;
+            int[] minutes = new int[7 * ((MINUTES_PER_DAY - 1) / step + 1)];
+            int next = 0;
+            for (int day = 0; day < 7; day++) {
+                for (int minute = 0; minute < MINUTES_PER_DAY; minute += step) {
+                    minutes[next++] = day * MINUTES_PER_DAY + minute;
+                }
+            }
+            return Optional.of(new CompiledSchedule(expression, minutes, null, false, false, excluded));
+        }
+
+        String[] fields = body.split("\\s+");
+        int offset = fields[0].equals("cron") ? 1 : 0;
+        if (fields.length - offset != 5) return Optional.empty();
+        long[] cron = new long[5];
+        if ((cron[0] = parseCronField(fields[offset], 0, 59, null)) == 0
+            || (cron[1] = parseCronField(fields[offset + 1], 0, 23, null)) == 0
+            || (cron[2] = parseCronField(fields[offset + 2], 1, 31, null)) == 0
+            || (cron[3] = parseCronField(fields[offset + 3], 1, 12, MONTH_NAMES)) == 0
+            || (cron[4] = parseCronField(fields[offset + 4], 0, 7, DOW_NAMES)) == 0) {
+            return Optional.empty();
+        }
+        // 7 de Pazar
+        if ((cron[4] & (1L << 7)) != 0) {
+            cron[4] = (cron[4] | 1L) & ~(1L << 7);
+        }
+        return Optional.of(new CompiledSchedule(expression, null, cron,
+            fields[offset + 2].equals("*"), fields[offset + 4].equals("*"), excluded));
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Gets the first fire time strictly after the given time, in that time's zone.
+     *
+     * @param after the reference time
+     * @return the next fire time, empty if the schedule never fires again
+     */
+    public Optional<ZonedDateTime> next(ZonedDateTime after) {
+        return Optional.ofNullable(minutesOfWeek != null ? nextWeekly(after) : nextCron(after));
+    }
+
+    /**
+     * Gets the next fire times strictly after the given time.
+     *
+     * @param after the reference time
+     * @param count the number of fire times
+     * @return up to count fire times, ascending
+     */
+    public List<ZonedDateTime> upcoming(ZonedDateTime after, int count) {
+        List<ZonedDateTime> times = new ArrayList<>(Math.max(count, 0));
+        ZonedDateTime cursor = after;
+        while (times.size() < count) {
+            ZonedDateTime next = minutesOfWeek != null ? nextWeekly(cursor) : nextCron(cursor);
+            if (next == null) break;
+            times.add(next);
+            cursor = next;
+        }
+        return times;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    // ==================== Internals ====================
+
+    private ZonedDateTime nextWeekly(ZonedDateTime after) {
+        LocalDateTime local = after.toLocalDateTime().truncatedTo(ChronoUnit.MINUTES);
+        LocalDate weekStart = local.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        int minuteOfWeek = (local.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY
+            + local.getHour() * 60 + local.getMinute();
+        int index = lowerBound(minutesOfWeek, minuteOfWeek);
+        // Her tur ya bir ateşleme dener ya da hariç bir günü atlar; hariç günler sonlu
+        while (true) {
+            if (index == minutesOfWeek.length) {
+                index = 0;
+                weekStart = weekStart.plusWeeks(1);
+            }
+            int minute = minutesOfWeek[index];
+            LocalDate day = weekStart.plusDays(minute / MINUTES_PER_DAY);
+            if (isExcluded(day)) {
+                index = lowerBound(minutesOfWeek, (minute / MINUTES_PER_DAY + 1) * MINUTES_PER_DAY);
+                continue;
+            }
+            int minuteOfDay = minute % MINUTES_PER_DAY;
+            ZonedDateTime candidate = day.atTime(minuteOfDay / 60, minuteOfDay % 60).atZone(after.getZone());
+            if (candidate.isAfter(after)) {
+                return candidate;
+            }
+            index++;
+        }
+    }
+
+    private ZonedDateTime nextCron(ZonedDateTime after) {
+        LocalDateTime local = after.toLocalDateTime().truncatedTo(ChronoUnit.MINUTES);
+        LocalDate day = local.toLocalDate();
+        int fromMinute = local.getHour() * 60 + local.getMinute();
+        LocalDate limit = day.plusDays(MAX_CRON_DAYS);
+        while (day.isBefore(limit)) {
+            if ((cronMonths & (1L << day.getMonthValue())) == 0) {
+                day = day.withDayOfMonth(1).plusMonths(1);
+                fromMinute = 0;
+                continue;
+            }
+            if (matchesDay(day) && !isExcluded(day)) {
+                for (int hour = nextBit(cronHours, fromMinute / 60); hour >= 0; hour = nextBit(cronHours, hour + 1)) {
+                    int firstMinute = hour == fromMinute / 60 ? fromMinute % 60 : 0;
+                    for (int minute = nextBit(cronMinutes, firstMinute); minute >= 0; minute = nextBit(cronMinutes, minute + 1)) {
+                        ZonedDateTime candidate = day.atTime(hour, minute).atZone(after.getZone());
+                        if (candidate.isAfter(after)) {
+                            return candidate;
+                        }
+                    }
+                }
+            }
+            day = day.plusDays(1);
+            fromMinute = 0;
+        }
+        return null;
+    }
+
+    /**
+     * Cron day rule: when both day fields are restricted, either may match.
+     */
+    private boolean matchesDay(LocalDate day) {
+        boolean dayOfMonth = (cronDaysOfMonth & (1L << day.getDayOfMonth())) != 0;
+        boolean dayOfWeek = (cronDaysOfWeek & (1L << (day.getDayOfWeek().getValue() % 7))) != 0;
+        if (cronAnyDayOfMonth || cronAnyDayOfWeek) {
+            return dayOfMonth && dayOfWeek;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    private boolean isExcluded(LocalDate day) {
+        return excludedDays.length > 0 && Arrays.binarySearch(excludedDays, day.toEpochDay()) >= 0;
+    }
+
+    private static int[] compileWeekly(String dayList, String timeList) {
+        boolean[] days = new boolean[7];
+        for (String token : dayList.split("\\s*,\\s*")) {
+            switch (token) {
+                case "day" -> Arrays.fill(days, true);
+                case "weekday", "weekdays" -> Arrays.fill(days, 0, 5, true);
+                case "weekend", "weekends" -> Arrays.fill(days, 5, 7, true);
+                default -> {
+                    DayOfWeek dayOfWeek = DAY_MAP.get(token);
+                    if (dayOfWeek == null) return null;
+                    days[dayOfWeek.getValue() - 1] = true;
+                }
+            }
+        }
+
+        List<Integer> times = new ArrayList<>();
+        Matcher time = TIME.matcher(timeList);
+        while (time.find()) {
+            int hour = Integer.parseInt(time.group(1));
+            int minute = Integer.parseInt(time.group(2));
+            if (hour > 23 || minute > 59) return null;
+            times.add(hour * 60 + minute);
+        }
+
+        int[] minutes = new int[7 * times.size()];
+        int next = 0;
+        for (int day = 0; day < 7; day++) {
+            if (!days[day]) continue;
+            for (int minute : times) {
+                minutes[next++] = day * MINUTES_PER_DAY + minute;
+            }
+        }
+        int[] sorted = Arrays.stream(minutes, 0, next).sorted().distinct().toArray();
+        return sorted.length == 0 ? null : sorted;
+    }
+
+    /**
+     * Parses one cron field into a bit mask, or returns 0 if it is invalid.
+     */
+    private static long parseCronField(String field, int min, int max, List<String> names) {
+        long mask = 0L;
+        for (String part : field.split(",", -1)) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                // Alan sınırını aşan adım tek değer demektir; döngüde taşmasın diye reddedilir
+                step = parseCronValue(part.substring(slash + 1), 1, max, null);
+                if (step < 1) return 0L;
+                part = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                from = parseCronValue(dash >= 0 ? part.substring(0, dash) : part, min, max, names);
+                to = dash >= 0 ? parseCronValue(part.substring(dash + 1), min, max, names)
+                    : slash >= 0 ? max : from;
+                if (from < 0 || to < 0 || from > to) return 0L;
+            }
+            for (int value = from; value <= to; value += step) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    private static int parseCronValue(String value, int min, int max, List<String> names) {
+        if (names != null) {
+            int index = names.indexOf(value);
+            if (index >= 0) {
+                // Ay adları 1'den, gün adları 0'dan başlar
+                return index + min;
+            }
+        }
+        if (value.isEmpty() || value.length() > 9) return -1;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return -1;
+        }
+        int parsed = Integer.parseInt(value);
+        return parsed < min || parsed > max ? -1 : parsed;
+    }
+
+    private static int nextBit(long mask, int from) {
+        if (from >= 64) return -1;
+        long remaining = mask & (-1L << from);
+        return remaining == 0 ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
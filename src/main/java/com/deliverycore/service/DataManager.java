@@ -1,94 +1,124 @@
 package com.deliverycore.service;
 
 import org.bukkit.Bukkit;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.File;
-import java.io.IOException;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.sql.SQLException;
+import java.time.Clock;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Optimize edilmiş Veri Yöneticisi.
+ * - Depolama arka ucu seçilebilir: "yaml" (data.yml + günlük) veya "sqlite" (data.db)
+ * - Oyuncu istatistikleri bellekte tutulur, depoya gruplar halinde yazılır
  * - Asenkron otomatik kayıt (Auto-Save)
  * - Thread-safe veri yapıları
  * - Lag önleyici yapı
  */
 public class DataManager {
 
-    private static final String DATA_FILE = "data.yml";
-    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_ZONED_DATE_TIME;
+    public static final String STORAGE_YAML = "yaml";
+    public static final String STORAGE_SQLITE = "sqlite";
 
     private final JavaPlugin plugin;
-    private final File dataFile;
     private final Logger logger;
-    private YamlConfiguration data;
-
-    private boolean isDirty = false;
-    private final Object lock = new Object();
+    private final Clock clock;
+    private final DataStorage storage;
+    private final PlayerStatsStore statsStore = new PlayerStatsStore();
+    private volatile SeasonCounters seasonCounters;
 
     public DataManager(JavaPlugin plugin) {
+        this(plugin, Clock.systemUTC());
+    }
+
+    public DataManager(JavaPlugin plugin, Clock clock) {
+        this(plugin, clock, STORAGE_YAML);
+    }
+
+    /**
+     * Creates the data manager with the given storage backend.
+     * Falls back to YAML if the SQL backend cannot be opened.
+     *
+     * @param plugin      the plugin
+     * @param clock       the clock used for timestamps
+     * @param storageType "yaml" or "sqlite"
+     */
+    public DataManager(JavaPlugin plugin, Clock clock, String storageType) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
-        this.dataFile = new File(plugin.getDataFolder(), DATA_FILE);
-        loadData();
+        this.clock = clock;
+        this.storage = openStorage(storageType, clock);
+        storage.getAllPlayerStats().values().forEach(statsStore::load);
         startAutoSaveTask();
     }
 
-    /**
-     * Veri dosyasını yükler.
-     */
-    public void loadData() {
-        synchronized (lock) {
-            if (!dataFile.exists()) {
-                try {
-                    if (!dataFile.getParentFile().exists()) {
-                        boolean ignored = dataFile.getParentFile().mkdirs();
-                    }
-                    boolean ignored = dataFile.createNewFile();
-                    data = new YamlConfiguration();
-                    saveDataSync();
-                    logger.info("[DataManager] Yeni veri dosyası oluşturuldu: " + DATA_FILE);
-                } catch (IOException e) {
-                    logger.log(Level.SEVERE, "Veri dosyası oluşturulamadı!", e);
-                }
-            } else {
-                data = YamlConfiguration.loadConfiguration(dataFile);
-                logger.info("[DataManager] Veri dosyası yüklendi: " + DATA_FILE);
+    private DataStorage openStorage(String storageType, Clock clock) {
+        if (STORAGE_SQLITE.equalsIgnoreCase(storageType)) {
+            try {
+                return new SqlDataStorage(plugin.getDataFolder(), logger, clock);
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "[DataManager] SQLite açılamadı, YAML kullanılacak!", e);
             }
+        } else if (!STORAGE_YAML.equalsIgnoreCase(storageType)) {
+            logger.warning("[DataManager] Bilinmeyen depolama türü: " + storageType + ", YAML kullanılacak.");
         }
+        return new YamlDataStorage(plugin.getDataFolder(), logger, clock);
     }
 
     /**
      * Otomatik kayıt görevini başlatır.
-     * config.yml'den süre alınabilir, şimdilik sabit 5 dakika.
+     * Her dakika değişen oyuncu istatistiklerini ve sezon sayaçlarını yazar ve depoya kaydetme fırsatı verir;
+     * ne zaman yazılacağına depo karar verir.
      */
     private void startAutoSaveTask() {
         Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
-            if (isDirty) {
-                saveDataAsync();
-            }
-        }, 6000L, 6000L);
+            flushPlayerStats();
+            flushSeasonCounters();
+            storage.autoSave();
+        }, 1200L, 1200L);
     }
 
     /**
-     * Veriyi asenkron olarak kaydeder.
+     * Gets the active storage backend.
+     *
+     * @return the storage
      */
-    private void saveDataAsync() {
-        synchronized (lock) {
-            if (!isDirty) return;
-            try {
-                data.save(dataFile);
-                isDirty = false;
-            } catch (IOException e) {
-                logger.warning("[DataManager] Asenkron kayıt hatası: " + e.getMessage());
-            }
+    public DataStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Gets the in-memory player stats with the all-time ranking.
+     *
+     * @return the stats store
+     */
+    public PlayerStatsStore getStatsStore() {
+        return statsStore;
+    }
+
+    /**
+     * Sezon sayaçlarını bağlar ve kayıtlı kovaları içine yükler.
+     * Değişen sayaçlar otomatik kayıtta ve kapanışta depoya yazılır.
+     *
+     * @param counters the counters fed by deliveries
+     */
+    public void attachSeasonCounters(SeasonCounters counters) {
+        storage.loadBucketCounts().forEach(counters::load);
+        this.seasonCounters = counters;
+    }
+
+    public SeasonCounters getSeasonCounters() {
+        return seasonCounters;
+    }
+
+    private void flushSeasonCounters() {
+        SeasonCounters counters = seasonCounters;
+        if (counters == null) return;
+        List<SeasonCounters.BucketCount> changed = counters.drainDirty();
+        if (!storage.saveBucketCounts(changed, counters.oldestHour(), counters.oldestDay())) {
+            counters.markDirty(changed);
         }
     }
 
@@ -97,15 +127,25 @@ public class DataManager {
      * Sunucu kapanırken çağrılmalı.
      */
     public void saveDataSync() {
-        synchronized (lock) {
-            try {
-                data.save(dataFile);
-                isDirty = false;
-                logger.info("[DataManager] Veriler diske yazıldı.");
-            } catch (IOException e) {
-                logger.warning("[DataManager] Kayıt hatası: " + e.getMessage());
-            }
-        }
+        flushPlayerStats();
+        flushSeasonCounters();
+        storage.flush();
+    }
+
+    /**
+     * Gets save duration and lock-hold metrics of the storage.
+     *
+     * @return the save metrics
+     */
+    public DataStorage.SaveStats getSaveStats() {
+        return storage.getSaveStats();
+    }
+
+    /**
+     * Depoyu kapatır. saveDataSync'ten sonra, kapanışta çağrılır.
+     */
+    public void close() {
+        storage.close();
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -113,78 +153,36 @@ public class DataManager {
     // ═══════════════════════════════════════════════════════════════
 
     public void saveActiveEvent(ActiveEvent event) {
-        synchronized (lock) {
-            String path = "active-events." + event.getDeliveryName();
-
-            data.set(path + ".category", event.getResolvedCategory());
-            data.set(path + ".item", event.getResolvedItem());
-            data.set(path + ".start-time", event.getStartTime() != null ? event.getStartTime().format(DATE_FORMAT) : null);
-            data.set(path + ".end-time", event.getEndTime() != null ? event.getEndTime().format(DATE_FORMAT) : null);
-            data.set(path + ".timezone", event.getTimezone() != null ? event.getTimezone().getId() : "Europe/Istanbul");
-
-            ConfigurationSection deliveries = data.createSection(path + ".player-deliveries");
-            for (Map.Entry<UUID, Integer> entry : event.getPlayerDeliveries().entrySet()) {
-                deliveries.set(entry.getKey().toString(), entry.getValue());
-            }
+        storage.saveActiveEvent(event);
+    }
 
-            isDirty = true;
-        }
+    public void recordEventStart(ActiveEvent event) {
+        storage.recordEventStart(event);
+    }
+
+    public void recordEventWindow(ActiveEvent event) {
+        storage.recordEventWindow(event);
     }
 
     public void saveAllActiveEvents(List<ActiveEvent> events) {
-        synchronized (lock) {
-            data.set("active-events", null);
-            for (ActiveEvent event : events) {
-                saveActiveEvent(event);
-            }
-        }
+        storage.saveAllActiveEvents(events);
     }
 
-    public List<SavedEventData> loadActiveEvents() {
-        synchronized (lock) {
-            List<SavedEventData> events = new ArrayList<>();
-            ConfigurationSection section = data.getConfigurationSection("active-events");
-            if (section == null) return events;
-
-            for (String deliveryName : section.getKeys(false)) {
-                try {
-                    String path = "active-events." + deliveryName;
-                    String category = data.getString(path + ".category");
-                    String item = data.getString(path + ".item");
-                    String startTimeStr = data.getString(path + ".start-time");
-                    String endTimeStr = data.getString(path + ".end-time");
-                    String timezoneStr = data.getString(path + ".timezone", "Europe/Istanbul");
-
-                    ZoneId timezone = ZoneId.of(timezoneStr);
-                    ZonedDateTime startTime = startTimeStr != null ? ZonedDateTime.parse(startTimeStr, DATE_FORMAT) : null;
-                    ZonedDateTime endTime = endTimeStr != null ? ZonedDateTime.parse(endTimeStr, DATE_FORMAT) : null;
-
-                    Map<UUID, Integer> playerDeliveries = new HashMap<>();
-                    ConfigurationSection deliveriesSection = data.getConfigurationSection(path + ".player-deliveries");
-                    if (deliveriesSection != null) {
-                        for (String uuidStr : deliveriesSection.getKeys(false)) {
-                            try {
-                                UUID uuid = UUID.fromString(uuidStr);
-                                int count = deliveriesSection.getInt(uuidStr);
-                                playerDeliveries.put(uuid, count);
-                            } catch (Exception ignored) {}
-                        }
-                    }
-
-                    events.add(new SavedEventData(deliveryName, category, item, startTime, endTime, timezone, playerDeliveries));
-                } catch (Exception e) {
-                    logger.warning("[DataManager] Etkinlik yüklenemedi: " + deliveryName + " - " + e.getMessage());
-                }
-            }
-            return events;
-        }
+    /**
+     * Etkinliğin sadece değişen katılımcılarını yazar.
+     *
+     * @param event the event
+     */
+    public void persistDirty(ActiveEvent event) {
+        storage.persistDirty(event);
+    }
+
+    public List<DataStorage.SavedEventData> loadActiveEvents() {
+        return storage.loadActiveEvents();
     }
 
     public void removeActiveEvent(String deliveryName) {
-        synchronized (lock) {
-            data.set("active-events." + deliveryName, null);
-            isDirty = true;
-        }
+        storage.removeActiveEvent(deliveryName);
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -192,43 +190,63 @@ public class DataManager {
     // ═══════════════════════════════════════════════════════════════
 
     public void updatePlayerStats(UUID playerUuid, String playerName, int deliveryCount) {
-        synchronized (lock) {
-            String path = "player-stats." + playerUuid.toString();
-            int current = data.getInt(path + ".total-deliveries", 0);
-
-            data.set(path + ".total-deliveries", current + deliveryCount);
-            data.set(path + ".last-name", playerName);
-            data.set(path + ".last-active", ZonedDateTime.now().format(DATE_FORMAT));
+        // Depoya otomatik kayıtta veya kapanışta yazılır
+        statsStore.record(playerUuid, playerName, deliveryCount, clock.millis());
+    }
 
-            isDirty = true;
+    /**
+     * Teslimat hattından gelen birleştirilmiş grubu uygular.
+     * Toplamlar bellekte güncellenir; değişen oyuncular etkinlikle aynı
+     * yazımda mutlak değer olarak depoya gider.
+     *
+     * @param event     the event the deliveries belong to
+     * @param players   the coalesced per-player deliveries
+     * @param saveEvent whether the event itself should be persisted (false once it ended)
+     */
+    public void applyDeliveryBatch(ActiveEvent event, List<DeliveryPipeline.PlayerBatch> players, boolean saveEvent) {
+        long now = clock.millis();
+        for (DeliveryPipeline.PlayerBatch batch : players) {
+            // İsmi bilinmeyen (çevrimdışı / test) teslimatlar istatistiğe yazılmaz
+            if (batch.playerName() == null) continue;
+            statsStore.record(batch.playerUuid(), batch.playerName(), batch.amount(), now);
+        }
+        List<DataStorage.PlayerStats> changed = statsStore.drainDirty();
+        boolean applied;
+        try {
+            applied = storage.applyDeliveryBatch(event, saveEvent, changed);
+        } catch (RuntimeException e) {
+            // Depo hata fırlattı: boşaltılan oyuncular kaybolmasın
+            statsStore.markDirty(changed);
+            throw e;
+        }
+        if (!applied) {
+            // Geri alındı: bir sonraki grupta tekrar yazılır
+            statsStore.markDirty(changed);
         }
     }
 
-    public Map<UUID, PlayerStats> getAllPlayerStats() {
-        synchronized (lock) {
-            Map<UUID, PlayerStats> stats = new HashMap<>();
-            ConfigurationSection section = data.getConfigurationSection("player-stats");
-            if (section == null) return stats;
-
-            for (String uuidStr : section.getKeys(false)) {
-                try {
-                    UUID uuid = UUID.fromString(uuidStr);
-                    String path = "player-stats." + uuidStr;
-                    String name = data.getString(path + ".last-name", "Unknown");
-                    int total = data.getInt(path + ".total-deliveries", 0);
-                    stats.put(uuid, new PlayerStats(uuid, name, total));
-                } catch (Exception ignored) {}
-            }
-            return stats;
+    private void flushPlayerStats() {
+        List<DataStorage.PlayerStats> changed = statsStore.drainDirty();
+        if (!changed.isEmpty() && !storage.savePlayerStats(changed)) {
+            statsStore.markDirty(changed);
         }
     }
 
-    public record SavedEventData(String deliveryName, String category, String item, ZonedDateTime startTime, ZonedDateTime endTime, ZoneId timezone, Map<UUID, Integer> playerDeliveries) {
-        public ActiveEvent toActiveEvent() {
-            ActiveEvent event = new ActiveEvent(deliveryName, category, item, startTime, endTime, timezone);
-            playerDeliveries.forEach(event::recordDelivery);
-            return event;
-        }
+    /**
+     * Oyuncunun son aktif olduğu zamanı döndürür.
+     *
+     * @param playerUuid the player's UUID
+     * @return epoch millis, or 0 if unknown
+     */
+    public long getLastActive(UUID playerUuid) {
+        return statsStore.getLastActive(playerUuid);
+    }
+
+    public Optional<DataStorage.PlayerStats> getPlayerStats(UUID playerUuid) {
+        return statsStore.get(playerUuid);
+    }
+
+    public Map<UUID, DataStorage.PlayerStats> getAllPlayerStats() {
+        return statsStore.getAll();
     }
-    public record PlayerStats(UUID uuid, String name, int totalDeliveries) {}
-}
\ No newline at end of file
+}
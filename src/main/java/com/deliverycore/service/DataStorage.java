@@ -0,0 +1,171 @@
+package com.deliverycore.service;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage backend behind {@link DataManager} for active events and player
+ * stats. Implementations are thread-safe; writes may be buffered until
+ * {@link #autoSave()} or {@link #flush()}.
+ */
+public interface DataStorage extends Closeable {
+
+    /**
+     * Writes the full state of an event, replacing any stored state.
+     *
+     * @param event the event
+     */
+    void saveActiveEvent(ActiveEvent event);
+
+    /**
+     * Replaces all stored events with the given ones.
+     *
+     * @param events the events to keep
+     */
+    void saveAllActiveEvents(List<ActiveEvent> events);
+
+    /**
+     * Writes only the participants changed since the last persist, as absolute counts.
+     * Cost is proportional to the changed players, not to the event size.
+     *
+     * @param event the event
+     */
+    void persistDirty(ActiveEvent event);
+
+    /**
+     * Stores a newly started event, dropping deliveries of an earlier run with the same name.
+     *
+     * @param event the started event
+     */
+    void recordEventStart(ActiveEvent event);
+
+    /**
+     * Stores a changed end time.
+     *
+     * @param event the event whose end time changed
+     */
+    void recordEventWindow(ActiveEvent event);
+
+    void removeActiveEvent(String deliveryName);
+
+    List<SavedEventData> loadActiveEvents();
+
+    /**
+     * Writes players' stats as absolute values, replacing stored ones.
+     *
+     * @param stats the changed players
+     * @return false if the write failed and nothing was stored; the caller
+     *         should mark the players changed again
+     */
+    boolean savePlayerStats(Collection<PlayerStats> stats);
+
+    /**
+     * Applies a coalesced delivery batch in one write: event participation via
+     * {@link #persistDirty(ActiveEvent)} and the changed players' stats.
+     *
+     * @param event        the event the deliveries belong to
+     * @param saveEvent    whether the event itself should be credited (false once it ended)
+     * @param changedStats the players whose stats changed, as absolute values
+     * @return false if the write failed and nothing was stored; the event's
+     *         participants are marked changed again, the caller should do the
+     *         same for the stats
+     */
+    boolean applyDeliveryBatch(ActiveEvent event, boolean saveEvent, Collection<PlayerStats> changedStats);
+
+    /**
+     * Writes changed season counter buckets and drops expired ones.
+     *
+     * @param counts     the changed counts, as absolute values
+     * @param oldestHour the oldest hour bucket to keep
+     * @param oldestDay  the oldest day bucket to keep
+     * @return false if the write failed and nothing was stored; the caller
+     *         should mark the counts changed again
+     */
+    boolean saveBucketCounts(Collection<SeasonCounters.BucketCount> counts, long oldestHour, long oldestDay);
+
+    /**
+     * Loads all stored season counter buckets.
+     *
+     * @return the stored counts
+     */
+    List<SeasonCounters.BucketCount> loadBucketCounts();
+
+    /**
+     * Gets when a player last delivered.
+     *
+     * @param playerUuid the player's UUID
+     * @return epoch millis, or 0 if unknown
+     */
+    long getLastActive(UUID playerUuid);
+
+    /**
+     * Looks up a single player's stats without loading everyone.
+     *
+     * @param playerUuid the player's UUID
+     * @return the stats, or empty if the player never delivered
+     */
+    Optional<PlayerStats> getPlayerStats(UUID playerUuid);
+
+    Map<UUID, PlayerStats> getAllPlayerStats();
+
+    /**
+     * Periodic persistence, called off the main thread.
+     */
+    void autoSave();
+
+    /**
+     * Persists everything now. Called on shutdown.
+     */
+    void flush();
+
+    /**
+     * Gets save timing metrics.
+     *
+     * @return the current metrics
+     */
+    SaveStats getSaveStats();
+
+    @Override
+    void close();
+
+    record SavedEventData(String deliveryName, String category, String item, ZonedDateTime startTime, ZonedDateTime endTime, ZoneId timezone, Map<UUID, Integer> playerDeliveries) {
+        public ActiveEvent toActiveEvent() {
+            return toActiveEvent(Clock.systemUTC());
+        }
+
+        public ActiveEvent toActiveEvent(Clock clock) {
+            ActiveEvent event = new ActiveEvent(deliveryName, category, item, startTime, endTime, timezone, clock);
+            playerDeliveries.forEach(event::recordDelivery);
+            // Yüklenen değerler zaten kayıtlı
+            event.clearDirty();
+            return event;
+        }
+    }
+
+    /**
+     * A player's all-time stats.
+     *
+     * @param uuid            the player's UUID
+     * @param name            the last known name
+     * @param totalDeliveries the all-time delivered amount
+     * @param lastActive      when the player last delivered, epoch millis or 0
+     */
+    record PlayerStats(UUID uuid, String name, int totalDeliveries, long lastActive) {}
+
+    /**
+     * Save timing metrics.
+     *
+     * @param saves             completed saves
+     * @param lastSaveNanos     duration of the last save, including disk I/O
+     * @param lastLockHoldNanos how long the last save held the data lock
+     * @param maxLockHoldNanos  longest data lock hold of any save
+     */
+    record SaveStats(long saves, long lastSaveNanos, long lastLockHoldNanos, long maxLockHoldNanos) {}
+}
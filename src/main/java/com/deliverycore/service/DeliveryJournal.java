@@ -0,0 +1,384 @@
+package com.deliverycore.service;
+
+import com.deliverycore.util.AtomicFiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of changed participant and player-stats totals, season counter buckets, and event lifecycle records.
+ * {@link YamlDataStorage} keeps data.yml as the snapshot and appends every change
+ * here; compaction {@link #rotate(File) seals} the journal, writes the snapshot
+ * with the last applied sequence number and deletes the sealed segment. On
+ * startup records newer than the snapshot's sequence are replayed, so a crash loses at most what was not
+ * yet {@link #flush() flushed}.
+ *
+ * Layout: an 8-byte magic/version header and the base sequence, followed by
+ * records of {@code [int length][byte type][long seq][payload][int crc32]}.
+ * A torn or corrupt tail is cut off when the journal is opened.
+ */
+public final class DeliveryJournal implements Closeable {
+
+    private static final int MAGIC = 0x44434A31; // "DCJ1"
+    private static final int HEADER_BYTES = 4 + 8;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private static final byte EVENT_STARTED = 1;
+    private static final byte EVENT_WINDOW = 2;
+    // 3: eski DELIVERY (delta) kaydı; artık yazılmıyor, okurken atlanır
+    private static final byte EVENT_ENDED = 4;
+    private static final byte PARTICIPANT = 5;
+    private static final byte PLAYER_STATS = 6;
+    private static final byte BUCKET_COUNT = 7;
+
+    /**
+     * Receives replayed records in append order.
+     */
+    public interface Visitor {
+        void eventStarted(long seq, String deliveryName, String category, String item,
+                          long startMillis, long endMillis, String zoneId);
+
+        void eventWindow(long seq, String deliveryName, long endMillis);
+
+        void eventEnded(long seq, String deliveryName);
+
+        /**
+         * A participant's absolute count in an event.
+         *
+         * @param seq          the record sequence
+         * @param deliveryName the event
+         * @param playerUuid   the player's UUID
+         * @param amount       the player's total in the event
+         */
+        void participant(long seq, String deliveryName, UUID playerUuid, int amount);
+
+        /**
+         * A player's absolute all-time stats.
+         *
+         * @param seq             the record sequence
+         * @param playerUuid      the player's UUID
+         * @param playerName      the last known name
+         * @param totalDeliveries the all-time delivered amount
+         * @param lastActive      when the player last delivered
+         */
+        void playerStats(long seq, UUID playerUuid, String playerName, int totalDeliveries, long lastActive);
+
+        /**
+         * A player's absolute count in a season counter bucket.
+         *
+         * @param seq         the record sequence
+         * @param granularity the bucket size
+         * @param bucket      the bucket key
+         * @param playerUuid  the player's UUID
+         * @param amount      the player's total in the bucket
+         */
+        void bucketCount(long seq, SeasonCounters.Granularity granularity, long bucket, UUID playerUuid, int amount);
+    }
+
+    private final File file;
+    private final boolean fsync;
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(128);
+    private final DataOutputStream record = new DataOutputStream(recordBuffer);
+    private final CRC32 crc = new CRC32();
+    private FileOutputStream fileOut;
+    private DataOutputStream out;
+    private long baseSequence;
+    private long lastSequence;
+    private long sizeBytes;
+
+    /**
+     * Opens or creates a journal.
+     *
+     * @param file  the journal file
+     * @param fsync whether {@link #flush()} should also force the data to disk
+     * @throws IOException if the file cannot be read or created
+     */
+    public DeliveryJournal(File file, boolean fsync) throws IOException {
+        this.file = file;
+        this.fsync = fsync;
+        open();
+    }
+
+    /**
+     * Gets the sequence of the last appended record, or the base sequence if none.
+     *
+     * @return last sequence number
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Gets the journal size on disk, including buffered bytes.
+     *
+     * @return size in bytes
+     */
+    public synchronized long size() {
+        return sizeBytes;
+    }
+
+    public synchronized long appendEventStarted(String deliveryName, String category, String item,
+                                                long startMillis, long endMillis, String zoneId) throws IOException {
+        begin(EVENT_STARTED);
+        record.writeUTF(deliveryName);
+        writeNullable(category);
+        writeNullable(item);
+        record.writeLong(startMillis);
+        record.writeLong(endMillis);
+        writeNullable(zoneId);
+        return commit();
+    }
+
+    public synchronized long appendEventWindow(String deliveryName, long endMillis) throws IOException {
+        begin(EVENT_WINDOW);
+        record.writeUTF(deliveryName);
+        record.writeLong(endMillis);
+        return commit();
+    }
+
+    public synchronized long appendParticipant(String deliveryName, UUID playerUuid, int amount) throws IOException {
+        begin(PARTICIPANT);
+        record.writeUTF(deliveryName);
+        record.writeLong(playerUuid.getMostSignificantBits());
+        record.writeLong(playerUuid.getLeastSignificantBits());
+        record.writeInt(amount);
+        return commit();
+    }
+
+    public synchronized long appendPlayerStats(UUID playerUuid, String playerName, int totalDeliveries,
+                                               long lastActive) throws IOException {
+        begin(PLAYER_STATS);
+        record.writeLong(playerUuid.getMostSignificantBits());
+        record.writeLong(playerUuid.getLeastSignificantBits());
+        writeNullable(playerName);
+        record.writeInt(totalDeliveries);
+        record.writeLong(lastActive);
+        return commit();
+    }
+
+    public synchronized long appendBucketCount(SeasonCounters.Granularity granularity, long bucket,
+                                               UUID playerUuid, int amount) throws IOException {
+        begin(BUCKET_COUNT);
+        record.writeByte(granularity.ordinal());
+        record.writeLong(bucket);
+        record.writeLong(playerUuid.getMostSignificantBits());
+        record.writeLong(playerUuid.getLeastSignificantBits());
+        record.writeInt(amount);
+        return commit();
+    }
+
+    public synchronized long appendEventEnded(String deliveryName) throws IOException {
+        begin(EVENT_ENDED);
+        record.writeUTF(deliveryName);
+        return commit();
+    }
+
+    /**
+     * Pushes buffered records to the file.
+     *
+     * @throws IOException if writing fails
+     */
+    public synchronized void flush() throws IOException {
+        out.flush();
+        if (fsync) {
+            fileOut.getFD().sync();
+        }
+    }
+
+    /**
+     * Replays records newer than a sequence.
+     *
+     * @param afterSequence records with a sequence at or below this are skipped
+     * @param visitor       the record visitor
+     * @return the number of records replayed
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized int replay(long afterSequence, Visitor visitor) throws IOException {
+        out.flush();
+        return replay(file, afterSequence, visitor);
+    }
+
+    /**
+     * Replays a closed journal file, e.g. a segment sealed by {@link #rotate(File)}.
+     *
+     * @param file          the journal file
+     * @param afterSequence records with a sequence at or below this are skipped
+     * @param visitor       the record visitor
+     * @return the number of records replayed
+     * @throws IOException if the file cannot be read
+     */
+    public static int replay(File file, long afterSequence, Visitor visitor) throws IOException {
+        int replayed = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Geçersiz günlük dosyası: " + file.getName());
+            }
+            in.readLong();
+            byte[] body;
+            while ((body = readRecord(in, crc)) != null) {
+                DataInputStream r = new DataInputStream(new java.io.ByteArrayInputStream(body));
+                byte type = r.readByte();
+                long seq = r.readLong();
+                if (seq <= afterSequence) continue;
+                switch (type) {
+                    case EVENT_STARTED -> visitor.eventStarted(seq, r.readUTF(), readNullable(r), readNullable(r),
+                        r.readLong(), r.readLong(), readNullable(r));
+                    case EVENT_WINDOW -> visitor.eventWindow(seq, r.readUTF(), r.readLong());
+                    case EVENT_ENDED -> visitor.eventEnded(seq, r.readUTF());
+                    case PARTICIPANT -> visitor.participant(seq, r.readUTF(), new UUID(r.readLong(), r.readLong()), r.readInt());
+                    case PLAYER_STATS -> visitor.playerStats(seq, new UUID(r.readLong(), r.readLong()),
+                        readNullable(r), r.readInt(), r.readLong());
+                    case BUCKET_COUNT -> visitor.bucketCount(seq, SeasonCounters.Granularity.values()[r.readByte()],
+                        r.readLong(), new UUID(r.readLong(), r.readLong()), r.readInt());
+                    default -> { continue; }
+                }
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Seals the current records into another file and starts an empty journal.
+     * Used by snapshot saves: the sealed segment is deleted once the snapshot
+     * is on disk, so records appended while it is written stay in the journal.
+     * Only a rename and a header write happen here.
+     *
+     * @param sealed the file that receives the current records, replaced if present
+     * @throws IOException if the file cannot be moved or recreated
+     */
+    public synchronized void rotate(File sealed) throws IOException {
+        try {
+            out.close();
+            AtomicFiles.move(file.toPath(), sealed.toPath());
+        } catch (IOException e) {
+            // Taşınamadı: kayıtlar yerinde, günlük yazılabilir kalır
+            openForAppend();
+            throw e;
+        }
+        try {
+            writeHeader(lastSequence);
+        } catch (IOException e) {
+            // Boş günlük oluşturulamadı: mühürlenen kayıtlar geri alınır
+            AtomicFiles.move(sealed.toPath(), file.toPath());
+            openForAppend();
+            throw e;
+        }
+        baseSequence = lastSequence;
+        openForAppend();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    // ==================== Internals ====================
+
+    private void begin(byte type) throws IOException {
+        recordBuffer.reset();
+        record.writeByte(type);
+        record.writeLong(lastSequence + 1);
+    }
+
+    private long commit() throws IOException {
+        record.flush();
+        byte[] body = recordBuffer.toByteArray();
+        crc.reset();
+        crc.update(body);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeInt((int) crc.getValue());
+        sizeBytes += 4 + body.length + 4;
+        return ++lastSequence;
+    }
+
+    private void writeNullable(String value) throws IOException {
+        record.writeBoolean(value != null);
+        if (value != null) {
+            record.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private void open() throws IOException {
+        if (!file.exists() || file.length() < HEADER_BYTES) {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists()) {
+                boolean ignored = parent.mkdirs();
+            }
+            writeHeader(0L);
+            baseSequence = 0L;
+            lastSequence = 0L;
+            openForAppend();
+            return;
+        }
+
+        long validEnd = HEADER_BYTES;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Geçersiz günlük dosyası: " + file.getName());
+            }
+            baseSequence = in.readLong();
+            lastSequence = baseSequence;
+            byte[] body;
+            while ((body = readRecord(in, crc)) != null) {
+                long seq = new DataInputStream(new java.io.ByteArrayInputStream(body, 1, 8)).readLong();
+                lastSequence = Math.max(lastSequence, seq);
+                validEnd += 4 + body.length + 4;
+            }
+        }
+        if (validEnd < file.length()) {
+            // Yarım kalmış kayıt kesilir, yeni kayıtlar arkasında kaybolmasın
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validEnd);
+            }
+        }
+        openForAppend();
+    }
+
+    private void openForAppend() throws IOException {
+        fileOut = new FileOutputStream(file, true);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut, 8192));
+        sizeBytes = file.length();
+    }
+
+    private void writeHeader(long base) throws IOException {
+        try (DataOutputStream header = new DataOutputStream(new FileOutputStream(file, false))) {
+            header.writeInt(MAGIC);
+            header.writeLong(base);
+        }
+    }
+
+    /** Reads one record body, or null at the end or at a torn/corrupt record. */
+    private static byte[] readRecord(DataInputStream in, CRC32 crc) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length < 9 || length > MAX_RECORD_BYTES) return null;
+            byte[] body = new byte[length];
+            in.readFully(body);
+            int expected = in.readInt();
+            crc.reset();
+            crc.update(body);
+            return (int) crc.getValue() == expected ? body : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+}
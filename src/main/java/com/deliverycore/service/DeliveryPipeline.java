@@ -0,0 +1,157 @@
+package com.deliverycore.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Every accepted delivery is queued on a lock-free queue; {@link #flush()} drains
+ * it, coalesces the records per event and per player, and hands each event's
+ * batch to the {@link BatchHandler} once. The owner flushes on a fixed tick
+ * interval, a backlog that reaches the configured limit schedules one early
+ * flush on the flush executor (the submitting thread never writes storage),
+ * and event end / shutdown flush synchronously so no delivery is lost.
+ */
+public class DeliveryPipeline {
+
+    private static final Logger LOGGER = Logger.getLogger(DeliveryPipeline.class.getName());
+
+    /**
+     * Coalesced deliveries of one player within a single flush.
+     *
+     * @param playerUuid the player's UUID
+     * @param playerName the last known player name, null if the player was offline
+     * @param amount     the summed delivery amount
+     */
+    public record PlayerBatch(UUID playerUuid, String playerName, int amount) {}
+
+    /**
+     * Receives coalesced batches.
+     */
+    @FunctionalInterface
+    public interface BatchHandler {
+        /**
+         * Applies one event's batch.
+         *
+         * @param event   the event the deliveries were recorded on
+         * @param players the coalesced per-player deliveries
+         */
+        void apply(ActiveEvent event, List<PlayerBatch> players);
+    }
+
+    private record Pending(ActiveEvent event, UUID playerUuid, String playerName, int amount) {}
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private final BatchHandler handler;
+    private final int maxPending;
+    private final Executor flushExecutor;
+
+    /**
+     * Creates a new pipeline that runs early flushes on the submitting thread.
+     *
+     * @param handler    the batch handler
+     * @param maxPending the backlog size that triggers an early flush
+     */
+    public DeliveryPipeline(BatchHandler handler, int maxPending) {
+        this(handler, maxPending, Runnable::run);
+    }
+
+    /**
+     * Creates a new pipeline.
+     *
+     * @param handler       the batch handler
+     * @param maxPending    the backlog size that triggers an early flush
+     * @param flushExecutor runs early flushes, normally a worker pool
+     */
+    public DeliveryPipeline(BatchHandler handler, int maxPending, Executor flushExecutor) {
+        this.handler = handler;
+        this.maxPending = Math.max(1, maxPending);
+        this.flushExecutor = flushExecutor;
+    }
+
+    /**
+     * Queues a delivery that was already applied to the event.
+     *
+     * @param event      the event
+     * @param playerUuid the player's UUID
+     * @param playerName the player's name, null if unknown
+     * @param amount     the delivered amount
+     */
+    public void submit(ActiveEvent event, UUID playerUuid, String playerName, int amount) {
+        queue.add(new Pending(event, playerUuid, playerName, amount));
+        if (pending.incrementAndGet() >= maxPending && flushScheduled.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(this::scheduledFlush);
+            } catch (RejectedExecutionException e) {
+                // Kapanışta: periyodik/son flush kuyruğu boşaltır
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } finally {
+            flushScheduled.set(false);
+        }
+    }
+
+    /**
+     * Gets the number of queued, not yet flushed deliveries.
+     *
+     * @return backlog size
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Drains the queue and applies the coalesced batches.
+     * Safe to call from any thread; concurrent flushes are serialized.
+     *
+     * @return the number of raw deliveries flushed
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            Map<ActiveEvent, Map<UUID, PlayerBatch>> batches = new LinkedHashMap<>();
+            int drained = 0;
+            Pending next;
+            while ((next = queue.poll()) != null) {
+                drained++;
+                Pending p = next;
+                batches.computeIfAbsent(p.event(), e -> new LinkedHashMap<>())
+                    .merge(p.playerUuid(), new PlayerBatch(p.playerUuid(), p.playerName(), p.amount()),
+                        (a, b) -> new PlayerBatch(a.playerUuid(),
+                            b.playerName() != null ? b.playerName() : a.playerName(),
+                            a.amount() + b.amount()));
+            }
+            if (drained == 0) {
+                return 0;
+            }
+            pending.addAndGet(-drained);
+
+            for (Map.Entry<ActiveEvent, Map<UUID, PlayerBatch>> entry : batches.entrySet()) {
+                try {
+                    handler.apply(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Teslimat grubu uygulanamadı: " + entry.getKey().getDeliveryName(), e);
+                }
+            }
+            return drained;
+        }
+    }
+}
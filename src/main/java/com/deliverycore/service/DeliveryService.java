@@ -1,6 +1,8 @@
 package com.deliverycore.service;
 
 import com.deliverycore.model.Winner;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,7 +32,8 @@ public interface DeliveryService {
     Optional<ActiveEvent> startEvent(String deliveryName, boolean force);
     
     /**
-     * Ends a delivery event and calculates winners.
+     * Ends a delivery event and calculates winners. The delivery's schedule
+     * is left in place, so its next window still starts.
      *
      * @param deliveryName the name of the delivery to end
      * @return the list of winners, empty if event wasn't active
@@ -62,6 +65,33 @@ public interface DeliveryService {
      */
     List<ActiveEvent> getAllActiveEvents();
     
+    /**
+     * Gets the active events that want a material.
+     *
+     * @param material the material
+     * @return events in start order, empty if none
+     */
+    List<ActiveEvent> getActiveEventsFor(Material material);
+    
+    /**
+     * Routes inventory contents to active events in a single pass.
+     * Each stack goes to the running event for its material that ends soonest.
+     * The contents are not modified.
+     *
+     * @param contents the inventory contents
+     * @return one route per event that has at least one matching stack
+     */
+    List<DeliveryRoute> routeContents(ItemStack[] contents);
+    
+    /**
+     * Matching stacks of an inventory for one event.
+     *
+     * @param event  the target event
+     * @param amount the total item amount in the slots
+     * @param slots  the inventory slot indexes holding the items
+     */
+    record DeliveryRoute(ActiveEvent event, int amount, int[] slots) {}
+    
     /**
      * Calculates winners for an event based on delivery counts.
      *
@@ -72,6 +102,23 @@ public interface DeliveryService {
      */
     List<Winner> calculateWinners(ActiveEvent event, int winnerCount, PlayerNameResolver nameResolver);
     
+    /**
+     * Receives event starts and ends, e.g. to journal them.
+     */
+    interface EventLifecycleListener {
+        void onEventStarted(ActiveEvent event);
+
+        void onEventEnded(ActiveEvent event);
+    }
+
+    /**
+     * Receives every accepted delivery, e.g. to feed season counters.
+     */
+    @FunctionalInterface
+    interface DeliveryListener {
+        void onDelivery(ActiveEvent event, UUID playerUuid, int amount);
+    }
+
     /**
      * Functional interface for resolving player names from UUIDs.
      */
@@ -4,10 +4,14 @@ import com.deliverycore.config.DeliveryConfig;
 import com.deliverycore.event.DeliveryDeliverEvent;
 import com.deliverycore.model.Category;
 import com.deliverycore.model.DeliveryDefinition;
+import com.deliverycore.model.LeaderboardEntry;
 import com.deliverycore.model.Winner;
 import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
 
+import java.time.Clock;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -20,12 +24,73 @@ public class DeliveryServiceImpl implements DeliveryService {
     private final DeliveryConfig deliveryConfig;
     private final CategoryService categoryService;
     private final SchedulerService schedulerService;
+    private final Clock clock;
     private final Map<String, ActiveEvent> activeEvents = new ConcurrentHashMap<>();
+    private volatile DeliveryPipeline deliveryPipeline;
+    private volatile ItemCatalog itemCatalog;
+    private volatile EventLifecycleListener lifecycleListener;
+    private volatile DeliveryListener deliveryListener;
+    private volatile PlayerNameResolver nameResolver = uuid -> null;
+    // Eşya -> o eşyayı isteyen etkinlikler; listeler kopyala-değiştir ile güncellenir
+    private final Map<Material, List<ActiveEvent>> eventsByMaterial = new ConcurrentHashMap<>();
+    private final Object indexLock = new Object();
 
     public DeliveryServiceImpl(DeliveryConfig deliveryConfig, CategoryService categoryService, SchedulerService schedulerService) {
+        this(deliveryConfig, categoryService, schedulerService, Clock.systemUTC());
+    }
+
+    public DeliveryServiceImpl(DeliveryConfig deliveryConfig, CategoryService categoryService,
+                               SchedulerService schedulerService, Clock clock) {
         this.deliveryConfig = deliveryConfig;
         this.categoryService = categoryService;
         this.schedulerService = schedulerService;
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the pipeline that batches persistence and stats for recorded deliveries.
+     *
+     * @param deliveryPipeline the pipeline, or null to disable batching
+     */
+    public void setDeliveryPipeline(DeliveryPipeline deliveryPipeline) {
+        this.deliveryPipeline = deliveryPipeline;
+    }
+
+    /**
+     * Sets the catalog that started and restored events take their item metadata from.
+     *
+     * @param itemCatalog the item catalog, or null for enum-name fallbacks
+     */
+    public void setItemCatalog(ItemCatalog itemCatalog) {
+        this.itemCatalog = itemCatalog;
+    }
+
+    /**
+     * Sets the listener notified when events start and end.
+     *
+     * @param lifecycleListener the listener, or null for none
+     */
+    public void setLifecycleListener(EventLifecycleListener lifecycleListener) {
+        this.lifecycleListener = lifecycleListener;
+    }
+
+    /**
+     * Sets the listener notified of every recorded delivery.
+     *
+     * @param deliveryListener the listener, or null for none
+     */
+    public void setDeliveryListener(DeliveryListener deliveryListener) {
+        this.deliveryListener = deliveryListener;
+    }
+
+    /**
+     * Sets the resolver that names winners when an event ends. Runs on the
+     * thread that ends the event, so it must not call into Bukkit.
+     *
+     * @param nameResolver the resolver, returning null for unknown players
+     */
+    public void setNameResolver(PlayerNameResolver nameResolver) {
+        this.nameResolver = nameResolver != null ? nameResolver : uuid -> null;
     }
 
     @Override
@@ -59,12 +124,21 @@ public class DeliveryServiceImpl implements DeliveryService {
                 LOGGER.warning("Item could not be resolved for delivery: " + deliveryName);
                 return Optional.empty();
             }
+            if (Material.matchMaterial(item) == null) {
+                LOGGER.warning("Resolved item is not a material for delivery " + deliveryName + ": " + item);
+                return Optional.empty();
+            }
 
-            ZonedDateTime now = ZonedDateTime.now(def.timezone());
+            ZonedDateTime now = ZonedDateTime.now(clock.withZone(def.timezone()));
             ZonedDateTime endTime = schedulerService.getNextOccurrence(def.schedule().end(), def.timezone()).orElse(now.plusHours(1));
 
-            ActiveEvent event = new ActiveEvent(deliveryName, category.name(), item, now, endTime, def.timezone());
-            activeEvents.put(deliveryName, event);
+            ActiveEvent event = new ActiveEvent(deliveryName, category.name(), item, now, endTime, def.timezone(), clock);
+            event.bindItemMetadata(itemCatalog);
+            register(event);
+            EventLifecycleListener listener = lifecycleListener;
+            if (listener != null) {
+                listener.onEventStarted(event);
+            }
             LOGGER.info("Started delivery: " + deliveryName + " [" + category.name() + ", " + item + "]");
             return Optional.of(event);
         } catch (Exception e) {
@@ -75,21 +149,30 @@ public class DeliveryServiceImpl implements DeliveryService {
 
     @Override
     public List<Winner> endEvent(String deliveryName) {
-        ActiveEvent event = activeEvents.remove(deliveryName);
-        if (event == null) return List.of();
+        ActiveEvent event = activeEvents.get(deliveryName);
+        if (event == null || !unregister(event)) return List.of();
 
-        if (schedulerService != null) {
-            schedulerService.cancelScheduledEvent(deliveryName);
+        // Bekleyen teslimatlar kazananlar hesaplanmadan önce yazılır
+        DeliveryPipeline pipeline = deliveryPipeline;
+        if (pipeline != null) {
+            pipeline.flush();
+        }
+        EventLifecycleListener listener = lifecycleListener;
+        if (listener != null) {
+            listener.onEventEnded(event);
         }
 
+        // Zamanlama iptal edilmez: sonraki pencere zamanlayıcıda kurulu kalır
         int winnerCount = event.getWinnerCount();
         if (winnerCount <= 0) {
             winnerCount = deliveryConfig.getDelivery(deliveryName).map(DeliveryDefinition::winnerCount).orElse(1);
         }
 
+        // Zamanlayıcı thread'inde çalışabilir; isimler Bukkit yerine önbellekten gelir
+        PlayerNameResolver resolver = nameResolver;
         List<Winner> winners = calculateWinners(event, winnerCount, uuid -> {
-            Player p = Bukkit.getPlayer(uuid);
-            return p != null ? p.getName() : "Player_" + uuid.toString().substring(0, 8);
+            String name = resolver.resolve(uuid);
+            return name != null ? name : "Player_" + uuid.toString().substring(0, 8);
         });
         LOGGER.info("Ended delivery: " + deliveryName + " with " + winners.size() + " winners");
         return winners;
@@ -118,6 +201,16 @@ public class DeliveryServiceImpl implements DeliveryService {
         }
 
         event.recordDelivery(playerUuid, amount);
+
+        DeliveryListener listener = deliveryListener;
+        if (listener != null) {
+            listener.onDelivery(event, playerUuid, amount);
+        }
+
+        DeliveryPipeline pipeline = deliveryPipeline;
+        if (pipeline != null) {
+            pipeline.submit(event, playerUuid, player != null ? player.getName() : null, amount);
+        }
         return true;
     }
 
@@ -133,25 +226,103 @@ public class DeliveryServiceImpl implements DeliveryService {
 
     public void restoreEvent(ActiveEvent event) {
         if (event != null && event.getDeliveryName() != null) {
-            activeEvents.put(event.getDeliveryName(), event);
+            event.bindItemMetadata(itemCatalog);
+            register(event);
             LOGGER.info("Restored event: " + event.getDeliveryName());
         }
     }
 
+    @Override
+    public List<ActiveEvent> getActiveEventsFor(Material material) {
+        if (material == null) return List.of();
+        return eventsByMaterial.getOrDefault(material, List.of());
+    }
+
+    @Override
+    public List<DeliveryRoute> routeContents(ItemStack[] contents) {
+        if (contents == null || eventsByMaterial.isEmpty()) return List.of();
+
+        Map<ActiveEvent, int[]> amounts = new LinkedHashMap<>();
+        Map<ActiveEvent, List<Integer>> slots = new HashMap<>();
+        Material lastType = null;
+        ActiveEvent lastTarget = null;
+        for (int i = 0; i < contents.length; i++) {
+            ItemStack stack = contents[i];
+            if (stack == null) continue;
+            Material type = stack.getType();
+            // Aynı tür art arda geldiğinde hedefi tekrar arama
+            if (type != lastType) {
+                lastType = type;
+                lastTarget = null;
+                for (ActiveEvent candidate : eventsByMaterial.getOrDefault(type, List.of())) {
+                    // Manuel başlatmada bitiş sonradan değişebilir, sırayı burada belirle
+                    if (candidate.isActive()
+                            && (lastTarget == null || candidate.getEndMillis() < lastTarget.getEndMillis())) {
+                        lastTarget = candidate;
+                    }
+                }
+            }
+            if (lastTarget == null) continue;
+            amounts.computeIfAbsent(lastTarget, e -> new int[1])[0] += stack.getAmount();
+            slots.computeIfAbsent(lastTarget, e -> new ArrayList<>()).add(i);
+        }
+
+        List<DeliveryRoute> routes = new ArrayList<>(amounts.size());
+        for (Map.Entry<ActiveEvent, int[]> entry : amounts.entrySet()) {
+            int[] slotArray = slots.get(entry.getKey()).stream().mapToInt(Integer::intValue).toArray();
+            routes.add(new DeliveryRoute(entry.getKey(), entry.getValue()[0], slotArray));
+        }
+        return routes;
+    }
+
+    private void register(ActiveEvent event) {
+        synchronized (indexLock) {
+            ActiveEvent previous = activeEvents.put(event.getDeliveryName(), event);
+            if (previous != null) {
+                removeFromIndex(previous);
+            }
+            Material material = event.getMaterial();
+            if (material == null) {
+                LOGGER.warning("Unknown material for delivery " + event.getDeliveryName() + ": " + event.getResolvedItem());
+                return;
+            }
+            List<ActiveEvent> updated = new ArrayList<>(eventsByMaterial.getOrDefault(material, List.of()));
+            updated.add(event);
+            eventsByMaterial.put(material, List.copyOf(updated));
+        }
+    }
+
+    private boolean unregister(ActiveEvent event) {
+        synchronized (indexLock) {
+            if (!activeEvents.remove(event.getDeliveryName(), event)) {
+                return false;
+            }
+            removeFromIndex(event);
+            return true;
+        }
+    }
+
+    private void removeFromIndex(ActiveEvent event) {
+        Material material = event.getMaterial();
+        if (material == null) return;
+        List<ActiveEvent> current = eventsByMaterial.getOrDefault(material, List.of());
+        List<ActiveEvent> updated = current.stream().filter(e -> e != event).toList();
+        if (updated.isEmpty()) {
+            eventsByMaterial.remove(material);
+        } else {
+            eventsByMaterial.put(material, updated);
+        }
+    }
+
     @Override
     public List<Winner> calculateWinners(ActiveEvent event, int winnerCount, PlayerNameResolver nameResolver) {
-        Map<UUID, Integer> deliveries = event.getPlayerDeliveries();
-        if (deliveries.isEmpty()) return List.of();
-
-        List<Map.Entry<UUID, Integer>> sorted = deliveries.entrySet().stream()
-                .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed())
-                .limit(winnerCount)
-                .toList();
-
-        List<Winner> winners = new ArrayList<>();
-        int rank = 1;
-        for (Map.Entry<UUID, Integer> entry : sorted) {
-            winners.add(new Winner(entry.getKey(), nameResolver.resolve(entry.getKey()), entry.getValue(), rank++));
+        List<LeaderboardEntry> top = event.getTopN(winnerCount);
+        if (top.isEmpty()) return List.of();
+
+        List<Winner> winners = new ArrayList<>(top.size());
+        for (LeaderboardEntry entry : top) {
+            winners.add(new Winner(entry.playerUuid(), nameResolver.resolve(entry.playerUuid()),
+                    entry.deliveryCount(), entry.position()));
         }
         return winners;
     }
@@ -0,0 +1,480 @@
+package com.deliverycore.service;
+
+import com.deliverycore.model.LeaderboardEntry;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finished events are appended as gzip members to rolling segment files
+ * ({@code segment-00001.gz}, ...) holding the event metadata and every
+ * participant's count in rank order. Two small files index them:
+ * <ul>
+ *   <li>{@code index.dat} - one CRC-checked summary per event with its
+ *       segment position and best score, kept in memory;</li>
+ *   <li>{@code players.idx} - fixed 32-byte (player, event, amount, rank)
+ *       records, scanned on demand for a player's history.</li>
+ * </ul>
+ * Queries decompress at most the members they return; no segment is read
+ * to answer player history or the best score.
+ *
+ * Write order is segment, event index, player index: a crash can only
+ * leave an unreferenced segment tail or a player history missing the last
+ * event, never records pointing at the wrong event. Thread-safe.
+ */
+public final class EventArchive {
+
+    private static final int MAGIC = 0x44434131; // "DCA1"
+    private static final int PLAYER_RECORD_BYTES = 8 + 8 + 8 + 4 + 4;
+    private static final int MAX_INDEX_RECORD_BYTES = 1 << 16;
+    private static final String INDEX_FILE = "index.dat";
+    private static final String PLAYER_INDEX_FILE = "players.idx";
+
+    /**
+     * Summary of an archived event.
+     *
+     * @param id             the archive id, increasing
+     * @param deliveryName   the delivery name
+     * @param category       the resolved category
+     * @param item           the resolved item
+     * @param startMillis    when the event started
+     * @param endedMillis    when the event was archived
+     * @param zoneId         the event's timezone
+     * @param participants   the number of participants
+     * @param totalDelivered the sum of all deliveries
+     * @param bestPlayer     the winner, or null if nobody delivered
+     * @param bestScore      the winner's amount
+     * @param segment        the segment file number
+     * @param offset         the gzip member's offset in the segment
+     * @param length         the gzip member's compressed length
+     */
+    public record EventSummary(long id, String deliveryName, String category, String item,
+                               long startMillis, long endedMillis, String zoneId,
+                               int participants, long totalDelivered, UUID bestPlayer, int bestScore,
+                               int segment, long offset, int length) {
+
+        /**
+         * Checks whether the event ran on the given day of its own timezone.
+         *
+         * @param date the day
+         * @return true if the day is between the start and end days
+         */
+        public boolean ranOn(LocalDate date) {
+            ZoneId zone = ZoneId.of(zoneId);
+            LocalDate start = LocalDate.ofInstant(Instant.ofEpochMilli(startMillis), zone);
+            LocalDate end = LocalDate.ofInstant(Instant.ofEpochMilli(endedMillis), zone);
+            return !date.isBefore(start) && !date.isAfter(end);
+        }
+    }
+
+    /**
+     * A player's result in one archived event.
+     *
+     * @param event  the event
+     * @param amount the player's delivered amount
+     * @param rank   the player's 1-based rank
+     */
+    public record PlayerResult(EventSummary event, int amount, int rank) {}
+
+    private final File directory;
+    private final File indexFile;
+    private final File playerIndexFile;
+    private final Clock clock;
+    private final long segmentBytes;
+    private final CRC32 crc = new CRC32();
+    private final List<EventSummary> events = new ArrayList<>();
+    private final Map<Long, EventSummary> eventsById = new HashMap<>();
+    private EventSummary best;
+
+    /**
+     * Opens or creates an archive. Only the event index is read.
+     *
+     * @param directory    the archive directory
+     * @param clock        the clock used for end times
+     * @param segmentBytes the size after which a new segment is started
+     * @throws IOException if the index cannot be read
+     */
+    public EventArchive(File directory, Clock clock, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.indexFile = new File(directory, INDEX_FILE);
+        this.playerIndexFile = new File(directory, PLAYER_INDEX_FILE);
+        this.clock = clock;
+        this.segmentBytes = Math.max(1L, segmentBytes);
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Arşiv klasörü oluşturulamadı: " + directory);
+        }
+        loadIndex();
+        repairPlayerIndex();
+    }
+
+    /**
+     * Archives a finished event with all its participants.
+     *
+     * @param event the ended event; must no longer receive deliveries
+     * @return the archived summary
+     * @throws IOException if writing fails
+     */
+    public synchronized EventSummary append(ActiveEvent event) throws IOException {
+        List<LeaderboardEntry> ranked = new ArrayList<>(event.getParticipantCount());
+        event.forEachRanked((msb, lsb, count) ->
+            ranked.add(new LeaderboardEntry(new UUID(msb, lsb), count, ranked.size() + 1)));
+
+        long id = events.isEmpty() ? 1L : events.get(events.size() - 1).id() + 1;
+        long ended = clock.millis();
+        long start = event.getStartMillis() == Long.MIN_VALUE ? ended : event.getStartMillis();
+        String zone = event.getTimezone() != null ? event.getTimezone().getId() : "Europe/Istanbul";
+        long total = 0;
+        for (LeaderboardEntry entry : ranked) {
+            total += entry.deliveryCount();
+        }
+
+        // 1) Segment: sıkıştırılmış tam sonuç, dizin olmadan da okunabilir
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(compressed))) {
+            out.writeLong(id);
+            out.writeUTF(event.getDeliveryName());
+            writeNullable(out, event.getResolvedCategory());
+            writeNullable(out, event.getResolvedItem());
+            out.writeLong(start);
+            out.writeLong(ended);
+            out.writeUTF(zone);
+            out.writeInt(ranked.size());
+            for (LeaderboardEntry entry : ranked) {
+                out.writeLong(entry.playerUuid().getMostSignificantBits());
+                out.writeLong(entry.playerUuid().getLeastSignificantBits());
+                out.writeInt(entry.deliveryCount());
+            }
+        }
+        int segment = currentSegment();
+        File segmentFile = segmentFile(segment);
+        if (segmentFile.length() >= segmentBytes) {
+            segmentFile = segmentFile(++segment);
+        }
+        long offset = segmentFile.length();
+        appendDurably(segmentFile, compressed.toByteArray());
+
+        LeaderboardEntry winner = ranked.isEmpty() ? null : ranked.get(0);
+        EventSummary summary = new EventSummary(id, event.getDeliveryName(), event.getResolvedCategory(),
+            event.getResolvedItem(), start, ended, zone, ranked.size(), total,
+            winner != null ? winner.playerUuid() : null, winner != null ? winner.deliveryCount() : 0,
+            segment, offset, compressed.size());
+
+        // 2) Olay dizini: kayıt burada kesinleşir
+        appendDurably(indexFile, encodeSummary(summary));
+        remember(summary);
+
+        // 3) Oyuncu dizini
+        ByteArrayOutputStream playerBytes = new ByteArrayOutputStream(ranked.size() * PLAYER_RECORD_BYTES);
+        DataOutputStream players = new DataOutputStream(playerBytes);
+        for (LeaderboardEntry entry : ranked) {
+            players.writeLong(entry.playerUuid().getMostSignificantBits());
+            players.writeLong(entry.playerUuid().getLeastSignificantBits());
+            players.writeLong(id);
+            players.writeInt(entry.deliveryCount());
+            players.writeInt(entry.position());
+        }
+        appendDurably(playerIndexFile, playerBytes.toByteArray());
+        return summary;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // SORGULAR
+    // ═══════════════════════════════════════════════════════════════
+
+    public synchronized List<EventSummary> getEvents() {
+        return List.copyOf(events);
+    }
+
+    public synchronized int getEventCount() {
+        return events.size();
+    }
+
+    /**
+     * Gets the highest single-event score ever archived; the earliest wins ties.
+     *
+     * @return the event holding the record, or empty if nothing was archived
+     */
+    public synchronized Optional<EventSummary> getBestEver() {
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Finds runs of an event on a given day, newest first.
+     *
+     * @param deliveryName the delivery name, case-insensitive
+     * @param date         the day in the event's timezone
+     * @return the matching summaries
+     */
+    public synchronized List<EventSummary> findEvents(String deliveryName, LocalDate date) {
+        List<EventSummary> matches = new ArrayList<>();
+        for (int i = events.size() - 1; i >= 0; i--) {
+            EventSummary summary = events.get(i);
+            if (summary.deliveryName().equalsIgnoreCase(deliveryName) && summary.ranOn(date)) {
+                matches.add(summary);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Reads the full ranking of an archived event. Decompresses only that event.
+     *
+     * @param summary the event
+     * @return every participant in rank order
+     * @throws IOException if the segment cannot be read or is corrupt
+     */
+    public List<LeaderboardEntry> readResults(EventSummary summary) throws IOException {
+        byte[] member = new byte[summary.length()];
+        try (RandomAccessFile raf = new RandomAccessFile(segmentFile(summary.segment()), "r")) {
+            raf.seek(summary.offset());
+            raf.readFully(member);
+        }
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(member)))) {
+            if (in.readLong() != summary.id()) {
+                throw new IOException("Arşiv kaydı uyuşmuyor: " + summary.id());
+            }
+            // Üst bilgi dizinde de var
+            in.readUTF();
+            readNullable(in);
+            readNullable(in);
+            in.readLong();
+            in.readLong();
+            in.readUTF();
+            int count = in.readInt();
+            List<LeaderboardEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(new LeaderboardEntry(new UUID(in.readLong(), in.readLong()), in.readInt(), i + 1));
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Gets a player's results, newest first. Streams the player index; no
+     * segment is read.
+     *
+     * @param playerUuid the player's UUID
+     * @param limit      the maximum number of results
+     * @return the player's results
+     * @throws IOException if the player index cannot be read
+     */
+    public List<PlayerResult> getPlayerHistory(UUID playerUuid, int limit) throws IOException {
+        if (limit <= 0) return List.of();
+        long msb = playerUuid.getMostSignificantBits();
+        long lsb = playerUuid.getLeastSignificantBits();
+        long length;
+        synchronized (this) {
+            // Sadece okuma başladığında tamamlanmış kayıtlar
+            length = playerIndexFile.length() / PLAYER_RECORD_BYTES * PLAYER_RECORD_BYTES;
+        }
+        Deque<long[]> latest = new ArrayDeque<>(limit);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(playerIndexFile), 1 << 16))) {
+            for (long read = 0; read < length; read += PLAYER_RECORD_BYTES) {
+                long recordMsb = in.readLong();
+                long recordLsb = in.readLong();
+                long eventId = in.readLong();
+                int amount = in.readInt();
+                int rank = in.readInt();
+                if (recordMsb != msb || recordLsb != lsb) continue;
+                if (latest.size() == limit) {
+                    latest.removeFirst();
+                }
+                latest.addLast(new long[]{eventId, amount, rank});
+            }
+        } catch (java.io.FileNotFoundException e) {
+            return List.of();
+        }
+        List<PlayerResult> results = new ArrayList<>(latest.size());
+        synchronized (this) {
+            for (var it = latest.descendingIterator(); it.hasNext(); ) {
+                long[] record = it.next();
+                EventSummary summary = eventsById.get(record[0]);
+                if (summary != null) {
+                    results.add(new PlayerResult(summary, (int) record[1], (int) record[2]));
+                }
+            }
+        }
+        return results;
+    }
+
+    // ==================== Internals ====================
+
+    private void remember(EventSummary summary) {
+        events.add(summary);
+        eventsById.put(summary.id(), summary);
+        if (best == null || summary.bestScore() > best.bestScore()) {
+            best = summary;
+        }
+    }
+
+    private int currentSegment() {
+        return events.isEmpty() ? 1 : events.get(events.size() - 1).segment();
+    }
+
+    private File segmentFile(int segment) {
+        return new File(directory, String.format("segment-%05d.gz", segment));
+    }
+
+    /**
+     * Appends and forces the bytes to disk. If the write fails, the file is
+     * cut back to its previous length, so a torn record never sits in front
+     * of later appends (index.dat stops at the first bad CRC, players.idx is
+     * read in fixed strides).
+     */
+    private static void appendDurably(File file, byte[] bytes) throws IOException {
+        long before = file.length();
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(bytes);
+            out.getChannel().force(true);
+        } catch (IOException e) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(before);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+    }
+
+    private byte[] encodeSummary(EventSummary summary) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeLong(summary.id());
+        out.writeUTF(summary.deliveryName());
+        writeNullable(out, summary.category());
+        writeNullable(out, summary.item());
+        out.writeLong(summary.startMillis());
+        out.writeLong(summary.endedMillis());
+        out.writeUTF(summary.zoneId());
+        out.writeInt(summary.participants());
+        out.writeLong(summary.totalDelivered());
+        out.writeBoolean(summary.bestPlayer() != null);
+        if (summary.bestPlayer() != null) {
+            out.writeLong(summary.bestPlayer().getMostSignificantBits());
+            out.writeLong(summary.bestPlayer().getLeastSignificantBits());
+        }
+        out.writeInt(summary.bestScore());
+        out.writeInt(summary.segment());
+        out.writeLong(summary.offset());
+        out.writeInt(summary.length());
+        out.flush();
+
+        byte[] payload = body.toByteArray();
+        ByteArrayOutputStream record = new ByteArrayOutputStream(payload.length + 12);
+        DataOutputStream framed = new DataOutputStream(record);
+        if (!indexFile.exists() || indexFile.length() == 0) {
+            framed.writeInt(MAGIC);
+        }
+        crc.reset();
+        crc.update(payload);
+        framed.writeInt(payload.length);
+        framed.write(payload);
+        framed.writeInt((int) crc.getValue());
+        return record.toByteArray();
+    }
+
+    private void loadIndex() throws IOException {
+        if (!indexFile.exists()) return;
+        if (indexFile.length() < 4) {
+            // Başlık bile tamamlanmamış; boş dizin sayılır
+            try (RandomAccessFile raf = new RandomAccessFile(indexFile, "rw")) {
+                raf.setLength(0);
+            }
+            return;
+        }
+        long validEnd = 4;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Geçersiz arşiv dizini: " + indexFile.getName());
+            }
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_INDEX_RECORD_BYTES) break;
+                byte[] payload = new byte[length];
+                int storedCrc;
+                try {
+                    in.readFully(payload);
+                    storedCrc = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != storedCrc) break;
+                remember(decodeSummary(new DataInputStream(new ByteArrayInputStream(payload))));
+                validEnd += 4 + length + 4;
+            }
+        }
+        if (validEnd < indexFile.length()) {
+            // Yarım kalmış kayıt kesilir
+            try (RandomAccessFile raf = new RandomAccessFile(indexFile, "rw")) {
+                raf.setLength(validEnd);
+            }
+        }
+    }
+
+    private void repairPlayerIndex() throws IOException {
+        if (!playerIndexFile.exists()) return;
+        long whole = playerIndexFile.length() / PLAYER_RECORD_BYTES * PLAYER_RECORD_BYTES;
+        if (whole < playerIndexFile.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(playerIndexFile, "rw")) {
+                raf.setLength(whole);
+            }
+        }
+    }
+
+    private static EventSummary decodeSummary(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        String name = in.readUTF();
+        String category = readNullable(in);
+        String item = readNullable(in);
+        long start = in.readLong();
+        long ended = in.readLong();
+        String zone = in.readUTF();
+        int participants = in.readInt();
+        long total = in.readLong();
+        UUID bestPlayer = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+        return new EventSummary(id, name, category, item, start, ended, zone, participants, total,
+            bestPlayer, in.readInt(), in.readInt(), in.readLong(), in.readInt());
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,131 @@
+package com.deliverycore.service;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+/**
+ * Display name, price and head texture from items.yml, indexed by
+ * {@link Material#ordinal()} so lookups on delivery hot paths are a single
+ * array read. The table is rebuilt on reload and swapped in atomically;
+ * materials without an entry get a fallback built from their enum name.
+ */
+public final class ItemCatalog {
+
+    private static final Logger LOGGER = Logger.getLogger(ItemCatalog.class.getName());
+
+    /**
+     * Metadata of one material.
+     *
+     * @param material    the material
+     * @param displayName the display name
+     * @param price       the price, 0 if not configured
+     * @param headTexture the base64 head texture for GUI icons, null for the default
+     */
+    public record ItemMetadata(Material material, String displayName, double price, String headTexture) {
+
+        /**
+         * Creates metadata for a material without an items.yml entry.
+         *
+         * @param material the material
+         * @return metadata named after the enum constant
+         */
+        public static ItemMetadata fallback(Material material) {
+            return new ItemMetadata(material, material.name().replace("_", " "), 0.0, null);
+        }
+    }
+
+    private volatile ItemMetadata[] table;
+
+    public ItemCatalog() {
+        this.table = defaults();
+    }
+
+    /**
+     * Loads items.yml from the data folder and replaces the table.
+     *
+     * @param dataFolder the plugin data folder
+     * @return the number of configured items, -1 if the file is missing or invalid
+     */
+    public synchronized int load(File dataFolder) {
+        File itemsFile = new File(dataFolder, "items.yml");
+        if (!itemsFile.exists()) {
+            LOGGER.warning("[ItemCatalog] items.yml bulunamadi: " + itemsFile.getAbsolutePath());
+            return -1;
+        }
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(itemsFile);
+        ConfigurationSection itemsSection = config.getConfigurationSection("items");
+        if (itemsSection == null) {
+            LOGGER.warning("[ItemCatalog] items.yml'de 'items' section bulunamadi!");
+            return -1;
+        }
+
+        ItemMetadata[] loaded = defaults();
+        int loadedCount = 0;
+        for (String key : itemsSection.getKeys(false)) {
+            Material material = Material.matchMaterial(key);
+            if (material == null) {
+                LOGGER.fine("[ItemCatalog] Bilinmeyen eşya atlandı: " + key);
+                continue;
+            }
+            ItemMetadata fallback = loaded[material.ordinal()];
+            String displayName = itemsSection.getString(key + ".display-name");
+            loaded[material.ordinal()] = new ItemMetadata(
+                material,
+                displayName != null ? displayName : fallback.displayName(),
+                Math.max(0.0, itemsSection.getDouble(key + ".price", 0)),
+                itemsSection.getString(key + ".head-texture"));
+            if (displayName != null) loadedCount++;
+        }
+        table = loaded;
+        LOGGER.info("[ItemCatalog] " + loadedCount + " esya yuklendi (items.yml)");
+        return loadedCount;
+    }
+
+    /**
+     * Gets the metadata of a material.
+     *
+     * @param material the material
+     * @return the metadata, never null
+     */
+    public ItemMetadata get(Material material) {
+        return table[material.ordinal()];
+    }
+
+    /**
+     * Looks up metadata by item name. Parses the name, so keep it off hot paths.
+     *
+     * @param itemName the item name, e.g. "DIAMOND" or "minecraft:diamond"
+     * @return the metadata, or null if the name is not a material
+     */
+    public ItemMetadata find(String itemName) {
+        if (itemName == null) return null;
+        Material material = Material.matchMaterial(itemName);
+        return material != null ? get(material) : null;
+    }
+
+    /**
+     * Overrides the display name of a material.
+     *
+     * @param material    the material
+     * @param displayName the new display name
+     */
+    public synchronized void setDisplayName(Material material, String displayName) {
+        ItemMetadata[] updated = table.clone();
+        ItemMetadata current = updated[material.ordinal()];
+        updated[material.ordinal()] = new ItemMetadata(material, displayName, current.price(), current.headTexture());
+        table = updated;
+    }
+
+    private static ItemMetadata[] defaults() {
+        Material[] materials = Material.values();
+        ItemMetadata[] defaults = new ItemMetadata[materials.length];
+        for (Material material : materials) {
+            defaults[material.ordinal()] = ItemMetadata.fallback(material);
+        }
+        return defaults;
+    }
+}
@@ -0,0 +1,55 @@
+package com.deliverycore.service;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Called on a short fixed timer; republishes an event's {@link LeaderboardSnapshot}
+ * once it is older than the configured interval or enough deliveries piled up,
+ * and skips events that did not change.
+ */
+public class LeaderboardPublisher {
+
+    private static final Logger LOGGER = Logger.getLogger(LeaderboardPublisher.class.getName());
+
+    private final DeliveryService deliveryService;
+    private final long intervalMillis;
+    private final long everyDeliveries;
+
+    /**
+     * Creates a new publisher.
+     *
+     * @param deliveryService the source of active events
+     * @param intervalMillis  the maximum snapshot age while deliveries are pending
+     * @param everyDeliveries the backlog that forces a publish regardless of age
+     */
+    public LeaderboardPublisher(DeliveryService deliveryService, long intervalMillis, long everyDeliveries) {
+        this.deliveryService = deliveryService;
+        this.intervalMillis = Math.max(0L, intervalMillis);
+        this.everyDeliveries = Math.max(1L, everyDeliveries);
+    }
+
+    /**
+     * Publishes every due snapshot.
+     *
+     * @return the number of snapshots published
+     */
+    public int tick() {
+        int published = 0;
+        for (ActiveEvent event : deliveryService.getAllActiveEvents()) {
+            long backlog = event.getSnapshotBacklog();
+            if (backlog == 0) {
+                continue;
+            }
+            if (backlog >= everyDeliveries || event.getSnapshotStalenessMillis() >= intervalMillis) {
+                try {
+                    event.publishSnapshot();
+                    published++;
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Sıralama yayınlanamadı: " + event.getDeliveryName(), e);
+                }
+            }
+        }
+        return published;
+    }
+}
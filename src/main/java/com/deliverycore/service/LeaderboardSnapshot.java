@@ -0,0 +1,125 @@
+package com.deliverycore.service;
+
+import com.deliverycore.model.LeaderboardEntry;
+import com.deliverycore.util.UuidIntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable, pre-sorted leaderboard of an {@link ActiveEvent} at a point in time.
+ * Published through a volatile reference so GUI, commands and placeholders can
+ * read ranks, totals and top-N without touching the event's write-side state.
+ */
+public final class LeaderboardSnapshot {
+
+    private final String deliveryName;
+    private final long takenAtMillis;
+    private final long sequence;
+    private final int totalDeliveries;
+    private final long[] msb;
+    private final long[] lsb;
+    private final int[] scores;
+    // Yazılmadığı için okuyucular her zaman iyimser okumayla geçer
+    private final UuidIntMap positions;
+
+    LeaderboardSnapshot(String deliveryName, long takenAtMillis, long sequence, int totalDeliveries,
+                        long[] msb, long[] lsb, int[] scores) {
+        this.deliveryName = deliveryName;
+        this.takenAtMillis = takenAtMillis;
+        this.sequence = sequence;
+        this.totalDeliveries = totalDeliveries;
+        this.msb = msb;
+        this.lsb = lsb;
+        this.scores = scores;
+        this.positions = new UuidIntMap(scores.length);
+        for (int i = 0; i < scores.length; i++) {
+            positions.addTo(msb[i], lsb[i], i);
+        }
+    }
+
+    /**
+     * Creates an empty snapshot.
+     *
+     * @param deliveryName  the delivery name
+     * @param takenAtMillis the snapshot time
+     * @return a snapshot without participants
+     */
+    static LeaderboardSnapshot empty(String deliveryName, long takenAtMillis) {
+        return new LeaderboardSnapshot(deliveryName, takenAtMillis, 0L, 0, new long[0], new long[0], new int[0]);
+    }
+
+    public String getDeliveryName() {
+        return deliveryName;
+    }
+
+    public long getTakenAtMillis() {
+        return takenAtMillis;
+    }
+
+    /**
+     * Gets the number of deliveries the event had recorded when this snapshot was taken.
+     *
+     * @return the event's delivery sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getTotalDeliveries() {
+        return totalDeliveries;
+    }
+
+    public int getParticipantCount() {
+        return scores.length;
+    }
+
+    /**
+     * Gets how old this snapshot is.
+     *
+     * @param nowMillis the current time
+     * @return age in millis
+     */
+    public long getStalenessMillis(long nowMillis) {
+        return Math.max(0L, nowMillis - takenAtMillis);
+    }
+
+    /**
+     * Gets the rank of a player: their position in {@link #getTop}, with
+     * equal delivery counts ordered by UUID.
+     *
+     * @param playerUuid the player's UUID
+     * @return the 1-based rank, or 0 if the player is not on the leaderboard
+     */
+    public int getRank(UUID playerUuid) {
+        int index = positions.getOrDefault(playerUuid, -1);
+        return index >= 0 && scores[index] > 0 ? index + 1 : 0;
+    }
+
+    /**
+     * Gets the delivery count of a player.
+     *
+     * @param playerUuid the player's UUID
+     * @return the delivery count, 0 if absent
+     */
+    public int getDeliveryCount(UUID playerUuid) {
+        int index = positions.getOrDefault(playerUuid, -1);
+        return index >= 0 ? scores[index] : 0;
+    }
+
+    /**
+     * Gets the top entries.
+     *
+     * @param limit the maximum number of entries
+     * @return entries ordered by delivery count descending, ties by UUID
+     */
+    public List<LeaderboardEntry> getTop(int limit) {
+        int count = Math.min(Math.max(0, limit), scores.length);
+        List<LeaderboardEntry> top = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            top.add(new LeaderboardEntry(new UUID(msb[i], lsb[i]), scores[i], i + 1));
+        }
+        return top;
+    }
+}
@@ -0,0 +1,315 @@
+package com.deliverycore.service;
+
+import com.deliverycore.model.LeaderboardEntry;
+import com.deliverycore.util.UuidIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Every player is interned to a dense index on first sight; totals, names and
+ * last-active times live in parallel arrays under that index, so a delivery
+ * is one hash lookup and a few array writes. The all-time top-N is kept
+ * sorted and updated on every change instead of scanning all players.
+ * Changed players are tracked and handed to storage in batches via
+ * {@link #drainDirty()}.
+ *
+ * Totals only grow, so a player can only move up the ranking. Ordering
+ * matches {@link com.deliverycore.util.TopKSelector}: higher total first,
+ * ties broken by ascending UUID. Thread-safe.
+ */
+public final class PlayerStatsStore {
+
+    public static final int DEFAULT_TOP_SIZE = 100;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final UuidIntMap indexOf = new UuidIntMap();
+    private final int topCapacity;
+
+    private long[] msb = new long[INITIAL_CAPACITY];
+    private long[] lsb = new long[INITIAL_CAPACITY];
+    private int[] totals = new int[INITIAL_CAPACITY];
+    private long[] lastActive = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    // Sıralamadaki yer, yoksa -1
+    private int[] topSlot = new int[INITIAL_CAPACITY];
+    private boolean[] dirty = new boolean[INITIAL_CAPACITY];
+    private int size;
+
+    // Oyuncu indeksleri, en iyiden kötüye
+    private final int[] top;
+    private int topSize;
+
+    private int[] dirtyList = new int[INITIAL_CAPACITY];
+    private int dirtyCount;
+
+    /**
+     * Creates a store keeping the best {@value #DEFAULT_TOP_SIZE} players ranked.
+     */
+    public PlayerStatsStore() {
+        this(DEFAULT_TOP_SIZE);
+    }
+
+    /**
+     * Creates a store keeping the given number of players ranked.
+     *
+     * @param topCapacity the size of the all-time ranking
+     * @throws IllegalArgumentException if topCapacity is less than 1
+     */
+    public PlayerStatsStore(int topCapacity) {
+        if (topCapacity < 1) {
+            throw new IllegalArgumentException("Top capacity must be at least 1");
+        }
+        this.topCapacity = topCapacity;
+        this.top = new int[topCapacity];
+    }
+
+    /**
+     * Loads stored stats without marking them dirty. Used on startup.
+     *
+     * @param stats the stored stats
+     */
+    public synchronized void load(DataStorage.PlayerStats stats) {
+        int index = intern(stats.uuid());
+        names[index] = stats.name();
+        lastActive[index] = Math.max(lastActive[index], stats.lastActive());
+        if (stats.totalDeliveries() > totals[index]) {
+            totals[index] = stats.totalDeliveries();
+            rank(index);
+        }
+    }
+
+    /**
+     * Adds a delivery to a player's running total.
+     *
+     * @param playerUuid the player's UUID
+     * @param playerName the player's current name
+     * @param amount     the delivered amount, ignored unless positive
+     * @param timeMillis when the delivery happened
+     * @return the player's new total
+     */
+    public synchronized int record(UUID playerUuid, String playerName, int amount, long timeMillis) {
+        int index = intern(playerUuid);
+        if (playerName != null) {
+            names[index] = playerName;
+        }
+        lastActive[index] = timeMillis;
+        if (amount > 0) {
+            totals[index] += amount;
+            rank(index);
+        }
+        markDirty(index);
+        return totals[index];
+    }
+
+    /**
+     * Gets a player's all-time total.
+     *
+     * @param playerUuid the player's UUID
+     * @return the total, 0 if unknown
+     */
+    public synchronized int getTotal(UUID playerUuid) {
+        int index = indexOf.getOrDefault(playerUuid, -1);
+        return index < 0 ? 0 : totals[index];
+    }
+
+    /**
+     * Gets when a player last delivered.
+     *
+     * @param playerUuid the player's UUID
+     * @return epoch millis, or 0 if unknown
+     */
+    public synchronized long getLastActive(UUID playerUuid) {
+        int index = indexOf.getOrDefault(playerUuid, -1);
+        return index < 0 ? 0L : lastActive[index];
+    }
+
+    /**
+     * Gets the last known name of a player.
+     *
+     * @param playerUuid the player's UUID
+     * @return the name, or null if unknown
+     */
+    public synchronized String getName(UUID playerUuid) {
+        int index = indexOf.getOrDefault(playerUuid, -1);
+        return index < 0 ? null : names[index];
+    }
+
+    /**
+     * Finds a player by last known name. Scans all players; meant for commands.
+     *
+     * @param playerName the name, case-insensitive
+     * @return the player's UUID, or empty if unknown
+     */
+    public synchronized Optional<UUID> findByName(String playerName) {
+        for (int i = 0; i < size; i++) {
+            if (playerName.equalsIgnoreCase(names[i])) {
+                return Optional.of(new UUID(msb[i], lsb[i]));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public synchronized Optional<DataStorage.PlayerStats> get(UUID playerUuid) {
+        int index = indexOf.getOrDefault(playerUuid, -1);
+        return index < 0 ? Optional.empty() : Optional.of(toStats(index));
+    }
+
+    public synchronized Map<UUID, DataStorage.PlayerStats> getAll() {
+        Map<UUID, DataStorage.PlayerStats> all = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            DataStorage.PlayerStats stats = toStats(i);
+            all.put(stats.uuid(), stats);
+        }
+        return all;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the all-time leaders. Costs O(limit); no player scan.
+     *
+     * @param limit the maximum number of entries, capped at the ranking size
+     * @return entries ordered by position
+     */
+    public synchronized List<LeaderboardEntry> getTop(int limit) {
+        int count = Math.min(Math.max(limit, 0), topSize);
+        List<LeaderboardEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = top[i];
+            entries.add(new LeaderboardEntry(new UUID(msb[index], lsb[index]), totals[index], i + 1));
+        }
+        return entries;
+    }
+
+    /**
+     * Gets a player's all-time position.
+     *
+     * @param playerUuid the player's UUID
+     * @return the 1-based position, or 0 if not within the ranking
+     */
+    public synchronized int getPosition(UUID playerUuid) {
+        int index = indexOf.getOrDefault(playerUuid, -1);
+        return index < 0 || topSlot[index] < 0 ? 0 : topSlot[index] + 1;
+    }
+
+    /**
+     * Returns the players changed since the last drain, as absolute values,
+     * and clears the changed set.
+     *
+     * @return the changed players' stats
+     */
+    public synchronized List<DataStorage.PlayerStats> drainDirty() {
+        if (dirtyCount == 0) return List.of();
+        List<DataStorage.PlayerStats> changed = new ArrayList<>(dirtyCount);
+        for (int i = 0; i < dirtyCount; i++) {
+            int index = dirtyList[i];
+            dirty[index] = false;
+            changed.add(toStats(index));
+        }
+        dirtyCount = 0;
+        return changed;
+    }
+
+    /**
+     * Marks drained players changed again, e.g. after their write was rolled
+     * back. Their current values are written on the next drain.
+     *
+     * @param stats the players returned by {@link #drainDirty()}
+     */
+    public synchronized void markDirty(Collection<DataStorage.PlayerStats> stats) {
+        for (DataStorage.PlayerStats stat : stats) {
+            int index = indexOf.getOrDefault(stat.uuid(), -1);
+            if (index >= 0) {
+                markDirty(index);
+            }
+        }
+    }
+
+    public synchronized int getDirtyCount() {
+        return dirtyCount;
+    }
+
+    // ==================== Internals ====================
+
+    private int intern(UUID playerUuid) {
+        int index = indexOf.getOrDefault(playerUuid, -1);
+        if (index >= 0) return index;
+        if (size == msb.length) {
+            grow();
+        }
+        index = size++;
+        msb[index] = playerUuid.getMostSignificantBits();
+        lsb[index] = playerUuid.getLeastSignificantBits();
+        topSlot[index] = -1;
+        indexOf.put(playerUuid, index);
+        return index;
+    }
+
+    private void grow() {
+        int capacity = msb.length * 2;
+        msb = Arrays.copyOf(msb, capacity);
+        lsb = Arrays.copyOf(lsb, capacity);
+        totals = Arrays.copyOf(totals, capacity);
+        lastActive = Arrays.copyOf(lastActive, capacity);
+        names = Arrays.copyOf(names, capacity);
+        topSlot = Arrays.copyOf(topSlot, capacity);
+        dirty = Arrays.copyOf(dirty, capacity);
+    }
+
+    private void markDirty(int index) {
+        if (dirty[index]) return;
+        dirty[index] = true;
+        if (dirtyCount == dirtyList.length) {
+            dirtyList = Arrays.copyOf(dirtyList, dirtyCount * 2);
+        }
+        dirtyList[dirtyCount++] = index;
+    }
+
+    /**
+     * Moves a player whose total just grew to its place in the ranking.
+     * Entering the ranking evicts the last entry; both cost O(positions moved).
+     */
+    private void rank(int index) {
+        int slot = topSlot[index];
+        if (slot < 0) {
+            if (topSize < topCapacity) {
+                slot = topSize++;
+            } else if (ranksBefore(index, top[topSize - 1])) {
+                slot = topSize - 1;
+                topSlot[top[slot]] = -1;
+            } else {
+                return;
+            }
+            top[slot] = index;
+            topSlot[index] = slot;
+        }
+        while (slot > 0 && ranksBefore(index, top[slot - 1])) {
+            int above = top[slot - 1];
+            top[slot] = above;
+            topSlot[above] = slot;
+            slot--;
+        }
+        top[slot] = index;
+        topSlot[index] = slot;
+    }
+
+    private boolean ranksBefore(int a, int b) {
+        if (totals[a] != totals[b]) return totals[a] > totals[b];
+        if (msb[a] != msb[b]) return msb[a] < msb[b];
+        return lsb[a] < lsb[b];
+    }
+
+    private DataStorage.PlayerStats toStats(int index) {
+        String name = names[index] != null ? names[index] : "Unknown";
+        return new DataStorage.PlayerStats(new UUID(msb[index], lsb[index]), name, totals[index], lastActive[index]);
+    }
+}
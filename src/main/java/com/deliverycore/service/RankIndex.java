@@ -0,0 +1,223 @@
+package com.deliverycore.service;
+
+import com.deliverycore.model.LeaderboardEntry;
+import com.deliverycore.util.UuidIntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Order-statistic index over player delivery counts.
+ * Entries are kept in a size-augmented treap ordered by delivery count
+ * (descending) and player UUID (ascending), so rank lookups, top-N and
+ * position range queries are all logarithmic in the number of participants.
+ *
+ * Nodes are immutable: an update copies the O(log n) nodes on its path and
+ * swaps the root, so {@link #version()} is an O(1) frozen view that can be
+ * walked without holding the writer's lock.
+ *
+ * Not thread-safe for writes; {@link ActiveEvent} guards every update with
+ * its own lock.
+ */
+final class RankIndex {
+
+    private static final class Node {
+        final UUID uuid;
+        final int score;
+        final int priority;
+        final int size;
+        final Node left;
+        final Node right;
+
+        Node(UUID uuid, int score, int priority, Node left, Node right) {
+            this.uuid = uuid;
+            this.score = score;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+
+        Node withChildren(Node left, Node right) {
+            return new Node(uuid, score, priority, left, right);
+        }
+    }
+
+    private Node root;
+    private int seed = 0x2545F491;
+
+    RankIndex() {
+    }
+
+    private RankIndex(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets a frozen view of the current entries. Later updates do not
+     * affect it; the view must not be updated itself.
+     *
+     * @return the read-only view
+     */
+    RankIndex version() {
+        return new RankIndex(root);
+    }
+
+    /**
+     * Gets the number of indexed players.
+     *
+     * @return the participant count
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Moves a player from one score to another.
+     *
+     * @param uuid        the player's UUID
+     * @param wasIndexed  whether the player was already indexed with oldScore
+     * @param oldScore    the previous delivery count
+     * @param newScore    the new delivery count
+     */
+    void update(UUID uuid, boolean wasIndexed, int oldScore, int newScore) {
+        if (wasIndexed) {
+            if (oldScore == newScore) return;
+            root = remove(root, uuid, oldScore);
+        }
+        root = insert(root, new Node(uuid, newScore, nextPriority(), null, null));
+    }
+
+    /**
+     * Gets the leaderboard position of an indexed player. Ties are broken by
+     * UUID, the same order {@link #range} and {@link #forEachInOrder} use.
+     *
+     * @param uuid  the player's UUID
+     * @param score the player's current delivery count
+     * @return the 1-based position
+     */
+    int positionOf(UUID uuid, int score) {
+        int before = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(score, uuid, node);
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                before += size(node.left) + (cmp > 0 ? 1 : 0);
+                if (cmp == 0) break;
+                node = node.right;
+            }
+        }
+        return before + 1;
+    }
+
+    /**
+     * Gets the entries between two leaderboard positions.
+     *
+     * @param fromPosition the first position (1-based, inclusive)
+     * @param toPosition   the last position (inclusive)
+     * @return the entries in leaderboard order
+     */
+    List<LeaderboardEntry> range(int fromPosition, int toPosition) {
+        int from = Math.max(1, fromPosition);
+        int to = Math.min(size(), toPosition);
+        if (from > to) return List.of();
+
+        List<LeaderboardEntry> out = new ArrayList<>(to - from + 1);
+        collect(root, 0, from, to, out);
+        return out;
+    }
+
+    /**
+     * Visits every entry in leaderboard order.
+     *
+     * @param consumer receives the UUID halves and score of each entry
+     */
+    void forEachInOrder(UuidIntMap.EntryConsumer consumer) {
+        visit(root, consumer);
+    }
+
+    private void visit(Node node, UuidIntMap.EntryConsumer consumer) {
+        if (node == null) return;
+        visit(node.left, consumer);
+        consumer.accept(node.uuid.getMostSignificantBits(), node.uuid.getLeastSignificantBits(), node.score);
+        visit(node.right, consumer);
+    }
+
+    private void collect(Node node, int before, int from, int to, List<LeaderboardEntry> out) {
+        if (node == null) return;
+        int position = before + size(node.left) + 1;
+        if (from < position) {
+            collect(node.left, before, from, to, out);
+        }
+        if (position >= from && position <= to) {
+            out.add(new LeaderboardEntry(node.uuid, node.score, position));
+        }
+        if (to > position) {
+            collect(node.right, position, from, to, out);
+        }
+    }
+
+    private Node insert(Node node, Node fresh) {
+        if (node == null) return fresh;
+        if (compare(fresh.score, fresh.uuid, node) < 0) {
+            Node left = insert(node.left, fresh);
+            if (left.priority > node.priority) {
+                // Sağa döndürme
+                return left.withChildren(left.left, node.withChildren(left.right, node.right));
+            }
+            return node.withChildren(left, node.right);
+        }
+        Node right = insert(node.right, fresh);
+        if (right.priority > node.priority) {
+            // Sola döndürme
+            return right.withChildren(node.withChildren(node.left, right.left), right.right);
+        }
+        return node.withChildren(node.left, right);
+    }
+
+    private Node remove(Node node, UUID uuid, int score) {
+        if (node == null) return null;
+        int cmp = compare(score, uuid, node);
+        if (cmp < 0) {
+            return node.withChildren(remove(node.left, uuid, score), node.right);
+        }
+        if (cmp > 0) {
+            return node.withChildren(node.left, remove(node.right, uuid, score));
+        }
+        return merge(node.left, node.right);
+    }
+
+    /** Joins two treaps where every entry of left comes before every entry of right. */
+    private static Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            return left.withChildren(left.left, merge(left.right, right));
+        }
+        return right.withChildren(merge(left, right.left), right.right);
+    }
+
+    private static int compare(int score, UUID uuid, Node node) {
+        if (score != node.score) {
+            return score > node.score ? -1 : 1;
+        }
+        return uuid.compareTo(node.uuid);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private int nextPriority() {
+        // xorshift32 - deterministic, allocation-free priorities
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+}
@@ -0,0 +1,23 @@
+package com.deliverycore.service;
+
+/**
+ * Collects {@link DataStorage.SaveStats} for a storage backend.
+ */
+final class SaveMetrics {
+
+    private long saves;
+    private long lastSaveNanos;
+    private long lastLockHoldNanos;
+    private long maxLockHoldNanos;
+
+    synchronized void record(long saveNanos, long lockHoldNanos) {
+        saves++;
+        lastSaveNanos = saveNanos;
+        lastLockHoldNanos = lockHoldNanos;
+        maxLockHoldNanos = Math.max(maxLockHoldNanos, lockHoldNanos);
+    }
+
+    synchronized DataStorage.SaveStats snapshot() {
+        return new DataStorage.SaveStats(saves, lastSaveNanos, lastLockHoldNanos, maxLockHoldNanos);
+    }
+}
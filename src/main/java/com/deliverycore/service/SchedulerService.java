@@ -1,9 +1,12 @@
 package com.deliverycore.service;
 
 import com.deliverycore.model.DeliveryDefinition;
+import com.deliverycore.util.TimingWheel;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,6 +15,12 @@ import java.util.Optional;
  */
 public interface SchedulerService {
     
+    /** Label of a delivery's start timer in {@link #getScheduledFires()}. */
+    String FIRE_START = "start";
+    
+    /** Label of a delivery's end timer in {@link #getScheduledFires()}. */
+    String FIRE_END = "end";
+    
     /**
      * Schedules a delivery event based on its configuration.
      *
@@ -26,12 +35,45 @@ public interface SchedulerService {
      */
     void cancelScheduledEvent(String deliveryName);
     
+    /**
+     * Ends a running delivery at a wall-clock deadline, e.g. a manually started
+     * event. The end callback fires on the same timer as scheduled ends and
+     * replaces any earlier deadline of the delivery. Not affected by
+     * {@link #cancelScheduledEvent(String)}.
+     *
+     * @param deliveryName the delivery name
+     * @param deadline     when the event should end
+     * @return true if a timer was armed, false if the delivery's scheduled end
+     *         already fires at that time or no executor is configured
+     */
+    boolean scheduleEndAt(String deliveryName, ZonedDateTime deadline);
+    
+    /**
+     * Cancels a deadline set with {@link #scheduleEndAt}, e.g. when the event
+     * was stopped by hand.
+     *
+     * @param deliveryName the delivery name
+     * @return true if a pending deadline was cancelled
+     */
+    boolean cancelEndAt(String deliveryName);
+    
+    /**
+     * Gets how late event ends fired compared to their intended time.
+     *
+     * @return the end drift metrics
+     */
+    EndDrift getEndDrift();
+    
     /**
      * Parses a natural language schedule expression.
      * Supports formats like:
      * - "every monday 20:00"
      * - "every day 14:30"
      * - "every friday 18:00"
+     * - "every weekday 12:00, 20:00"
+     * - "every 2 hours"
+     * - "0 20 * * fri" (cron)
+     * - any of the above followed by "except 2025-12-31"
      *
      * @param expression the schedule expression
      * @param timezone   the timezone for time calculations
@@ -48,6 +90,32 @@ public interface SchedulerService {
      */
     Optional<ZonedDateTime> getNextOccurrence(String expression, ZoneId timezone);
     
+    /**
+     * Gets the next occurrences of a schedule expression.
+     *
+     * @param expression the schedule expression
+     * @param timezone   the timezone for calculations
+     * @param count      the number of occurrences
+     * @return up to count occurrences in ascending order, empty if invalid
+     */
+    List<ZonedDateTime> getUpcomingOccurrences(String expression, ZoneId timezone, int count);
+    
+    /**
+     * Compiles the schedules of the given deliveries, replacing previously
+     * compiled ones. Called when the configuration is (re)loaded.
+     *
+     * @param deliveries the delivery definitions
+     * @return the number of invalid start or end expressions
+     */
+    int compileSchedules(Collection<DeliveryDefinition> deliveries);
+    
+    /**
+     * Lists the armed start and end timers of all deliveries.
+     *
+     * @return upcoming fires ordered by time
+     */
+    List<TimingWheel.Fire> getScheduledFires();
+    
     /**
      * Resumes any active events after server restart.
      */
@@ -60,4 +128,24 @@ public interface SchedulerService {
      * @return true if the expression is valid, false otherwise
      */
     boolean isValidExpression(String expression);
+    
+    /**
+     * Drift between the intended and actual end time of events.
+     *
+     * @param ends             ends fired so far, scheduled and deadline
+     * @param lastDriftMillis  how late the last end fired
+     * @param maxDriftMillis   the largest drift of any end
+     * @param totalDriftMillis the summed drift of all ends
+     */
+    record EndDrift(long ends, long lastDriftMillis, long maxDriftMillis, long totalDriftMillis) {
+        
+        /**
+         * Gets the mean drift.
+         *
+         * @return the average drift in milliseconds, 0 if nothing ended yet
+         */
+        public long averageDriftMillis() {
+            return ends == 0 ? 0 : totalDriftMillis / ends;
+        }
+    }
 }
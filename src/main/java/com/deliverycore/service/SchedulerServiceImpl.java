@@ -1,57 +1,115 @@
 package com.deliverycore.service;
 
 import com.deliverycore.model.DeliveryDefinition;
+import com.deliverycore.util.TimingWheel;
 
-import java.time.DayOfWeek;
-import java.time.LocalTime;
+import java.time.Clock;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Default implementation of SchedulerService.
  * Parses natural language schedule expressions and manages event scheduling.
  * Supports event resumption after server restart.
  * 
+ * Start and end timers of all deliveries live on one {@link TimingWheel}
+ * ticked once a second by a single repeating executor task; when an end
+ * fires the delivery's next window is armed. One-off end deadlines (manually
+ * started events) share the same wheel, so every end follows the wall clock
+ * rather than the server tick rate, and each end records how late it fired.
+ * 
+ * Expressions are compiled into {@link CompiledSchedule}s once and cached by
+ * their text; each (expression, timezone) pair also caches its next
+ * {@value #CALENDAR_SIZE} fire times, so repeated next-occurrence lookups
+ * cost a peek until the cached times run out.
+ * 
  * Requirements: 4.1, 4.2, 4.3, 4.4, 4.5
  */
 public class SchedulerServiceImpl implements SchedulerService {
     
     private static final Logger LOGGER = Logger.getLogger(SchedulerServiceImpl.class.getName());
     
-    // Pattern: "every <day> HH:mm" or "every day HH:mm"
-    private static final Pattern SCHEDULE_PATTERN = Pattern.compile(
-        "^every\\s+(monday|tuesday|wednesday|thursday|friday|saturday|sunday|day)\\s+(\\d{1,2}):(\\d{2})$",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    private static final Map<String, DayOfWeek> DAY_MAP = Map.of(
-        "monday", DayOfWeek.MONDAY,
-        "tuesday", DayOfWeek.TUESDAY,
-        "wednesday", DayOfWeek.WEDNESDAY,
-        "thursday", DayOfWeek.THURSDAY,
-        "friday", DayOfWeek.FRIDAY,
-        "saturday", DayOfWeek.SATURDAY,
-        "sunday", DayOfWeek.SUNDAY
-    );
-    
-    private final Map<String, ScheduledFuture<?>> scheduledTasks = new HashMap<>();
+    static final int CALENDAR_SIZE = 8;
+    static final long TICK_MILLIS = 1000L;
+    static final int WHEEL_SIZE = 512;
+    
+    /**
+     * A delivery's armed timers; the generation tells a stale fire from the current one.
+     */
+    private record DeliveryTimers(long generation, TimingWheel.Timeout start, TimingWheel.Timeout end) {}
+    
+    /**
+     * A one-off end deadline of a delivery.
+     */
+    private record EndDeadline(long generation, TimingWheel.Timeout timeout) {}
+    
+    private record CalendarKey(String expression, ZoneId timezone) {}
+    
+    /**
+     * Upcoming fire times of one expression in one timezone.
+     * Valid as long as the clock has not moved back before {@code filledAfter}.
+     */
+    private static final class Calendar {
+        final CompiledSchedule schedule;
+        final Deque<ZonedDateTime> upcoming = new ArrayDeque<>(CALENDAR_SIZE);
+        ZonedDateTime filledAfter;
+        
+        Calendar(CompiledSchedule schedule) {
+            this.schedule = schedule;
+        }
+        
+        synchronized List<ZonedDateTime> peek(ZonedDateTime now, int count) {
+            if (filledAfter == null || now.isBefore(filledAfter)) {
+                upcoming.clear();
+            }
+            while (!upcoming.isEmpty() && !upcoming.peekFirst().isAfter(now)) {
+                upcoming.removeFirst();
+            }
+            if (upcoming.size() < count) {
+                upcoming.clear();
+                upcoming.addAll(schedule.upcoming(now, Math.max(count, CALENDAR_SIZE)));
+                filledAfter = now;
+            }
+            List<ZonedDateTime> times = new ArrayList<>(count);
+            for (ZonedDateTime time : upcoming) {
+                if (times.size() == count) break;
+                times.add(time);
+            }
+            return times;
+        }
+    }
+    
+    private final Map<String, Optional<CompiledSchedule>> compiledSchedules = new ConcurrentHashMap<>();
+    private final Map<CalendarKey, Calendar> calendars = new ConcurrentHashMap<>();
+    private final Map<String, DeliveryTimers> timers = new ConcurrentHashMap<>();
+    private final Map<String, EndDeadline> deadlines = new ConcurrentHashMap<>();
     private final Map<String, ScheduledEventInfo> scheduledEventInfos = new ConcurrentHashMap<>();
     private final ScheduledExecutorService executor;
+    private final Clock clock;
+    private final TimingWheel wheel;
+    private ScheduledFuture<?> ticker;
+    private long timerGeneration;
+    private long ends;
+    private long lastDriftMillis;
+    private long maxDriftMillis;
+    private long totalDriftMillis;
     private Consumer<String> eventStartCallback;
     private Consumer<String> eventEndCallback;
+    private Predicate<String> runningCheck = name -> false;
     
     /**
      * Creates a new SchedulerServiceImpl.
@@ -59,14 +117,26 @@ public class SchedulerServiceImpl implements SchedulerService {
      * @param executor the executor service for scheduling tasks
      */
     public SchedulerServiceImpl(ScheduledExecutorService executor) {
+        this(executor, Clock.systemUTC());
+    }
+    
+    /**
+     * Creates a new SchedulerServiceImpl reading the current time from the given clock.
+     *
+     * @param executor the executor service for scheduling tasks, null for parsing only
+     * @param clock    the clock used for next-occurrence and delay calculations
+     */
+    public SchedulerServiceImpl(ScheduledExecutorService executor, Clock clock) {
         this.executor = executor;
+        this.clock = clock;
+        this.wheel = new TimingWheel(TICK_MILLIS, WHEEL_SIZE, clock.millis());
     }
     
     /**
      * Creates a SchedulerServiceImpl without an executor (for parsing only).
      */
     public SchedulerServiceImpl() {
-        this.executor = null;
+        this(null, Clock.systemUTC());
     }
     
     /**
@@ -86,6 +156,17 @@ public class SchedulerServiceImpl implements SchedulerService {
     public void setEventEndCallback(Consumer<String> callback) {
         this.eventEndCallback = callback;
     }
+    
+    /**
+     * Sets the check telling whether a delivery already has a running event,
+     * e.g. one restored after a restart. Such deliveries are not started again
+     * when their window is found open.
+     *
+     * @param check returns true for delivery names with a running event
+     */
+    public void setRunningCheck(Predicate<String> check) {
+        this.runningCheck = check != null ? check : name -> false;
+    }
 
     @Override
     public void scheduleEvent(DeliveryDefinition delivery) {
@@ -93,160 +174,258 @@ public class SchedulerServiceImpl implements SchedulerService {
             LOGGER.warning("No executor configured, cannot schedule events");
             return;
         }
+        startTicker();
         
-        // Cancel any existing schedule for this delivery
-        cancelScheduledEvent(delivery.name());
-        
-        // Parse and schedule start time
-        Optional<ZonedDateTime> nextStart = getNextOccurrence(
-            delivery.schedule().start(), 
-            delivery.timezone()
-        );
+        Runnable startNow;
+        synchronized (this) {
+            // Cancel any existing schedule for this delivery
+            cancelScheduledEvent(delivery.name());
+            startNow = arm(delivery, true);
+        }
+        if (startNow != null) {
+            startNow.run();
+        }
         
+        ScheduledEventInfo info = scheduledEventInfos.get(delivery.name());
+        if (info != null) {
+            LOGGER.info("Scheduled delivery '" + delivery.name() + "' for " + info.scheduledStart() + " to " + info.scheduledEnd());
+        }
+    }
+    
+    /**
+     * Computes the next window of a delivery and puts its start and end
+     * timers on the wheel. Caller holds the lock.
+     *
+     * @param delivery   the delivery
+     * @param openWindow whether to start right away when the window is already open
+     * @return the start callback to run outside the lock, or null
+     */
+    private Runnable arm(DeliveryDefinition delivery, boolean openWindow) {
+        String name = delivery.name();
+        Optional<ZonedDateTime> nextStart = getNextOccurrence(delivery.schedule().start(), delivery.timezone());
         if (nextStart.isEmpty()) {
-            LOGGER.warning("Invalid start schedule for delivery: " + delivery.name());
-            return;
+            LOGGER.warning("Invalid start schedule for delivery: " + name);
+            return null;
         }
-        
-        // Parse end time
-        Optional<ZonedDateTime> nextEnd = getNextOccurrence(
-            delivery.schedule().end(),
-            delivery.timezone()
-        );
-        
+        Optional<ZonedDateTime> nextEnd = getNextOccurrence(delivery.schedule().end(), delivery.timezone());
         if (nextEnd.isEmpty()) {
-            LOGGER.warning("Invalid end schedule for delivery: " + delivery.name());
-            return;
+            LOGGER.warning("Invalid end schedule for delivery: " + name);
+            return null;
         }
         
         // Store scheduled event info for resumption
-        ScheduledEventInfo info = new ScheduledEventInfo(
-            delivery.name(),
-            nextStart.get(),
-            nextEnd.get(),
-            delivery.timezone()
-        );
-        scheduledEventInfos.put(delivery.name(), info);
+        scheduledEventInfos.put(name, new ScheduledEventInfo(name, nextStart.get(), nextEnd.get(), delivery.timezone()));
         
-        // Calculate delay until start
-        ZonedDateTime now = ZonedDateTime.now(delivery.timezone());
-        long startDelayMs = java.time.Duration.between(now, nextStart.get()).toMillis();
-        long endDelayMs = java.time.Duration.between(now, nextEnd.get()).toMillis();
-        
-        // Eğer şu an etkinlik zamanı içindeyse hemen başlat
-        if (startDelayMs <= 0 && endDelayMs > 0) {
-            LOGGER.info("Event '" + delivery.name() + "' is currently active, starting now!");
-            if (eventStartCallback != null) {
-                eventStartCallback.accept(delivery.name());
+        long generation = ++timerGeneration;
+        long startMillis = nextStart.get().toInstant().toEpochMilli();
+        long endMillis = nextEnd.get().toInstant().toEpochMilli();
+        Runnable startNow = null;
+        TimingWheel.Timeout startTimer = null;
+        if (endMillis < startMillis) {
+            // Bitiş bir sonraki başlangıçtan önce: pencere şu an açık, hemen başlat
+            if (openWindow && runningCheck.test(name)) {
+                // Yeniden başlatmada geri yüklenen etkinlik sıfırlanmaz, yalnızca bitişi kurulur
+                LOGGER.info("Event '" + name + "' is already running, keeping it");
+            } else if (openWindow) {
+                LOGGER.info("Event '" + name + "' is currently active, starting now!");
+                startNow = () -> fireStart(name, generation);
             }
-            // Bitiş zamanını planla
-            scheduleEndTask(delivery.name(), endDelayMs);
-        } else if (startDelayMs > 0) {
-            // Başlangıç zamanını planla
-            LOGGER.info("Scheduling '" + delivery.name() + "' to start in " + (startDelayMs / 1000 / 60) + " minutes");
-            scheduleStartTask(delivery, startDelayMs, endDelayMs - startDelayMs);
+        } else {
+            LOGGER.info("Scheduling '" + name + "' to start in " + ((startMillis - clock.millis()) / 1000 / 60) + " minutes");
+            startTimer = wheel.schedule(name, FIRE_START, startMillis, () -> fireStart(name, generation));
         }
-        
-        LOGGER.info("Scheduled delivery '" + delivery.name() + "' for " + nextStart.get() + " to " + nextEnd.get());
+        TimingWheel.Timeout endTimer = wheel.schedule(name, FIRE_END, endMillis, () -> fireEnd(delivery, generation, endMillis));
+        timers.put(name, new DeliveryTimers(generation, startTimer, endTimer));
+        EndDeadline deadline = deadlines.get(name);
+        if (deadline != null && deadline.timeout().getDeadline() == endMillis) {
+            // Geri yüklenen bitiş planlı bitişle aynı; ikinci bir bitiş çalışmaz
+            cancelEndAt(name);
+        }
+        return startNow;
     }
     
-    private void scheduleStartTask(DeliveryDefinition delivery, long startDelayMs, long durationMs) {
-        ScheduledFuture<?> startTask = executor.schedule(() -> {
-            LOGGER.info("Starting scheduled event: " + delivery.name());
-            if (eventStartCallback != null) {
-                eventStartCallback.accept(delivery.name());
-            }
-            // Bitiş zamanını planla
-            scheduleEndTask(delivery.name(), durationMs);
-            // Bir sonraki günü planla
-            executor.schedule(() -> scheduleEvent(delivery), durationMs + 1000, java.util.concurrent.TimeUnit.MILLISECONDS);
-        }, startDelayMs, java.util.concurrent.TimeUnit.MILLISECONDS);
-        
-        scheduledTasks.put(delivery.name() + "_start", startTask);
+    private void fireStart(String deliveryName, long generation) {
+        synchronized (this) {
+            DeliveryTimers current = timers.get(deliveryName);
+            if (current == null || current.generation() != generation) return;
+        }
+        LOGGER.info("Starting scheduled event: " + deliveryName);
+        if (eventStartCallback != null) {
+            eventStartCallback.accept(deliveryName);
+        }
+    }
+    
+    private void fireEnd(DeliveryDefinition delivery, long generation, long endMillis) {
+        synchronized (this) {
+            DeliveryTimers current = timers.get(delivery.name());
+            if (current == null || current.generation() != generation) return;
+            // Etkinlik bitiyor; elle verilmiş bitiş zamanı artık geçersiz
+            cancelEndAt(delivery.name());
+            // Bir sonraki pencere geri çağırmadan önce kurulur, geri çağırma ne yaparsa yapsın kaybolmaz
+            arm(delivery, false);
+        }
+        recordDrift(endMillis);
+        LOGGER.info("Ending scheduled event: " + delivery.name());
+        if (eventEndCallback != null) {
+            eventEndCallback.accept(delivery.name());
+        }
+    }
+    
+    private void fireDeadline(String deliveryName, long generation, long deadlineMillis) {
+        synchronized (this) {
+            // Bu arada değiştirildiyse ya da iptal edildiyse eski zamanlayıcı çalışmaz
+            EndDeadline current = deadlines.get(deliveryName);
+            if (current == null || current.generation() != generation) return;
+            deadlines.remove(deliveryName);
+        }
+        recordDrift(deadlineMillis);
+        LOGGER.info("Ending event at its deadline: " + deliveryName);
+        if (eventEndCallback != null) {
+            eventEndCallback.accept(deliveryName);
+        }
+    }
+    
+    private synchronized void recordDrift(long deadlineMillis) {
+        long drift = Math.max(0L, clock.millis() - deadlineMillis);
+        ends++;
+        lastDriftMillis = drift;
+        maxDriftMillis = Math.max(maxDriftMillis, drift);
+        totalDriftMillis += drift;
     }
     
-    private void scheduleEndTask(String deliveryName, long delayMs) {
-        ScheduledFuture<?> endTask = executor.schedule(() -> {
-            LOGGER.info("Ending scheduled event: " + deliveryName);
-            if (eventEndCallback != null) {
-                eventEndCallback.accept(deliveryName);
+    private synchronized void startTicker() {
+        if (ticker != null) return;
+        ticker = executor.scheduleAtFixedRate(() -> {
+            try {
+                tick();
+            } catch (Exception e) {
+                LOGGER.warning("Timing wheel tick failed: " + e.getMessage());
             }
-        }, delayMs, java.util.concurrent.TimeUnit.MILLISECONDS);
-        
-        scheduledTasks.put(deliveryName + "_end", endTask);
+        }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Advances the wheel to the clock's current time and runs due timers.
+     * Called by the ticker task; tests call it after moving the clock.
+     *
+     * @return the number of timers fired
+     */
+    int tick() {
+        synchronized (wheel) {
+            return wheel.advanceTo(clock.millis());
+        }
     }
     
     @Override
-    public void cancelScheduledEvent(String deliveryName) {
-        // Start task'ı iptal et
-        ScheduledFuture<?> startTask = scheduledTasks.remove(deliveryName + "_start");
-        if (startTask != null) {
-            startTask.cancel(false);
-            LOGGER.info("Cancelled start task for: " + deliveryName);
+    public boolean scheduleEndAt(String deliveryName, ZonedDateTime deadline) {
+        if (executor == null) {
+            LOGGER.warning("No executor configured, cannot schedule end of " + deliveryName);
+            return false;
         }
+        startTicker();
         
-        // End task'ı iptal et
-        ScheduledFuture<?> endTask = scheduledTasks.remove(deliveryName + "_end");
-        if (endTask != null) {
-            endTask.cancel(false);
-            LOGGER.info("Cancelled end task for: " + deliveryName);
+        long deadlineMillis = deadline.toInstant().toEpochMilli();
+        synchronized (this) {
+            cancelEndAt(deliveryName);
+            DeliveryTimers scheduled = timers.get(deliveryName);
+            if (scheduled != null && scheduled.end().getDeadline() == deadlineMillis && !scheduled.end().isCancelled()) {
+                // Planlı bitiş zaten o anda; ikinci bir bitiş kurulmaz
+                return false;
+            }
+            long generation = ++timerGeneration;
+            deadlines.put(deliveryName, new EndDeadline(generation, wheel.schedule(deliveryName, FIRE_END, deadlineMillis,
+                () -> fireDeadline(deliveryName, generation, deadlineMillis))));
         }
-        
-        // Eski format için de kontrol et
-        ScheduledFuture<?> task = scheduledTasks.remove(deliveryName);
-        if (task != null) {
-            task.cancel(false);
+        LOGGER.info("Scheduled end of '" + deliveryName + "' at " + deadline);
+        return true;
+    }
+    
+    @Override
+    public synchronized boolean cancelEndAt(String deliveryName) {
+        EndDeadline removed = deadlines.remove(deliveryName);
+        return removed != null && removed.timeout().cancel();
+    }
+    
+    @Override
+    public synchronized EndDrift getEndDrift() {
+        return new EndDrift(ends, lastDriftMillis, maxDriftMillis, totalDriftMillis);
+    }
+    
+    @Override
+    public synchronized void cancelScheduledEvent(String deliveryName) {
+        DeliveryTimers removed = timers.remove(deliveryName);
+        if (removed != null) {
+            if (removed.start() != null && removed.start().cancel()) {
+                LOGGER.info("Cancelled start task for: " + deliveryName);
+            }
+            if (removed.end().cancel()) {
+                LOGGER.info("Cancelled end task for: " + deliveryName);
+            }
         }
         
         scheduledEventInfos.remove(deliveryName);
         LOGGER.info("Cancelled all scheduled tasks for delivery: " + deliveryName);
     }
     
+    @Override
+    public List<TimingWheel.Fire> getScheduledFires() {
+        return wheel.snapshot();
+    }
+    
     @Override
     public Optional<ZonedDateTime> parseScheduleExpression(String expression, ZoneId timezone) {
-        if (expression == null || expression.isBlank() || timezone == null) {
-            return Optional.empty();
-        }
-        
-        Matcher matcher = SCHEDULE_PATTERN.matcher(expression.trim().toLowerCase());
-        if (!matcher.matches()) {
-            return Optional.empty();
+        List<ZonedDateTime> next = getUpcomingOccurrences(expression, timezone, 1);
+        return next.isEmpty() ? Optional.empty() : Optional.of(next.get(0));
+    }
+    
+    @Override
+    public Optional<ZonedDateTime> getNextOccurrence(String expression, ZoneId timezone) {
+        return parseScheduleExpression(expression, timezone);
+    }
+    
+    @Override
+    public List<ZonedDateTime> getUpcomingOccurrences(String expression, ZoneId timezone, int count) {
+        if (expression == null || timezone == null || count <= 0) {
+            return List.of();
         }
-        
-        String dayPart = matcher.group(1);
-        int hour = Integer.parseInt(matcher.group(2));
-        int minute = Integer.parseInt(matcher.group(3));
-        
-        // Validate time values
-        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
-            return Optional.empty();
+        Optional<CompiledSchedule> schedule = compile(expression);
+        if (schedule.isEmpty()) {
+            return List.of();
         }
-        
-        LocalTime time = LocalTime.of(hour, minute);
-        ZonedDateTime now = ZonedDateTime.now(timezone);
-        ZonedDateTime result;
-        
-        if ("day".equals(dayPart)) {
-            // Every day at specified time
-            result = now.with(time);
-            if (result.isBefore(now) || result.isEqual(now)) {
-                result = result.plusDays(1);
+        Calendar calendar = calendars.computeIfAbsent(new CalendarKey(expression, timezone),
+            key -> new Calendar(schedule.get()));
+        return calendar.peek(ZonedDateTime.now(clock.withZone(timezone)), count);
+    }
+    
+    @Override
+    public int compileSchedules(Collection<DeliveryDefinition> deliveries) {
+        compiledSchedules.clear();
+        calendars.clear();
+        int invalid = 0;
+        for (DeliveryDefinition delivery : deliveries) {
+            if (compile(delivery.schedule().start()).isEmpty()) {
+                LOGGER.warning("Invalid start schedule for delivery " + delivery.name() + ": " + delivery.schedule().start());
+                invalid++;
             }
-        } else {
-            // Specific day of week
-            DayOfWeek targetDay = DAY_MAP.get(dayPart);
-            result = now.with(TemporalAdjusters.nextOrSame(targetDay)).with(time);
-            if (result.isBefore(now) || result.isEqual(now)) {
-                result = now.with(TemporalAdjusters.next(targetDay)).with(time);
+            if (compile(delivery.schedule().end()).isEmpty()) {
+                LOGGER.warning("Invalid end schedule for delivery " + delivery.name() + ": " + delivery.schedule().end());
+                invalid++;
             }
         }
-        
-        return Optional.of(result);
+        return invalid;
     }
     
-    @Override
-    public Optional<ZonedDateTime> getNextOccurrence(String expression, ZoneId timezone) {
-        return parseScheduleExpression(expression, timezone);
+    private Optional<CompiledSchedule> compile(String expression) {
+        Optional<CompiledSchedule> cached = compiledSchedules.get(expression);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<CompiledSchedule> compiled = CompiledSchedule.compile(expression);
+        // Geçersiz ifadeler önbelleğe alınmaz, yoksa rastgele girdiler birikir
+        if (compiled.isPresent()) {
+            compiledSchedules.put(expression, compiled);
+        }
+        return compiled;
     }
     
     /**
@@ -260,13 +439,13 @@ public class SchedulerServiceImpl implements SchedulerService {
         LOGGER.info("Checking for active events to resume...");
         
         List<String> eventsToResume = new ArrayList<>();
-        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime now = ZonedDateTime.now(clock);
         
         for (ScheduledEventInfo info : scheduledEventInfos.values()) {
             ZonedDateTime nowInTimezone = now.withZoneSameInstant(info.timezone());
             
             // Check if we're currently within an event window
-            if (isWithinEventWindow(info, nowInTimezone)) {
+            if (isWithinEventWindow(info, nowInTimezone) && !runningCheck.test(info.deliveryName())) {
                 eventsToResume.add(info.deliveryName());
                 LOGGER.info("Found active event to resume: " + info.deliveryName());
             }
@@ -311,20 +490,7 @@ public class SchedulerServiceImpl implements SchedulerService {
     
     @Override
     public boolean isValidExpression(String expression) {
-        if (expression == null || expression.isBlank()) {
-            return false;
-        }
-        
-        Matcher matcher = SCHEDULE_PATTERN.matcher(expression.trim().toLowerCase());
-        if (!matcher.matches()) {
-            return false;
-        }
-        
-        // Also validate time values
-        int hour = Integer.parseInt(matcher.group(2));
-        int minute = Integer.parseInt(matcher.group(3));
-        
-        return hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59;
+        return expression != null && compile(expression).isPresent();
     }
     
     /**
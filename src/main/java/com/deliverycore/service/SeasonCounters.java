@@ -0,0 +1,316 @@
+package com.deliverycore.service;
+
+import com.deliverycore.model.LeaderboardEntry;
+import com.deliverycore.util.TopKSelector;
+import com.deliverycore.util.UuidIntMap;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Per-player delivery counters in hour and day buckets, so rolling windows
+ * (last 7 days, this month, a custom season) are answered by summing a few
+ * buckets instead of rescanning raw history. Day buckets follow the
+ * configured zone's calendar days; hour buckets are UTC hours.
+ *
+ * Only the last {@code retentionDays} day buckets and {@code retentionHours}
+ * hour buckets are kept, which bounds memory to roughly
+ * (retained buckets x active players per bucket). Changed counts are handed
+ * to storage in batches via {@link #drainDirty()}. Thread-safe.
+ */
+public final class SeasonCounters {
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    /**
+     * Bucket size.
+     */
+    public enum Granularity { HOUR, DAY }
+
+    /**
+     * A player's absolute count in one bucket.
+     *
+     * @param granularity the bucket size
+     * @param bucket      epoch hour (UTC) or epoch day (in the counters' zone)
+     * @param playerUuid  the player's UUID
+     * @param amount      the player's total in the bucket
+     */
+    public record BucketCount(Granularity granularity, long bucket, UUID playerUuid, int amount) {}
+
+    private static final class Bucket {
+        final Granularity granularity;
+        final long key;
+        final UuidIntMap counts = new UuidIntMap();
+        // Kaydedilmemiş oyuncular (değer önemsiz)
+        final UuidIntMap dirty = new UuidIntMap();
+
+        Bucket(Granularity granularity, long key) {
+            this.granularity = granularity;
+            this.key = key;
+        }
+    }
+
+    private final Clock clock;
+    private final ZoneId zone;
+    private final int retentionDays;
+    private final int retentionHours;
+    private final TreeMap<Long, Bucket> days = new TreeMap<>();
+    private final TreeMap<Long, Bucket> hours = new TreeMap<>();
+    private final Set<Bucket> dirtyBuckets = new LinkedHashSet<>();
+
+    // Şu anki gün ve saat; her teslimatta tarih hesabı yapılmasın diye
+    private Bucket currentDay;
+    private Bucket currentHour;
+    private long dayStartMillis = Long.MAX_VALUE;
+    private long dayEndMillis = Long.MIN_VALUE;
+
+    /**
+     * Creates empty counters.
+     *
+     * @param clock          the clock deliveries are timed with
+     * @param zone           the zone whose calendar days form day buckets
+     * @param retentionDays  how many day buckets to keep, including today
+     * @param retentionHours how many hour buckets to keep, including the current hour
+     * @throws IllegalArgumentException if a retention is less than 1
+     */
+    public SeasonCounters(Clock clock, ZoneId zone, int retentionDays, int retentionHours) {
+        if (retentionDays < 1 || retentionHours < 1) {
+            throw new IllegalArgumentException("Retention must be at least 1");
+        }
+        this.clock = clock;
+        this.zone = zone;
+        this.retentionDays = retentionDays;
+        this.retentionHours = retentionHours;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    /**
+     * Adds a delivery to the current hour and day buckets.
+     *
+     * @param playerUuid the player's UUID
+     * @param amount     the delivered amount, ignored unless positive
+     */
+    public synchronized void record(UUID playerUuid, int amount) {
+        if (amount <= 0) return;
+        long now = clock.millis();
+        roll(now);
+        add(currentDay, playerUuid, amount);
+        add(currentHour, playerUuid, amount);
+    }
+
+    /**
+     * Loads a stored count without marking it dirty. Counts outside the
+     * retention window are dropped.
+     *
+     * @param count the stored count
+     */
+    public synchronized void load(BucketCount count) {
+        roll(clock.millis());
+        TreeMap<Long, Bucket> buckets = count.granularity() == Granularity.DAY ? days : hours;
+        long oldest = count.granularity() == Granularity.DAY ? oldestDay() : oldestHour();
+        if (count.bucket() < oldest || count.amount() <= 0) return;
+        Bucket bucket = buckets.computeIfAbsent(count.bucket(), key -> new Bucket(count.granularity(), key));
+        bucket.counts.put(count.playerUuid(), count.amount());
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // SORGULAR
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Gets the leaders of a calendar-day range, both ends inclusive.
+     * Days older than the retention window count as empty.
+     *
+     * @param from  the first day
+     * @param to    the last day
+     * @param limit the maximum number of entries
+     * @return entries ordered by position
+     */
+    public synchronized List<LeaderboardEntry> getTop(LocalDate from, LocalDate to, int limit) {
+        roll(clock.millis());
+        if (from.isAfter(to)) return List.of();
+        return top(days.subMap(from.toEpochDay(), true, to.toEpochDay(), true), limit);
+    }
+
+    /**
+     * Gets the leaders of the last days, today included.
+     *
+     * @param dayCount the number of days
+     * @param limit    the maximum number of entries
+     * @return entries ordered by position
+     */
+    public List<LeaderboardEntry> getTopLastDays(int dayCount, int limit) {
+        LocalDate today = today();
+        return getTop(today.minusDays(Math.max(dayCount, 1) - 1L), today, limit);
+    }
+
+    /**
+     * Gets the leaders of the current calendar month.
+     *
+     * @param limit the maximum number of entries
+     * @return entries ordered by position
+     */
+    public List<LeaderboardEntry> getTopCurrentMonth(int limit) {
+        LocalDate today = today();
+        return getTop(today.withDayOfMonth(1), today, limit);
+    }
+
+    /**
+     * Gets the leaders of the last hours, the current hour included.
+     *
+     * @param hourCount the number of hours, capped at the hour retention
+     * @param limit     the maximum number of entries
+     * @return entries ordered by position
+     */
+    public synchronized List<LeaderboardEntry> getTopLastHours(int hourCount, int limit) {
+        long now = clock.millis();
+        roll(now);
+        long hour = Math.floorDiv(now, HOUR_MILLIS);
+        return top(hours.subMap(hour - Math.max(hourCount, 1) + 1, true, hour, true), limit);
+    }
+
+    /**
+     * Gets a player's total over a calendar-day range, both ends inclusive.
+     *
+     * @param playerUuid the player's UUID
+     * @param from       the first day
+     * @param to         the last day
+     * @return the total
+     */
+    public synchronized int getTotal(UUID playerUuid, LocalDate from, LocalDate to) {
+        roll(clock.millis());
+        if (from.isAfter(to)) return 0;
+        int total = 0;
+        for (Bucket bucket : days.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+            total += bucket.counts.getOrDefault(playerUuid, 0);
+        }
+        return total;
+    }
+
+    public LocalDate today() {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(clock.millis()), zone);
+    }
+
+    /**
+     * Gets the oldest retained day bucket.
+     *
+     * @return the epoch day
+     */
+    public synchronized long oldestDay() {
+        return today().toEpochDay() - retentionDays + 1;
+    }
+
+    /**
+     * Gets the oldest retained hour bucket.
+     *
+     * @return the epoch hour
+     */
+    public synchronized long oldestHour() {
+        return Math.floorDiv(clock.millis(), HOUR_MILLIS) - retentionHours + 1;
+    }
+
+    public synchronized int getBucketCount() {
+        return days.size() + hours.size();
+    }
+
+    /**
+     * Returns the counts changed since the last drain, as absolute values,
+     * and clears the changed set. Counts of expired buckets are not returned.
+     *
+     * @return the changed counts
+     */
+    public synchronized List<BucketCount> drainDirty() {
+        roll(clock.millis());
+        if (dirtyBuckets.isEmpty()) return List.of();
+        List<BucketCount> changed = new ArrayList<>();
+        for (Bucket bucket : dirtyBuckets) {
+            bucket.dirty.forEach((msb, lsb, ignored) -> changed.add(new BucketCount(bucket.granularity, bucket.key,
+                new UUID(msb, lsb), bucket.counts.getOrDefault(msb, lsb, 0))));
+            bucket.dirty.clear();
+        }
+        dirtyBuckets.clear();
+        return changed;
+    }
+
+    /**
+     * Marks drained counts changed again, e.g. after their write was rolled
+     * back. Counts of buckets that expired in the meantime are dropped.
+     *
+     * @param counts the counts returned by {@link #drainDirty()}
+     */
+    public synchronized void markDirty(Collection<BucketCount> counts) {
+        for (BucketCount count : counts) {
+            Bucket bucket = (count.granularity() == Granularity.DAY ? days : hours).get(count.bucket());
+            if (bucket == null) continue;
+            bucket.dirty.put(count.playerUuid(), 1);
+            dirtyBuckets.add(bucket);
+        }
+    }
+
+    // ==================== Internals ====================
+
+    private void add(Bucket bucket, UUID playerUuid, int amount) {
+        bucket.counts.addTo(playerUuid, amount);
+        bucket.dirty.put(playerUuid, 1);
+        dirtyBuckets.add(bucket);
+    }
+
+    /**
+     * Moves the current buckets to the given time and drops expired ones.
+     */
+    private void roll(long now) {
+        long hour = Math.floorDiv(now, HOUR_MILLIS);
+        if (currentHour == null || currentHour.key != hour) {
+            currentHour = hours.computeIfAbsent(hour, key -> new Bucket(Granularity.HOUR, key));
+            expire(hours, hour - retentionHours + 1);
+        }
+        if (now < dayStartMillis || now >= dayEndMillis) {
+            LocalDate today = LocalDate.ofInstant(Instant.ofEpochMilli(now), zone);
+            dayStartMillis = today.atStartOfDay(zone).toInstant().toEpochMilli();
+            dayEndMillis = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            currentDay = days.computeIfAbsent(today.toEpochDay(), key -> new Bucket(Granularity.DAY, key));
+            expire(days, today.toEpochDay() - retentionDays + 1);
+        }
+    }
+
+    private void expire(TreeMap<Long, Bucket> buckets, long oldest) {
+        NavigableMap<Long, Bucket> expired = buckets.headMap(oldest, false);
+        if (expired.isEmpty()) return;
+        dirtyBuckets.removeAll(expired.values());
+        expired.clear();
+    }
+
+    private static List<LeaderboardEntry> top(NavigableMap<Long, Bucket> range, int limit) {
+        Collection<Bucket> buckets = range.values();
+        if (buckets.isEmpty() || limit <= 0) return List.of();
+        UuidIntMap sum;
+        if (buckets.size() == 1) {
+            sum = buckets.iterator().next().counts;
+        } else {
+            sum = new UuidIntMap();
+            for (Bucket bucket : buckets) {
+                bucket.counts.forEach(sum::addTo);
+            }
+        }
+        TopKSelector selector = new TopKSelector(limit);
+        sum.forEach(selector);
+        return selector.drain();
+    }
+}
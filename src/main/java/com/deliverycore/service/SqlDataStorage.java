@@ -0,0 +1,620 @@
+package com.deliverycore.service;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * File-based SQLite storage using the driver bundled with Spigot, so no
+ * external server or shaded dependency is needed. Player totals and event
+ * participation live in indexed tables; delivery batches write only the
+ * changed participants and absolute stats, with batched prepared statements in a
+ * single transaction. An existing data.yml
+ * (and its journal) is imported once on first open; servers opt in by
+ * setting {@code data.storage: sqlite}.
+ */
+public class SqlDataStorage implements DataStorage {
+
+    static final String DATABASE_FILE = "data.db";
+    private static final String DRIVER = "org.sqlite.JDBC";
+    private static final String MIGRATED_KEY = "yaml-migrated";
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS player_stats ("
+            + "uuid TEXT PRIMARY KEY, last_name TEXT NOT NULL, "
+            + "total_deliveries INTEGER NOT NULL DEFAULT 0, last_active INTEGER NOT NULL DEFAULT 0)",
+        "CREATE INDEX IF NOT EXISTS idx_player_stats_total ON player_stats (total_deliveries DESC)",
+        "CREATE TABLE IF NOT EXISTS active_events ("
+            + "name TEXT PRIMARY KEY, category TEXT, item TEXT, "
+            + "start_millis INTEGER NOT NULL, end_millis INTEGER NOT NULL, timezone TEXT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS event_participation ("
+            + "event_name TEXT NOT NULL, uuid TEXT NOT NULL, amount INTEGER NOT NULL, "
+            + "PRIMARY KEY (event_name, uuid))",
+        "CREATE INDEX IF NOT EXISTS idx_event_participation_player ON event_participation (uuid)",
+        "CREATE TABLE IF NOT EXISTS season_buckets ("
+            + "granularity INTEGER NOT NULL, bucket INTEGER NOT NULL, uuid TEXT NOT NULL, amount INTEGER NOT NULL, "
+            + "PRIMARY KEY (granularity, bucket, uuid))",
+        "CREATE TABLE IF NOT EXISTS storage_meta (key TEXT PRIMARY KEY, value TEXT NOT NULL)"
+    };
+
+    private final File dataFolder;
+    private final Logger logger;
+    private final Clock clock;
+    private final Object lock = new Object();
+    private final SaveMetrics saveMetrics = new SaveMetrics();
+    private Connection connection;
+
+    private PreparedStatement putStats;
+    private PreparedStatement putParticipation;
+    private PreparedStatement upsertEvent;
+    private PreparedStatement updateEventEnd;
+    private PreparedStatement deleteEvent;
+    private PreparedStatement deleteParticipation;
+    private PreparedStatement eventExists;
+    private PreparedStatement putBucket;
+    private PreparedStatement pruneBuckets;
+    private List<PreparedStatement> statements = List.of();
+    // İşlem geri alınırsa, boşaltılmış kirli işaretlerini geri koyar
+    private final List<Runnable> rollbackActions = new ArrayList<>();
+
+    /**
+     * Opens or creates the database and imports data.yml if it was not imported yet.
+     *
+     * @param dataFolder the plugin data folder
+     * @param logger     the plugin logger
+     * @param clock      the clock used for migration timestamps
+     * @throws SQLException if the driver is missing or the database cannot be opened
+     */
+    public SqlDataStorage(File dataFolder, Logger logger, Clock clock) throws SQLException {
+        this.dataFolder = dataFolder;
+        this.logger = logger;
+        this.clock = clock;
+        try {
+            Class.forName(DRIVER);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite sürücüsü bulunamadı: " + DRIVER, e);
+        }
+        if (!dataFolder.exists()) {
+            boolean ignored = dataFolder.mkdirs();
+        }
+        connection = DriverManager.getConnection("jdbc:sqlite:" + new File(dataFolder, DATABASE_FILE).getAbsolutePath());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode=WAL");
+            statement.execute("PRAGMA synchronous=NORMAL");
+            for (String sql : SCHEMA) {
+                statement.execute(sql);
+            }
+        }
+        connection.setAutoCommit(false);
+        prepareStatements();
+        migrateFromYaml();
+        logger.info("[DataManager] SQLite veritabanı açıldı: " + DATABASE_FILE);
+    }
+
+    private void prepareStatements() throws SQLException {
+        putStats = connection.prepareStatement(
+            "INSERT OR REPLACE INTO player_stats (uuid, last_name, total_deliveries, last_active) VALUES (?, ?, ?, ?)");
+        putParticipation = connection.prepareStatement(
+            "INSERT OR REPLACE INTO event_participation (event_name, uuid, amount) VALUES (?, ?, ?)");
+        upsertEvent = connection.prepareStatement(
+            "INSERT OR REPLACE INTO active_events (name, category, item, start_millis, end_millis, timezone) "
+                + "VALUES (?, ?, ?, ?, ?, ?)");
+        updateEventEnd = connection.prepareStatement("UPDATE active_events SET end_millis = ? WHERE name = ?");
+        deleteEvent = connection.prepareStatement("DELETE FROM active_events WHERE name = ?");
+        deleteParticipation = connection.prepareStatement("DELETE FROM event_participation WHERE event_name = ?");
+        eventExists = connection.prepareStatement("SELECT 1 FROM active_events WHERE name = ?");
+        putBucket = connection.prepareStatement(
+            "INSERT OR REPLACE INTO season_buckets (granularity, bucket, uuid, amount) VALUES (?, ?, ?, ?)");
+        pruneBuckets = connection.prepareStatement("DELETE FROM season_buckets WHERE granularity = ? AND bucket < ?");
+        statements = List.of(putStats, putParticipation, upsertEvent, updateEventEnd, deleteEvent,
+            deleteParticipation, eventExists, putBucket, pruneBuckets);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // AKTİF ETKİNLİK İŞLEMLERİ
+    // ═══════════════════════════════════════════════════════════════
+
+    @Override
+    public void saveActiveEvent(ActiveEvent event) {
+        transaction("Etkinlik kaydedilemedi: " + event.getDeliveryName(), () -> writeFullEvent(event));
+    }
+
+    @Override
+    public void saveAllActiveEvents(List<ActiveEvent> events) {
+        transaction("Etkinlikler kaydedilemedi", () -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM event_participation");
+                statement.executeUpdate("DELETE FROM active_events");
+            }
+            for (ActiveEvent event : events) {
+                writeFullEvent(event);
+            }
+        });
+    }
+
+    @Override
+    public void persistDirty(ActiveEvent event) {
+        transaction("Etkinlik kaydedilemedi: " + event.getDeliveryName(), () -> persistDirtyLocked(event));
+    }
+
+    private void persistDirtyLocked(ActiveEvent event) throws SQLException {
+        String name = event.getDeliveryName();
+        if (!exists(name)) {
+            // Başlangıç kaydı olmayan etkinlik tam haliyle yazılır
+            writeFullEvent(event);
+            return;
+        }
+        // Kopya rank kilidi bırakıldıktan sonra yazılır; teslimatlar veritabanını beklemez
+        List<ActiveEvent.ParticipantCount> changed = event.drainDirty();
+        if (changed.isEmpty()) return;
+        List<UUID> drained = new ArrayList<>(changed.size());
+        for (ActiveEvent.ParticipantCount participant : changed) {
+            drained.add(participant.playerUuid());
+        }
+        rollbackActions.add(() -> event.markDirty(drained));
+        for (ActiveEvent.ParticipantCount participant : changed) {
+            putParticipation.setString(1, name);
+            putParticipation.setString(2, participant.playerUuid().toString());
+            putParticipation.setInt(3, participant.count());
+            putParticipation.addBatch();
+        }
+        putParticipation.executeBatch();
+    }
+
+    @Override
+    public void recordEventStart(ActiveEvent event) {
+        saveActiveEvent(event);
+    }
+
+    @Override
+    public void recordEventWindow(ActiveEvent event) {
+        transaction("Bitiş zamanı kaydedilemedi: " + event.getDeliveryName(), () -> {
+            updateEventEnd.setLong(1, event.getEndMillis());
+            updateEventEnd.setString(2, event.getDeliveryName());
+            updateEventEnd.executeUpdate();
+        });
+    }
+
+    @Override
+    public void removeActiveEvent(String deliveryName) {
+        transaction("Etkinlik silinemedi: " + deliveryName, () -> {
+            deleteParticipation.setString(1, deliveryName);
+            deleteParticipation.executeUpdate();
+            deleteEvent.setString(1, deliveryName);
+            deleteEvent.executeUpdate();
+        });
+    }
+
+    @Override
+    public List<SavedEventData> loadActiveEvents() {
+        synchronized (lock) {
+            Map<String, SavedEventData> events = new LinkedHashMap<>();
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT name, category, item, start_millis, end_millis, timezone FROM active_events")) {
+                    while (rs.next()) {
+                        String name = rs.getString(1);
+                        try {
+                            ZoneId zone = ZoneId.of(rs.getString(6));
+                            events.put(name, new SavedEventData(name, rs.getString(2), rs.getString(3),
+                                toZoned(rs.getLong(4), Long.MIN_VALUE, zone), toZoned(rs.getLong(5), Long.MAX_VALUE, zone),
+                                zone, new HashMap<>()));
+                        } catch (Exception e) {
+                            logger.warning("[DataManager] Etkinlik yüklenemedi: " + name + " - " + e.getMessage());
+                        }
+                    }
+                }
+                try (ResultSet rs = statement.executeQuery("SELECT event_name, uuid, amount FROM event_participation")) {
+                    while (rs.next()) {
+                        SavedEventData event = events.get(rs.getString(1));
+                        if (event == null) continue;
+                        try {
+                            event.playerDeliveries().put(UUID.fromString(rs.getString(2)), rs.getInt(3));
+                        } catch (IllegalArgumentException ignored) {}
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                logger.warning("[DataManager] Etkinlikler okunamadı: " + e.getMessage());
+            }
+            return new ArrayList<>(events.values());
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // OYUNCU İSTATİSTİKLERİ
+    // ═══════════════════════════════════════════════════════════════
+
+    @Override
+    public boolean savePlayerStats(Collection<PlayerStats> stats) {
+        if (stats.isEmpty()) return true;
+        return transaction("İstatistikler kaydedilemedi", () -> writeStats(stats));
+    }
+
+    @Override
+    public boolean applyDeliveryBatch(ActiveEvent event, boolean saveEvent, Collection<PlayerStats> changedStats) {
+        return transaction("Teslimat grubu kaydedilemedi: " + event.getDeliveryName(), () -> {
+            if (saveEvent) {
+                persistDirtyLocked(event);
+            }
+            writeStats(changedStats);
+        });
+    }
+
+    @Override
+    public long getLastActive(UUID playerUuid) {
+        synchronized (lock) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT last_active FROM player_stats WHERE uuid = ?")) {
+                statement.setString(1, playerUuid.toString());
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0L;
+                }
+            } catch (SQLException e) {
+                logger.warning("[DataManager] Son aktiflik okunamadı: " + e.getMessage());
+                return 0L;
+            } finally {
+                commitQuietly();
+            }
+        }
+    }
+
+    @Override
+    public Optional<PlayerStats> getPlayerStats(UUID playerUuid) {
+        synchronized (lock) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT last_name, total_deliveries, last_active FROM player_stats WHERE uuid = ?")) {
+                statement.setString(1, playerUuid.toString());
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next()
+                        ? Optional.of(new PlayerStats(playerUuid, rs.getString(1), rs.getInt(2), rs.getLong(3)))
+                        : Optional.empty();
+                }
+            } catch (SQLException e) {
+                logger.warning("[DataManager] İstatistik okunamadı: " + e.getMessage());
+                return Optional.empty();
+            } finally {
+                commitQuietly();
+            }
+        }
+    }
+
+    @Override
+    public Map<UUID, PlayerStats> getAllPlayerStats() {
+        synchronized (lock) {
+            Map<UUID, PlayerStats> stats = new HashMap<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT uuid, last_name, total_deliveries, last_active FROM player_stats")) {
+                while (rs.next()) {
+                    try {
+                        UUID uuid = UUID.fromString(rs.getString(1));
+                        stats.put(uuid, new PlayerStats(uuid, rs.getString(2), rs.getInt(3), rs.getLong(4)));
+                    } catch (IllegalArgumentException ignored) {}
+                }
+            } catch (SQLException e) {
+                logger.warning("[DataManager] İstatistikler okunamadı: " + e.getMessage());
+            } finally {
+                commitQuietly();
+            }
+            return stats;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // SEZON SAYAÇLARI
+    // ═══════════════════════════════════════════════════════════════
+
+    @Override
+    public boolean saveBucketCounts(Collection<SeasonCounters.BucketCount> counts, long oldestHour, long oldestDay) {
+        return transaction("Sezon sayaçları kaydedilemedi", () -> {
+            writeBuckets(counts);
+            pruneBuckets.setInt(1, SeasonCounters.Granularity.HOUR.ordinal());
+            pruneBuckets.setLong(2, oldestHour);
+            pruneBuckets.addBatch();
+            pruneBuckets.setInt(1, SeasonCounters.Granularity.DAY.ordinal());
+            pruneBuckets.setLong(2, oldestDay);
+            pruneBuckets.addBatch();
+            pruneBuckets.executeBatch();
+        });
+    }
+
+    @Override
+    public List<SeasonCounters.BucketCount> loadBucketCounts() {
+        synchronized (lock) {
+            List<SeasonCounters.BucketCount> counts = new ArrayList<>();
+            SeasonCounters.Granularity[] granularities = SeasonCounters.Granularity.values();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT granularity, bucket, uuid, amount FROM season_buckets")) {
+                while (rs.next()) {
+                    int granularity = rs.getInt(1);
+                    if (granularity < 0 || granularity >= granularities.length) continue;
+                    try {
+                        counts.add(new SeasonCounters.BucketCount(granularities[granularity], rs.getLong(2),
+                            UUID.fromString(rs.getString(3)), rs.getInt(4)));
+                    } catch (IllegalArgumentException ignored) {}
+                }
+            } catch (SQLException e) {
+                logger.warning("[DataManager] Sezon sayaçları okunamadı: " + e.getMessage());
+            } finally {
+                commitQuietly();
+            }
+            return counts;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // KAYIT / KAPANIŞ
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Her yazım kendi işleminde kaydedilir; burada sadece WAL dosyası küçültülür.
+     */
+    @Override
+    public void autoSave() {
+        checkpoint("PASSIVE");
+    }
+
+    @Override
+    public void flush() {
+        checkpoint("TRUNCATE");
+    }
+
+    @Override
+    public SaveStats getSaveStats() {
+        return saveMetrics.snapshot();
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (connection == null) return;
+            try {
+                connection.commit();
+                connection.close();
+            } catch (SQLException e) {
+                logger.warning("[DataManager] Veritabanı kapatılamadı: " + e.getMessage());
+            }
+            connection = null;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // YAML'DAN TAŞIMA
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * data.yml'deki etkinlik, istatistik ve sezon sayaçlarını bir kez veritabanına aktarır.
+     * Günlükteki kayıtlar YAML deposu açılırken görüntüye uygulandığı için
+     * aktarıma dahildir. Aktarılan dosyalar .migrated uzantısıyla saklanır;
+     * YAML'a geri dönüldüğünde eski günlük boş bir görüntüye uygulanmaz.
+     */
+    private void migrateFromYaml() throws SQLException {
+        if (readMeta(MIGRATED_KEY) != null) return;
+        File yamlFile = new File(dataFolder, YamlDataStorage.DATA_FILE);
+        if (!yamlFile.exists()) {
+            writeMeta(MIGRATED_KEY, "none");
+            connection.commit();
+            return;
+        }
+
+        YamlDataStorage yaml = new YamlDataStorage(dataFolder, logger, clock);
+        List<SavedEventData> events;
+        Map<UUID, PlayerStats> stats;
+        List<SeasonCounters.BucketCount> buckets;
+        try {
+            events = yaml.loadActiveEvents();
+            stats = yaml.getAllPlayerStats();
+            buckets = yaml.loadBucketCounts();
+        } finally {
+            yaml.close();
+        }
+
+        try {
+            for (SavedEventData event : events) {
+                writeEvent(event.deliveryName(), event.category(), event.item(),
+                    event.startTime() != null ? event.startTime().toInstant().toEpochMilli() : Long.MIN_VALUE,
+                    event.endTime() != null ? event.endTime().toInstant().toEpochMilli() : Long.MAX_VALUE,
+                    event.timezone());
+                for (Map.Entry<UUID, Integer> entry : event.playerDeliveries().entrySet()) {
+                    putParticipation.setString(1, event.deliveryName());
+                    putParticipation.setString(2, entry.getKey().toString());
+                    putParticipation.setInt(3, entry.getValue());
+                    putParticipation.addBatch();
+                }
+            }
+            putParticipation.executeBatch();
+            writeStats(stats.values());
+            writeBuckets(buckets);
+            writeMeta(MIGRATED_KEY, String.valueOf(clock.millis()));
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            putParticipation.clearBatch();
+            putStats.clearBatch();
+            putBucket.clearBatch();
+            throw e;
+        }
+
+        markMigrated(yamlFile);
+        markMigrated(new File(dataFolder, YamlDataStorage.JOURNAL_FILE));
+        markMigrated(new File(dataFolder, YamlDataStorage.JOURNAL_FILE + ".1"));
+        logger.info("[DataManager] data.yml veritabanına aktarıldı: " + events.size() + " etkinlik, "
+            + stats.size() + " oyuncu.");
+    }
+
+    private void markMigrated(File file) {
+        if (!file.exists()) return;
+        File backup = new File(dataFolder, file.getName() + ".migrated");
+        if (!file.renameTo(backup)) {
+            logger.warning("[DataManager] " + file.getName() + " yeniden adlandırılamadı, dosya yerinde bırakıldı.");
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // YARDIMCILAR
+    // ═══════════════════════════════════════════════════════════════
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    /**
+     * Runs the work in one transaction. On failure the transaction is rolled
+     * back, queued batch rows are discarded so they do not run with the next
+     * batch, and drained dirty flags are put back.
+     *
+     * @return true if the work was committed
+     */
+    private boolean transaction(String failure, SqlWork work) {
+        synchronized (lock) {
+            if (connection == null) return false;
+            rollbackActions.clear();
+            try {
+                work.run();
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                logger.warning("[DataManager] " + failure + " - " + e.getMessage());
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {}
+                for (PreparedStatement statement : statements) {
+                    try {
+                        statement.clearBatch();
+                    } catch (SQLException ignored) {}
+                }
+                rollbackActions.forEach(Runnable::run);
+                return false;
+            } finally {
+                rollbackActions.clear();
+            }
+        }
+    }
+
+    private void writeFullEvent(ActiveEvent event) throws SQLException {
+        String name = event.getDeliveryName();
+        writeEvent(name, event.getResolvedCategory(), event.getResolvedItem(),
+            event.getStartMillis(), event.getEndMillis(), event.getTimezone());
+        deleteParticipation.setString(1, name);
+        deleteParticipation.executeUpdate();
+        // Önce temizlenir; yazım sırasında gelen teslimat tekrar kirli sayılır
+        event.clearDirty();
+        rollbackActions.add(event::markAllDirty);
+        SQLException[] failure = {null};
+        event.forEachDelivery((msb, lsb, count) -> {
+            if (failure[0] != null) return;
+            try {
+                putParticipation.setString(1, name);
+                putParticipation.setString(2, new UUID(msb, lsb).toString());
+                putParticipation.setInt(3, count);
+                putParticipation.addBatch();
+            } catch (SQLException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) throw failure[0];
+        putParticipation.executeBatch();
+    }
+
+    private void writeEvent(String name, String category, String item, long startMillis, long endMillis,
+                            ZoneId timezone) throws SQLException {
+        upsertEvent.setString(1, name);
+        upsertEvent.setString(2, category);
+        upsertEvent.setString(3, item);
+        upsertEvent.setLong(4, startMillis);
+        upsertEvent.setLong(5, endMillis);
+        upsertEvent.setString(6, timezone != null ? timezone.getId() : "Europe/Istanbul");
+        upsertEvent.executeUpdate();
+    }
+
+    private void writeStats(Collection<PlayerStats> stats) throws SQLException {
+        if (stats.isEmpty()) return;
+        for (PlayerStats stat : stats) {
+            putStats.setString(1, stat.uuid().toString());
+            putStats.setString(2, stat.name() != null ? stat.name() : "Unknown");
+            putStats.setInt(3, stat.totalDeliveries());
+            putStats.setLong(4, stat.lastActive());
+            putStats.addBatch();
+        }
+        putStats.executeBatch();
+    }
+
+    private void writeBuckets(Collection<SeasonCounters.BucketCount> counts) throws SQLException {
+        if (counts.isEmpty()) return;
+        for (SeasonCounters.BucketCount count : counts) {
+            putBucket.setInt(1, count.granularity().ordinal());
+            putBucket.setLong(2, count.bucket());
+            putBucket.setString(3, count.playerUuid().toString());
+            putBucket.setInt(4, count.amount());
+            putBucket.addBatch();
+        }
+        putBucket.executeBatch();
+    }
+
+    private boolean exists(String deliveryName) throws SQLException {
+        eventExists.setString(1, deliveryName);
+        try (ResultSet rs = eventExists.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    private String readMeta(String key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT value FROM storage_meta WHERE key = ?")) {
+            statement.setString(1, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private void writeMeta(String key, String value) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT OR REPLACE INTO storage_meta (key, value) VALUES (?, ?)")) {
+            statement.setString(1, key);
+            statement.setString(2, value);
+            statement.executeUpdate();
+        }
+    }
+
+    private void checkpoint(String mode) {
+        long started = System.nanoTime();
+        synchronized (lock) {
+            if (connection == null) return;
+            try (Statement statement = connection.createStatement()) {
+                // Checkpoint açık işlem dışında çalışmalı
+                connection.setAutoCommit(true);
+                statement.execute("PRAGMA wal_checkpoint(" + mode + ")");
+            } catch (SQLException e) {
+                logger.warning("[DataManager] Veritabanı kaydedilemedi: " + e.getMessage());
+            } finally {
+                try {
+                    connection.setAutoCommit(false);
+                } catch (SQLException ignored) {}
+            }
+        }
+        // Checkpoint tüm süre boyunca kilidi tutar
+        long elapsed = System.nanoTime() - started;
+        saveMetrics.record(elapsed, elapsed);
+    }
+
+    private void commitQuietly() {
+        try {
+            connection.commit();
+        } catch (SQLException ignored) {}
+    }
+
+    private static ZonedDateTime toZoned(long millis, long sentinel, ZoneId zone) {
+        return millis == sentinel ? null : ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+}
@@ -0,0 +1,699 @@
+package com.deliverycore.service;
+
+import com.deliverycore.util.AtomicFiles;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * YAML veri deposu.
+ * - data.yml anlık görüntü, değişiklikler data.journal'a eklenir
+ * - Periyodik sıkıştırma (compaction) ile günlük görüntüye yazılır
+ * - Kilit altında sadece değişiklik listesi devralınır; kayıt kopyası kilit
+ *   dışında güncellenip metne çevrilir, geçici dosya + atomik yeniden adlandırma ile yazılır
+ * - Thread-safe veri yapıları
+ */
+public class YamlDataStorage implements DataStorage {
+
+    static final String DATA_FILE = "data.yml";
+    static final String JOURNAL_FILE = "data.journal";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_ZONED_DATE_TIME;
+    // Günlük bu boyutu aşarsa süre beklenmeden sıkıştırılır
+    private static final long JOURNAL_COMPACT_BYTES = 4L * 1024 * 1024;
+    private static final long COMPACT_INTERVAL_MILLIS = 5 * 60_000L;
+
+    private final File dataFolder;
+    private final File dataFile;
+    private final File sealedJournalFile;
+    private final Logger logger;
+    private final Clock clock;
+    private final SaveMetrics saveMetrics = new SaveMetrics();
+    private YamlConfiguration data;
+    // Diske son yazılan görüntü; sadece kayıt sırasında, saveLock altında değişir
+    private YamlConfiguration written;
+    // Son kayıttan beri görüntüye yapılan değişiklikler, sırasıyla
+    private List<Change> changes = new ArrayList<>();
+    private DeliveryJournal journal;
+    private long lastCompactMillis;
+
+    private boolean isDirty = false;
+    private final Object lock = new Object();
+    // Kayıtları sıraya koyar; disk yazımı sırasında veri kilidi tutulmaz
+    private final Object saveLock = new Object();
+
+    /** Görüntüde bir yol değişikliği; kayıt kopyasına aynı sırayla uygulanır. */
+    private record Change(String path, Object value, boolean section) {
+        void applyTo(YamlConfiguration target) {
+            if (section) {
+                target.createSection(path);
+            } else {
+                target.set(path, value);
+            }
+        }
+    }
+
+    public YamlDataStorage(File dataFolder, Logger logger, Clock clock) {
+        this.dataFolder = dataFolder;
+        this.clock = clock;
+        this.logger = logger;
+        this.dataFile = new File(dataFolder, DATA_FILE);
+        this.sealedJournalFile = new File(dataFolder, JOURNAL_FILE + ".1");
+        loadData();
+        openJournal();
+    }
+
+    /**
+     * Günlüğü açar ve görüntüden sonraki kayıtları yeniden uygular.
+     * Yarım kalmış bir kaydın mühürlü günlüğü önce uygulanır.
+     * Günlük açılamazsa her değişiklik eskisi gibi tam kayıtla yazılır.
+     */
+    private void openJournal() {
+        boolean recovered = false;
+        synchronized (lock) {
+            lastCompactMillis = clock.millis();
+            try {
+                journal = new DeliveryJournal(new File(dataFolder, JOURNAL_FILE), false);
+                long snapshotSequence = data.getLong("journal.sequence", 0L);
+                JournalReplay replay = new JournalReplay();
+                int replayed = 0;
+                if (sealedJournalFile.exists()) {
+                    replayed += DeliveryJournal.replay(sealedJournalFile, snapshotSequence, replay);
+                    recovered = true;
+                }
+                replayed += journal.replay(snapshotSequence, replay);
+                if (replayed > 0) {
+                    logger.info("[DataManager] Günlükten " + replayed + " kayıt geri yüklendi.");
+                    recovered = true;
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "[DataManager] Günlük açılamadı, tam kayıt kullanılacak!", e);
+                journal = null;
+            }
+        }
+        if (recovered) {
+            try {
+                save();
+            } catch (IOException e) {
+                logger.warning("[DataManager] Kayıt hatası: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Veri dosyasını yükler.
+     */
+    public void loadData() {
+        synchronized (saveLock) {
+            synchronized (lock) {
+                if (!dataFile.exists()) {
+                    try {
+                        if (!dataFile.getParentFile().exists()) {
+                            boolean ignored = dataFile.getParentFile().mkdirs();
+                        }
+                        boolean ignored = dataFile.createNewFile();
+                        data = new YamlConfiguration();
+                        written = new YamlConfiguration();
+                        logger.info("[DataManager] Yeni veri dosyası oluşturuldu: " + DATA_FILE);
+                    } catch (IOException e) {
+                        logger.log(Level.SEVERE, "Veri dosyası oluşturulamadı!", e);
+                    }
+                } else {
+                    data = YamlConfiguration.loadConfiguration(dataFile);
+                    // Kayıt kopyası ayrı yüklenir, iki ağaç hiçbir düğümü paylaşmaz
+                    written = YamlConfiguration.loadConfiguration(dataFile);
+                    logger.info("[DataManager] Veri dosyası yüklendi: " + DATA_FILE);
+                }
+                changes = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Sıkıştırma zamanı geldiyse veriyi kaydeder.
+     * Günlük büyüdüyse ya da 5 dakika geçtiyse görüntüyü yazar.
+     */
+    @Override
+    public void autoSave() {
+        synchronized (lock) {
+            if (!isDirty) return;
+            boolean due = journal == null
+                || journal.size() >= JOURNAL_COMPACT_BYTES
+                || clock.millis() - lastCompactMillis >= COMPACT_INTERVAL_MILLIS;
+            if (!due) return;
+        }
+        try {
+            save();
+        } catch (IOException e) {
+            logger.warning("[DataManager] Asenkron kayıt hatası: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Veriyi senkron (anlık) olarak kaydeder.
+     * Sunucu kapanırken çağrılmalı.
+     */
+    @Override
+    public void flush() {
+        try {
+            save();
+            logger.info("[DataManager] Veriler diske yazıldı.");
+        } catch (IOException e) {
+            logger.warning("[DataManager] Kayıt hatası: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public SaveStats getSaveStats() {
+        return saveMetrics.snapshot();
+    }
+
+    /**
+     * Son kayıttan beri görüntüye yazılan yol sayısı; testler yazım maliyetini buradan ölçer.
+     */
+    int pendingChanges() {
+        synchronized (lock) {
+            return changes.size();
+        }
+    }
+
+    /**
+     * Görüntüyü son günlük sırasıyla yazar.
+     * Günlük kendi kilidiyle mühürlenir; veri kilidi altında sadece son sıra
+     * okunur ve değişiklik listesi yenisiyle değiştirilir. Değişiklikler kayıt
+     * kopyasına kilit dışında uygulanır, metne çevrilir ve geçici dosyaya
+     * yazılıp atomik olarak data.yml yapılır. Mühürlü günlük ancak görüntü
+     * diske ulaşınca silinir.
+     */
+    private void save() throws IOException {
+        synchronized (saveLock) {
+            long started = System.nanoTime();
+            DeliveryJournal current;
+            synchronized (lock) {
+                current = journal;
+            }
+            // Önceki yazım başarısız olduysa mühürlü kayıtlar korunur, bu tur dönmez.
+            // Mühürlenen her kayıt aşağıda devralınan değişikliklerde ve sırada yer alır.
+            if (current != null && !sealedJournalFile.exists()) {
+                try {
+                    current.rotate(sealedJournalFile);
+                } catch (IOException e) {
+                    logger.warning("[DataManager] Günlük mühürlenemedi: " + e.getMessage());
+                }
+            }
+
+            List<Change> batch;
+            long sequence = -1L;
+            long lockStarted = System.nanoTime();
+            synchronized (lock) {
+                if (journal != null) {
+                    sequence = journal.getLastSequence();
+                }
+                batch = changes;
+                changes = new ArrayList<>();
+                isDirty = false;
+                lastCompactMillis = clock.millis();
+            }
+            long lockHeld = System.nanoTime() - lockStarted;
+
+            for (Change change : batch) {
+                change.applyTo(written);
+            }
+            if (sequence >= 0) {
+                written.set("journal.sequence", sequence);
+            }
+            String snapshot = written.saveToString();
+            try {
+                AtomicFiles.write(dataFile.toPath(), snapshot.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                synchronized (lock) {
+                    isDirty = true;
+                }
+                throw e;
+            }
+            Files.deleteIfExists(sealedJournalFile.toPath());
+            saveMetrics.record(System.nanoTime() - started, lockHeld);
+        }
+    }
+
+    /**
+     * Günlüğe eklenen kayıtları dosyaya iter. Teslimat hattı her grup sonrası çağırır.
+     */
+    private void flushJournal() {
+        if (journal == null) return;
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            logger.warning("[DataManager] Günlük yazılamadı: " + e.getMessage());
+        }
+    }
+
+    private void journal(JournalWrite write) {
+        isDirty = true;
+        if (journal == null) return;
+        try {
+            write.run(journal);
+        } catch (IOException e) {
+            logger.warning("[DataManager] Günlüğe eklenemedi: " + e.getMessage());
+            // Görüntü de eksik kalmasın diye bir sonraki turda tam yazılır
+            lastCompactMillis = Long.MIN_VALUE / 2;
+        }
+    }
+
+    @FunctionalInterface
+    private interface JournalWrite {
+        void run(DeliveryJournal journal) throws IOException;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // AKTİF ETKİNLİK İŞLEMLERİ
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Etkinliğin tam durumunu görüntüye yazar (kapanışta ve geri yüklemede).
+     */
+    @Override
+    public void saveActiveEvent(ActiveEvent event) {
+        synchronized (lock) {
+            String path = "active-events." + event.getDeliveryName();
+
+            writeEventMeta(event.getDeliveryName(), event.getResolvedCategory(), event.getResolvedItem(),
+                event.getStartTime(), event.getEndTime(), event.getTimezone());
+
+            createSection(path + ".player-deliveries");
+            // Önce temizlenir; yazım sırasında gelen teslimat tekrar kirli sayılır
+            event.clearDirty();
+            event.forEachDelivery((msb, lsb, count) ->
+                set(path + ".player-deliveries." + new UUID(msb, lsb), count));
+
+            isDirty = true;
+        }
+    }
+
+    /**
+     * Yeni başlayan etkinliği günlüğe ekler.
+     *
+     * @param event the started event
+     */
+    @Override
+    public void recordEventStart(ActiveEvent event) {
+        synchronized (lock) {
+            journalFullEvent(event);
+            flushJournal();
+        }
+    }
+
+    private void journalFullEvent(ActiveEvent event) {
+        String name = event.getDeliveryName();
+        String zone = event.getTimezone() != null ? event.getTimezone().getId() : null;
+        applyEventStart(name, event.getResolvedCategory(), event.getResolvedItem(),
+            event.getStartMillis(), event.getEndMillis(), zone);
+        journal(j -> j.appendEventStarted(name, event.getResolvedCategory(), event.getResolvedItem(),
+            event.getStartMillis(), event.getEndMillis(), zone));
+        event.clearDirty();
+        event.forEachDelivery((msb, lsb, count) -> writeParticipant(name, new UUID(msb, lsb), count));
+    }
+
+    @Override
+    public void persistDirty(ActiveEvent event) {
+        synchronized (lock) {
+            persistDirtyLocked(event);
+            flushJournal();
+        }
+    }
+
+    private void persistDirtyLocked(ActiveEvent event) {
+        String name = event.getDeliveryName();
+        if (!data.isConfigurationSection("active-events." + name)) {
+            // Başlangıç kaydı olmayan etkinlik tam haliyle günlüğe yazılır
+            journalFullEvent(event);
+            return;
+        }
+        // Kopya rank kilidi bırakıldıktan sonra yazılır; teslimatlar disk işini beklemez
+        for (ActiveEvent.ParticipantCount participant : event.drainDirty()) {
+            writeParticipant(name, participant.playerUuid(), participant.count());
+        }
+    }
+
+    private void writeParticipant(String deliveryName, UUID playerUuid, int amount) {
+        applyParticipant(deliveryName, playerUuid, amount);
+        journal(j -> j.appendParticipant(deliveryName, playerUuid, amount));
+    }
+
+    /**
+     * Etkinliğin değişen bitiş zamanını günlüğe ekler.
+     *
+     * @param event the event whose end time changed
+     */
+    @Override
+    public void recordEventWindow(ActiveEvent event) {
+        synchronized (lock) {
+            applyEventWindow(event.getDeliveryName(), event.getEndMillis());
+            journal(j -> j.appendEventWindow(event.getDeliveryName(), event.getEndMillis()));
+            flushJournal();
+        }
+    }
+
+    @Override
+    public void saveAllActiveEvents(List<ActiveEvent> events) {
+        synchronized (lock) {
+            set("active-events", null);
+            for (ActiveEvent event : events) {
+                saveActiveEvent(event);
+            }
+        }
+    }
+
+    @Override
+    public List<SavedEventData> loadActiveEvents() {
+        synchronized (lock) {
+            List<SavedEventData> events = new ArrayList<>();
+            ConfigurationSection section = data.getConfigurationSection("active-events");
+            if (section == null) return events;
+
+            for (String deliveryName : section.getKeys(false)) {
+                try {
+                    String path = "active-events." + deliveryName;
+                    String category = data.getString(path + ".category");
+                    String item = data.getString(path + ".item");
+                    String startTimeStr = data.getString(path + ".start-time");
+                    String endTimeStr = data.getString(path + ".end-time");
+                    String timezoneStr = data.getString(path + ".timezone", "Europe/Istanbul");
+
+                    ZoneId timezone = ZoneId.of(timezoneStr);
+                    ZonedDateTime startTime = startTimeStr != null ? ZonedDateTime.parse(startTimeStr, DATE_FORMAT) : null;
+                    ZonedDateTime endTime = endTimeStr != null ? ZonedDateTime.parse(endTimeStr, DATE_FORMAT) : null;
+
+                    Map<UUID, Integer> playerDeliveries = new HashMap<>();
+                    ConfigurationSection deliveriesSection = data.getConfigurationSection(path + ".player-deliveries");
+                    if (deliveriesSection != null) {
+                        for (String uuidStr : deliveriesSection.getKeys(false)) {
+                            try {
+                                UUID uuid = UUID.fromString(uuidStr);
+                                int count = deliveriesSection.getInt(uuidStr);
+                                playerDeliveries.put(uuid, count);
+                            } catch (Exception ignored) {}
+                        }
+                    }
+
+                    events.add(new SavedEventData(deliveryName, category, item, startTime, endTime, timezone, playerDeliveries));
+                } catch (Exception e) {
+                    logger.warning("[DataManager] Etkinlik yüklenemedi: " + deliveryName + " - " + e.getMessage());
+                }
+            }
+            return events;
+        }
+    }
+
+    @Override
+    public void removeActiveEvent(String deliveryName) {
+        synchronized (lock) {
+            set("active-events." + deliveryName, null);
+            journal(j -> j.appendEventEnded(deliveryName));
+            flushJournal();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // OYUNCU İSTATİSTİKLERİ
+    // ═══════════════════════════════════════════════════════════════
+
+    @Override
+    public boolean savePlayerStats(Collection<PlayerStats> stats) {
+        synchronized (lock) {
+            writePlayerStats(stats);
+            flushJournal();
+        }
+        // Bellekteki görüntüye uygulandı; bir sonraki tam kayıt yazar
+        return true;
+    }
+
+    /**
+     * Teslimat hattından gelen birleştirilmiş grubu tek kilitte uygular.
+     * Etkinliğe ve istatistiğe sadece değişen oyuncuların toplamı yazılır;
+     * günlük grup sonunda dosyaya itilir.
+     *
+     * @param event        the event the deliveries belong to
+     * @param saveEvent    whether the event itself should be persisted (false once it ended)
+     * @param changedStats the players whose stats changed, as absolute values
+     * @return always true; the changes are in the in-memory snapshot
+     */
+    @Override
+    public boolean applyDeliveryBatch(ActiveEvent event, boolean saveEvent, Collection<PlayerStats> changedStats) {
+        synchronized (lock) {
+            if (saveEvent) {
+                persistDirtyLocked(event);
+            }
+            writePlayerStats(changedStats);
+            flushJournal();
+        }
+        return true;
+    }
+
+    private void writePlayerStats(Collection<PlayerStats> stats) {
+        for (PlayerStats stat : stats) {
+            applyPlayerStats(stat.uuid(), stat.name(), stat.totalDeliveries(), stat.lastActive());
+            journal(j -> j.appendPlayerStats(stat.uuid(), stat.name(), stat.totalDeliveries(), stat.lastActive()));
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // SEZON SAYAÇLARI
+    // ═══════════════════════════════════════════════════════════════
+
+    @Override
+    public boolean saveBucketCounts(Collection<SeasonCounters.BucketCount> counts, long oldestHour, long oldestDay) {
+        synchronized (lock) {
+            for (SeasonCounters.BucketCount count : counts) {
+                applyBucketCount(count.granularity(), count.bucket(), count.playerUuid(), count.amount());
+                journal(j -> j.appendBucketCount(count.granularity(), count.bucket(), count.playerUuid(), count.amount()));
+            }
+            // Süresi dolanlar günlüğe yazılmaz; yüklemede saklama süresi dışı zaten atlanır
+            if (pruneBuckets(SeasonCounters.Granularity.HOUR, oldestHour)
+                    | pruneBuckets(SeasonCounters.Granularity.DAY, oldestDay)) {
+                isDirty = true;
+            }
+            flushJournal();
+        }
+        return true;
+    }
+
+    @Override
+    public List<SeasonCounters.BucketCount> loadBucketCounts() {
+        synchronized (lock) {
+            List<SeasonCounters.BucketCount> counts = new ArrayList<>();
+            for (SeasonCounters.Granularity granularity : SeasonCounters.Granularity.values()) {
+                ConfigurationSection section = data.getConfigurationSection(bucketPath(granularity));
+                if (section == null) continue;
+                for (String key : section.getKeys(false)) {
+                    ConfigurationSection bucket = section.getConfigurationSection(key);
+                    if (bucket == null) continue;
+                    try {
+                        long bucketKey = Long.parseLong(key);
+                        for (String uuidStr : bucket.getKeys(false)) {
+                            counts.add(new SeasonCounters.BucketCount(granularity, bucketKey,
+                                UUID.fromString(uuidStr), bucket.getInt(uuidStr)));
+                        }
+                    } catch (IllegalArgumentException ignored) {}
+                }
+            }
+            return counts;
+        }
+    }
+
+    private boolean pruneBuckets(SeasonCounters.Granularity granularity, long oldest) {
+        ConfigurationSection section = data.getConfigurationSection(bucketPath(granularity));
+        if (section == null) return false;
+        boolean pruned = false;
+        for (String key : section.getKeys(false)) {
+            try {
+                if (Long.parseLong(key) < oldest) {
+                    set(bucketPath(granularity) + "." + key, null);
+                    pruned = true;
+                }
+            } catch (NumberFormatException ignored) {}
+        }
+        return pruned;
+    }
+
+    private static String bucketPath(SeasonCounters.Granularity granularity) {
+        return granularity == SeasonCounters.Granularity.DAY ? "seasons.day" : "seasons.hour";
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // GÖRÜNTÜYE UYGULAMA (canlı yazım ve günlük tekrarı ortak)
+    // ═══════════════════════════════════════════════════════════════
+
+    private void writeEventMeta(String deliveryName, String category, String item,
+                                ZonedDateTime startTime, ZonedDateTime endTime, ZoneId timezone) {
+        String path = "active-events." + deliveryName;
+        set(path + ".category", category);
+        set(path + ".item", item);
+        set(path + ".start-time", startTime != null ? startTime.format(DATE_FORMAT) : null);
+        set(path + ".end-time", endTime != null ? endTime.format(DATE_FORMAT) : null);
+        set(path + ".timezone", timezone != null ? timezone.getId() : "Europe/Istanbul");
+    }
+
+    private void applyEventStart(String deliveryName, String category, String item,
+                                 long startMillis, long endMillis, String zoneId) {
+        ZoneId zone = zoneId != null ? ZoneId.of(zoneId) : ZoneId.of("Europe/Istanbul");
+        String path = "active-events." + deliveryName;
+        // Aynı isimle yeni başlayan etkinlik eski teslimatları devralmaz
+        set(path, null);
+        writeEventMeta(deliveryName, category, item, toZoned(startMillis, Long.MIN_VALUE, zone),
+            toZoned(endMillis, Long.MAX_VALUE, zone), zone);
+        createSection(path + ".player-deliveries");
+    }
+
+    private void applyEventWindow(String deliveryName, long endMillis) {
+        String path = "active-events." + deliveryName;
+        if (!data.isConfigurationSection(path)) return;
+        ZoneId zone = ZoneId.of(data.getString(path + ".timezone", "Europe/Istanbul"));
+        ZonedDateTime end = toZoned(endMillis, Long.MAX_VALUE, zone);
+        set(path + ".end-time", end != null ? end.format(DATE_FORMAT) : null);
+    }
+
+    private void applyParticipant(String deliveryName, UUID playerUuid, int amount) {
+        if (data.isConfigurationSection("active-events." + deliveryName)) {
+            set("active-events." + deliveryName + ".player-deliveries." + playerUuid, amount);
+        }
+    }
+
+    private void applyPlayerStats(UUID playerUuid, String playerName, int totalDeliveries, long lastActive) {
+        String path = "player-stats." + playerUuid;
+        set(path + ".total-deliveries", totalDeliveries);
+        set(path + ".last-name", playerName != null ? playerName : "Unknown");
+        set(path + ".last-active", lastActive);
+    }
+
+    private void applyBucketCount(SeasonCounters.Granularity granularity, long bucket, UUID playerUuid, int amount) {
+        set(bucketPath(granularity) + "." + bucket + "." + playerUuid, amount);
+    }
+
+    private void set(String path, Object value) {
+        data.set(path, value);
+        changes.add(new Change(path, value, false));
+    }
+
+    private void createSection(String path) {
+        data.createSection(path);
+        changes.add(new Change(path, null, true));
+    }
+
+    private static ZonedDateTime toZoned(long millis, long sentinel, ZoneId zone) {
+        return millis == sentinel ? null : ZonedDateTime.ofInstant(java.time.Instant.ofEpochMilli(millis), zone);
+    }
+
+    /** Günlük kayıtlarını görüntüye uygular. */
+    private final class JournalReplay implements DeliveryJournal.Visitor {
+        @Override
+        public void eventStarted(long seq, String deliveryName, String category, String item,
+                                 long startMillis, long endMillis, String zoneId) {
+            applyEventStart(deliveryName, category, item, startMillis, endMillis, zoneId);
+        }
+
+        @Override
+        public void eventWindow(long seq, String deliveryName, long endMillis) {
+            applyEventWindow(deliveryName, endMillis);
+        }
+
+        @Override
+        public void eventEnded(long seq, String deliveryName) {
+            set("active-events." + deliveryName, null);
+        }
+
+        @Override
+        public void participant(long seq, String deliveryName, UUID playerUuid, int amount) {
+            applyParticipant(deliveryName, playerUuid, amount);
+        }
+
+        @Override
+        public void playerStats(long seq, UUID playerUuid, String playerName, int totalDeliveries, long lastActive) {
+            applyPlayerStats(playerUuid, playerName, totalDeliveries, lastActive);
+        }
+
+        @Override
+        public void bucketCount(long seq, SeasonCounters.Granularity granularity, long bucket, UUID playerUuid, int amount) {
+            applyBucketCount(granularity, bucket, playerUuid, amount);
+        }
+    }
+
+    /**
+     * Oyuncunun son aktif olduğu zamanı döndürür.
+     *
+     * @param playerUuid the player's UUID
+     * @return epoch millis, or 0 if unknown
+     */
+    @Override
+    public long getLastActive(UUID playerUuid) {
+        synchronized (lock) {
+            return readLastActive("player-stats." + playerUuid);
+        }
+    }
+
+    private long readLastActive(String path) {
+        Object raw = data.get(path + ".last-active");
+        if (raw instanceof Number number) {
+            return number.longValue();
+        }
+        if (raw instanceof String text) {
+            try {
+                return ZonedDateTime.parse(text, DATE_FORMAT).toInstant().toEpochMilli();
+            } catch (Exception ignored) {}
+        }
+        return 0L;
+    }
+
+    @Override
+    public Map<UUID, PlayerStats> getAllPlayerStats() {
+        synchronized (lock) {
+            Map<UUID, PlayerStats> stats = new HashMap<>();
+            ConfigurationSection section = data.getConfigurationSection("player-stats");
+            if (section == null) return stats;
+
+            for (String uuidStr : section.getKeys(false)) {
+                try {
+                    UUID uuid = UUID.fromString(uuidStr);
+                    String path = "player-stats." + uuidStr;
+                    String name = data.getString(path + ".last-name", "Unknown");
+                    int total = data.getInt(path + ".total-deliveries", 0);
+                    stats.put(uuid, new PlayerStats(uuid, name, total, readLastActive(path)));
+                } catch (Exception ignored) {}
+            }
+            return stats;
+        }
+    }
+
+    @Override
+    public Optional<PlayerStats> getPlayerStats(UUID playerUuid) {
+        synchronized (lock) {
+            String path = "player-stats." + playerUuid;
+            if (!data.isConfigurationSection(path)) return Optional.empty();
+            return Optional.of(new PlayerStats(playerUuid, data.getString(path + ".last-name", "Unknown"),
+                data.getInt(path + ".total-deliveries", 0), readLastActive(path)));
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (journal == null) return;
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.warning("[DataManager] Günlük kapatılamadı: " + e.getMessage());
+            }
+            journal = null;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.deliverycore.util;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Remembers whether a player may use the container at a block position for a
+ * short TTL, so repeated chest deliveries do not re-run sign-lock scans and
+ * synthetic interact events through every protection plugin. Block changes
+ * invalidate the position and its six neighbours, since a lock sign placed
+ * next to a chest changes that chest's decision.
+ */
+public final class ChestAccessCache {
+
+    private record BlockKey(UUID world, int x, int y, int z) {}
+
+    private record Decision(boolean allowed, long expiresAtMillis) {}
+
+    private static final int[][] NEIGHBOURS = {
+        {0, 0, 0}, {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}
+    };
+
+    private final Map<BlockKey, Map<UUID, Decision>> decisions = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final long ttlMillis;
+    private final int maxBlocks;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param clock     the clock used for expiry
+     * @param ttlMillis how long a decision stays valid, 0 or less disables caching
+     * @param maxBlocks the number of cached positions after which expired entries are purged
+     */
+    public ChestAccessCache(Clock clock, long ttlMillis, int maxBlocks) {
+        this.clock = clock;
+        this.ttlMillis = ttlMillis;
+        this.maxBlocks = Math.max(1, maxBlocks);
+    }
+
+    /**
+     * Returns the cached decision, or computes and caches it.
+     *
+     * @param player  the player's UUID
+     * @param world   the world UUID
+     * @param x       block x
+     * @param y       block y
+     * @param z       block z
+     * @param compute the full access check, run on a miss
+     * @return true if the player may access the block
+     */
+    public boolean canAccess(UUID player, UUID world, int x, int y, int z, BooleanSupplier compute) {
+        if (ttlMillis <= 0) {
+            return compute.getAsBoolean();
+        }
+        BlockKey key = new BlockKey(world, x, y, z);
+        long now = clock.millis();
+        Map<UUID, Decision> perPlayer = decisions.get(key);
+        if (perPlayer != null) {
+            Decision cached = perPlayer.get(player);
+            if (cached != null && now < cached.expiresAtMillis()) {
+                return cached.allowed();
+            }
+        }
+
+        boolean allowed = compute.getAsBoolean();
+        if (decisions.size() >= maxBlocks) {
+            purgeExpired(now);
+        }
+        decisions.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+            .put(player, new Decision(allowed, now + ttlMillis));
+        return allowed;
+    }
+
+    /**
+     * Drops decisions for a changed block and its neighbours.
+     *
+     * @param world the world UUID
+     * @param x     block x
+     * @param y     block y
+     * @param z     block z
+     */
+    public void invalidateAround(UUID world, int x, int y, int z) {
+        for (int[] d : NEIGHBOURS) {
+            decisions.remove(new BlockKey(world, x + d[0], y + d[1], z + d[2]));
+        }
+    }
+
+    /**
+     * Drops every decision of a player, e.g. on quit.
+     *
+     * @param player the player's UUID
+     */
+    public void invalidatePlayer(UUID player) {
+        for (Map<UUID, Decision> perPlayer : decisions.values()) {
+            perPlayer.remove(player);
+        }
+    }
+
+    public void clear() {
+        decisions.clear();
+    }
+
+    /**
+     * Gets the number of cached block positions.
+     *
+     * @return cached position count
+     */
+    public int size() {
+        return decisions.size();
+    }
+
+    private void purgeExpired(long now) {
+        decisions.values().forEach(perPlayer -> perPlayer.values().removeIf(d -> now >= d.expiresAtMillis()));
+        decisions.values().removeIf(Map::isEmpty);
+        if (decisions.size() >= maxBlocks) {
+            // Hepsi hâlâ geçerliyse sınırı korumak için baştan başla
+            decisions.clear();
+        }
+    }
+}
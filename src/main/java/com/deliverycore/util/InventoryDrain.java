@@ -0,0 +1,104 @@
+package com.deliverycore.util;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Single-pass removal of one material from inventory contents.
+ * Counts and removes matching stacks in one walk over a contents snapshot;
+ * the live inventory is only touched by a single {@code setContents} when
+ * the caller commits. Partially taken stacks are replaced with clones so
+ * the snapshot never aliases live items.
+ */
+public final class InventoryDrain {
+
+    /**
+     * Outcome of a drain.
+     *
+     * @param taken        the number of items removed from the snapshot
+     * @param available    the number of matching items that were present
+     * @param slotsTouched the number of slots that were cleared or reduced
+     */
+    public record Result(int taken, int available, int slotsTouched) {
+
+        public boolean isEmpty() {
+            return taken == 0;
+        }
+    }
+
+    private final Material material;
+    private final int maxAmount;
+
+    private InventoryDrain(Material material, int maxAmount) {
+        this.material = material;
+        this.maxAmount = maxAmount;
+    }
+
+    /**
+     * Creates a drain for a material.
+     *
+     * @param material  the material to remove
+     * @param maxAmount the maximum number of items to take, 0 or less for no limit
+     * @return a reusable drain
+     * @throws NullPointerException if material is null
+     */
+    public static InventoryDrain of(Material material, int maxAmount) {
+        if (material == null) {
+            throw new NullPointerException("Material cannot be null");
+        }
+        return new InventoryDrain(material, maxAmount <= 0 ? Integer.MAX_VALUE : maxAmount);
+    }
+
+    public Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * Removes matching items from a contents array in place.
+     *
+     * @param contents the contents snapshot, modified in place
+     * @return what was taken
+     */
+    public Result apply(ItemStack[] contents) {
+        int remaining = maxAmount;
+        int available = 0;
+        int touched = 0;
+        for (int i = 0; i < contents.length; i++) {
+            ItemStack stack = contents[i];
+            if (stack == null || stack.getType() != material) continue;
+
+            int amount = stack.getAmount();
+            available += amount;
+            if (remaining == 0) continue;
+
+            int take = Math.min(amount, remaining);
+            remaining -= take;
+            touched++;
+            if (take == amount) {
+                contents[i] = null;
+            } else {
+                ItemStack reduced = stack.clone();
+                reduced.setAmount(amount - take);
+                contents[i] = reduced;
+            }
+        }
+        return new Result(maxAmount == Integer.MAX_VALUE ? available : maxAmount - remaining, available, touched);
+    }
+
+    /**
+     * Snapshots an inventory, drains it and writes it back with one setContents.
+     * Use {@link #apply(ItemStack[])} directly when the write must wait for a decision.
+     *
+     * @param inventory the inventory
+     * @return what was taken
+     */
+    public Result drain(Inventory inventory) {
+        ItemStack[] contents = inventory.getContents();
+        Result result = apply(contents);
+        if (!result.isEmpty()) {
+            inventory.setContents(contents);
+        }
+        return result;
+    }
+}
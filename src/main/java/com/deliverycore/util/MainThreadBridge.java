@@ -0,0 +1,114 @@
+package com.deliverycore.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Worker threads (the scheduler executor, async tasks) finish their pure
+ * work - winner calculation, persistence - and {@link #post} the part that
+ * touches the server (broadcasts, titles, player lookups) here. Posting is a
+ * lock-free enqueue; {@link #drain()} is called once per server tick on the
+ * main thread and runs everything posted before it started as one batch, so
+ * events that fire together are handled in the same tick.
+ *
+ * The owning thread is fixed at construction. {@link #drain()} and
+ * {@link #requireMainThread(String)} reject any other thread, which makes the
+ * thread a stage runs on explicit and checkable in tests.
+ */
+public final class MainThreadBridge {
+
+    private static final Logger LOGGER = Logger.getLogger(MainThreadBridge.class.getName());
+
+    private record Task(String name, Runnable action) {}
+
+    private final Thread mainThread;
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private volatile int lastBatchSize;
+    private volatile long totalRun;
+
+    /**
+     * Creates a bridge owned by the given thread.
+     *
+     * @param mainThread the thread that drains the bridge, normally the server thread
+     */
+    public MainThreadBridge(Thread mainThread) {
+        this.mainThread = mainThread;
+    }
+
+    /**
+     * Queues a main-thread stage. Safe to call from any thread, including the
+     * main thread itself; the stage then runs on the next drain.
+     *
+     * @param name   a name for logs, e.g. "baslangic:gunluk"
+     * @param action the stage to run on the main thread
+     */
+    public void post(String name, Runnable action) {
+        queue.add(new Task(name, action));
+    }
+
+    /**
+     * Runs the stages posted before this call, in posting order. Stages posted
+     * while draining wait for the next drain. A failing stage is logged and
+     * does not stop the others.
+     *
+     * @return the number of stages run
+     * @throws IllegalStateException if not called from the main thread
+     */
+    public int drain() {
+        requireMainThread("drain");
+        int batch = queue.size();
+        int ran = 0;
+        Task task;
+        while (ran < batch && (task = queue.poll()) != null) {
+            ran++;
+            try {
+                task.action().run();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Ana thread görevi başarısız: " + task.name(), e);
+            }
+        }
+        lastBatchSize = ran;
+        totalRun += ran;
+        return ran;
+    }
+
+    /**
+     * Checks whether the caller is the main thread.
+     *
+     * @return true on the main thread
+     */
+    public boolean isMainThread() {
+        return Thread.currentThread() == mainThread;
+    }
+
+    /**
+     * Fails fast when a main-thread stage runs elsewhere.
+     *
+     * @param stage the stage name, used in the error message
+     * @throws IllegalStateException if not called from the main thread
+     */
+    public void requireMainThread(String stage) {
+        if (!isMainThread()) {
+            throw new IllegalStateException(stage + " ana thread dışında çalıştı: " + Thread.currentThread().getName());
+        }
+    }
+
+    /**
+     * Gets the number of stages waiting for the next drain.
+     *
+     * @return pending stage count
+     */
+    public int getPending() {
+        return queue.size();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public long getTotalRun() {
+        return totalRun;
+    }
+}
@@ -0,0 +1,265 @@
+package com.deliverycore.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Large main-thread operations (e.g. title fan-out) are split
+ * into small units and queued here; {@link #tick()} is called once per server
+ * tick and runs units until the millisecond budget is spent, higher priority
+ * jobs first. At least one unit runs per tick so work always progresses.
+ *
+ * Jobs can be submitted from any thread; {@link #tick()} and {@link #drain()}
+ * must only be called from the thread that owns the work (the main thread).
+ */
+public final class TickWorkQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(TickWorkQueue.class.getName());
+
+    /**
+     * Job priority; all queued HIGH units run before any NORMAL unit, and so on.
+     */
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    /**
+     * Handle of a queued job, used to follow its progress or cancel it.
+     */
+    public static final class Job {
+        private final String name;
+        private final Priority priority;
+        private final List<Runnable> units;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final Runnable onComplete;
+        private volatile boolean cancelled;
+        private int cursor;
+
+        private Job(String name, Priority priority, List<Runnable> units, Runnable onComplete) {
+            this.name = name;
+            this.priority = priority;
+            this.units = units;
+            this.onComplete = onComplete;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        public int getTotal() {
+            return units.size();
+        }
+
+        public int getCompleted() {
+            return completed.get();
+        }
+
+        /**
+         * Gets the completed fraction.
+         *
+         * @return progress between 0 and 1
+         */
+        public double getProgress() {
+            return units.isEmpty() ? 1.0 : (double) completed.get() / units.size();
+        }
+
+        public boolean isDone() {
+            return cancelled || completed.get() >= units.size();
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancels the remaining units. Units that already ran are not undone.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final Queue<Job>[] queues;
+    private final LongSupplier nanoTime;
+    private volatile long budgetNanos;
+    private volatile long lastTickNanos;
+    private volatile int lastTickUnits;
+
+    /**
+     * Creates a queue with a per-tick budget.
+     *
+     * @param budgetMillis the time budget per tick in milliseconds
+     */
+    public TickWorkQueue(double budgetMillis) {
+        this(budgetMillis, System::nanoTime);
+    }
+
+    /**
+     * Creates a queue that measures time with the given source.
+     *
+     * @param budgetMillis the time budget per tick in milliseconds
+     * @param nanoTime     the time source in nanoseconds
+     */
+    @SuppressWarnings("unchecked")
+    public TickWorkQueue(double budgetMillis, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.queues = new Queue[Priority.values().length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+        }
+        setBudgetMillis(budgetMillis);
+    }
+
+    public void setBudgetMillis(double budgetMillis) {
+        this.budgetNanos = Math.max(0L, (long) (budgetMillis * 1_000_000L));
+    }
+
+    /**
+     * Queues a job made of independent units.
+     *
+     * @param name       a name for logs and progress reports
+     * @param priority   the priority
+     * @param units      the units, run in order
+     * @param onComplete run on the owner thread after the last unit, may be null
+     * @return the job handle
+     */
+    public Job submit(String name, Priority priority, List<Runnable> units, Runnable onComplete) {
+        if (units.isEmpty() && onComplete != null) {
+            // Birimsiz iş: tamamlama adımı tek birim olarak çalışır
+            units = List.of(onComplete);
+            onComplete = null;
+        }
+        Job job = new Job(name, priority, List.copyOf(units), onComplete);
+        queues[priority.ordinal()].add(job);
+        return job;
+    }
+
+    /**
+     * Queues one unit per element.
+     *
+     * @param name     a name for logs and progress reports
+     * @param priority the priority
+     * @param items    the elements, copied on submit
+     * @param action   the action applied to each element
+     * @param <T>      the element type
+     * @return the job handle
+     */
+    public <T> Job submitEach(String name, Priority priority, Collection<? extends T> items, Consumer<? super T> action) {
+        List<Runnable> units = new ArrayList<>(items.size());
+        for (T item : items) {
+            units.add(() -> action.accept(item));
+        }
+        return submit(name, priority, units, null);
+    }
+
+    /**
+     * Runs queued units until this tick's budget is spent.
+     *
+     * @return the number of units run
+     */
+    public int tick() {
+        long start = nanoTime.getAsLong();
+        long deadline = start + budgetNanos;
+        int ran = 0;
+        while (true) {
+            Job job = nextJob();
+            if (job == null) break;
+            runUnit(job);
+            ran++;
+            if (nanoTime.getAsLong() - deadline >= 0) break;
+        }
+        lastTickNanos = nanoTime.getAsLong() - start;
+        lastTickUnits = ran;
+        return ran;
+    }
+
+    /**
+     * Runs every queued unit regardless of the budget, e.g. on shutdown.
+     *
+     * @return the number of units run
+     */
+    public int drain() {
+        int ran = 0;
+        Job job;
+        while ((job = nextJob()) != null) {
+            runUnit(job);
+            ran++;
+        }
+        return ran;
+    }
+
+    /**
+     * Gets the jobs that still have units to run, highest priority first.
+     *
+     * @return a snapshot of the pending jobs
+     */
+    public List<Job> getPendingJobs() {
+        List<Job> pending = new ArrayList<>();
+        for (Queue<Job> queue : queues) {
+            for (Job job : queue) {
+                if (!job.isDone()) pending.add(job);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Gets the number of units not yet run.
+     *
+     * @return pending unit count
+     */
+    public int getPendingUnits() {
+        int pending = 0;
+        for (Job job : getPendingJobs()) {
+            pending += job.getTotal() - job.getCompleted();
+        }
+        return pending;
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public int getLastTickUnits() {
+        return lastTickUnits;
+    }
+
+    private Job nextJob() {
+        for (Queue<Job> queue : queues) {
+            Job job;
+            while ((job = queue.peek()) != null) {
+                if (!job.isDone()) return job;
+                queue.poll();
+            }
+        }
+        return null;
+    }
+
+    private void runUnit(Job job) {
+        Runnable unit = job.units.get(job.cursor++);
+        try {
+            unit.run();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "İş birimi başarısız: " + job.name, e);
+        }
+        if (job.completed.incrementAndGet() == job.units.size() && job.onComplete != null) {
+            try {
+                job.onComplete.run();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "İş tamamlama adımı başarısız: " + job.name, e);
+            }
+        }
+    }
+}
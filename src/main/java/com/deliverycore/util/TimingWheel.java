@@ -0,0 +1,277 @@
+package com.deliverycore.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timing wheel owning many long-lived timers (delivery starts and
+ * ends). Time is cut into ticks; each timer sits in the bucket of its
+ * deadline tick with the number of full wheel turns still to wait, so
+ * inserting and cancelling are O(1) and a tick only visits one bucket.
+ * Timers fire on the first tick boundary at or after their deadline, never
+ * early and at most one tick late.
+ *
+ * {@link #schedule}, {@link Timeout#cancel()} and {@link #snapshot()} may be
+ * called from any thread; new and cancelled timers are queued and applied by
+ * the ticking thread. {@link #advanceTo(long)} must only be called from a
+ * single thread, which also runs the timer tasks. All timers due in one
+ * advance are collected first and then run as one batch in deadline order.
+ */
+public final class TimingWheel {
+
+    private static final Logger LOGGER = Logger.getLogger(TimingWheel.class.getName());
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    /**
+     * An upcoming fire, as shown by {@link #snapshot()}.
+     *
+     * @param name           the timer's owner, e.g. the delivery name
+     * @param label          what the timer does, e.g. "start"
+     * @param deadlineMillis when the timer is due
+     */
+    public record Fire(String name, String label, long deadlineMillis) {}
+
+    /**
+     * Handle of a scheduled timer.
+     */
+    public static final class Timeout {
+        private final String name;
+        private final String label;
+        private final long deadline;
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        // Sadece çark thread'i dokunur
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+        private TimingWheel wheel;
+
+        private Timeout(String name, String label, long deadline, Runnable task) {
+            this.name = name;
+            this.label = label;
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        /**
+         * Cancels the timer if it has not fired yet. O(1).
+         *
+         * @return true if this call cancelled it
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) return false;
+            wheel.live.remove(this);
+            wheel.cancelled.add(this);
+            return true;
+        }
+    }
+
+    private static final class Bucket {
+        Timeout head;
+        Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final Set<Timeout> live = ConcurrentHashMap.newKeySet();
+    private final List<Timeout> due = new ArrayList<>();
+    // Sıradaki işlenecek tick
+    private long tick;
+
+    /**
+     * Creates a wheel.
+     *
+     * @param tickMillis  the tick length
+     * @param wheelSize   the number of buckets, rounded up to a power of two
+     * @param startMillis the time of tick 0
+     * @throws IllegalArgumentException if tickMillis or wheelSize is less than 1
+     */
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 1) {
+            throw new IllegalArgumentException("Tick and wheel size must be at least 1");
+        }
+        int size = Integer.highestOneBit(Math.min(wheelSize, 1 << 20));
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Schedules a task. O(1); the timer is placed in its bucket on the next advance.
+     *
+     * @param name           the timer's owner
+     * @param label          what the timer does
+     * @param deadlineMillis when the task is due; past deadlines fire on the next tick
+     * @param task           the task, run on the ticking thread
+     * @return the timer handle
+     */
+    public Timeout schedule(String name, String label, long deadlineMillis, Runnable task) {
+        Timeout timeout = new Timeout(name, label, deadlineMillis, task);
+        timeout.wheel = this;
+        live.add(timeout);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Processes every tick up to the given time and runs the due tasks.
+     * A failing task is logged and does not stop the others.
+     *
+     * @param nowMillis the current time
+     * @return the number of tasks run
+     */
+    public int advanceTo(long nowMillis) {
+        while (startMillis + tick * tickMillis <= nowMillis) {
+            transferPending();
+            removeCancelled();
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+        if (due.isEmpty()) return 0;
+
+        due.sort(Comparator.comparingLong(Timeout::getDeadline));
+        List<Timeout> batch = new ArrayList<>(due);
+        due.clear();
+        for (Timeout timeout : batch) {
+            try {
+                timeout.task.run();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Zamanlayıcı görevi başarısız: " + timeout.name + " " + timeout.label, e);
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Lists the timers that have not fired or been cancelled.
+     *
+     * @return upcoming fires ordered by deadline
+     */
+    public List<Fire> snapshot() {
+        List<Fire> fires = new ArrayList<>(live.size());
+        for (Timeout timeout : live) {
+            fires.add(new Fire(timeout.name, timeout.label, timeout.deadline));
+        }
+        fires.sort(Comparator.comparingLong(Fire::deadlineMillis).thenComparing(Fire::name));
+        return fires;
+    }
+
+    public int size() {
+        return live.size();
+    }
+
+    // ==================== Internals ====================
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state.get() != PENDING) continue;
+            // Son tarihe denk gelen ya da ondan sonraki ilk tick; geçmişse şimdiki tick
+            long offset = timeout.deadline - startMillis;
+            long target = offset <= 0 ? 0 : (offset - 1) / tickMillis + 1;
+            target = Math.max(target, tick);
+            timeout.remainingRounds = (target - tick) / buckets.length;
+            buckets[(int) (target & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                bucket.remove(timeout);
+                if (timeout.state.compareAndSet(PENDING, EXPIRED)) {
+                    live.remove(timeout);
+                    due.add(timeout);
+                }
+            }
+            timeout = next;
+        }
+    }
+}
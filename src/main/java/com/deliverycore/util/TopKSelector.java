@@ -0,0 +1,166 @@
+package com.deliverycore.util;
+
+import com.deliverycore.model.LeaderboardEntry;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bounded top-K selection over (UUID, score) pairs.
+ * Keeps the best K entries in a primitive min-heap so selecting from n
+ * candidates costs O(n log k) without boxing or sorting the full set.
+ *
+ * Ordering is deterministic: higher score first, ties broken by ascending
+ * UUID (same order as {@link UUID#compareTo}). Not thread-safe.
+ */
+public final class TopKSelector implements UuidIntMap.EntryConsumer {
+
+    private final int capacity;
+    private final long[] msb;
+    private final long[] lsb;
+    private final int[] scores;
+    private int size;
+
+    /**
+     * Creates a selector keeping at most k entries.
+     *
+     * @param k the number of entries to keep
+     * @throws IllegalArgumentException if k is negative
+     */
+    public TopKSelector(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        this.capacity = k;
+        this.msb = new long[k];
+        this.lsb = new long[k];
+        this.scores = new int[k];
+    }
+
+    @Override
+    public void accept(long mostSigBits, long leastSigBits, int score) {
+        offer(mostSigBits, leastSigBits, score);
+    }
+
+    /**
+     * Offers a candidate.
+     *
+     * @param mostSigBits  the most significant bits of the player UUID
+     * @param leastSigBits the least significant bits of the player UUID
+     * @param score        the candidate's score
+     */
+    public void offer(long mostSigBits, long leastSigBits, int score) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size < capacity) {
+            msb[size] = mostSigBits;
+            lsb[size] = leastSigBits;
+            scores[size] = score;
+            siftUp(size++);
+            return;
+        }
+        // root holds the worst kept entry; replace it only if the candidate beats it
+        if (better(score, mostSigBits, leastSigBits, 0)) {
+            msb[0] = mostSigBits;
+            lsb[0] = leastSigBits;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    public void offer(UUID uuid, int score) {
+        offer(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), score);
+    }
+
+    /**
+     * Gets the number of entries currently kept.
+     *
+     * @return kept entry count, at most k
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drains the selected entries in leaderboard order.
+     * The selector is empty afterwards and can be reused.
+     *
+     * @return entries ordered best first with 1-based positions
+     */
+    public List<LeaderboardEntry> drain() {
+        LeaderboardEntry[] ordered = new LeaderboardEntry[size];
+        for (int position = size; position >= 1; position--) {
+            ordered[position - 1] = new LeaderboardEntry(new UUID(msb[0], lsb[0]), scores[0], position);
+            size--;
+            if (size > 0) {
+                move(size, 0);
+                siftDown(0);
+            }
+        }
+        return List.of(ordered);
+    }
+
+    // ==================== Heap ====================
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!worse(index, parent)) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = (index << 1) + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int worst = right < size && worse(right, left) ? right : left;
+            if (!worse(worst, index)) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    /** True if the entry at i ranks below the entry at j. */
+    private boolean worse(int i, int j) {
+        return better(scores[j], msb[j], lsb[j], i);
+    }
+
+    /** True if the given candidate ranks above the entry at index. */
+    private boolean better(int score, long hi, long lo, int index) {
+        if (score != scores[index]) {
+            return score > scores[index];
+        }
+        if (hi != msb[index]) {
+            return hi < msb[index];
+        }
+        return lo < lsb[index];
+    }
+
+    private void swap(int i, int j) {
+        long m = msb[i];
+        long l = lsb[i];
+        int s = scores[i];
+        msb[i] = msb[j];
+        lsb[i] = lsb[j];
+        scores[i] = scores[j];
+        msb[j] = m;
+        lsb[j] = l;
+        scores[j] = s;
+    }
+
+    private void move(int from, int to) {
+        msb[to] = msb[from];
+        lsb[to] = lsb[from];
+        scores[to] = scores[from];
+    }
+}
@@ -0,0 +1,382 @@
+package com.deliverycore.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing hash map from UUID to primitive int.
+ * Keys are stored as their two long halves in parallel arrays, so increments
+ * and lookups do not allocate. Writers are serialized by a {@link StampedLock};
+ * readers use optimistic reads and only fall back to a read lock on contention.
+ *
+ * Entries cannot be removed - the map only grows for the lifetime of an event.
+ */
+public final class UuidIntMap {
+
+    /**
+     * Callback for allocation-free bulk iteration.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Accepts a single entry.
+         *
+         * @param mostSigBits  the most significant bits of the key UUID
+         * @param leastSigBits the least significant bits of the key UUID
+         * @param value        the mapped value
+         */
+        void accept(long mostSigBits, long leastSigBits, int value);
+    }
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Backing arrays. A table is never resized in place; growing swaps in a new
+     * instance so optimistic readers always see arrays of the same length.
+     */
+    private static final class Table {
+        final long[] msb;
+        final long[] lsb;
+        final int[] values;
+        final boolean[] used;
+        final int mask;
+
+        Table(int capacity) {
+            msb = new long[capacity];
+            lsb = new long[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Table table;
+    private volatile int size;
+
+    /**
+     * Creates an empty map.
+     */
+    public UuidIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map sized for the expected number of entries.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public UuidIntMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        this.table = new Table(capacity);
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the value mapped to a key.
+     *
+     * @param mostSigBits  the most significant bits of the key
+     * @param leastSigBits the least significant bits of the key
+     * @param defaultValue the value returned when the key is absent
+     * @return the mapped value or defaultValue
+     */
+    public int getOrDefault(long mostSigBits, long leastSigBits, int defaultValue) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            int result = lookup(table, mostSigBits, leastSigBits, defaultValue);
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return lookup(table, mostSigBits, leastSigBits, defaultValue);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int getOrDefault(UUID key, int defaultValue) {
+        return getOrDefault(key.getMostSignificantBits(), key.getLeastSignificantBits(), defaultValue);
+    }
+
+    public boolean containsKey(UUID key) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            boolean found = indexOf(table, msb, lsb) >= 0;
+            if (lock.validate(stamp)) {
+                return found;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return indexOf(table, msb, lsb) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds a delta to the value of a key, inserting it with the delta if absent.
+     *
+     * @param mostSigBits  the most significant bits of the key
+     * @param leastSigBits the least significant bits of the key
+     * @param delta        the amount to add
+     * @return the new value
+     */
+    public int addTo(long mostSigBits, long leastSigBits, int delta) {
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int slot = slotFor(t, mostSigBits, leastSigBits);
+            if (t.used[slot]) {
+                return t.values[slot] += delta;
+            }
+            insertAt(t, slot, mostSigBits, leastSigBits, delta);
+            return delta;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int addTo(UUID key, int delta) {
+        return addTo(key.getMostSignificantBits(), key.getLeastSignificantBits(), delta);
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key   the key
+     * @param value the new value
+     */
+    public void put(UUID key, int value) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int slot = slotFor(t, msb, lsb);
+            if (t.used[slot]) {
+                t.values[slot] = value;
+            } else {
+                insertAt(t, slot, msb, lsb, value);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes all entries and shrinks back to the default capacity.
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(DEFAULT_CAPACITY);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Iterates over all entries under a read lock without allocating.
+     * The consumer must not modify this map.
+     *
+     * @param consumer the entry callback
+     */
+    public void forEach(EntryConsumer consumer) {
+        long stamp = lock.readLock();
+        try {
+            Table t = table;
+            for (int i = 0; i < t.used.length; i++) {
+                if (t.used[i]) {
+                    consumer.accept(t.msb[i], t.lsb[i], t.values[i]);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets a read-only {@link Map} view for callers that still work with boxed entries.
+     * Iteration walks a snapshot taken when the iterator is created.
+     *
+     * @return an unmodifiable map view
+     */
+    public Map<UUID, Integer> asMap() {
+        return new MapView();
+    }
+
+    // ==================== Internals ====================
+
+    private void insertAt(Table t, int slot, long msb, long lsb, int value) {
+        t.msb[slot] = msb;
+        t.lsb[slot] = lsb;
+        t.values[slot] = value;
+        t.used[slot] = true;
+        int newSize = size + 1;
+        size = newSize;
+        if (newSize * 4 > t.used.length * 3) {
+            rehash(t);
+        }
+    }
+
+    private void rehash(Table old) {
+        Table grown = new Table(old.used.length << 1);
+        for (int i = 0; i < old.used.length; i++) {
+            if (old.used[i]) {
+                int slot = slotFor(grown, old.msb[i], old.lsb[i]);
+                grown.msb[slot] = old.msb[i];
+                grown.lsb[slot] = old.lsb[i];
+                grown.values[slot] = old.values[i];
+                grown.used[slot] = true;
+            }
+        }
+        table = grown;
+    }
+
+    private static int lookup(Table t, long msb, long lsb, int defaultValue) {
+        int index = indexOf(t, msb, lsb);
+        return index >= 0 ? t.values[index] : defaultValue;
+    }
+
+    private static int indexOf(Table t, long msb, long lsb) {
+        int slot = hash(msb, lsb) & t.mask;
+        // bounded so a torn optimistic read can never spin forever
+        for (int probes = 0; probes <= t.mask; probes++) {
+            if (!t.used[slot]) {
+                return -1;
+            }
+            if (t.msb[slot] == msb && t.lsb[slot] == lsb) {
+                return slot;
+            }
+            slot = (slot + 1) & t.mask;
+        }
+        return -1;
+    }
+
+    private static int slotFor(Table t, long msb, long lsb) {
+        int slot = hash(msb, lsb) & t.mask;
+        while (t.used[slot] && (t.msb[slot] != msb || t.lsb[slot] != lsb)) {
+            slot = (slot + 1) & t.mask;
+        }
+        return slot;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private final class MapView extends AbstractMap<UUID, Integer> {
+
+        @Override
+        public int size() {
+            return UuidIntMap.this.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof UUID uuid && UuidIntMap.this.containsKey(uuid);
+        }
+
+        @Override
+        public Integer get(Object key) {
+            if (!(key instanceof UUID uuid) || !UuidIntMap.this.containsKey(uuid)) {
+                return null;
+            }
+            return UuidIntMap.this.getOrDefault(uuid, 0);
+        }
+
+        @Override
+        public Integer getOrDefault(Object key, Integer defaultValue) {
+            Integer value = get(key);
+            return value != null ? value : defaultValue;
+        }
+
+        @Override
+        public Set<Map.Entry<UUID, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return UuidIntMap.this.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<UUID, Integer>> iterator() {
+                    return snapshotIterator();
+                }
+            };
+        }
+    }
+
+    private Iterator<Map.Entry<UUID, Integer>> snapshotIterator() {
+        long[] msb;
+        long[] lsb;
+        int[] values;
+        long stamp = lock.readLock();
+        try {
+            Table t = table;
+            msb = new long[size];
+            lsb = new long[msb.length];
+            values = new int[msb.length];
+            int n = 0;
+            for (int i = 0; i < t.used.length; i++) {
+                if (t.used[i]) {
+                    msb[n] = t.msb[i];
+                    lsb[n] = t.lsb[i];
+                    values[n] = t.values[i];
+                    n++;
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < msb.length;
+            }
+
+            @Override
+            public Map.Entry<UUID, Integer> next() {
+                if (next >= msb.length) {
+                    throw new NoSuchElementException();
+                }
+                int i = next++;
+                return Map.entry(new UUID(msb[i], lsb[i]), values[i]);
+            }
+        };
+    }
+}
@@ -1,14 +1,20 @@
 package com.deliverycore.placeholder;
 
+import com.deliverycore.model.LazyPlaceholderContext;
 import com.deliverycore.model.PlaceholderContext;
+import com.deliverycore.model.Winner;
 import net.jqwik.api.*;
 import net.jqwik.api.constraints.*;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -130,8 +136,152 @@ class PlaceholderEnginePropertyTest {
         }
     }
 
+    /**
+     * Feature: delivery-core, Property 54: Compiled Template Matches Regex Resolution
+     * For any text mixing valid, unknown and malformed placeholder tokens with
+     * regex-special characters, the compiled template should render exactly
+     * what a regex scan-and-replace produces, both into a fresh string and
+     * appended to a caller's builder; re-registering a placeholder should
+     * re-bind cached templates and nested resolve calls should not clash.
+     */
+    @Property(tries = 200)
+    void compiledTemplateMatchesRegexResolution(
+            @ForAll("validPlaceholderContext") PlaceholderContext context,
+            @ForAll("templateText") String text) {
+        
+        PlaceholderEngineImpl fresh = new PlaceholderEngineImpl();
+        fresh.registerPlaceholder("nested", ctx -> fresh.resolve("<{item}|{nested_missing}>", ctx));
+        
+        String expected = regexResolve(fresh, text, context);
+        assertThat(fresh.resolve(text, context)).isEqualTo(expected);
+        // İkinci çağrı önbellekten gelir, sonuç aynı
+        assertThat(fresh.resolve(text, context)).isEqualTo(expected);
+        assertThat(fresh.compile(text)).isSameAs(fresh.compile(text));
+        
+        StringBuilder out = new StringBuilder("prefix:");
+        fresh.compile(text).render(context, out);
+        assertThat(out.toString()).isEqualTo("prefix:" + expected);
+        assertThat(fresh.compile(text).getKeys()).containsExactlyInAnyOrderElementsOf(
+            regexKeys(text));
+        
+        fresh.registerPlaceholder("item", ctx -> "$1\\x");
+        assertThat(fresh.resolve(text, context)).isEqualTo(regexResolve(fresh, text, context));
+    }
+    
+    /** The original scan-and-replace resolution, used as the reference. */
+    private static String regexResolve(PlaceholderEngine engine, String text, PlaceholderContext context) {
+        Matcher matcher = Pattern.compile("\\{([a-zA-Z_][a-zA-Z0-9_]*)\\}").matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String key = matcher.group(1);
+            String replacement = engine.getRegisteredPlaceholders().contains(key)
+                ? engine.resolve("{" + key + "}", context) : "";
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+    
+    private static List<String> regexKeys(String text) {
+        Matcher matcher = Pattern.compile("\\{([a-zA-Z_][a-zA-Z0-9_]*)\\}").matcher(text);
+        List<String> keys = new ArrayList<>();
+        while (matcher.find()) {
+            keys.add(matcher.group(1));
+        }
+        return keys;
+    }
+    
+    /**
+     * Feature: delivery-core, Property 55: Lazy Layered Context Matches Eager Copy
+     * For any event context, template and set of players, rendering through a
+     * player layer over one shared lazy root should equal resolving against
+     * the eagerly copied withPlayer context; the root context is built at most
+     * once for all players and not at all when only player values are used,
+     * event-wide values such as the leaderboard are computed once, and a
+     * bound value is only computed when a template references it.
+     */
+    @Property(tries = 150)
+    void lazyLayeredContextMatchesEagerCopy(
+            @ForAll("validPlaceholderContext") PlaceholderContext event,
+            @ForAll("winnerList") List<Winner> winners,
+            @ForAll("templateText") String text) {
+        
+        PlaceholderEngineImpl fresh = new PlaceholderEngineImpl();
+        fresh.registerPlaceholder("nested", ctx -> "[" + ctx.playerName() + "]");
+        PlaceholderContext context = event.withWinnerDetails(winners);
+        String template = text + " {leaderboard}{player}{bonus}";
+        
+        AtomicInteger baseBuilds = new AtomicInteger();
+        AtomicInteger bonusCalls = new AtomicInteger();
+        LazyPlaceholderContext root = LazyPlaceholderContext.of(() -> {
+            baseBuilds.incrementAndGet();
+            return context;
+        });
+        LazyPlaceholderContext withBonus = root.layer().put("bonus", () -> {
+            bonusCalls.incrementAndGet();
+            return "+" + winners.size();
+        });
+        
+        for (Winner winner : winners) {
+            PlaceholderContext eager = context.withPlayer(winner.playerName(), winner.playerUuid());
+            LazyPlaceholderContext layer = withBonus.forPlayer(winner.playerName(), winner.playerUuid());
+            assertThat(fresh.resolve(template, layer))
+                .isEqualTo(fresh.resolve(text + " {leaderboard}{player}", eager) + "+" + winners.size());
+            
+            StringBuilder out = new StringBuilder(">");
+            fresh.compile(template).render(layer, out);
+            assertThat(out.toString()).isEqualTo(">" + fresh.resolve(template, layer));
+        }
+        assertThat(baseBuilds.get()).isLessThanOrEqualTo(1);
+        if (!winners.isEmpty()) {
+            // Liderlik tablosu kökte bir kez hesaplandı; yeni oyuncu katmanı yeniden hesaplamaz
+            assertThat(withBonus.forPlayer("late", null).shared("leaderboard", ctx -> {
+                throw new AssertionError("leaderboard recomputed");
+            })).isEqualTo(fresh.resolve("{leaderboard}", context));
+        }
+        assertThat(bonusCalls.get()).isEqualTo(winners.isEmpty() ? 0 : 1);
+        
+        // Sadece oyuncu değerleri: kök bağlam hiç kurulmaz, bağlı değer hesaplanmaz
+        AtomicInteger untouched = new AtomicInteger();
+        LazyPlaceholderContext lazyRoot = LazyPlaceholderContext.of(() -> {
+            untouched.incrementAndGet();
+            return context;
+        });
+        lazyRoot.put("bonus", () -> {
+            untouched.incrementAndGet();
+            return "x";
+        });
+        for (Winner winner : winners) {
+            assertThat(fresh.resolve("hi {player} ({player_uuid})", lazyRoot.forPlayer(winner.playerName(), winner.playerUuid())))
+                .isEqualTo("hi " + winner.playerName() + " (" + winner.playerUuid() + ")");
+        }
+        assertThat(untouched.get()).isZero();
+    }
+    
     // ==================== Generators ====================
     
+    @Provide
+    Arbitrary<List<Winner>> winnerList() {
+        return Arbitraries.strings().alpha().ofMinLength(3).ofMaxLength(16).list().ofMaxSize(8).map(names -> {
+            List<Winner> winners = new ArrayList<>();
+            for (int i = 0; i < names.size(); i++) {
+                winners.add(new Winner(UUID.randomUUID(), names.get(i), (names.size() - i) * 10, i + 1));
+            }
+            return winners;
+        });
+    }
+    
+    @Provide
+    Arbitrary<String> templateText() {
+        Arbitrary<String> fragment = Arbitraries.oneOf(
+            Arbitraries.of("{item}", "{player}", "{winners}", "{nested}", "{unknown_1}", "{_x}",
+                "{", "}", "{1abc}", "{ item}", "{item", "item}", "{}", "{{item}}", "$", "\\", "$1", "é"),
+            Arbitraries.strings().withChars("ab {}_9$\\").ofMaxLength(6)
+        );
+        return fragment.list().ofMaxSize(12).map(parts -> String.join("", parts));
+    }
+    
+    
     @Provide
     Arbitrary<PlaceholderContext> validPlaceholderContext() {
         // Split into two parts since jqwik supports max 8 parameters
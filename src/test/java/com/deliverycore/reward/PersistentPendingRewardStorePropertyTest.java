@@ -0,0 +1,142 @@
+package com.deliverycore.reward;
+
+import com.deliverycore.model.RewardConfig;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for PersistentPendingRewardStore.
+ */
+class PersistentPendingRewardStorePropertyTest {
+
+    private static final UUID[] PLAYERS = {
+        new UUID(1, 1), new UUID(-2, 2), new UUID(3, -3), new UUID(4, 4), new UUID(-5, -5)
+    };
+
+    /**
+     * Feature: delivery-core, Property 49: Reward Log Survives Restart
+     * For any sequence of stores, removals, clears, compactions and restarts,
+     * the store should hold exactly the rewards not yet removed, in the order
+     * they were stored, and a torn record at the end of the log should be
+     * dropped without losing earlier rewards. With the sync deferred to an
+     * executor, writes made while a sync is pending should share it.
+     */
+    @Property(tries = 50)
+    void rewardLogSurvivesRestart(
+            @ForAll("operations") List<int[]> operations,
+            @ForAll("rewards") List<RewardConfig> configs,
+            @ForAll @IntRange(min = 0, max = 512) int compactBytes,
+            @ForAll boolean deferredSync) throws IOException {
+
+        File directory = Files.createTempDirectory("rewards").toFile();
+        File file = new File(directory, "pending-rewards.log");
+        Map<UUID, List<PendingReward>> expected = new HashMap<>();
+        long earned = 1_760_000_000_000L;
+        Deque<Runnable> syncs = new ArrayDeque<>();
+        java.util.concurrent.Executor executor = deferredSync ? syncs::add : Runnable::run;
+        try {
+            PersistentPendingRewardStore store = new PersistentPendingRewardStore(file, compactBytes, executor);
+            for (int[] operation : operations) {
+                UUID player = PLAYERS[operation[1]];
+                switch (operation[0]) {
+                    case 0, 1, 2 -> {
+                        ZonedDateTime earnedAt = ZonedDateTime.ofInstant(Instant.ofEpochMilli(earned += 1000),
+                            ZoneId.of("Europe/Istanbul"));
+                        PendingReward reward = new PendingReward(player, "etkinlik" + operation[1],
+                            configs.get(operation[2] % configs.size()), earnedAt);
+                        store.store(reward);
+                        expected.computeIfAbsent(player, uuid -> new ArrayList<>()).add(reward);
+                    }
+                    case 3 -> {
+                        List<PendingReward> removed = store.removeRewards(player);
+                        assertThat(removed).isEqualTo(expected.getOrDefault(player, List.of()));
+                        expected.remove(player);
+                    }
+                    case 4 -> {
+                        store.close();
+                        syncs.clear();
+                        store = new PersistentPendingRewardStore(file, compactBytes, executor);
+                    }
+                    case 5 -> store.compact();
+                    default -> {
+                        if (operation[2] % 10 == 0) {
+                            store.clear();
+                            expected.clear();
+                        } else {
+                            // Bekleyen grup senkronu çalışır (sıkıştırma dahil)
+                            while (!syncs.isEmpty()) {
+                                syncs.poll().run();
+                            }
+                        }
+                    }
+                }
+                assertThat(syncs.size()).isLessThanOrEqualTo(1);
+                assertThat(store.getRewardCount(player)).isEqualTo(expected.getOrDefault(player, List.of()).size());
+            }
+
+            store.close();
+            // Yarım yazılmış son kayıt
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(raf.length());
+                raf.writeInt(40);
+                raf.write(new byte[]{1, 2, 3});
+            }
+
+            PersistentPendingRewardStore reopened = new PersistentPendingRewardStore(file, compactBytes);
+            for (UUID player : PLAYERS) {
+                List<PendingReward> playerRewards = expected.getOrDefault(player, List.of());
+                assertThat(reopened.hasPendingRewards(player)).isEqualTo(!playerRewards.isEmpty());
+                assertThat(reopened.getRewardCount(player)).isEqualTo(playerRewards.size());
+                assertThat(reopened.getRewards(player)).isEqualTo(playerRewards);
+            }
+            assertThat(reopened.getPlayerCount()).isEqualTo(expected.size());
+            reopened.close();
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    Files.deleteIfExists(f.toPath());
+                }
+            }
+            Files.deleteIfExists(directory.toPath());
+        }
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<List<int[]>> operations() {
+        // {işlem, oyuncu, ödül/seçim}
+        Arbitrary<int[]> operation = Combinators.combine(
+            Arbitraries.integers().between(0, 6),
+            Arbitraries.integers().between(0, PLAYERS.length - 1),
+            Arbitraries.integers().between(0, 99)
+        ).as((type, player, choice) -> new int[]{type, player, choice});
+        return operation.list().ofMaxSize(80);
+    }
+
+    @Provide
+    Arbitrary<List<RewardConfig>> rewards() {
+        Arbitrary<RewardConfig> reward = Arbitraries.oneOf(
+            Combinators.combine(
+                Arbitraries.strings().alpha().ofMinLength(1).ofMaxLength(30),
+                Arbitraries.integers().between(1, 64)
+            ).as(RewardConfig::inventory),
+            Arbitraries.strings().withCharRange('a', 'z').withChars(' ', '%', 'ş', 'ğ').ofMaxLength(40)
+                .list().ofMaxSize(4)
+                .map(RewardConfig::command)
+        );
+        return reward.list().ofMinSize(1).ofMaxSize(8);
+    }
+}
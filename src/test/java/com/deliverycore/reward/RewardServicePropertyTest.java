@@ -6,6 +6,7 @@ import com.deliverycore.model.RewardType;
 import com.deliverycore.model.Winner;
 import com.deliverycore.placeholder.PlaceholderEngineImpl;
 import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
 
 import java.util.*;
 
@@ -213,6 +214,69 @@ class RewardServicePropertyTest {
         }
     }
     
+    /**
+     * Feature: delivery-core, Property 60: Pending Rewards Split Into Per-Reward Tasks
+     * For any pending rewards of an online player, taking them should empty the
+     * store and yield one task per reward; tasks that run while the player is
+     * online give the reward, and tasks that run after the player left put
+     * their reward back into the store.
+     */
+    @Property(tries = 100)
+    void pendingRewardsSplitIntoPerRewardTasks(
+            @ForAll("validRewardConfigs") List<RewardConfig> rewards,
+            @ForAll @IntRange(min = 0, max = 10) int leaveAfter) {
+        
+        PendingRewardStore store = new PendingRewardStoreImpl();
+        RewardServiceImpl service = new RewardServiceImpl(store, new PlaceholderEngineImpl());
+        UUID uuid = UUID.randomUUID();
+        for (RewardConfig reward : rewards) {
+            service.storePendingReward(uuid, "test_delivery", reward);
+        }
+        
+        boolean[] online = {true};
+        List<String> given = new ArrayList<>();
+        List<String> commands = new ArrayList<>();
+        RewardService.PlayerResolver resolver = new RewardService.PlayerResolver() {
+            @Override
+            public boolean isOnline(UUID id) {
+                return online[0];
+            }
+            
+            @Override
+            public String getName(UUID id) {
+                return "Player";
+            }
+            
+            @Override
+            public boolean giveItem(UUID id, String item, int amount) {
+                given.add(item);
+                return true;
+            }
+        };
+        
+        List<Runnable> tasks = service.takePendingRewards(uuid, resolver, commands::add, null);
+        
+        assertThat(tasks).hasSize(rewards.size());
+        assertThat(store.hasPendingRewards(uuid)).isFalse();
+        
+        int ran = Math.min(leaveAfter, tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i == ran) online[0] = false;
+            tasks.get(i).run();
+        }
+        
+        List<RewardConfig> delivered = rewards.subList(0, ran);
+        long expectedItems = delivered.stream().filter(r -> r.type() == RewardType.INVENTORY).count();
+        long expectedCommands = delivered.stream()
+            .filter(r -> r.commands() != null)
+            .mapToLong(r -> r.commands().size())
+            .sum();
+        assertThat(given).hasSize((int) expectedItems);
+        assertThat(commands).hasSize((int) expectedCommands);
+        assertThat(store.getRewards(uuid)).extracting(PendingReward::reward)
+            .containsExactlyElementsOf(rewards.subList(ran, rewards.size()));
+    }
+    
     // ==================== Generators ====================
     
     @Provide
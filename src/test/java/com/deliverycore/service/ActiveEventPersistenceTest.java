@@ -0,0 +1,127 @@
+package com.deliverycore.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares full event rewrites with dirty-tracked persistence of a
+ * 10k-participant event through {@link YamlDataStorage}, one persist per
+ * delivery click, and checks both paths store the same counts.
+ */
+class ActiveEventPersistenceTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ActiveEventPersistenceTest.class.getName());
+    private static final int PARTICIPANTS = 10_000;
+    private static final int CLICKS = 200;
+    // Tam yazımda değişiklik listesi şişmesin diye arada görüntü kaydedilir
+    private static final int FLUSH_EVERY = 50;
+
+    @Test
+    void dirtyTrackingWritesOnlyChangedParticipants() throws IOException {
+        Random random = new Random(42);
+        UUID[] players = new UUID[PARTICIPANTS];
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            players[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+        int[] clicks = new int[CLICKS];
+        for (int i = 0; i < CLICKS; i++) {
+            clicks[i] = random.nextInt(PARTICIPANTS);
+        }
+
+        File fullFolder = Files.createTempDirectory("persist-full").toFile();
+        File dirtyFolder = Files.createTempDirectory("persist-dirty").toFile();
+        try {
+            ActiveEvent fullEvent = newEvent(players);
+            YamlDataStorage full = new YamlDataStorage(fullFolder, LOGGER, Clock.systemUTC());
+            full.recordEventStart(fullEvent);
+            full.flush();
+            long start = System.nanoTime();
+            long fullWrites = clickAndPersist(full, fullEvent, players, clicks, full::saveActiveEvent);
+            long fullNanos = System.nanoTime() - start;
+
+            ActiveEvent dirtyEvent = newEvent(players);
+            YamlDataStorage dirty = new YamlDataStorage(dirtyFolder, LOGGER, Clock.systemUTC());
+            dirty.recordEventStart(dirtyEvent);
+            dirty.flush();
+            start = System.nanoTime();
+            long dirtyWrites = clickAndPersist(dirty, dirtyEvent, players, clicks, dirty::persistDirty);
+            long dirtyNanos = System.nanoTime() - start;
+
+            System.out.printf("[Persist] %d participants, %d clicks: full rewrite %.2f ms (%d writes), dirty %.2f ms (%d writes) (%.1fx)%n",
+                PARTICIPANTS, CLICKS, fullNanos / 1e6, fullWrites, dirtyNanos / 1e6, dirtyWrites,
+                (double) fullNanos / Math.max(1, dirtyNanos));
+
+            // Tam yazım her tıklamada tüm katılımcıları, kirli takip sadece tıklayanı yazar
+            assertThat(fullWrites).isGreaterThanOrEqualTo((long) CLICKS * PARTICIPANTS);
+            assertThat(dirtyWrites).isEqualTo(CLICKS);
+
+            full.close();
+            dirty.close();
+            Map<UUID, Integer> expected = new HashMap<>();
+            dirtyEvent.forEachDelivery((msb, lsb, count) -> expected.put(new UUID(msb, lsb), count));
+            assertThat(reload(fullFolder)).isEqualTo(expected);
+            assertThat(reload(dirtyFolder)).isEqualTo(expected);
+        } finally {
+            deleteFolder(fullFolder);
+            deleteFolder(dirtyFolder);
+        }
+    }
+
+    private static ActiveEvent newEvent(UUID[] players) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("UTC"));
+        ActiveEvent event = new ActiveEvent("bench", "cat", "DIAMOND", now, now.plusHours(1), ZoneId.of("UTC"));
+        for (UUID player : players) {
+            event.recordDelivery(player, 1);
+        }
+        return event;
+    }
+
+    /** Her tıklamada bir teslimat kaydedip verilen yolla yazar; görüntüye yazılan yol sayısını döndürür. */
+    private static long clickAndPersist(YamlDataStorage storage, ActiveEvent event, UUID[] players, int[] clicks,
+                                        Consumer<ActiveEvent> persist) {
+        long writes = 0;
+        for (int i = 0; i < clicks.length; i++) {
+            event.recordDelivery(players[clicks[i]], 1);
+            persist.accept(event);
+            if ((i + 1) % FLUSH_EVERY == 0) {
+                writes += storage.pendingChanges();
+                storage.flush();
+            }
+        }
+        writes += storage.pendingChanges();
+        storage.flush();
+        return writes;
+    }
+
+    private static Map<UUID, Integer> reload(File folder) {
+        YamlDataStorage storage = new YamlDataStorage(folder, LOGGER, Clock.systemUTC());
+        try {
+            List<DataStorage.SavedEventData> events = storage.loadActiveEvents();
+            assertThat(events).hasSize(1);
+            return events.get(0).playerDeliveries();
+        } finally {
+            storage.close();
+        }
+    }
+
+    private static void deleteFolder(File folder) throws IOException {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        Files.deleteIfExists(folder.toPath());
+    }
+}
@@ -0,0 +1,200 @@
+package com.deliverycore.service;
+
+import com.deliverycore.util.MutableClock;
+import net.jqwik.api.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for CompiledSchedule.
+ */
+class CompiledSchedulePropertyTest {
+
+    private static final String[] DAY_NAMES = {"monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"};
+
+    /**
+     * A generated schedule: its expression and independent day and time-of-day predicates.
+     */
+    record Case(String expression, Predicate<LocalDate> day, Predicate<Integer> minuteOfDay) {}
+
+    /**
+     * Feature: delivery-core, Property 50: Compiled Schedule Matches Minute Scan
+     * For any weekly, interval or cron expression with optional excluded days,
+     * the compiled next fire time should equal the first matching minute found
+     * by scanning forward from the reference time, and the scheduler's cached
+     * calendar should list the same upcoming times as repeated next calls.
+     */
+    @Property(tries = 150)
+    void compiledScheduleMatchesMinuteScan(
+            @ForAll("cases") Case scheduleCase,
+            @ForAll("zones") ZoneId zone,
+            @ForAll("epochStart") long startMillis) {
+
+        CompiledSchedule schedule = CompiledSchedule.compile(scheduleCase.expression()).orElseThrow();
+        ZonedDateTime after = ZonedDateTime.ofInstant(Instant.ofEpochMilli(startMillis), zone);
+
+        ZonedDateTime expected = scan(scheduleCase, after);
+        assertThat(schedule.next(after)).isEqualTo(Optional.ofNullable(expected));
+
+        List<ZonedDateTime> upcoming = schedule.upcoming(after, 4);
+        ZonedDateTime cursor = after;
+        for (ZonedDateTime time : upcoming) {
+            assertThat(time).isEqualTo(scan(scheduleCase, cursor));
+            cursor = time;
+        }
+
+        MutableClock clock = new MutableClock(startMillis);
+        SchedulerService scheduler = new SchedulerServiceImpl(null, clock);
+        assertThat(scheduler.isValidExpression(scheduleCase.expression())).isTrue();
+        assertThat(scheduler.getUpcomingOccurrences(scheduleCase.expression(), zone, 4)).isEqualTo(upcoming);
+        if (!upcoming.isEmpty()) {
+            // Önbellekteki ilk zaman geçince sıradaki döner
+            clock.setMillis(upcoming.get(0).toInstant().toEpochMilli());
+            assertThat(scheduler.getNextOccurrence(scheduleCase.expression(), zone))
+                .isEqualTo(upcoming.size() > 1 ? Optional.of(upcoming.get(1)) : schedule.next(upcoming.get(0)));
+        }
+    }
+
+    /**
+     * Feature: delivery-core, Property 59: Oversized Steps Are Rejected
+     * For any cron step above its field's maximum and any interval longer than
+     * a day, compilation should fail instead of wrapping into another schedule;
+     * the largest allowed step should still compile.
+     */
+    @Property(tries = 100)
+    void oversizedStepsAreRejected(
+            @ForAll("oversizedSteps") int oversized,
+            @ForAll("oversizedHours") int hours) {
+
+        assertThat(CompiledSchedule.compile("*/" + oversized + " * * * *")).isEmpty();
+        assertThat(CompiledSchedule.compile("0 */" + oversized + " * * *")).isEmpty();
+        assertThat(CompiledSchedule.compile("every " + hours + " hours")).isEmpty();
+
+        assertThat(CompiledSchedule.compile("*/59 * * * *")).isPresent();
+        assertThat(CompiledSchedule.compile("every 24 hours")).isPresent();
+    }
+
+    /** Scans day by day, then minute by minute, for the first match after the given time. */
+    private static ZonedDateTime scan(Case scheduleCase, ZonedDateTime after) {
+        LocalDateTime start = after.toLocalDateTime().truncatedTo(ChronoUnit.MINUTES);
+        LocalDate day = start.toLocalDate();
+        for (int days = 0; days < 4 * 366; days++, day = day.plusDays(1)) {
+            if (!scheduleCase.day().test(day)) continue;
+            for (int minute = 0; minute < 24 * 60; minute++) {
+                if (!scheduleCase.minuteOfDay().test(minute)) continue;
+                ZonedDateTime candidate = day.atStartOfDay().plusMinutes(minute).atZone(after.getZone());
+                if (candidate.isAfter(after)) return candidate;
+            }
+        }
+        return null;
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<Case> cases() {
+        return Arbitraries.oneOf(weekly(), interval(), cron()).flatMap(base ->
+            Arbitraries.integers().between(0, 40).list().ofMaxSize(3).map(offsets -> {
+                if (offsets.isEmpty()) return base;
+                Set<LocalDate> excluded = offsets.stream()
+                    .map(offset -> LocalDate.of(2025, 6, 1).plusDays(offset))
+                    .collect(Collectors.toCollection(TreeSet::new));
+                String dates = excluded.stream().map(LocalDate::toString).collect(Collectors.joining(", "));
+                return new Case(base.expression() + " except " + dates,
+                    day -> !excluded.contains(day) && base.day().test(day), base.minuteOfDay());
+            }));
+    }
+
+    private Arbitrary<Case> weekly() {
+        Arbitrary<Set<Integer>> days = Arbitraries.integers().between(0, 6).set().ofMinSize(1).ofMaxSize(3);
+        Arbitrary<Set<Integer>> times = Arbitraries.integers().between(0, 24 * 60 - 1).set().ofMinSize(1).ofMaxSize(3);
+        Arbitrary<Integer> style = Arbitraries.integers().between(0, 3);
+        return Combinators.combine(days, times, style).as((daySet, timeSet, dayStyle) -> {
+            String dayList;
+            Set<Integer> effective;
+            switch (dayStyle) {
+                case 0 -> { dayList = "day"; effective = Set.of(0, 1, 2, 3, 4, 5, 6); }
+                case 1 -> { dayList = "weekday"; effective = Set.of(0, 1, 2, 3, 4); }
+                case 2 -> { dayList = "weekend"; effective = Set.of(5, 6); }
+                default -> {
+                    dayList = daySet.stream().map(d -> DAY_NAMES[d]).collect(Collectors.joining(","));
+                    effective = daySet;
+                }
+            }
+            String timeList = timeSet.stream()
+                .map(t -> String.format("%02d:%02d", t / 60, t % 60))
+                .collect(Collectors.joining(", "));
+            return new Case("every " + dayList + " " + timeList,
+                day -> effective.contains(day.getDayOfWeek().getValue() - 1), timeSet::contains);
+        });
+    }
+
+    private Arbitrary<Case> interval() {
+        return Combinators.combine(Arbitraries.integers().between(1, 24), Arbitraries.of(true, false))
+            .as((n, hours) -> {
+                int step = hours ? n * 60 : n * 7;
+                String expression = hours ? "every " + n + " hours" : "every " + step + " minutes";
+                return new Case(expression, day -> true, minute -> minute % step == 0);
+            });
+    }
+
+    private Arbitrary<Case> cron() {
+        Arbitrary<Set<Integer>> minutes = Arbitraries.integers().between(0, 59).set().ofMinSize(1).ofMaxSize(3);
+        Arbitrary<Set<Integer>> hours = Arbitraries.integers().between(0, 23).set().ofMinSize(1).ofMaxSize(3);
+        Arbitrary<Optional<Set<Integer>>> daysOfMonth = Arbitraries.integers().between(1, 31).set().ofMinSize(1).ofMaxSize(3)
+            .optional(0.5);
+        Arbitrary<Optional<Set<Integer>>> months = Arbitraries.integers().between(1, 12).set().ofMinSize(1).ofMaxSize(4)
+            .optional(0.7);
+        Arbitrary<Optional<Set<Integer>>> daysOfWeek = Arbitraries.integers().between(0, 6).set().ofMinSize(1).ofMaxSize(3)
+            .optional(0.5);
+        return Combinators.combine(minutes, hours, daysOfMonth, months, daysOfWeek).as((m, h, dom, mon, dow) -> {
+            String expression = String.join(" ", list(m), list(h),
+                dom.map(CompiledSchedulePropertyTest::list).orElse("*"),
+                mon.map(CompiledSchedulePropertyTest::list).orElse("*"),
+                dow.map(CompiledSchedulePropertyTest::list).orElse("*"));
+            return new Case(expression, day -> {
+                if (mon.isPresent() && !mon.get().contains(day.getMonthValue())) return false;
+                boolean domMatch = dom.map(set -> set.contains(day.getDayOfMonth())).orElse(true);
+                boolean dowMatch = dow.map(set -> set.contains(day.getDayOfWeek().getValue() % 7)).orElse(true);
+                return dom.isPresent() && dow.isPresent() ? domMatch || dowMatch : domMatch && dowMatch;
+            }, minute -> m.contains(minute % 60) && h.contains(minute / 60));
+        });
+    }
+
+    private static String list(Set<Integer> values) {
+        return values.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    @Provide
+    Arbitrary<Integer> oversizedSteps() {
+        return Arbitraries.oneOf(Arbitraries.integers().between(60, 999_999_999),
+            Arbitraries.of(60, 64, 65_536, 999_999_999));
+    }
+
+    @Provide
+    Arbitrary<Integer> oversizedHours() {
+        return Arbitraries.integers().between(25, 9_999);
+    }
+
+    @Provide
+    Arbitrary<ZoneId> zones() {
+        // Yaz saati olmayan bölgeler: tarama yerel dakikalarla birebir örtüşür
+        return Arbitraries.of(ZoneId.of("UTC"), ZoneId.of("Europe/Istanbul"), ZoneId.of("Asia/Tokyo"));
+    }
+
+    @Provide
+    Arbitrary<Long> epochStart() {
+        // 2025-05-25 .. 2025-07-20, hariç günlerin çevresi
+        return Arbitraries.longs().between(1_748_131_200_000L, 1_752_969_600_000L);
+    }
+}
@@ -0,0 +1,314 @@
+package com.deliverycore.service;
+
+import com.deliverycore.util.MutableClock;
+import net.jqwik.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contract tests for DataStorage, run against both the YAML and the SQLite backend.
+ */
+class DataStoragePropertyTest {
+
+    private static final Logger LOGGER = Logger.getLogger(DataStoragePropertyTest.class.getName());
+    private static final ZoneId ZONE = ZoneId.of("Europe/Istanbul");
+    private static final UUID[] PLAYERS = new UUID[12];
+
+    static {
+        for (int i = 0; i < PLAYERS.length; i++) {
+            PLAYERS[i] = new UUID(i % 2 == 0 ? -i : i, i);
+        }
+    }
+
+    enum Backend {
+        YAML, SQLITE;
+
+        DataStorage open(File folder, MutableClock clock) throws SQLException {
+            return this == YAML
+                ? new YamlDataStorage(folder, LOGGER, clock)
+                : new SqlDataStorage(folder, LOGGER, clock);
+        }
+    }
+
+    /**
+     * Feature: delivery-core, Property 61: Storage Save/Load Round-Trip
+     * For any active events and player stats, a store that saved them and was
+     * flushed and closed should return the same events and stats when reopened.
+     */
+    @Property(tries = 30)
+    void storageSaveLoadRoundTrip(
+            @ForAll Backend backend,
+            @ForAll("eventDeliveries") List<Map<Integer, Integer>> events,
+            @ForAll("stats") List<DataStorage.PlayerStats> stats) throws Exception {
+
+        File folder = Files.createTempDirectory("storage").toFile();
+        MutableClock clock = new MutableClock(1_760_000_000_000L);
+        try {
+            List<ActiveEvent> saved = new ArrayList<>();
+            DataStorage storage = backend.open(folder, clock);
+            for (int i = 0; i < events.size(); i++) {
+                ActiveEvent event = newEvent("etkinlik" + i, clock);
+                events.get(i).forEach((player, amount) -> event.recordDelivery(PLAYERS[player], amount));
+                storage.saveActiveEvent(event);
+                saved.add(event);
+            }
+            assertThat(storage.savePlayerStats(stats)).isTrue();
+            storage.flush();
+            storage.close();
+
+            DataStorage reopened = backend.open(folder, clock);
+            try {
+                assertThat(describe(reopened.loadActiveEvents())).isEqualTo(describeEvents(saved));
+                assertThat(reopened.getAllPlayerStats()).isEqualTo(byUuid(stats));
+            } finally {
+                reopened.close();
+            }
+        } finally {
+            deleteFolder(folder);
+        }
+    }
+
+    /**
+     * Feature: delivery-core, Property 62: Delivery Batches Survive Reopen
+     * For any rounds of deliveries applied with applyDeliveryBatch, the store
+     * reopened without an explicit flush should return the event's latest
+     * counts and the latest stats of every player.
+     */
+    @Property(tries = 30)
+    void deliveryBatchesSurviveReopen(
+            @ForAll Backend backend,
+            @ForAll("eventDeliveries") List<Map<Integer, Integer>> rounds) throws Exception {
+
+        File folder = Files.createTempDirectory("storage").toFile();
+        MutableClock clock = new MutableClock(1_760_000_000_000L);
+        try {
+            ActiveEvent event = newEvent("haftalik", clock);
+            Map<UUID, DataStorage.PlayerStats> expectedStats = new HashMap<>();
+            DataStorage storage = backend.open(folder, clock);
+            storage.recordEventStart(event);
+            for (Map<Integer, Integer> round : rounds) {
+                clock.advance(Duration.ofSeconds(1));
+                List<DataStorage.PlayerStats> changed = new ArrayList<>();
+                round.forEach((player, amount) -> {
+                    event.recordDelivery(PLAYERS[player], amount);
+                    DataStorage.PlayerStats previous = expectedStats.get(PLAYERS[player]);
+                    int total = (previous != null ? previous.totalDeliveries() : 0) + amount;
+                    DataStorage.PlayerStats stat = new DataStorage.PlayerStats(PLAYERS[player], "Oyuncu" + player,
+                        total, clock.millis());
+                    expectedStats.put(PLAYERS[player], stat);
+                    changed.add(stat);
+                });
+                assertThat(storage.applyDeliveryBatch(event, true, changed)).isTrue();
+            }
+            storage.close();
+
+            DataStorage reopened = backend.open(folder, clock);
+            try {
+                assertThat(describe(reopened.loadActiveEvents())).isEqualTo(describeEvents(List.of(event)));
+                assertThat(reopened.getAllPlayerStats()).isEqualTo(expectedStats);
+            } finally {
+                reopened.close();
+            }
+        } finally {
+            deleteFolder(folder);
+        }
+    }
+
+    /**
+     * Feature: delivery-core, Property 63: YAML Data Migrates Into SQLite Once
+     * For any state written by the YAML store, split between data.yml and the
+     * journal, the first SQLite open should import all of it and move data.yml
+     * and the journal aside; a second open should not import again.
+     */
+    @Property(tries = 20)
+    void yamlDataMigratesIntoSqliteOnce(
+            @ForAll("eventDeliveries") List<Map<Integer, Integer>> rounds,
+            @ForAll("stats") List<DataStorage.PlayerStats> stats,
+            @ForAll boolean snapshotFirst) throws Exception {
+
+        File folder = Files.createTempDirectory("storage").toFile();
+        MutableClock clock = new MutableClock(1_760_000_000_000L);
+        try {
+            ActiveEvent event = newEvent("haftalik", clock);
+            YamlDataStorage yaml = new YamlDataStorage(folder, LOGGER, clock);
+            yaml.recordEventStart(event);
+            for (int i = 0; i < rounds.size(); i++) {
+                rounds.get(i).forEach((player, amount) -> event.recordDelivery(PLAYERS[player], amount));
+                yaml.applyDeliveryBatch(event, true, List.of());
+                // İlk tur görüntüye, sonrakiler sadece günlüğe yazılır
+                if (i == 0 && snapshotFirst) {
+                    yaml.flush();
+                }
+            }
+            yaml.savePlayerStats(stats);
+            yaml.close();
+
+            SqlDataStorage sql = new SqlDataStorage(folder, LOGGER, clock);
+            try {
+                assertThat(describe(sql.loadActiveEvents())).isEqualTo(describeEvents(List.of(event)));
+                assertThat(sql.getAllPlayerStats()).isEqualTo(byUuid(stats));
+            } finally {
+                sql.close();
+            }
+            assertThat(new File(folder, YamlDataStorage.DATA_FILE)).doesNotExist();
+            assertThat(new File(folder, YamlDataStorage.JOURNAL_FILE)).doesNotExist();
+            assertThat(new File(folder, YamlDataStorage.DATA_FILE + ".migrated")).exists();
+            assertThat(new File(folder, YamlDataStorage.JOURNAL_FILE + ".migrated")).exists();
+
+            SqlDataStorage reopened = new SqlDataStorage(folder, LOGGER, clock);
+            try {
+                assertThat(describe(reopened.loadActiveEvents())).isEqualTo(describeEvents(List.of(event)));
+                assertThat(reopened.getAllPlayerStats()).isEqualTo(byUuid(stats));
+            } finally {
+                reopened.close();
+            }
+        } finally {
+            deleteFolder(folder);
+        }
+    }
+
+    /**
+     * Feature: delivery-core, Property 64: Failed SQL Batch Keeps Participants Dirty
+     * For any deliveries whose batch transaction fails, applyDeliveryBatch
+     * should return false, leave the stored counts unchanged and mark the
+     * drained participants changed again, so the next batch writes them.
+     */
+    @Property(tries = 20)
+    void failedSqlBatchKeepsParticipantsDirty(
+            @ForAll("deliveries") Map<Integer, Integer> initial,
+            @ForAll("deliveries") Map<Integer, Integer> failed) throws Exception {
+
+        File folder = Files.createTempDirectory("storage").toFile();
+        MutableClock clock = new MutableClock(1_760_000_000_000L);
+        try {
+            ActiveEvent event = newEvent("haftalik", clock);
+            initial.forEach((player, amount) -> event.recordDelivery(PLAYERS[player], amount));
+            SqlDataStorage sql = new SqlDataStorage(folder, LOGGER, clock);
+            try {
+                sql.recordEventStart(event);
+                Map<String, Object> stored = describeEvents(List.of(event));
+
+                failed.forEach((player, amount) -> event.recordDelivery(PLAYERS[player], amount));
+                Map<UUID, Integer> expectedDirty = new HashMap<>();
+                failed.keySet().forEach(player -> expectedDirty.put(PLAYERS[player], event.getPlayerDeliveryCount(PLAYERS[player])));
+
+                // İstatistik yazımı işlem içinde hata verir; katılım satırları da geri alınmalı
+                String database = new File(folder, SqlDataStorage.DATABASE_FILE).getAbsolutePath();
+                try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + database);
+                     Statement statement = other.createStatement()) {
+                    statement.execute("CREATE TRIGGER fail_stats BEFORE INSERT ON player_stats "
+                        + "BEGIN SELECT RAISE(ABORT, 'forced failure'); END");
+                }
+                DataStorage.PlayerStats stat = new DataStorage.PlayerStats(PLAYERS[0], "Oyuncu0", 1, clock.millis());
+                assertThat(sql.applyDeliveryBatch(event, true, List.of(stat))).isFalse();
+                assertThat(describe(sql.loadActiveEvents())).isEqualTo(stored);
+                assertThat(sql.getAllPlayerStats()).isEmpty();
+
+                Map<UUID, Integer> dirty = new HashMap<>();
+                for (ActiveEvent.ParticipantCount participant : event.drainDirty()) {
+                    dirty.put(participant.playerUuid(), participant.count());
+                }
+                assertThat(dirty).isEqualTo(expectedDirty);
+
+                // Hata giderilince aynı oyuncular bir sonraki grupta yazılır
+                event.markDirty(dirty.keySet());
+                try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + database);
+                     Statement statement = other.createStatement()) {
+                    statement.execute("DROP TRIGGER fail_stats");
+                }
+                assertThat(sql.applyDeliveryBatch(event, true, List.of(stat))).isTrue();
+                assertThat(describe(sql.loadActiveEvents())).isEqualTo(describeEvents(List.of(event)));
+                assertThat(sql.getAllPlayerStats()).containsEntry(PLAYERS[0], stat);
+            } finally {
+                sql.close();
+            }
+        } finally {
+            deleteFolder(folder);
+        }
+    }
+
+    private static ActiveEvent newEvent(String name, MutableClock clock) {
+        ZonedDateTime start = ZonedDateTime.ofInstant(Instant.ofEpochMilli(clock.millis()), ZONE);
+        return new ActiveEvent(name, "ores", "DIAMOND", start, start.plusHours(2), ZONE, clock);
+    }
+
+    /** Karşılaştırma için etkinlikleri isim, zaman ve sayılarla özetler; zamanlar milisaniye olarak. */
+    private static Map<String, Object> describe(List<DataStorage.SavedEventData> events) {
+        Map<String, Object> described = new TreeMap<>();
+        for (DataStorage.SavedEventData event : events) {
+            described.put(event.deliveryName(), List.of(event.category(), event.item(),
+                event.startTime().toInstant().toEpochMilli(), event.endTime().toInstant().toEpochMilli(),
+                event.timezone(), new HashMap<>(event.playerDeliveries())));
+        }
+        return described;
+    }
+
+    private static Map<String, Object> describeEvents(List<ActiveEvent> events) {
+        Map<String, Object> described = new TreeMap<>();
+        for (ActiveEvent event : events) {
+            Map<UUID, Integer> deliveries = new HashMap<>();
+            event.forEachDelivery((msb, lsb, count) -> deliveries.put(new UUID(msb, lsb), count));
+            described.put(event.getDeliveryName(), List.of(event.getResolvedCategory(), event.getResolvedItem(),
+                event.getStartMillis(), event.getEndMillis(), event.getTimezone(), deliveries));
+        }
+        return described;
+    }
+
+    private static Map<UUID, DataStorage.PlayerStats> byUuid(List<DataStorage.PlayerStats> stats) {
+        Map<UUID, DataStorage.PlayerStats> map = new HashMap<>();
+        stats.forEach(stat -> map.put(stat.uuid(), stat));
+        return map;
+    }
+
+    private static void deleteFolder(File folder) throws IOException {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        Files.deleteIfExists(folder.toPath());
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<Map<Integer, Integer>> deliveries() {
+        return Arbitraries.maps(
+            Arbitraries.integers().between(0, PLAYERS.length - 1),
+            Arbitraries.integers().between(1, 500)
+        ).ofMinSize(1).ofMaxSize(PLAYERS.length);
+    }
+
+    @Provide
+    Arbitrary<List<Map<Integer, Integer>>> eventDeliveries() {
+        return deliveries().list().ofMinSize(1).ofMaxSize(4);
+    }
+
+    @Provide
+    Arbitrary<List<DataStorage.PlayerStats>> stats() {
+        return Arbitraries.subsetOf(List.of(PLAYERS)).map(players -> {
+            List<DataStorage.PlayerStats> stats = new ArrayList<>();
+            int i = 0;
+            for (UUID player : players) {
+                stats.add(new DataStorage.PlayerStats(player, "Oyuncu" + i, 10 * (i + 1), 1_700_000_000_000L + i));
+                i++;
+            }
+            return stats;
+        });
+    }
+}
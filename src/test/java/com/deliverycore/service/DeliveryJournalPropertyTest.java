@@ -0,0 +1,259 @@
+package com.deliverycore.service;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Property-based tests for DeliveryJournal.
+ */
+class DeliveryJournalPropertyTest {
+
+    /**
+     * Feature: delivery-core, Property 43: Journal Replay Round-Trip
+     * For any appended records, replay after a sequence should return exactly
+     * the newer records in append order, also after reopening the file.
+     */
+    @Property(tries = 50)
+    void journalReplayRoundTrip(
+            @ForAll("deliveries") List<Integer> amounts,
+            @ForAll @IntRange(min = 0, max = 40) int afterSequence) throws IOException {
+
+        File file = tempJournal();
+        List<String> expected = new ArrayList<>();
+        try (DeliveryJournal journal = new DeliveryJournal(file, false)) {
+            long seq = journal.appendEventStarted("haftalik", "ores", "DIAMOND", 1_000L, Long.MAX_VALUE, "Europe/Istanbul");
+            expected.add(seq + ":start:haftalik:ores:DIAMOND:1000:Europe/Istanbul");
+            for (int i = 0; i < amounts.size(); i++) {
+                UUID player = new UUID(0L, i % 5);
+                String name = i % 3 == 0 ? null : "Oyuncu" + (i % 5);
+                if (i % 2 == 0) {
+                    seq = journal.appendParticipant("haftalik", player, amounts.get(i));
+                    expected.add(seq + ":participant:haftalik:" + player + ":" + amounts.get(i));
+                } else {
+                    seq = journal.appendPlayerStats(player, name, amounts.get(i), 2_000L + i);
+                    expected.add(seq + ":stats:" + player + ":" + name + ":" + amounts.get(i) + ":" + (2_000L + i));
+                }
+            }
+            seq = journal.appendParticipant("haftalik", new UUID(0L, 7L), 64);
+            expected.add(seq + ":participant:haftalik:" + new UUID(0L, 7L) + ":64");
+            seq = journal.appendPlayerStats(new UUID(0L, 7L), "Oyuncu7", 128, 3_000L);
+            expected.add(seq + ":stats:" + new UUID(0L, 7L) + ":Oyuncu7:128:3000");
+            seq = journal.appendBucketCount(SeasonCounters.Granularity.DAY, 20_000L, new UUID(0L, 7L), 96);
+            expected.add(seq + ":bucket:DAY:20000:" + new UUID(0L, 7L) + ":96");
+            seq = journal.appendEventWindow("haftalik", 9_000L);
+            expected.add(seq + ":window:haftalik:9000");
+            seq = journal.appendEventEnded("haftalik");
+            expected.add(seq + ":end:haftalik");
+            journal.flush();
+
+            assertThat(replay(journal, afterSequence)).isEqualTo(newerThan(expected, afterSequence));
+        }
+
+        try (DeliveryJournal reopened = new DeliveryJournal(file, false)) {
+            assertThat(reopened.getLastSequence()).isEqualTo(expected.size());
+            assertThat(replay(reopened, afterSequence)).isEqualTo(newerThan(expected, afterSequence));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    /**
+     * Feature: delivery-core, Property 43: Journal Replay Round-Trip
+     * A torn tail should be cut off on reopen, later appends should replay,
+     * and sequences should keep counting across a rotation, also one whose
+     * move failed.
+     */
+    @Property(tries = 50)
+    void tornTailTruncatedAndSequenceContinues(
+            @ForAll @IntRange(min = 1, max = 20) int records,
+            @ForAll @IntRange(min = 1, max = 30) int tornBytes) throws IOException {
+
+        File file = tempJournal();
+        File sealed = new File(file.getPath() + ".1");
+        try {
+            long fullLength;
+            try (DeliveryJournal journal = new DeliveryJournal(file, false)) {
+                for (int i = 0; i < records; i++) {
+                    journal.appendParticipant("haftalik", new UUID(0L, i), 1);
+                }
+                journal.flush();
+                fullLength = file.length();
+                journal.appendParticipant("haftalik", new UUID(0L, records), 1);
+            }
+            // Son kaydın ortasında kesilmiş gibi davran
+            long lastRecordLength = file.length() - fullLength;
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(fullLength + Math.min(tornBytes, lastRecordLength - 1));
+            }
+
+            try (DeliveryJournal journal = new DeliveryJournal(file, false)) {
+                assertThat(journal.getLastSequence()).isEqualTo(records);
+                assertThat(journal.appendEventEnded("haftalik")).isEqualTo(records + 1);
+                journal.flush();
+                List<String> replayed = replay(journal, 0L);
+                assertThat(replayed).hasSize(records + 1);
+                assertThat(replayed.get(records)).isEqualTo((records + 1) + ":end:haftalik");
+
+                // Boş olmayan dizin hedefi: taşıma başarısız, günlük açık kalır
+                assertThat(sealed.mkdir()).isTrue();
+                File blocker = new File(sealed, "x");
+                assertThat(blocker.createNewFile()).isTrue();
+                assertThatThrownBy(() -> journal.rotate(sealed)).isInstanceOf(IOException.class);
+                assertThat(blocker.delete() && sealed.delete()).isTrue();
+                assertThat(journal.appendEventEnded("gunluk")).isEqualTo(records + 2);
+                journal.flush();
+                assertThat(replay(journal, records + 1)).containsExactly((records + 2) + ":end:gunluk");
+
+                journal.rotate(sealed);
+                assertThat(replay(journal, 0L)).isEmpty();
+                assertThat(journal.appendEventEnded("aylik")).isEqualTo(records + 3);
+            }
+
+            try (DeliveryJournal journal = new DeliveryJournal(file, false)) {
+                assertThat(replay(journal, records + 2)).containsExactly((records + 3) + ":end:aylik");
+            }
+        } finally {
+            Files.deleteIfExists(file.toPath());
+            Files.deleteIfExists(sealed.toPath());
+        }
+    }
+
+    /**
+     * Feature: delivery-core, Property 44: Sealed Segment Preserves Records
+     * For any split of appends around a rotation, replaying the sealed
+     * segment and then the live journal should return every record once,
+     * in order, and sequences should continue after reopening.
+     */
+    @Property(tries = 50)
+    void sealedSegmentPreservesRecords(
+            @ForAll @IntRange(min = 0, max = 20) int beforeRotate,
+            @ForAll @IntRange(min = 0, max = 20) int afterRotate,
+            @ForAll @IntRange(min = 0, max = 40) int snapshotSequence) throws IOException {
+
+        File file = tempJournal();
+        File sealed = new File(file.getPath() + ".1");
+        try {
+            try (DeliveryJournal journal = new DeliveryJournal(file, false)) {
+                for (int i = 0; i < beforeRotate; i++) {
+                    journal.appendEventWindow("haftalik", i);
+                }
+                journal.rotate(sealed);
+                assertThat(journal.getLastSequence()).isEqualTo(beforeRotate);
+                for (int i = 0; i < afterRotate; i++) {
+                    journal.appendEventWindow("haftalik", beforeRotate + i);
+                }
+                journal.flush();
+            }
+
+            List<Long> ends = new ArrayList<>();
+            DeliveryJournal.Visitor visitor = new DeliveryJournal.Visitor() {
+                @Override
+                public void eventStarted(long seq, String deliveryName, String category, String item,
+                                         long startMillis, long endMillis, String zoneId) {
+                }
+
+                @Override
+                public void eventWindow(long seq, String deliveryName, long endMillis) {
+                    assertThat(seq).isEqualTo(endMillis + 1);
+                    ends.add(endMillis);
+                }
+
+                @Override
+                public void eventEnded(long seq, String deliveryName) {
+                }
+
+                @Override
+                public void participant(long seq, String deliveryName, UUID playerUuid, int amount) {
+                }
+
+                @Override
+                public void playerStats(long seq, UUID playerUuid, String playerName, int totalDeliveries, long lastActive) {
+                }
+
+                @Override
+                public void bucketCount(long seq, SeasonCounters.Granularity granularity, long bucket,
+                                        UUID playerUuid, int amount) {
+                }
+            };
+            DeliveryJournal.replay(sealed, snapshotSequence, visitor);
+            try (DeliveryJournal reopened = new DeliveryJournal(file, false)) {
+                reopened.replay(snapshotSequence, visitor);
+                assertThat(reopened.getLastSequence()).isEqualTo(beforeRotate + afterRotate);
+            }
+
+            int total = beforeRotate + afterRotate;
+            List<Long> expected = new ArrayList<>();
+            for (long i = Math.min(snapshotSequence, total); i < total; i++) {
+                expected.add(i);
+            }
+            assertThat(ends).isEqualTo(expected);
+        } finally {
+            Files.deleteIfExists(file.toPath());
+            Files.deleteIfExists(sealed.toPath());
+        }
+    }
+
+    private static List<String> newerThan(List<String> records, long afterSequence) {
+        return records.subList((int) Math.min(afterSequence, records.size()), records.size());
+    }
+
+    private static List<String> replay(DeliveryJournal journal, long afterSequence) throws IOException {
+        List<String> out = new ArrayList<>();
+        journal.replay(afterSequence, new DeliveryJournal.Visitor() {
+            @Override
+            public void eventStarted(long seq, String deliveryName, String category, String item,
+                                     long startMillis, long endMillis, String zoneId) {
+                out.add(seq + ":start:" + deliveryName + ":" + category + ":" + item + ":" + startMillis + ":" + zoneId);
+            }
+
+            @Override
+            public void eventWindow(long seq, String deliveryName, long endMillis) {
+                out.add(seq + ":window:" + deliveryName + ":" + endMillis);
+            }
+
+            @Override
+            public void eventEnded(long seq, String deliveryName) {
+                out.add(seq + ":end:" + deliveryName);
+            }
+
+            @Override
+            public void participant(long seq, String deliveryName, UUID playerUuid, int amount) {
+                out.add(seq + ":participant:" + deliveryName + ":" + playerUuid + ":" + amount);
+            }
+
+            @Override
+            public void playerStats(long seq, UUID playerUuid, String playerName, int totalDeliveries, long lastActive) {
+                out.add(seq + ":stats:" + playerUuid + ":" + playerName + ":" + totalDeliveries + ":" + lastActive);
+            }
+
+            @Override
+            public void bucketCount(long seq, SeasonCounters.Granularity granularity, long bucket,
+                                    UUID playerUuid, int amount) {
+                out.add(seq + ":bucket:" + granularity + ":" + bucket + ":" + playerUuid + ":" + amount);
+            }
+        });
+        return out;
+    }
+
+    private static File tempJournal() throws IOException {
+        File file = Files.createTempFile("delivery", ".journal").toFile();
+        Files.delete(file.toPath());
+        return file;
+    }
+
+    @Provide
+    Arbitrary<List<Integer>> deliveries() {
+        return Arbitraries.integers().between(1, 2304).list().ofMinSize(0).ofMaxSize(30);
+    }
+}
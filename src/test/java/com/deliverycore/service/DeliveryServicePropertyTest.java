@@ -1,10 +1,13 @@
 package com.deliverycore.service;
 
+import com.deliverycore.model.LeaderboardEntry;
 import com.deliverycore.model.PlaceholderContext;
 import com.deliverycore.model.Winner;
+import com.deliverycore.util.MutableClock;
 import net.jqwik.api.*;
 import net.jqwik.api.constraints.IntRange;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
@@ -132,6 +135,424 @@ class DeliveryServicePropertyTest {
         }
     }
     
+    /**
+     * Feature: delivery-core, Property 29: Incremental Rank Consistency
+     * For any sequence of deliveries, the indexed rank of every player should
+     * equal their position in the leaderboard: one plus the number of players
+     * with a higher delivery count, or an equal count and a smaller UUID.
+     */
+    @Property(tries = 100)
+    void incrementalRankConsistency(
+            @ForAll("validEventData") EventData data,
+            @ForAll("deliverySequence") List<int[]> sequence) {
+        
+        ActiveEvent event = new ActiveEvent(
+            data.deliveryName, data.category, data.item,
+            data.startTime, data.endTime, data.timezone
+        );
+        UUID[] players = fixedPlayers(8);
+        
+        for (int[] step : sequence) {
+            event.recordDelivery(players[step[0]], step[1]);
+        }
+        
+        Map<UUID, Integer> deliveries = event.getPlayerDeliveries();
+        for (UUID player : players) {
+            Integer count = deliveries.get(player);
+            if (count == null) {
+                assertThat(event.getRank(player)).isZero();
+                continue;
+            }
+            long above = deliveries.entrySet().stream()
+                .filter(e -> e.getValue() > count
+                    || (e.getValue().equals(count) && e.getKey().compareTo(player) < 0))
+                .count();
+            assertThat(event.getRank(player)).isEqualTo((int) above + 1);
+            assertThat(event.getTopN(players.length).get((int) above).playerUuid()).isEqualTo(player);
+        }
+    }
+    
+    /**
+     * Feature: delivery-core, Property 30: Leaderboard Range Ordering
+     * For any sequence of deliveries, the entries between two positions should
+     * match the same slice of the fully sorted leaderboard.
+     */
+    @Property(tries = 100)
+    void leaderboardRangeOrdering(
+            @ForAll("validEventData") EventData data,
+            @ForAll("deliverySequence") List<int[]> sequence,
+            @ForAll @IntRange(min = 1, max = 10) int from,
+            @ForAll @IntRange(min = 0, max = 10) int length) {
+        
+        ActiveEvent event = new ActiveEvent(
+            data.deliveryName, data.category, data.item,
+            data.startTime, data.endTime, data.timezone
+        );
+        UUID[] players = fixedPlayers(8);
+        
+        for (int[] step : sequence) {
+            event.recordDelivery(players[step[0]], step[1]);
+        }
+        
+        List<Map.Entry<UUID, Integer>> expected = event.getPlayerDeliveries().entrySet().stream()
+            .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .toList();
+        
+        var range = event.getEntriesBetween(from, from + length - 1);
+        int expectedSize = Math.max(0, Math.min(expected.size(), from + length - 1) - from + 1);
+        assertThat(range).hasSize(expectedSize);
+        for (int i = 0; i < range.size(); i++) {
+            var entry = expected.get(from - 1 + i);
+            assertThat(range.get(i).position()).isEqualTo(from + i);
+            assertThat(range.get(i).playerUuid()).isEqualTo(entry.getKey());
+            assertThat(range.get(i).deliveryCount()).isEqualTo(entry.getValue());
+        }
+        assertThat(event.getTopN(expected.size()).size()).isEqualTo(expected.size());
+    }
+    
+    /**
+     * Feature: delivery-core, Property 33: Pipeline Coalescing Preserves Totals
+     * For any sequence of submitted deliveries, a flush should hand each player
+     * exactly once to the batch handler with the sum of their amounts, and
+     * nothing should remain pending afterwards.
+     */
+    @Property(tries = 100)
+    void pipelineCoalescingPreservesTotals(
+            @ForAll("validEventData") EventData data,
+            @ForAll("deliverySequence") List<int[]> sequence,
+            @ForAll @IntRange(min = 1, max = 100) int maxPending) {
+        
+        ActiveEvent event = new ActiveEvent(
+            data.deliveryName, data.category, data.item,
+            data.startTime, data.endTime, data.timezone
+        );
+        UUID[] players = fixedPlayers(8);
+        Map<UUID, Integer> applied = new HashMap<>();
+        
+        DeliveryPipeline pipeline = new DeliveryPipeline((e, batch) -> {
+            assertThat(e).isSameAs(event);
+            Set<UUID> seen = new HashSet<>();
+            for (DeliveryPipeline.PlayerBatch pb : batch) {
+                assertThat(seen.add(pb.playerUuid())).isTrue();
+                applied.merge(pb.playerUuid(), pb.amount(), Integer::sum);
+            }
+        }, maxPending);
+        
+        Map<UUID, Integer> expected = new HashMap<>();
+        for (int[] step : sequence) {
+            pipeline.submit(event, players[step[0]], "P" + step[0], step[1]);
+            expected.merge(players[step[0]], step[1], Integer::sum);
+            assertThat(pipeline.getPendingCount()).isLessThan(maxPending);
+        }
+        pipeline.flush();
+        
+        assertThat(pipeline.getPendingCount()).isZero();
+        assertThat(applied).isEqualTo(expected);
+    }
+    
+    /**
+     * Feature: delivery-core, Property 56: Early Flush Leaves The Submitting Thread
+     * For any sequence of submitted deliveries, reaching the backlog limit should
+     * hand at most one flush at a time to the flush executor, never run the batch
+     * handler on the submitting thread, and lose no delivery.
+     */
+    @Property(tries = 100)
+    void earlyFlushLeavesTheSubmittingThread(
+            @ForAll("validEventData") EventData data,
+            @ForAll("deliverySequence") List<int[]> sequence,
+            @ForAll @IntRange(min = 1, max = 20) int maxPending) {
+        
+        ActiveEvent event = new ActiveEvent(
+            data.deliveryName, data.category, data.item,
+            data.startTime, data.endTime, data.timezone
+        );
+        UUID[] players = fixedPlayers(8);
+        Thread submitter = Thread.currentThread();
+        boolean[] onWorker = {false};
+        Map<UUID, Integer> applied = new HashMap<>();
+        Deque<Runnable> scheduled = new ArrayDeque<>();
+        
+        DeliveryPipeline pipeline = new DeliveryPipeline((e, batch) -> {
+            assertThat(onWorker[0]).isTrue();
+            for (DeliveryPipeline.PlayerBatch pb : batch) {
+                applied.merge(pb.playerUuid(), pb.amount(), Integer::sum);
+            }
+        }, maxPending, scheduled::add);
+        
+        Map<UUID, Integer> expected = new HashMap<>();
+        int submitted = 0;
+        for (int[] step : sequence) {
+            pipeline.submit(event, players[step[0]], "P" + step[0], step[1]);
+            expected.merge(players[step[0]], step[1], Integer::sum);
+            submitted++;
+            assertThat(scheduled).hasSize(submitted >= maxPending ? 1 : 0);
+            assertThat(Thread.currentThread()).isSameAs(submitter);
+        }
+        
+        // Planlanan flush worker'da çalışır; sonra yeni bir flush planlanabilir
+        onWorker[0] = true;
+        while (!scheduled.isEmpty()) {
+            scheduled.poll().run();
+        }
+        pipeline.flush();
+        
+        assertThat(pipeline.getPendingCount()).isZero();
+        assertThat(applied).isEqualTo(expected);
+        if (maxPending > 1) {
+            onWorker[0] = false;
+            pipeline.submit(event, players[0], "P0", 1);
+            assertThat(scheduled).isEmpty();
+        }
+    }
+    
+    /**
+     * Feature: delivery-core, Property 35: Event Window Follows Injected Clock
+     * For any event window, an event should be active exactly while the injected
+     * clock is inside [start, end), and deliveries outside it should be rejected.
+     */
+    @Property(tries = 100)
+    void eventWindowFollowsInjectedClock(
+            @ForAll @IntRange(min = 1, max = 7 * 24 * 60) int durationMinutes,
+            @ForAll @IntRange(min = 0, max = 8 * 24 * 60) int probeMinutes) {
+        
+        ZoneId zone = ZoneId.of("Europe/Istanbul");
+        ZonedDateTime start = ZonedDateTime.of(2025, 3, 1, 20, 0, 0, 0, zone);
+        MutableClock clock = new MutableClock(start.toInstant().toEpochMilli());
+        ActiveEvent event = new ActiveEvent("weekly", "cat", "DIAMOND",
+            start, start.plusMinutes(durationMinutes), zone, clock);
+        
+        assertThat(event.isActive()).isTrue();
+        clock.advance(Duration.ofMinutes(probeMinutes));
+        
+        assertThat(event.isActive()).isEqualTo(probeMinutes < durationMinutes);
+        assertThat(event.getRemainingMillis())
+            .isEqualTo(Math.max(0L, (durationMinutes - probeMinutes) * 60_000L));
+        assertThat(event.getEndTime()).isEqualTo(start.plusMinutes(durationMinutes));
+    }
+    
+    /**
+     * Feature: delivery-core, Property 36: Published Snapshot Consistency
+     * For any sequence of deliveries, a freshly published snapshot should agree
+     * with the live ranks, counts and top-N, and stay unchanged by later deliveries.
+     */
+    @Property(tries = 100)
+    void publishedSnapshotConsistency(
+            @ForAll("validEventData") EventData data,
+            @ForAll("deliverySequence") List<int[]> sequence,
+            @ForAll("deliverySequence") List<int[]> later) {
+        
+        ActiveEvent event = new ActiveEvent(
+            data.deliveryName, data.category, data.item,
+            data.startTime, data.endTime, data.timezone
+        );
+        UUID[] players = fixedPlayers(8);
+        for (int[] step : sequence) {
+            event.recordDelivery(players[step[0]], step[1]);
+        }
+        
+        LeaderboardSnapshot snapshot = event.publishSnapshot();
+        assertThat(event.getSnapshotBacklog()).isZero();
+        assertThat(snapshot.getTotalDeliveries()).isEqualTo(event.getTotalDeliveries());
+        assertThat(snapshot.getParticipantCount()).isEqualTo(event.getParticipantCount());
+        assertThat(snapshot.getTop(10)).isEqualTo(event.getTopN(10));
+        for (UUID player : players) {
+            assertThat(snapshot.getRank(player)).isEqualTo(event.getRank(player));
+            assertThat(snapshot.getDeliveryCount(player)).isEqualTo(event.getPlayerDeliveryCount(player));
+        }
+        
+        List<LeaderboardEntry> before = snapshot.getTop(10);
+        int totalBefore = snapshot.getTotalDeliveries();
+        for (int[] step : later) {
+            event.recordDelivery(players[step[0]], step[1]);
+        }
+        assertThat(event.getSnapshot()).isSameAs(snapshot);
+        assertThat(event.getSnapshotBacklog()).isEqualTo(later.size());
+        assertThat(snapshot.getTop(10)).isEqualTo(before);
+        assertThat(snapshot.getTotalDeliveries()).isEqualTo(totalBefore);
+    }
+    
+    /**
+     * Feature: delivery-core, Property 37: Snapshot Publish Cadence
+     * The publisher should refresh a changed event once its snapshot is older than
+     * the interval or the backlog reaches the delivery threshold, and never otherwise.
+     */
+    @Property(tries = 100)
+    void snapshotPublishCadence(
+            @ForAll @IntRange(min = 1, max = 20) int everyDeliveries,
+            @ForAll @IntRange(min = 0, max = 30) int deliveries,
+            @ForAll @IntRange(min = 0, max = 500) int elapsedMs) {
+        
+        ZoneId zone = ZoneId.of("UTC");
+        ZonedDateTime start = ZonedDateTime.of(2025, 1, 1, 12, 0, 0, 0, zone);
+        MutableClock clock = new MutableClock(start.toInstant().toEpochMilli());
+        ActiveEvent event = new ActiveEvent("cadence", "cat", "WHEAT",
+            start, start.plusHours(1), zone, clock);
+        DeliveryServiceImpl service = new DeliveryServiceImpl(null, null, null, clock);
+        service.restoreEvent(event);
+        LeaderboardPublisher publisher = new LeaderboardPublisher(service, 250, everyDeliveries);
+        
+        UUID player = new UUID(0L, 1L);
+        for (int i = 0; i < deliveries; i++) {
+            event.recordDelivery(player, 1);
+        }
+        clock.advance(Duration.ofMillis(elapsedMs));
+        
+        boolean due = deliveries > 0 && (deliveries >= everyDeliveries || elapsedMs >= 250);
+        assertThat(publisher.tick()).isEqualTo(due ? 1 : 0);
+        assertThat(event.getSnapshot().getTotalDeliveries()).isEqualTo(due ? deliveries : 0);
+    }
+    
+    /**
+     * Feature: delivery-core, Property 38: Single-Pass Inventory Routing
+     * For any inventory, every stack whose material is wanted by a running event
+     * should be routed exactly once, to the wanting event that ends soonest,
+     * and stacks nobody wants should be left out.
+     */
+    @Property(tries = 100)
+    void singlePassInventoryRouting(
+            @ForAll("inventoryContents") List<Optional<org.bukkit.inventory.ItemStack>> inventory) {
+        
+        ZoneId zone = ZoneId.of("UTC");
+        ZonedDateTime start = ZonedDateTime.of(2025, 1, 1, 12, 0, 0, 0, zone);
+        MutableClock clock = new MutableClock(start.toInstant().toEpochMilli());
+        DeliveryServiceImpl service = new DeliveryServiceImpl(null, null, null, clock);
+        
+        ActiveEvent diamondLong = new ActiveEvent("d_long", "ores", "DIAMOND", start, start.plusHours(5), zone, clock);
+        ActiveEvent diamondShort = new ActiveEvent("d_short", "ores", "diamond", start, start.plusHours(2), zone, clock);
+        ActiveEvent wheat = new ActiveEvent("wheat", "farm", "WHEAT", start, start.plusHours(1), zone, clock);
+        service.restoreEvent(diamondLong);
+        service.restoreEvent(diamondShort);
+        service.restoreEvent(wheat);
+        
+        org.bukkit.inventory.ItemStack[] contents = inventory.stream()
+            .map(o -> o.orElse(null))
+            .toArray(org.bukkit.inventory.ItemStack[]::new);
+        
+        Map<String, Integer> expected = new HashMap<>();
+        for (org.bukkit.inventory.ItemStack stack : contents) {
+            if (stack == null) continue;
+            switch (stack.getType()) {
+                case DIAMOND -> expected.merge("d_short", stack.getAmount(), Integer::sum);
+                case WHEAT -> expected.merge("wheat", stack.getAmount(), Integer::sum);
+                default -> { }
+            }
+        }
+        
+        Map<String, Integer> routed = new HashMap<>();
+        Set<Integer> usedSlots = new HashSet<>();
+        for (DeliveryService.DeliveryRoute route : service.routeContents(contents)) {
+            int sum = 0;
+            for (int slot : route.slots()) {
+                assertThat(usedSlots.add(slot)).isTrue();
+                sum += contents[slot].getAmount();
+            }
+            assertThat(sum).isEqualTo(route.amount());
+            routed.put(route.event().getDeliveryName(), route.amount());
+        }
+        assertThat(routed).isEqualTo(expected);
+        assertThat(service.getActiveEventsFor(org.bukkit.Material.DIAMOND)).hasSize(2);
+        
+        // Biten etkinlik indeksten çıkar
+        service.endEvent("d_short");
+        assertThat(service.getActiveEventsFor(org.bukkit.Material.DIAMOND)).containsExactly(diamondLong);
+    }
+    
+    /**
+     * Feature: delivery-core, Property 40: Item Metadata Resolved Once
+     * For any item name casing, the event should resolve the same material once,
+     * take its display name from the catalog the service was given, and pick up
+     * catalog changes only when re-bound.
+     */
+    @Property(tries = 100)
+    void itemMetadataResolvedOnce(
+            @ForAll("materials") org.bukkit.Material material,
+            @ForAll boolean lowerCase,
+            @ForAll("displayNames") String displayName) {
+
+        ZoneId zone = ZoneId.of("UTC");
+        ZonedDateTime start = ZonedDateTime.of(2025, 1, 1, 12, 0, 0, 0, zone);
+        ItemCatalog catalog = new ItemCatalog();
+        catalog.setDisplayName(material, displayName);
+        DeliveryServiceImpl service = new DeliveryServiceImpl(null, null, null, new MutableClock(start.toInstant().toEpochMilli()));
+        service.setItemCatalog(catalog);
+
+        String itemName = lowerCase ? material.name().toLowerCase() : material.name();
+        ActiveEvent event = new ActiveEvent("meta", "cat", itemName, start, start.plusHours(1), zone);
+        service.restoreEvent(event);
+
+        assertThat(event.getMaterial()).isEqualTo(material);
+        assertThat(event.getItemDisplayName()).isEqualTo(displayName);
+        assertThat(event.getItemMetadata()).isSameAs(catalog.get(material));
+        assertThat(service.getActiveEventsFor(material)).containsExactly(event);
+
+        catalog.setDisplayName(material, displayName + "!");
+        assertThat(event.getItemDisplayName()).isEqualTo(displayName);
+        event.bindItemMetadata(catalog);
+        assertThat(event.getItemDisplayName()).isEqualTo(displayName + "!");
+
+        ActiveEvent unknown = new ActiveEvent("custom", "cat", "NOT_A_MATERIAL", start, start.plusHours(1), zone);
+        assertThat(unknown.getMaterial()).isNull();
+        assertThat(unknown.getItemDisplayName()).isEqualTo("NOT A MATERIAL");
+    }
+
+    /**
+     * Feature: delivery-core, Property 45: Dirty Participants Drain Once
+     * For any deliveries split into persist rounds, each round should hand out
+     * exactly the players that delivered since the previous round, once each,
+     * with their current totals; replaying the rounds should rebuild the event.
+     */
+    @Property(tries = 100)
+    void dirtyParticipantsDrainOnce(
+            @ForAll("validEventData") EventData data,
+            @ForAll("deliverySequence") List<int[]> sequence,
+            @ForAll @IntRange(min = 1, max = 10) int roundSize) {
+
+        ActiveEvent event = new ActiveEvent(
+            data.deliveryName, data.category, data.item,
+            data.startTime, data.endTime, data.timezone
+        );
+        UUID[] players = fixedPlayers(8);
+        Map<UUID, Integer> persisted = new HashMap<>();
+
+        for (int start = 0; start < sequence.size(); start += roundSize) {
+            Set<UUID> touched = new HashSet<>();
+            for (int[] step : sequence.subList(start, Math.min(sequence.size(), start + roundSize))) {
+                event.recordDelivery(players[step[0]], step[1]);
+                touched.add(players[step[0]]);
+            }
+            assertThat(event.getDirtyCount()).isEqualTo(touched.size());
+
+            List<UUID> drained = new ArrayList<>();
+            List<ActiveEvent.ParticipantCount> changed = event.drainDirty();
+            for (ActiveEvent.ParticipantCount participant : changed) {
+                drained.add(participant.playerUuid());
+                assertThat(participant.count()).isEqualTo(event.getPlayerDeliveryCount(participant.playerUuid()));
+                persisted.put(participant.playerUuid(), participant.count());
+            }
+            assertThat(changed).hasSize(touched.size());
+            assertThat(drained).containsExactlyInAnyOrderElementsOf(touched);
+            assertThat(event.getDirtyCount()).isZero();
+        }
+
+        assertThat(persisted).isEqualTo(event.getPlayerDeliveries());
+        assertThat(event.drainDirty()).isEmpty();
+
+        // Geri yüklenen etkinlik kirli başlamaz
+        ActiveEvent restored = new DataStorage.SavedEventData(data.deliveryName, data.category, data.item,
+            data.startTime, data.endTime, data.timezone, persisted).toActiveEvent();
+        assertThat(restored.getDirtyCount()).isZero();
+        assertThat(restored.getPlayerDeliveries()).isEqualTo(persisted);
+    }
+
+    private static UUID[] fixedPlayers(int count) {
+        UUID[] players = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = new UUID(0L, i + 1L);
+        }
+        return players;
+    }
+    
     // ==================== Test Data Classes ====================
     
     record EventData(
@@ -167,6 +588,26 @@ class DeliveryServicePropertyTest {
             .ofMaxSize(20);
     }
     
+    @Provide
+    Arbitrary<List<int[]>> deliverySequence() {
+        return Combinators.combine(
+            Arbitraries.integers().between(0, 7),
+            Arbitraries.integers().between(1, 50)
+        ).as((player, amount) -> new int[]{player, amount})
+            .list()
+            .ofMinSize(0)
+            .ofMaxSize(60);
+    }
+    
+    @Provide
+    Arbitrary<List<Optional<org.bukkit.inventory.ItemStack>>> inventoryContents() {
+        Arbitrary<org.bukkit.inventory.ItemStack> stacks = Combinators.combine(
+            Arbitraries.of(org.bukkit.Material.DIAMOND, org.bukkit.Material.WHEAT, org.bukkit.Material.STONE),
+            Arbitraries.integers().between(1, 64)
+        ).as(org.bukkit.inventory.ItemStack::new);
+        return stacks.optional(0.7).list().ofMinSize(0).ofMaxSize(41);
+    }
+    
     @Provide
     Arbitrary<Map<UUID, Integer>> playerDeliveries() {
         return Arbitraries.integers()
@@ -182,4 +623,15 @@ class DeliveryServicePropertyTest {
                 return map;
             });
     }
+    
+    @Provide
+    Arbitrary<org.bukkit.Material> materials() {
+        return Arbitraries.of(org.bukkit.Material.DIAMOND, org.bukkit.Material.WHEAT,
+            org.bukkit.Material.STONE, org.bukkit.Material.GOLD_INGOT);
+    }
+    
+    @Provide
+    Arbitrary<String> displayNames() {
+        return Arbitraries.strings().withCharRange('a', 'z').withChars('ş', 'ğ', ' ').ofMinLength(1).ofMaxLength(20);
+    }
 }
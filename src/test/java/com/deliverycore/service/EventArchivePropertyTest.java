@@ -0,0 +1,143 @@
+package com.deliverycore.service;
+
+import com.deliverycore.model.LeaderboardEntry;
+import com.deliverycore.util.MutableClock;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for EventArchive.
+ */
+class EventArchivePropertyTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Istanbul");
+
+    /**
+     * Feature: delivery-core, Property 48: Archive Queries Match Ended Events
+     * For any sequence of ended events, the archive reopened from disk should
+     * return each event's full ranking by name and date, every player's
+     * results newest first, and the highest single-event score, across
+     * rolled segments and a torn index tail.
+     */
+    @Property(tries = 30)
+    void archiveQueriesMatchEndedEvents(
+            @ForAll("events") List<Map<Integer, Integer>> events,
+            @ForAll @IntRange(min = 64, max = 2048) int segmentBytes,
+            @ForAll @IntRange(min = 1, max = 12) int tornBytes) throws IOException {
+
+        File directory = Files.createTempDirectory("archive").toFile();
+        UUID[] players = new UUID[8];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new UUID(i % 2 == 0 ? -i : i, i);
+        }
+        MutableClock clock = new MutableClock(1_760_000_000_000L);
+        List<List<LeaderboardEntry>> expectedRankings = new ArrayList<>();
+        List<LocalDate> dates = new ArrayList<>();
+        try {
+            EventArchive archive = new EventArchive(directory, clock, segmentBytes);
+            for (int i = 0; i < events.size(); i++) {
+                ZonedDateTime start = ZonedDateTime.ofInstant(Instant.ofEpochMilli(clock.millis()), ZONE);
+                ActiveEvent event = new ActiveEvent("etkinlik" + (i % 3), "ores", "DIAMOND", start, start.plusHours(1), ZONE, clock);
+                Map<UUID, Integer> counts = new HashMap<>();
+                events.get(i).forEach((player, amount) -> counts.put(players[player], amount));
+                counts.forEach(event::recordDelivery);
+                clock.advance(Duration.ofMinutes(30));
+
+                EventArchive.EventSummary summary = archive.append(event);
+                assertThat(summary.id()).isEqualTo(i + 1);
+                expectedRankings.add(rank(counts));
+                dates.add(LocalDate.ofInstant(Instant.ofEpochMilli(clock.millis()), ZONE));
+                clock.advance(Duration.ofHours(20));
+            }
+
+            // Son kaydın ortasında kesilmiş dizin sonu: yeniden açınca yok sayılır, sonraki ekleme aynı kimliği alır
+            File index = new File(directory, "index.dat");
+            try (RandomAccessFile raf = new RandomAccessFile(index, "rw")) {
+                raf.seek(raf.length());
+                raf.write(new byte[tornBytes]);
+            }
+
+            EventArchive reopened = new EventArchive(directory, clock, segmentBytes);
+            assertThat(reopened.getEventCount()).isEqualTo(events.size());
+
+            int bestScore = 0;
+            for (int i = 0; i < events.size(); i++) {
+                List<EventArchive.EventSummary> found = reopened.findEvents("ETKINLIK" + (i % 3), dates.get(i));
+                long id = i + 1;
+                EventArchive.EventSummary summary = found.stream()
+                    .filter(candidate -> candidate.id() == id)
+                    .findFirst().orElseThrow();
+                assertThat(reopened.readResults(summary)).isEqualTo(expectedRankings.get(i));
+                assertThat(summary.participants()).isEqualTo(expectedRankings.get(i).size());
+                for (LeaderboardEntry entry : expectedRankings.get(i)) {
+                    bestScore = Math.max(bestScore, entry.deliveryCount());
+                }
+            }
+
+            for (UUID player : players) {
+                List<int[]> expected = new ArrayList<>();
+                for (int i = events.size() - 1; i >= 0; i--) {
+                    for (LeaderboardEntry entry : expectedRankings.get(i)) {
+                        if (entry.playerUuid().equals(player)) {
+                            expected.add(new int[]{i + 1, entry.deliveryCount(), entry.position()});
+                        }
+                    }
+                }
+                List<EventArchive.PlayerResult> history = reopened.getPlayerHistory(player, 5);
+                assertThat(history).hasSize(Math.min(5, expected.size()));
+                for (int i = 0; i < history.size(); i++) {
+                    assertThat(history.get(i).event().id()).isEqualTo(expected.get(i)[0]);
+                    assertThat(history.get(i).amount()).isEqualTo(expected.get(i)[1]);
+                    assertThat(history.get(i).rank()).isEqualTo(expected.get(i)[2]);
+                }
+            }
+
+            int expectedBest = bestScore;
+            assertThat(reopened.getBestEver().map(EventArchive.EventSummary::bestScore).orElse(0))
+                .isEqualTo(expectedBest);
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+            Files.deleteIfExists(directory.toPath());
+        }
+    }
+
+    private static List<LeaderboardEntry> rank(Map<UUID, Integer> counts) {
+        List<Map.Entry<UUID, Integer>> sorted = counts.entrySet().stream()
+            .filter(entry -> entry.getValue() > 0)
+            .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .toList();
+        List<LeaderboardEntry> ranking = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            ranking.add(new LeaderboardEntry(sorted.get(i).getKey(), sorted.get(i).getValue(), i + 1));
+        }
+        return ranking;
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<List<Map<Integer, Integer>>> events() {
+        return Arbitraries.maps(Arbitraries.integers().between(0, 7), Arbitraries.integers().between(1, 500))
+            .ofMaxSize(8)
+            .list().ofMinSize(1).ofMaxSize(12);
+    }
+}
@@ -0,0 +1,93 @@
+package com.deliverycore.service;
+
+import com.deliverycore.model.LeaderboardEntry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for PlayerStatsStore.
+ */
+class PlayerStatsStorePropertyTest {
+
+    /**
+     * Feature: delivery-core, Property 46: Incremental Top-N Matches Full Sort
+     * For any loaded stats followed by any deliveries, the incrementally kept
+     * ranking should equal the first N players of a full sort by total
+     * descending and UUID ascending, and the drained changes should hold the
+     * absolute totals of exactly the players that delivered.
+     */
+    @Property(tries = 100)
+    void incrementalTopMatchesFullSort(
+            @ForAll("players") List<UUID> pool,
+            @ForAll("loads") List<Integer> loaded,
+            @ForAll("deliveries") List<Integer> deliveries,
+            @ForAll @IntRange(min = 1, max = 8) int topSize) {
+
+        PlayerStatsStore store = new PlayerStatsStore(topSize);
+        Map<UUID, Integer> totals = new HashMap<>();
+        for (int i = 0; i < loaded.size() && i < pool.size(); i++) {
+            UUID uuid = pool.get(i);
+            store.load(new DataStorage.PlayerStats(uuid, "Eski" + i, loaded.get(i), 1_000L));
+            totals.put(uuid, loaded.get(i));
+        }
+        assertThat(store.getDirtyCount()).isZero();
+
+        Map<UUID, Integer> delivered = new HashMap<>();
+        for (int i = 0; i < deliveries.size(); i++) {
+            int value = deliveries.get(i);
+            UUID uuid = pool.get(value % pool.size());
+            int amount = 1 + value / pool.size() % 5;
+            int total = store.record(uuid, "Oyuncu" + i, amount, 2_000L + i);
+            totals.merge(uuid, amount, Integer::sum);
+            delivered.put(uuid, totals.get(uuid));
+            assertThat(total).isEqualTo(totals.get(uuid));
+        }
+
+        List<Map.Entry<UUID, Integer>> expected = totals.entrySet().stream()
+            .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(topSize)
+            .toList();
+        List<LeaderboardEntry> top = store.getTop(topSize + 1);
+        assertThat(top).hasSize(expected.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertThat(top.get(i).playerUuid()).isEqualTo(expected.get(i).getKey());
+            assertThat(top.get(i).deliveryCount()).isEqualTo(expected.get(i).getValue());
+            assertThat(top.get(i).position()).isEqualTo(i + 1);
+            assertThat(store.getPosition(top.get(i).playerUuid())).isEqualTo(i + 1);
+        }
+
+        Map<UUID, Integer> drained = new HashMap<>();
+        for (DataStorage.PlayerStats stats : store.drainDirty()) {
+            drained.put(stats.uuid(), stats.totalDeliveries());
+        }
+        assertThat(drained).isEqualTo(delivered);
+        assertThat(store.drainDirty()).isEmpty();
+        assertThat(store.size()).isEqualTo(totals.size());
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<List<UUID>> players() {
+        Arbitrary<UUID> uuids = Combinators.combine(
+            Arbitraries.longs(), Arbitraries.longs()
+        ).as(UUID::new);
+        return uuids.list().uniqueElements().ofMinSize(1).ofMaxSize(20);
+    }
+
+    @Provide
+    Arbitrary<List<Integer>> loads() {
+        // narrow ranges force plenty of ties
+        return Arbitraries.integers().between(1, 12).list().ofMaxSize(10);
+    }
+
+    @Provide
+    Arbitrary<List<Integer>> deliveries() {
+        return Arbitraries.integers().between(0, 10_000).list().ofMaxSize(80);
+    }
+}
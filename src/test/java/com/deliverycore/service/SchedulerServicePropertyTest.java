@@ -1,11 +1,31 @@
 package com.deliverycore.service;
 
+import com.deliverycore.config.CategoryConfigImpl;
+import com.deliverycore.config.DeliveryConfigImpl;
+import com.deliverycore.model.DeliveryDefinition;
+import com.deliverycore.model.RewardConfig;
+import com.deliverycore.model.ScheduleConfig;
+import com.deliverycore.model.SelectionConfig;
+import com.deliverycore.model.WebhookConfig;
+import com.deliverycore.util.MutableClock;
+import com.deliverycore.util.TimingWheel;
 import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
 
 import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -78,8 +98,215 @@ class SchedulerServicePropertyTest {
         assertThat(scheduler.isValidExpression(expression)).isFalse();
     }
 
+    /**
+     * Feature: delivery-core, Property 34: Simulated Week Next Occurrence
+     * For any valid expression, stepping an injected clock through a whole week
+     * should always yield a next occurrence strictly in the future, at most seven
+     * days ahead, and at the configured hour and minute.
+     */
+    @Property(tries = 50)
+    void simulatedWeekNextOccurrence(
+            @ForAll("validScheduleExpression") String expression,
+            @ForAll("validTimezone") ZoneId timezone,
+            @ForAll("epochStart") long startMillis) {
+        
+        MutableClock clock = new MutableClock(startMillis);
+        SchedulerService clocked = new SchedulerServiceImpl(null, clock);
+        String[] parts = expression.split(" ")[2].split(":");
+        int hour = Integer.parseInt(parts[0]);
+        int minute = Integer.parseInt(parts[1]);
+        
+        // 7 gün, 37 dakikalık adımlarla - saniyeler değil milisaniyeler sürer
+        for (int step = 0; step < 7 * 24 * 60 / 37; step++) {
+            ZonedDateTime next = clocked.getNextOccurrence(expression, timezone).orElseThrow();
+            long nowMillis = clock.millis();
+            
+            assertThat(next.toInstant().toEpochMilli()).isGreaterThan(nowMillis);
+            assertThat(Duration.between(Instant.ofEpochMilli(nowMillis), next.toInstant()))
+                .isLessThanOrEqualTo(Duration.ofDays(7).plusHours(1));
+            // DST geçişlerinde yerel saat kayabilir, dakika her zaman korunur
+            assertThat(next.getMinute()).isEqualTo(minute);
+            if (timezone.getRules().isFixedOffset()) {
+                assertThat(next.getHour()).isEqualTo(hour);
+            }
+            
+            clock.advance(Duration.ofMinutes(37));
+        }
+    }
+    
+    /**
+     * Feature: delivery-core, Property 53: Deadline Ends Follow The Wall Clock
+     * For any sequence of end deadlines, cancellations and clock jumps, each
+     * deadline still armed should end its event exactly once, never before the
+     * deadline and within one wheel tick after it regardless of how the clock
+     * was stepped; replaced or cancelled deadlines never fire, and the drift
+     * metric should add up the lateness of every end.
+     */
+    @Property(tries = 50)
+    void deadlineEndsFollowTheWallClock(
+            @ForAll("deadlineSteps") List<int[]> steps,
+            @ForAll("epochStart") long startMillis) {
+        
+        MutableClock clock = new MutableClock(startMillis);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            SchedulerServiceImpl clocked = new SchedulerServiceImpl(executor, clock);
+            Queue<String> ended = new ConcurrentLinkedQueue<>();
+            clocked.setEventEndCallback(ended::add);
+            Map<String, Long> armed = new HashMap<>();
+            long ends = 0;
+            long totalDrift = 0;
+            long maxDrift = 0;
+            
+            for (int[] step : steps) {
+                String name = "d" + step[1];
+                switch (step[0]) {
+                    case 0 -> {
+                        long deadline = clock.millis() + step[2];
+                        ZonedDateTime at = ZonedDateTime.ofInstant(Instant.ofEpochMilli(deadline), ZoneId.of("UTC"));
+                        assertThat(clocked.scheduleEndAt(name, at)).isTrue();
+                        armed.put(name, deadline);
+                    }
+                    case 1 -> assertThat(clocked.cancelEndAt(name)).isEqualTo(armed.remove(name) != null);
+                    default -> {
+                        clock.advance(Duration.ofMillis(step[2] * 7L));
+                        clocked.tick();
+                        long now = clock.millis();
+                        String fired;
+                        while ((fired = ended.poll()) != null) {
+                            Long deadline = armed.remove(fired);
+                            assertThat(deadline).isNotNull();
+                            assertThat(deadline).isLessThanOrEqualTo(now);
+                            ends++;
+                            totalDrift += now - deadline;
+                            maxDrift = Math.max(maxDrift, now - deadline);
+                        }
+                        // Tick sayısından bağımsız: son tarihten en geç bir tick sonra
+                        armed.values().forEach(deadline ->
+                            assertThat(now).isLessThan(deadline + SchedulerServiceImpl.TICK_MILLIS));
+                    }
+                }
+            }
+            
+            SchedulerService.EndDrift drift = clocked.getEndDrift();
+            assertThat(drift.ends()).isEqualTo(ends);
+            assertThat(drift.totalDriftMillis()).isEqualTo(totalDrift);
+            assertThat(drift.maxDriftMillis()).isEqualTo(maxDrift);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Feature: delivery-core, Property 57: Recurring Windows Survive Their Ends
+     * For any daily window, a delivery scheduled through a real DeliveryService
+     * should start and end on the wheel for two consecutive windows: ending the
+     * event must leave the next window's start armed.
+     */
+    @Property(tries = 30)
+    void recurringWindowsSurviveTheirEnds(
+            @ForAll @IntRange(min = 0, max = 23) int startHour,
+            @ForAll @IntRange(min = 0, max = 59) int startMinute,
+            @ForAll @IntRange(min = 1, max = 600) int lengthMinutes,
+            @ForAll("epochStart") long startMillis) {
+        
+        ZoneId utc = ZoneId.of("UTC");
+        int endOfDay = (startHour * 60 + startMinute + lengthMinutes) % (24 * 60);
+        DeliveryDefinition definition = new DeliveryDefinition(
+            "daily", true, false, SelectionConfig.fixed("ores"), SelectionConfig.fixed("DIAMOND"), utc,
+            new ScheduleConfig(String.format("every day %02d:%02d", startHour, startMinute),
+                String.format("every day %02d:%02d", endOfDay / 60, endOfDay % 60)),
+            1, RewardConfig.inventory("DIAMOND", 1), WebhookConfig.disabled());
+        
+        MutableClock clock = new MutableClock(startMillis);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            SchedulerServiceImpl clocked = new SchedulerServiceImpl(executor, clock);
+            DeliveryServiceImpl service = new DeliveryServiceImpl(
+                new DeliveryConfigImpl(List.of(definition)),
+                new CategoryServiceImpl(new CategoryConfigImpl(Map.of("ores", List.of("DIAMOND")))),
+                clocked, clock);
+            clocked.setEventStartCallback(service::startEvent);
+            clocked.setEventEndCallback(service::endEvent);
+            clocked.scheduleEvent(definition);
+            
+            List<ActiveEvent> windows = new ArrayList<>();
+            for (int window = 0; window < 2; window++) {
+                if (service.getActiveEvent("daily").isEmpty()) {
+                    clock.setMillis(nextFire(clocked, SchedulerService.FIRE_START).deadlineMillis());
+                    clocked.tick();
+                }
+                ActiveEvent event = service.getActiveEvent("daily").orElseThrow();
+                assertThat(windows).doesNotContain(event);
+                windows.add(event);
+                
+                clock.setMillis(nextFire(clocked, SchedulerService.FIRE_END).deadlineMillis());
+                clocked.tick();
+                assertThat(service.getActiveEvent("daily")).isEmpty();
+            }
+            // Bitişten sonra bir sonraki pencere hâlâ kurulu
+            assertThat(nextFire(clocked, SchedulerService.FIRE_START).deadlineMillis()).isGreaterThan(clock.millis());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Feature: delivery-core, Property 58: Open Window Keeps A Running Event
+     * For any daily window that is open when the delivery is scheduled, the
+     * start callback should run only if no event of that delivery is running;
+     * the window's end is armed either way.
+     */
+    @Property(tries = 50)
+    void openWindowKeepsARunningEvent(
+            @ForAll @IntRange(min = 1, max = 600) int minutesIntoWindow,
+            @ForAll boolean running,
+            @ForAll("epochStart") long startMillis) {
+        
+        ZonedDateTime now = Instant.ofEpochMilli(startMillis).atZone(ZoneId.of("UTC"));
+        ZonedDateTime start = now.minusMinutes(minutesIntoWindow);
+        ZonedDateTime end = now.plusMinutes(30);
+        DeliveryDefinition definition = new DeliveryDefinition(
+            "open", true, false, SelectionConfig.fixed("ores"), SelectionConfig.fixed("DIAMOND"), ZoneId.of("UTC"),
+            new ScheduleConfig(String.format("every day %02d:%02d", start.getHour(), start.getMinute()),
+                String.format("every day %02d:%02d", end.getHour(), end.getMinute())),
+            1, RewardConfig.inventory("DIAMOND", 1), WebhookConfig.disabled());
+        
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            SchedulerServiceImpl clocked = new SchedulerServiceImpl(executor, new MutableClock(startMillis));
+            Queue<String> started = new ConcurrentLinkedQueue<>();
+            clocked.setEventStartCallback(started::add);
+            clocked.setRunningCheck(name -> running);
+            clocked.scheduleEvent(definition);
+            
+            assertThat(started).hasSize(running ? 0 : 1);
+            assertThat(nextFire(clocked, SchedulerService.FIRE_END).deadlineMillis())
+                .isBetween(startMillis, startMillis + Duration.ofMinutes(30).toMillis());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static TimingWheel.Fire nextFire(SchedulerService scheduler, String label) {
+        return scheduler.getScheduledFires().stream()
+            .filter(fire -> fire.label().equals(label))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("no " + label + " timer armed"));
+    }
+    
     // ==================== Generators ====================
     
+    @Provide
+    Arbitrary<List<int[]>> deadlineSteps() {
+        // {işlem, teslimat, değer}: 0 bitiş kur (şimdi + değer ms), 1 iptal, 2-3 saati değer*7 ms ilerlet
+        return Combinators.combine(
+            Arbitraries.integers().between(0, 3),
+            Arbitraries.integers().between(0, 3),
+            Arbitraries.integers().between(0, 5000)
+        ).as((type, delivery, value) -> new int[]{type, delivery, value}).list().ofMaxSize(60);
+    }
+    
     @Provide
     Arbitrary<String> validScheduleExpression() {
         Arbitrary<String> dayOfWeek = Arbitraries.of(
@@ -121,6 +348,12 @@ class SchedulerServicePropertyTest {
         );
     }
     
+    @Provide
+    Arbitrary<Long> epochStart() {
+        // 2020-01-01 .. 2030-01-01
+        return Arbitraries.longs().between(1_577_836_800_000L, 1_893_456_000_000L);
+    }
+    
     @Provide
     Arbitrary<ZoneId> validTimezone() {
         return Arbitraries.of(
@@ -0,0 +1,106 @@
+package com.deliverycore.service;
+
+import com.deliverycore.model.LeaderboardEntry;
+import com.deliverycore.util.MutableClock;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for SeasonCounters.
+ */
+class SeasonCountersPropertyTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Istanbul");
+    private static final long START = 1_760_000_000_000L;
+
+    /**
+     * Feature: delivery-core, Property 47: Rolling Window Matches Raw History
+     * For any deliveries spread over time and any day range, the bucketed
+     * leaderboard should equal a full sort of the raw deliveries inside the
+     * range and the retention window, and counts drained to storage should
+     * rebuild the same leaderboard after a restart.
+     */
+    @Property(tries = 100)
+    void rollingWindowMatchesRawHistory(
+            @ForAll("deliveries") List<int[]> deliveries,
+            @ForAll @IntRange(min = 1, max = 10) int retentionDays,
+            @ForAll @IntRange(min = 0, max = 12) int fromDaysAgo,
+            @ForAll @IntRange(min = 0, max = 12) int rangeDays,
+            @ForAll @IntRange(min = 1, max = 6) int limit) {
+
+        MutableClock clock = new MutableClock(START);
+        SeasonCounters counters = new SeasonCounters(clock, ZONE, retentionDays, 24);
+        UUID[] players = new UUID[6];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new UUID(i % 2 == 0 ? -i : i, i);
+        }
+
+        List<long[]> raw = new ArrayList<>();
+        List<SeasonCounters.BucketCount> stored = new ArrayList<>();
+        for (int[] delivery : deliveries) {
+            clock.advance(Duration.ofMinutes(delivery[0]));
+            counters.record(players[delivery[1]], delivery[2]);
+            raw.add(new long[]{clock.millis(), delivery[1], delivery[2]});
+            if (delivery[0] % 7 == 0) {
+                // Ara kayıtlar: sonraki değerler öncekilerin üzerine yazılır
+                stored.addAll(counters.drainDirty());
+            }
+        }
+        stored.addAll(counters.drainDirty());
+
+        LocalDate today = counters.today();
+        LocalDate from = today.minusDays(fromDaysAgo);
+        LocalDate to = from.plusDays(rangeDays);
+        long oldestDay = today.toEpochDay() - retentionDays + 1;
+
+        Map<UUID, Integer> expectedTotals = new HashMap<>();
+        for (long[] delivery : raw) {
+            long day = LocalDate.ofInstant(Instant.ofEpochMilli(delivery[0]), ZONE).toEpochDay();
+            if (day < oldestDay || day < from.toEpochDay() || day > to.toEpochDay()) continue;
+            expectedTotals.merge(players[(int) delivery[1]], (int) delivery[2], Integer::sum);
+        }
+        List<Map.Entry<UUID, Integer>> expected = expectedTotals.entrySet().stream()
+            .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(limit)
+            .toList();
+
+        assertTop(counters.getTop(from, to, limit), expected);
+
+        SeasonCounters restored = new SeasonCounters(clock, ZONE, retentionDays, 24);
+        stored.forEach(restored::load);
+        assertTop(restored.getTop(from, to, limit), expected);
+        assertThat(restored.drainDirty()).isEmpty();
+        assertThat(counters.getBucketCount()).isLessThanOrEqualTo(retentionDays + 24);
+    }
+
+    private static void assertTop(List<LeaderboardEntry> top, List<Map.Entry<UUID, Integer>> expected) {
+        assertThat(top).hasSize(expected.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertThat(top.get(i).playerUuid()).isEqualTo(expected.get(i).getKey());
+            assertThat(top.get(i).deliveryCount()).isEqualTo(expected.get(i).getValue());
+            assertThat(top.get(i).position()).isEqualTo(i + 1);
+        }
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<List<int[]>> deliveries() {
+        // {dakika ilerleme, oyuncu, miktar}; birkaç saatten birkaç güne sıçramalar
+        Arbitrary<int[]> delivery = Combinators.combine(
+            Arbitraries.integers().between(0, 2 * 24 * 60),
+            Arbitraries.integers().between(0, 5),
+            Arbitraries.integers().between(1, 64)
+        ).as((minutes, player, amount) -> new int[]{minutes, player, amount});
+        return delivery.list().ofMaxSize(60);
+    }
+}
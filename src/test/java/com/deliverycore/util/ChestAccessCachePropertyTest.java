@@ -0,0 +1,74 @@
+package com.deliverycore.util;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for ChestAccessCache.
+ */
+class ChestAccessCachePropertyTest {
+
+    private static final UUID WORLD = new UUID(0L, 42L);
+
+    /**
+     * Feature: delivery-core, Property 42: Access Decisions Cached Until Expiry or Change
+     * For any decision, repeated checks within the TTL should not re-run the
+     * full check, while expiry or a change at the block or a neighbour should.
+     */
+    @Property(tries = 100)
+    void accessDecisionsCachedUntilExpiryOrChange(
+            @ForAll boolean allowed,
+            @ForAll @IntRange(min = 1, max = 10_000) int ttlMillis,
+            @ForAll @IntRange(min = 0, max = 20_000) int elapsedMillis,
+            @ForAll @IntRange(min = 0, max = 7) int changeAt) {
+
+        MutableClock clock = new MutableClock(1_000_000L);
+        ChestAccessCache cache = new ChestAccessCache(clock, ttlMillis, 64);
+        UUID player = new UUID(0L, 1L);
+        int[] checks = {0};
+
+        assertThat(cache.canAccess(player, WORLD, 10, 64, 10, () -> { checks[0]++; return allowed; })).isEqualTo(allowed);
+        assertThat(cache.canAccess(player, WORLD, 10, 64, 10, () -> { checks[0]++; return !allowed; })).isEqualTo(allowed);
+        assertThat(checks[0]).isEqualTo(1);
+
+        // Başka oyuncunun kararı paylaşılmaz
+        assertThat(cache.canAccess(new UUID(0L, 2L), WORLD, 10, 64, 10, () -> !allowed)).isEqualTo(!allowed);
+
+        clock.advance(Duration.ofMillis(elapsedMillis));
+        // 0-5: komşu/kendisi, 6: iki blok öte, 7: değişiklik yok
+        int[][] changes = {{0, 0, 0}, {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {2, 0, 0}, null};
+        int[] change = changes[changeAt];
+        boolean invalidated = change != null && Math.abs(change[0]) <= 1;
+        if (change != null) {
+            cache.invalidateAround(WORLD, 10 + change[0], 64 + change[1], 10 + change[2]);
+        }
+
+        boolean expired = elapsedMillis >= ttlMillis;
+        boolean result = cache.canAccess(player, WORLD, 10, 64, 10, () -> { checks[0]++; return !allowed; });
+        boolean recomputed = expired || invalidated;
+        assertThat(checks[0]).isEqualTo(recomputed ? 2 : 1);
+        assertThat(result).isEqualTo(recomputed ? !allowed : allowed);
+    }
+
+    /**
+     * Feature: delivery-core, Property 42: Access Decisions Cached Until Expiry or Change
+     * The number of cached positions should never exceed the configured bound.
+     */
+    @Property(tries = 50)
+    void cacheSizeStaysBounded(
+            @ForAll @IntRange(min = 1, max = 32) int maxBlocks,
+            @ForAll @IntRange(min = 0, max = 200) int positions) {
+
+        ChestAccessCache cache = new ChestAccessCache(new MutableClock(0L), 60_000L, maxBlocks);
+        UUID player = new UUID(0L, 1L);
+        for (int i = 0; i < positions; i++) {
+            cache.canAccess(player, WORLD, i, 64, 0, () -> true);
+            assertThat(cache.size()).isLessThanOrEqualTo(maxBlocks);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.deliverycore.util;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for InventoryDrain.
+ */
+class InventoryDrainPropertyTest {
+
+    /**
+     * Feature: delivery-core, Property 39: Drain Conserves Items
+     * For any contents and cap, the drain should take min(available, cap) of the
+     * target material, leave every other stack untouched, and never alias the
+     * original stacks it reduced.
+     */
+    @Property(tries = 100)
+    void drainConservesItems(
+            @ForAll("contents") ItemStack[] contents,
+            @ForAll @IntRange(min = 0, max = 300) int maxAmount) {
+
+        ItemStack[] original = new ItemStack[contents.length];
+        int[] originalAmounts = new int[contents.length];
+        int available = 0;
+        int others = 0;
+        for (int i = 0; i < contents.length; i++) {
+            original[i] = contents[i];
+            if (contents[i] == null) continue;
+            originalAmounts[i] = contents[i].getAmount();
+            if (contents[i].getType() == Material.DIAMOND) {
+                available += contents[i].getAmount();
+            } else {
+                others += contents[i].getAmount();
+            }
+        }
+
+        InventoryDrain.Result result = InventoryDrain.of(Material.DIAMOND, maxAmount).apply(contents);
+
+        int expected = maxAmount <= 0 ? available : Math.min(available, maxAmount);
+        assertThat(result.taken()).isEqualTo(expected);
+        assertThat(result.available()).isEqualTo(available);
+
+        int left = 0;
+        int othersLeft = 0;
+        for (int i = 0; i < contents.length; i++) {
+            // Kaynak yığınlar hiç değiştirilmemeli
+            if (original[i] != null) {
+                assertThat(original[i].getAmount()).isEqualTo(originalAmounts[i]);
+            }
+            if (contents[i] == null) continue;
+            assertThat(contents[i].getAmount()).isPositive();
+            if (contents[i].getType() == Material.DIAMOND) {
+                left += contents[i].getAmount();
+            } else {
+                assertThat(contents[i]).isSameAs(original[i]);
+                othersLeft += contents[i].getAmount();
+            }
+        }
+        assertThat(left).isEqualTo(available - expected);
+        assertThat(othersLeft).isEqualTo(others);
+    }
+
+    /**
+     * Feature: delivery-core, Property 39: Drain Conserves Items
+     * Draining twice with no cap should find nothing the second time.
+     */
+    @Property(tries = 100)
+    void uncappedDrainEmptiesMaterial(@ForAll("contents") ItemStack[] contents) {
+        InventoryDrain drain = InventoryDrain.of(Material.DIAMOND, 0);
+        drain.apply(contents);
+
+        InventoryDrain.Result second = drain.apply(contents);
+
+        assertThat(second.isEmpty()).isTrue();
+        assertThat(second.available()).isZero();
+        assertThat(second.slotsTouched()).isZero();
+    }
+
+    @Provide
+    Arbitrary<ItemStack[]> contents() {
+        Arbitrary<ItemStack> stack = Combinators.combine(
+            Arbitraries.of(Material.DIAMOND, Material.WHEAT, Material.STONE),
+            Arbitraries.integers().between(1, 64)
+        ).as(ItemStack::new);
+        return stack.injectNull(0.3).array(ItemStack[].class).ofMinSize(0).ofMaxSize(41);
+    }
+}
@@ -0,0 +1,100 @@
+package com.deliverycore.util;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Property-based tests for MainThreadBridge.
+ */
+class MainThreadBridgePropertyTest {
+
+    /**
+     * Feature: delivery-core, Property 52: Main Thread Bridge Runs Worker Posts On Owner
+     * For any number of worker threads posting stages concurrently, every stage
+     * should run exactly once, on the owning thread, in each worker's posting
+     * order; stages posted while draining wait for the next drain, failing
+     * stages do not stop the batch and other threads cannot drain.
+     */
+    @Property(tries = 30)
+    void mainThreadBridgeRunsWorkerPostsOnOwner(
+            @ForAll @Size(min = 1, max = 4) List<@IntRange(min = 0, max = 200) Integer> postsPerWorker,
+            @ForAll @IntRange(min = 0, max = 7) int failEvery) throws Exception {
+
+        Thread owner = Thread.currentThread();
+        MainThreadBridge bridge = new MainThreadBridge(owner);
+        List<List<Integer>> ran = new ArrayList<>();
+        for (int w = 0; w < postsPerWorker.size(); w++) {
+            ran.add(new ArrayList<>());
+        }
+        int[] chained = {0};
+
+        ExecutorService workers = Executors.newFixedThreadPool(postsPerWorker.size());
+        try {
+            List<CompletableFuture<Void>> producers = new ArrayList<>();
+            for (int w = 0; w < postsPerWorker.size(); w++) {
+                int worker = w;
+                int count = postsPerWorker.get(w);
+                producers.add(CompletableFuture.runAsync(() -> {
+                    assertThat(bridge.isMainThread()).isFalse();
+                    for (int i = 0; i < count; i++) {
+                        int seq = i;
+                        bridge.post("w" + worker + ":" + seq, () -> {
+                            bridge.requireMainThread("stage");
+                            assertThat(Thread.currentThread()).isSameAs(owner);
+                            ran.get(worker).add(seq);
+                            if (failEvery > 0 && seq % failEvery == 0) {
+                                throw new IllegalStateException("boom");
+                            }
+                        });
+                    }
+                }, workers));
+            }
+
+            // Üreticiler çalışırken de boşaltılabilir
+            while (!CompletableFuture.allOf(producers.toArray(CompletableFuture[]::new)).isDone()) {
+                bridge.drain();
+            }
+            producers.forEach(CompletableFuture::join);
+
+            assertThatThrownBy(() -> CompletableFuture.runAsync(bridge::drain, workers).join())
+                .hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> CompletableFuture.runAsync(() -> bridge.requireMainThread("stage"), workers).join())
+                .hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            workers.shutdown();
+            assertThat(workers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        // Boşaltma sırasında eklenen görev bir sonraki tick'e kalır
+        bridge.post("chain", () -> bridge.post("chained", () -> chained[0]++));
+        int pending = bridge.getPending();
+        assertThat(bridge.drain()).isEqualTo(pending);
+        assertThat(bridge.getLastBatchSize()).isEqualTo(pending);
+        assertThat(chained[0]).isZero();
+        assertThat(bridge.getPending()).isEqualTo(1);
+        assertThat(bridge.drain()).isEqualTo(1);
+        assertThat(chained[0]).isEqualTo(1);
+        assertThat(bridge.getPending()).isZero();
+
+        int total = postsPerWorker.stream().mapToInt(Integer::intValue).sum();
+        assertThat(bridge.getTotalRun()).isEqualTo(total + 2L);
+        for (int w = 0; w < postsPerWorker.size(); w++) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < postsPerWorker.get(w); i++) {
+                expected.add(i);
+            }
+            assertThat(ran.get(w)).isEqualTo(expected);
+        }
+    }
+}
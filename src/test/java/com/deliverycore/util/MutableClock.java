@@ -0,0 +1,68 @@
+package com.deliverycore.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Test clock that only moves when told to.
+ * Lets tests fast-forward days of schedule time in microseconds.
+ */
+public final class MutableClock extends Clock {
+    
+    private volatile long millis;
+    private final ZoneId zone;
+    
+    public MutableClock(long startMillis) {
+        this(startMillis, ZoneOffset.UTC);
+    }
+    
+    public MutableClock(long startMillis, ZoneId zone) {
+        this.millis = startMillis;
+        this.zone = zone;
+    }
+    
+    /**
+     * Moves the clock forward.
+     *
+     * @param duration the amount of time to advance
+     */
+    public void advance(Duration duration) {
+        millis += duration.toMillis();
+    }
+    
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+    
+    @Override
+    public long millis() {
+        return millis;
+    }
+    
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+    
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+    
+    /**
+     * Returns a view in another zone that still follows this clock.
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        MutableClock parent = this;
+        return new Clock() {
+            @Override public ZoneId getZone() { return zone; }
+            @Override public Clock withZone(ZoneId other) { return parent.withZone(other); }
+            @Override public Instant instant() { return parent.instant(); }
+            @Override public long millis() { return parent.millis(); }
+        };
+    }
+}
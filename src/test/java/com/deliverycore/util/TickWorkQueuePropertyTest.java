@@ -0,0 +1,132 @@
+package com.deliverycore.util;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for TickWorkQueue.
+ */
+class TickWorkQueuePropertyTest {
+
+    /**
+     * Feature: delivery-core, Property 41: Tick Budget and Priority Order
+     * For any jobs and unit costs, each tick should stop once the budget is
+     * spent (running at least one unit), units should run in priority order
+     * and submission order within a priority, and every unit should run once.
+     */
+    @Property(tries = 100)
+    void tickBudgetAndPriorityOrder(
+            @ForAll("jobs") List<int[]> jobs,
+            @ForAll @IntRange(min = 0, max = 10) int budgetMillis) {
+
+        long[] now = {0L};
+        TickWorkQueue queue = new TickWorkQueue(budgetMillis, () -> now[0]);
+        List<String> ran = new ArrayList<>();
+        List<TickWorkQueue.Job> handles = new ArrayList<>();
+        int totalUnits = 0;
+
+        for (int j = 0; j < jobs.size(); j++) {
+            int[] spec = jobs.get(j);
+            TickWorkQueue.Priority priority = TickWorkQueue.Priority.values()[spec[0]];
+            List<Runnable> units = new ArrayList<>();
+            for (int u = 0; u < spec[1]; u++) {
+                String label = spec[0] + ":" + j + ":" + u;
+                int costMillis = spec[2];
+                units.add(() -> {
+                    ran.add(label);
+                    now[0] += costMillis * 1_000_000L;
+                });
+            }
+            totalUnits += spec[1];
+            handles.add(queue.submit("job" + j, priority, units, null));
+        }
+
+        int ticks = 0;
+        while (queue.getPendingUnits() > 0) {
+            long tickStart = now[0];
+            int before = ran.size();
+            int units = queue.tick();
+            ticks++;
+            assertThat(units).isPositive();
+            assertThat(ran.size() - before).isEqualTo(units);
+            // Son birim hariç hepsi bütçe içinde başlamış olmalı
+            long spentBeforeLast = now[0] - tickStart - lastCost(ran, jobs);
+            assertThat(spentBeforeLast).isLessThan(Math.max(1L, budgetMillis * 1_000_000L));
+            assertThat(ticks).isLessThanOrEqualTo(totalUnits);
+        }
+
+        assertThat(ran).hasSize(totalUnits);
+        List<String> expected = new ArrayList<>();
+        for (int p = 0; p < TickWorkQueue.Priority.values().length; p++) {
+            for (int j = 0; j < jobs.size(); j++) {
+                if (jobs.get(j)[0] != p) continue;
+                for (int u = 0; u < jobs.get(j)[1]; u++) {
+                    expected.add(p + ":" + j + ":" + u);
+                }
+            }
+        }
+        assertThat(ran).isEqualTo(expected);
+        for (TickWorkQueue.Job handle : handles) {
+            assertThat(handle.isDone()).isTrue();
+            assertThat(handle.getProgress()).isEqualTo(1.0);
+        }
+    }
+
+    /**
+     * Feature: delivery-core, Property 41: Tick Budget and Priority Order
+     * Cancelled jobs should stop running and drain should finish the rest.
+     */
+    @Property(tries = 100)
+    void cancelStopsRemainingUnits(
+            @ForAll @IntRange(min = 1, max = 50) int units,
+            @ForAll @IntRange(min = 0, max = 50) int runBeforeCancel) {
+
+        TickWorkQueue queue = new TickWorkQueue(0);
+        int[] cancelledRuns = {0};
+        int[] otherRuns = {0};
+        List<Runnable> cancelled = new ArrayList<>();
+        List<Runnable> other = new ArrayList<>();
+        for (int i = 0; i < units; i++) {
+            cancelled.add(() -> cancelledRuns[0]++);
+            other.add(() -> otherRuns[0]++);
+        }
+        boolean[] completed = {false};
+        TickWorkQueue.Job job = queue.submit("cancel", TickWorkQueue.Priority.HIGH, cancelled, () -> completed[0] = true);
+        queue.submit("other", TickWorkQueue.Priority.LOW, other, null);
+
+        int steps = Math.min(runBeforeCancel, units);
+        for (int i = 0; i < steps; i++) {
+            assertThat(queue.tick()).isEqualTo(1);
+        }
+        job.cancel();
+        queue.drain();
+
+        assertThat(cancelledRuns[0]).isEqualTo(steps);
+        assertThat(job.getCompleted()).isEqualTo(steps);
+        assertThat(completed[0]).isEqualTo(steps == units);
+        assertThat(otherRuns[0]).isEqualTo(units);
+        assertThat(queue.getPendingJobs()).isEmpty();
+    }
+
+    private static long lastCost(List<String> ran, List<int[]> jobs) {
+        if (ran.isEmpty()) return 0L;
+        String last = ran.get(ran.size() - 1);
+        int job = Integer.parseInt(last.split(":")[1]);
+        return jobs.get(job)[2] * 1_000_000L;
+    }
+
+    @Provide
+    Arbitrary<List<int[]>> jobs() {
+        return Combinators.combine(
+            Arbitraries.integers().between(0, 2),
+            Arbitraries.integers().between(0, 20),
+            Arbitraries.integers().between(0, 3)
+        ).as((priority, units, cost) -> new int[]{priority, units, cost})
+            .list().ofMinSize(0).ofMaxSize(8);
+    }
+}
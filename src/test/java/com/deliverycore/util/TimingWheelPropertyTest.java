@@ -0,0 +1,107 @@
+package com.deliverycore.util;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for TimingWheel.
+ */
+class TimingWheelPropertyTest {
+
+    private static final long START = 1_760_000_000_000L;
+
+    /**
+     * Feature: delivery-core, Property 51: Timing Wheel Fires Each Timer Once On Time
+     * For any timers, cancellations and clock steps, every timer that is not
+     * cancelled should fire exactly once, never before its deadline and no
+     * later than the first advance past the tick boundary following it, with
+     * each batch in deadline order; cancelled timers never fire and the
+     * snapshot always lists exactly the pending timers.
+     */
+    @Property(tries = 100)
+    void timingWheelFiresEachTimerOnceOnTime(
+            @ForAll("steps") List<int[]> steps,
+            @ForAll @IntRange(min = 1, max = 50) int tickMillis,
+            @ForAll @IntRange(min = 1, max = 16) int wheelSize) {
+
+        TimingWheel wheel = new TimingWheel(tickMillis, wheelSize, START);
+        long now = START;
+        // İşlenmemiş ilk tick sınırı
+        long nextBoundary = START;
+        List<TimingWheel.Timeout> timers = new ArrayList<>();
+        List<Long> dueAt = new ArrayList<>();
+        Set<Integer> cancelled = new HashSet<>();
+        Set<Integer> fired = new HashSet<>();
+        List<Long> batch = new ArrayList<>();
+
+        for (int[] step : steps) {
+            switch (step[0]) {
+                case 0, 1 -> {
+                    int id = timers.size();
+                    long deadline = now + step[1] - 20;
+                    // Son tarihten sonraki ilk sınır; geçmişse işlenmemiş ilk sınır
+                    long boundary = START + Math.max(0, Math.floorDiv(deadline - START + tickMillis - 1, tickMillis)) * tickMillis;
+                    dueAt.add(Math.max(boundary, nextBoundary));
+                    timers.add(wheel.schedule("t" + id, "start", deadline, () -> {
+                        assertThat(fired.add(id)).isTrue();
+                        batch.add(deadline);
+                    }));
+                }
+                case 2 -> {
+                    if (timers.isEmpty()) break;
+                    int id = step[1] % timers.size();
+                    boolean pending = !fired.contains(id) && !cancelled.contains(id);
+                    assertThat(timers.get(id).cancel()).isEqualTo(pending);
+                    if (pending) cancelled.add(id);
+                }
+                default -> {
+                    now += step[1];
+                    batch.clear();
+                    int firedBefore = fired.size();
+                    int ran = wheel.advanceTo(now);
+                    assertThat(ran).isEqualTo(fired.size() - firedBefore).isEqualTo(batch.size());
+                    assertThat(batch).isSorted();
+                    for (int id = 0; id < timers.size(); id++) {
+                        if (cancelled.contains(id)) {
+                            assertThat(fired).doesNotContain(id);
+                        } else {
+                            // Son tarihten önce değil, sınır geçilince mutlaka
+                            assertThat(fired.contains(id)).isEqualTo(dueAt.get(id) <= now);
+                            if (fired.contains(id)) {
+                                assertThat(timers.get(id).getDeadline()).isLessThanOrEqualTo(now);
+                                assertThat(timers.get(id).isExpired()).isTrue();
+                            }
+                        }
+                    }
+                    nextBoundary = START + (Math.floorDiv(now - START, tickMillis) + 1) * tickMillis;
+                }
+            }
+            assertThat(wheel.size()).isEqualTo(timers.size() - cancelled.size() - fired.size());
+        }
+
+        List<TimingWheel.Fire> snapshot = wheel.snapshot();
+        assertThat(snapshot).hasSize(wheel.size());
+        assertThat(snapshot).extracting(TimingWheel.Fire::deadlineMillis).isSorted();
+        for (TimingWheel.Fire fire : snapshot) {
+            int id = Integer.parseInt(fire.name().substring(1));
+            assertThat(cancelled).doesNotContain(id);
+            assertThat(fired).doesNotContain(id);
+        }
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<List<int[]>> steps() {
+        // {işlem, değer}: 0-1 zamanlayıcı ekle (son tarih = şimdi + değer - 20), 2 iptal, 3 saati ilerlet
+        Arbitrary<int[]> step = Combinators.combine(
+            Arbitraries.integers().between(0, 3),
+            Arbitraries.integers().between(0, 600)
+        ).as((type, value) -> new int[]{type, value});
+        return step.list().ofMaxSize(80);
+    }
+}
@@ -0,0 +1,72 @@
+package com.deliverycore.util;
+
+import com.deliverycore.model.LeaderboardEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares full-sort winner selection with {@link TopKSelector} at 100k participants.
+ * Not picked up by the default surefire includes; run it explicitly with
+ * {@code mvn test -Dtest=TopKSelectorBenchmark}.
+ */
+class TopKSelectorBenchmark {
+    
+    private static final int PARTICIPANTS = 100_000;
+    private static final int WINNERS = 10;
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 50;
+    
+    @Test
+    void compareSelectionStrategies() {
+        Random random = new Random(42);
+        UuidIntMap deliveries = new UuidIntMap(PARTICIPANTS);
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            deliveries.put(new UUID(random.nextLong(), random.nextLong()), random.nextInt(5_000));
+        }
+        Map<UUID, Integer> boxed = new HashMap<>(deliveries.asMap());
+        
+        List<UUID> sortWinners = List.of();
+        List<UUID> heapWinners = List.of();
+        for (int i = 0; i < WARMUP; i++) {
+            sortWinners = sortSelect(boxed);
+            heapWinners = heapSelect(deliveries);
+        }
+        
+        long sortNanos = 0;
+        long heapNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            sortWinners = sortSelect(boxed);
+            sortNanos += System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            heapWinners = heapSelect(deliveries);
+            heapNanos += System.nanoTime() - start;
+        }
+        
+        System.out.printf("[TopK] %d participants, top %d: full sort %.2f ms, heap %.2f ms (%.1fx)%n",
+            PARTICIPANTS, WINNERS,
+            sortNanos / 1e6 / ROUNDS, heapNanos / 1e6 / ROUNDS,
+            (double) sortNanos / Math.max(1, heapNanos));
+        
+        assertThat(heapWinners).isEqualTo(sortWinners);
+    }
+    
+    private static List<UUID> sortSelect(Map<UUID, Integer> deliveries) {
+        return deliveries.entrySet().stream()
+            .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(WINNERS)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+    
+    private static List<UUID> heapSelect(UuidIntMap deliveries) {
+        TopKSelector selector = new TopKSelector(WINNERS);
+        deliveries.forEach(selector);
+        return selector.drain().stream().map(LeaderboardEntry::playerUuid).toList();
+    }
+}
@@ -0,0 +1,57 @@
+package com.deliverycore.util;
+
+import com.deliverycore.model.LeaderboardEntry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for TopKSelector.
+ */
+class TopKSelectorPropertyTest {
+    
+    /**
+     * Feature: delivery-core, Property 32: Top-K Selection Matches Full Sort
+     * For any candidates and any k, the selector should return exactly the first
+     * k entries of the list sorted by score descending and UUID ascending.
+     */
+    @Property(tries = 100)
+    void topKSelectionMatchesFullSort(
+            @ForAll("candidates") Map<UUID, Integer> candidates,
+            @ForAll @IntRange(min = 0, max = 15) int k) {
+        
+        TopKSelector selector = new TopKSelector(k);
+        candidates.forEach(selector::offer);
+        List<LeaderboardEntry> selected = selector.drain();
+        
+        List<Map.Entry<UUID, Integer>> expected = candidates.entrySet().stream()
+            .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(k)
+            .toList();
+        
+        assertThat(selected).hasSize(expected.size());
+        for (int i = 0; i < selected.size(); i++) {
+            assertThat(selected.get(i).playerUuid()).isEqualTo(expected.get(i).getKey());
+            assertThat(selected.get(i).deliveryCount()).isEqualTo(expected.get(i).getValue());
+            assertThat(selected.get(i).position()).isEqualTo(i + 1);
+        }
+        assertThat(selector.size()).isZero();
+    }
+    
+    // ==================== Generators ====================
+    
+    @Provide
+    Arbitrary<Map<UUID, Integer>> candidates() {
+        // narrow score range forces plenty of ties
+        Arbitrary<UUID> uuids = Combinators.combine(
+            Arbitraries.longs(), Arbitraries.longs()
+        ).as(UUID::new);
+        return Arbitraries.maps(uuids, Arbitraries.integers().between(0, 5))
+            .ofMinSize(0)
+            .ofMaxSize(40);
+    }
+}
@@ -0,0 +1,65 @@
+package com.deliverycore.util;
+
+import net.jqwik.api.*;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for UuidIntMap.
+ */
+class UuidIntMapPropertyTest {
+    
+    /**
+     * Feature: delivery-core, Property 31: Primitive Map Equivalence
+     * For any sequence of increments, the primitive map should hold the same
+     * entries as a HashMap merged with Integer::sum, through every read path.
+     */
+    @Property(tries = 100)
+    void primitiveMapEquivalence(@ForAll("increments") List<int[]> increments) {
+        UuidIntMap map = new UuidIntMap();
+        Map<UUID, Integer> expected = new HashMap<>();
+        UUID[] keys = keys(64);
+        
+        for (int[] step : increments) {
+            int updated = map.addTo(keys[step[0]], step[1]);
+            expected.merge(keys[step[0]], step[1], Integer::sum);
+            assertThat(updated).isEqualTo(expected.get(keys[step[0]]));
+        }
+        
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (UUID key : keys) {
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+            assertThat(map.getOrDefault(key, -1)).isEqualTo(expected.getOrDefault(key, -1));
+        }
+        
+        Map<UUID, Integer> iterated = new HashMap<>();
+        map.forEach((msb, lsb, value) -> iterated.put(new UUID(msb, lsb), value));
+        assertThat(iterated).isEqualTo(expected);
+        assertThat(map.asMap()).isEqualTo(expected);
+    }
+    
+    private static UUID[] keys(int count) {
+        Random random = new Random(count);
+        UUID[] keys = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            // first key exercises the all-zero UUID
+            keys[i] = i == 0 ? new UUID(0L, 0L) : new UUID(random.nextLong(), random.nextLong());
+        }
+        return keys;
+    }
+    
+    // ==================== Generators ====================
+    
+    @Provide
+    Arbitrary<List<int[]>> increments() {
+        return Combinators.combine(
+            Arbitraries.integers().between(0, 63),
+            Arbitraries.integers().between(-10, 100)
+        ).as((key, delta) -> new int[]{key, delta})
+            .list()
+            .ofMinSize(0)
+            .ofMaxSize(300);
+    }
+}